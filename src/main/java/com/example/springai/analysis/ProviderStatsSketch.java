@@ -0,0 +1,153 @@
+package com.example.springai.analysis;
+
+import com.example.springai.model.LlmResponse;
+import org.HdrHistogram.Histogram;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+
+/**
+ * Latency, token and length distributions for one provider, model and time bucket. Histograms
+ * keep three significant digits whatever the sample count, so a bucket costs the same memory for
+ * ten responses as for ten million, and buckets merge without losing percentile accuracy.
+ */
+public class ProviderStatsSketch {
+
+    private static final long MAX_LATENCY_MS = TimeUnit.MINUTES.toMillis(10);
+    private static final long MAX_TOKENS = 1_000_000;
+    private static final long MAX_LENGTH = 10_000_000;
+
+    private final Histogram latency;
+    private final Histogram tokens;
+    private final Histogram length;
+    private long count;
+    private long errors;
+    private long tokenSum;
+    private long lengthSum;
+    private boolean dirty;
+
+    public ProviderStatsSketch() {
+        this(new Histogram(MAX_LATENCY_MS, 3), new Histogram(MAX_TOKENS, 3), new Histogram(MAX_LENGTH, 3));
+    }
+
+    private ProviderStatsSketch(Histogram latency, Histogram tokens, Histogram length) {
+        this.latency = latency;
+        this.tokens = tokens;
+        this.length = length;
+    }
+
+    /**
+     * Error responses only count towards the error rate, their timings say nothing about the model.
+     */
+    public synchronized void record(LlmResponse response) {
+        dirty = true;
+        if ("Error".equals(response.getModel())) {
+            errors++;
+            return;
+        }
+        count++;
+        long responseTime = response.getResponseTimeMs() != null ? response.getResponseTimeMs() : 0;
+        latency.recordValue(Math.min(Math.max(responseTime, 0), MAX_LATENCY_MS));
+        if (response.getTokenCount() != null && response.getTokenCount() > 0) {
+            tokens.recordValue(Math.min(response.getTokenCount(), MAX_TOKENS));
+            tokenSum += response.getTokenCount();
+        }
+        int responseLength = response.getResponse() != null ? response.getResponse().length() : 0;
+        length.recordValue(Math.min(responseLength, MAX_LENGTH));
+        lengthSum += responseLength;
+    }
+
+    public synchronized void merge(ProviderStatsSketch other) {
+        synchronized (other) {
+            latency.add(other.latency);
+            tokens.add(other.tokens);
+            length.add(other.length);
+            count += other.count;
+            errors += other.errors;
+            tokenSum += other.tokenSum;
+            lengthSum += other.lengthSum;
+        }
+    }
+
+    public synchronized ProviderStatsSketch copy() {
+        ProviderStatsSketch copy = new ProviderStatsSketch();
+        copy.merge(this);
+        return copy;
+    }
+
+    /**
+     * Returns true if the sketch changed since the last call, and clears the flag.
+     */
+    public synchronized boolean takeDirty() {
+        boolean wasDirty = dirty;
+        dirty = false;
+        return wasDirty;
+    }
+
+    public synchronized boolean isDirty() { return dirty; }
+
+    public synchronized long getCount() { return count; }
+
+    public synchronized long getErrors() { return errors; }
+
+    public synchronized long getTokenSum() { return tokenSum; }
+
+    public synchronized long getLengthSum() { return lengthSum; }
+
+    public synchronized long latencyPercentile(double percentile) {
+        return count > 0 ? latency.getValueAtPercentile(percentile) : 0;
+    }
+
+    public synchronized double latencyMean() {
+        return count > 0 ? latency.getMean() : 0.0;
+    }
+
+    public synchronized long latencyMax() {
+        return count > 0 ? latency.getMaxValue() : 0;
+    }
+
+    public synchronized long tokensPercentile(double percentile) {
+        return tokens.getTotalCount() > 0 ? tokens.getValueAtPercentile(percentile) : 0;
+    }
+
+    public synchronized double tokensMean() {
+        return tokens.getTotalCount() > 0 ? (double) tokenSum / tokens.getTotalCount() : 0.0;
+    }
+
+    public synchronized double lengthMean() {
+        return count > 0 ? (double) lengthSum / count : 0.0;
+    }
+
+    public synchronized byte[] encodeLatency() { return encode(latency); }
+
+    public synchronized byte[] encodeTokens() { return encode(tokens); }
+
+    public synchronized byte[] encodeLength() { return encode(length); }
+
+    private static byte[] encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int size = histogram.encodeIntoCompressedByteBuffer(buffer);
+        byte[] bytes = new byte[size];
+        buffer.flip();
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    public static ProviderStatsSketch decode(byte[] latency, byte[] tokens, byte[] length,
+                                             long count, long errors, long tokenSum, long lengthSum) {
+        try {
+            ProviderStatsSketch sketch = new ProviderStatsSketch(
+                    Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(latency), MAX_LATENCY_MS),
+                    Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(tokens), MAX_TOKENS),
+                    Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(length), MAX_LENGTH));
+            sketch.count = count;
+            sketch.errors = errors;
+            sketch.tokenSum = tokenSum;
+            sketch.lengthSum = lengthSum;
+            return sketch;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt stats histogram: " + e.getMessage(), e);
+        }
+    }
+}
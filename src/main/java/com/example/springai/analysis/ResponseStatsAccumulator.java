@@ -0,0 +1,144 @@
+package com.example.springai.analysis;
+
+import com.example.springai.dto.ComparisonAnalysis;
+import com.example.springai.model.LlmProvider;
+import com.example.springai.model.LlmResponse;
+
+import java.util.Map;
+
+/**
+ * Response time, length and token statistics gathered in a single pass over primitive fields.
+ * Accumulators can be merged, so the same figures roll up from one comparison to a batch or a
+ * whole history. Not thread-safe; confine to one thread or synchronize externally.
+ */
+public class ResponseStatsAccumulator {
+
+    private int count;
+    private int errors;
+
+    private long totalTime;
+    private long minTime = Long.MAX_VALUE;
+    private LlmProvider minTimeProvider;
+    private long maxTime = Long.MIN_VALUE;
+    private LlmProvider maxTimeProvider;
+
+    private long totalLength;
+    private int minLength = Integer.MAX_VALUE;
+    private LlmProvider minLengthProvider;
+    private int maxLength = Integer.MIN_VALUE;
+    private LlmProvider maxLengthProvider;
+
+    // Only responses that reported usage count towards the token average
+    private long tokenSum;
+    private int tokenSamples;
+
+    public ResponseStatsAccumulator add(LlmResponse response) {
+        Long responseTimeMs = response.getResponseTimeMs();
+        long time = responseTimeMs != null ? responseTimeMs : 0;
+        int length = response.getResponse() != null ? response.getResponse().length() : 0;
+        Integer tokenCount = response.getTokenCount();
+
+        count++;
+        if ("Error".equals(response.getModel())) {
+            errors++;
+        }
+        totalTime += time;
+        // Strict comparisons keep the first response on ties
+        if (time < minTime) {
+            minTime = time;
+            minTimeProvider = response.getProvider();
+        }
+        if (time > maxTime) {
+            maxTime = time;
+            maxTimeProvider = response.getProvider();
+        }
+        totalLength += length;
+        if (length < minLength) {
+            minLength = length;
+            minLengthProvider = response.getProvider();
+        }
+        if (length > maxLength) {
+            maxLength = length;
+            maxLengthProvider = response.getProvider();
+        }
+        if (tokenCount != null && tokenCount > 0) {
+            tokenSum += tokenCount;
+            tokenSamples++;
+        }
+        return this;
+    }
+
+    public ResponseStatsAccumulator addAll(Iterable<LlmResponse> responses) {
+        for (LlmResponse response : responses) {
+            add(response);
+        }
+        return this;
+    }
+
+    /**
+     * Folds another accumulator into this one. On ties the extremes already held here win,
+     * matching the order the responses would have been added in.
+     */
+    public ResponseStatsAccumulator merge(ResponseStatsAccumulator other) {
+        count += other.count;
+        errors += other.errors;
+        totalTime += other.totalTime;
+        if (other.minTime < minTime) {
+            minTime = other.minTime;
+            minTimeProvider = other.minTimeProvider;
+        }
+        if (other.maxTime > maxTime) {
+            maxTime = other.maxTime;
+            maxTimeProvider = other.maxTimeProvider;
+        }
+        totalLength += other.totalLength;
+        if (other.minLength < minLength) {
+            minLength = other.minLength;
+            minLengthProvider = other.minLengthProvider;
+        }
+        if (other.maxLength > maxLength) {
+            maxLength = other.maxLength;
+            maxLengthProvider = other.maxLengthProvider;
+        }
+        tokenSum += other.tokenSum;
+        tokenSamples += other.tokenSamples;
+        return this;
+    }
+
+    public ComparisonAnalysis toAnalysis(Map<String, Integer> commonWords) {
+        ComparisonAnalysis analysis = new ComparisonAnalysis();
+        analysis.setTotalResponses(count);
+        analysis.setAverageResponseTime(getAverageResponseTime());
+        analysis.setFastestProvider(displayName(minTimeProvider));
+        analysis.setFastestTime(getMinResponseTime());
+        analysis.setSlowestProvider(displayName(maxTimeProvider));
+        analysis.setSlowestTime(getMaxResponseTime());
+        analysis.setAverageResponseLength(getAverageResponseLength());
+        analysis.setShortestProvider(displayName(minLengthProvider));
+        analysis.setShortestLength(count > 0 ? minLength : 0);
+        analysis.setLongestProvider(displayName(maxLengthProvider));
+        analysis.setLongestLength(count > 0 ? maxLength : 0);
+        analysis.setAverageTokens(tokenSamples > 0 ? (double) tokenSum / tokenSamples : 0.0);
+        analysis.setCommonWords(commonWords);
+        return analysis;
+    }
+
+    private static String displayName(LlmProvider provider) {
+        return provider != null ? provider.getDisplayName() : "N/A";
+    }
+
+    // Getters
+    public int getCount() { return count; }
+
+    public int getErrors() { return errors; }
+
+    public double getAverageResponseTime() { return count > 0 ? (double) totalTime / count : 0.0; }
+
+    public long getMinResponseTime() { return count > 0 ? minTime : 0; }
+
+    public long getMaxResponseTime() { return count > 0 ? maxTime : 0; }
+
+    public double getAverageResponseLength() { return count > 0 ? (double) totalLength / count : 0.0; }
+
+    public long getTotalTokens() { return tokenSum; }
+}
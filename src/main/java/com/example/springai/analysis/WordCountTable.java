@@ -0,0 +1,124 @@
+package com.example.springai.analysis;
+
+/**
+ * Open-addressing table from a 64-bit word hash to its count, with linear probing and no boxing.
+ * Each slot also remembers where the word first appeared, so its text only has to be built for
+ * the words that make it into the result.
+ */
+final class WordCountTable {
+
+    // Hash 0 marks an empty slot, real hashes of 0 are remapped on the way in
+    private static final long EMPTY = 0L;
+
+    private long[] keys;
+    private int[] counts;
+    private int[] textIndex;
+    private int[] start;
+    private int[] end;
+    private int[] firstSeen;
+    private int size;
+    private int mask;
+
+    WordCountTable(int expectedWords) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedWords * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        counts = new int[capacity];
+        textIndex = new int[capacity];
+        start = new int[capacity];
+        end = new int[capacity];
+        firstSeen = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    static long normalize(long hash) {
+        return hash == EMPTY ? 1L : hash;
+    }
+
+    void increment(long hash, int text, int wordStart, int wordEnd) {
+        long key = normalize(hash);
+        int slot = slotOf(key);
+        if (keys[slot] == key) {
+            counts[slot]++;
+            return;
+        }
+        keys[slot] = key;
+        counts[slot] = 1;
+        textIndex[slot] = text;
+        start[slot] = wordStart;
+        end[slot] = wordEnd;
+        firstSeen[slot] = size++;
+        // Keep the load factor at or below one half
+        if (size * 2 > keys.length) {
+            grow();
+        }
+    }
+
+    void add(long hash) {
+        increment(hash, -1, 0, 0);
+    }
+
+    boolean contains(long hash) {
+        long key = normalize(hash);
+        return keys[slotOf(key)] == key;
+    }
+
+    private int slotOf(long key) {
+        int slot = (int) mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        int[] oldText = textIndex;
+        int[] oldStart = start;
+        int[] oldEnd = end;
+        int[] oldFirstSeen = firstSeen;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY) {
+                continue;
+            }
+            int slot = slotOf(oldKeys[i]);
+            keys[slot] = oldKeys[i];
+            counts[slot] = oldCounts[i];
+            textIndex[slot] = oldText[i];
+            start[slot] = oldStart[i];
+            end[slot] = oldEnd[i];
+            firstSeen[slot] = oldFirstSeen[i];
+        }
+    }
+
+    /**
+     * Finalizer from MurmurHash3, spreads FNV hashes whose low bits cluster.
+     */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    int capacity() { return keys.length; }
+
+    boolean occupied(int slot) { return keys[slot] != EMPTY; }
+
+    int count(int slot) { return counts[slot]; }
+
+    int textIndex(int slot) { return textIndex[slot]; }
+
+    int start(int slot) { return start[slot]; }
+
+    int end(int slot) { return end[slot]; }
+
+    int firstSeen(int slot) { return firstSeen[slot]; }
+}
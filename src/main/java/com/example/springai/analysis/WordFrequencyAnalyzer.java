@@ -0,0 +1,207 @@
+package com.example.springai.analysis;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Most frequent words across a set of texts. Words are runs of Unicode letters (and combining
+ * marks) split on whitespace; other characters inside a run are skipped, so "don't" counts as
+ * "dont" as before. Texts are scanned in place: each word is hashed while it is read and counted
+ * by hash, and only the top-k words are ever turned into Strings. Two different words would have
+ * to collide on a 64-bit hash to be merged.
+ */
+@Component
+public class WordFrequencyAnalyzer {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final int topK;
+    private final int minWordLength;
+    private final WordCountTable stopWords;
+
+    public WordFrequencyAnalyzer(@Value("${llm.analysis.common-words.top-k:10}") int topK,
+                                 @Value("${llm.analysis.common-words.min-word-length:4}") int minWordLength,
+                                 @Value("${llm.analysis.common-words.stop-words:}") List<String> stopWords) {
+        this.topK = topK;
+        this.minWordLength = minWordLength;
+        this.stopWords = new WordCountTable(stopWords.size());
+        for (String stopWord : stopWords) {
+            long hash = hashWord(stopWord);
+            if (hash != FNV_OFFSET) {
+                this.stopWords.add(hash);
+            }
+        }
+    }
+
+    public Map<String, Integer> topWords(List<? extends CharSequence> texts) {
+        int totalLength = 0;
+        for (CharSequence text : texts) {
+            totalLength += text != null ? text.length() : 0;
+        }
+        // Rough vocabulary guess, the table grows if it is short
+        WordCountTable counts = new WordCountTable(Math.min(1 << 16, totalLength / 16 + 16));
+
+        for (int t = 0; t < texts.size(); t++) {
+            CharSequence text = texts.get(t);
+            if (text != null) {
+                countWords(text, t, counts);
+            }
+        }
+        return selectTop(texts, counts);
+    }
+
+    private void countWords(CharSequence text, int textIndex, WordCountTable counts) {
+        long hash = FNV_OFFSET;
+        int letters = 0;
+        int wordStart = -1;
+        int wordEnd = -1;
+
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            int codePoint = Character.codePointAt(text, i);
+            int next = i + Character.charCount(codePoint);
+            if (Character.isWhitespace(codePoint)) {
+                if (letters >= minWordLength && !stopWords.contains(hash)) {
+                    counts.increment(hash, textIndex, wordStart, wordEnd);
+                }
+                hash = FNV_OFFSET;
+                letters = 0;
+                wordStart = -1;
+            } else if (isWordChar(codePoint)) {
+                if (wordStart < 0) {
+                    wordStart = i;
+                }
+                wordEnd = next;
+                hash = (hash ^ Character.toLowerCase(codePoint)) * FNV_PRIME;
+                letters++;
+            }
+            i = next;
+        }
+        if (letters >= minWordLength && !stopWords.contains(hash)) {
+            counts.increment(hash, textIndex, wordStart, wordEnd);
+        }
+    }
+
+    /** Letters plus combining marks, which carry the vowel signs of Indic and other scripts. */
+    private static boolean isWordChar(int codePoint) {
+        if (Character.isLetter(codePoint)) {
+            return true;
+        }
+        int type = Character.getType(codePoint);
+        return type == Character.NON_SPACING_MARK
+                || type == Character.COMBINING_SPACING_MARK
+                || type == Character.ENCLOSING_MARK;
+    }
+
+    private static long hashWord(String word) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < word.length(); ) {
+            int codePoint = word.codePointAt(i);
+            if (isWordChar(codePoint)) {
+                hash = (hash ^ Character.toLowerCase(codePoint)) * FNV_PRIME;
+            }
+            i += Character.charCount(codePoint);
+        }
+        return hash;
+    }
+
+    /**
+     * Bounded min-heap of table slots: the weakest of the current top-k sits at the root and is
+     * replaced whenever a stronger word turns up.
+     */
+    private Map<String, Integer> selectTop(List<? extends CharSequence> texts, WordCountTable counts) {
+        int[] heap = new int[topK];
+        int heapSize = 0;
+        for (int slot = 0; slot < counts.capacity(); slot++) {
+            if (!counts.occupied(slot)) {
+                continue;
+            }
+            if (heapSize < topK) {
+                heap[heapSize] = slot;
+                siftUp(heap, heapSize++, counts);
+            } else if (topK > 0 && stronger(slot, heap[0], counts)) {
+                heap[0] = slot;
+                siftDown(heap, heapSize, counts);
+            }
+        }
+
+        Integer[] ranked = new Integer[heapSize];
+        for (int i = 0; i < heapSize; i++) {
+            ranked[i] = heap[i];
+        }
+        Arrays.sort(ranked, (a, b) -> a.equals(b) ? 0 : stronger(a, b, counts) ? -1 : 1);
+
+        Map<String, Integer> top = new LinkedHashMap<>();
+        for (int slot : ranked) {
+            top.put(wordText(texts.get(counts.textIndex(slot)), counts.start(slot), counts.end(slot)),
+                    counts.count(slot));
+        }
+        return top;
+    }
+
+    /**
+     * Higher count wins, ties go to the word seen first.
+     */
+    private static boolean stronger(int a, int b, WordCountTable counts) {
+        if (counts.count(a) != counts.count(b)) {
+            return counts.count(a) > counts.count(b);
+        }
+        return counts.firstSeen(a) < counts.firstSeen(b);
+    }
+
+    private static void siftUp(int[] heap, int index, WordCountTable counts) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!stronger(heap[parent], heap[index], counts)) {
+                break;
+            }
+            swap(heap, parent, index);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int size, WordCountTable counts) {
+        int index = 0;
+        while (true) {
+            int weakest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && stronger(heap[weakest], heap[left], counts)) {
+                weakest = left;
+            }
+            if (right < size && stronger(heap[weakest], heap[right], counts)) {
+                weakest = right;
+            }
+            if (weakest == index) {
+                return;
+            }
+            swap(heap, index, weakest);
+            index = weakest;
+        }
+    }
+
+    private static void swap(int[] heap, int a, int b) {
+        int tmp = heap[a];
+        heap[a] = heap[b];
+        heap[b] = tmp;
+    }
+
+    private static String wordText(CharSequence text, int start, int end) {
+        StringBuilder word = new StringBuilder(end - start);
+        for (int i = start; i < end; ) {
+            int codePoint = Character.codePointAt(text, i);
+            if (isWordChar(codePoint)) {
+                word.appendCodePoint(Character.toLowerCase(codePoint));
+            }
+            i += Character.charCount(codePoint);
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.springai.archive;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Rows to read from an archive. Every part is optional; from is inclusive and to exclusive, as in
+ * the export query. Blocks that cannot match are skipped using the footer alone.
+ */
+public record ArchiveFilter(String sessionId, LocalDateTime from, LocalDateTime to, Set<Long> ids) {
+
+    public static ArchiveFilter all() {
+        return new ArchiveFilter(null, null, null, null);
+    }
+
+    public static ArchiveFilter forSession(String sessionId) {
+        return new ArchiveFilter(sessionId, null, null, null);
+    }
+
+    public static ArchiveFilter forIds(Set<Long> ids) {
+        return new ArchiveFilter(null, null, null, ids);
+    }
+
+    boolean matches(long id, long createdAtMicros, String rowSessionId) {
+        if (ids != null && !ids.contains(id)) {
+            return false;
+        }
+        if (from != null && createdAtMicros < ArchiveIndex.toMicros(from)) {
+            return false;
+        }
+        if (to != null && createdAtMicros >= ArchiveIndex.toMicros(to)) {
+            return false;
+        }
+        return sessionId == null || sessionId.equals(rowSessionId);
+    }
+
+    boolean mayMatch(ArchiveIndex.Block block) {
+        if (from != null && block.maxCreatedAt() < ArchiveIndex.toMicros(from)) {
+            return false;
+        }
+        if (to != null && block.minCreatedAt() >= ArchiveIndex.toMicros(to)) {
+            return false;
+        }
+        if (ids != null && ids.stream().noneMatch(id -> id >= block.minId() && id <= block.maxId())) {
+            return false;
+        }
+        return sessionId == null || block.sessions().mightContain(sessionId);
+    }
+}
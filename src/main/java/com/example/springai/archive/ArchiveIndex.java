@@ -0,0 +1,67 @@
+package com.example.springai.archive;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Footer of an archive file: where each block starts, the ID and time range it covers, a bloom
+ * filter of its sessions and the size of each of its columns. Small enough to keep in memory per
+ * file, and all that is needed to decide which blocks a query has to open.
+ */
+public final class ArchiveIndex {
+
+    private final List<Block> blocks;
+
+    ArchiveIndex(List<Block> blocks) {
+        this.blocks = List.copyOf(blocks);
+    }
+
+    List<Block> blocks() { return blocks; }
+
+    public long getRowCount() {
+        return blocks.stream().mapToLong(Block::rows).sum();
+    }
+
+    public long getMinId() {
+        return blocks.stream().mapToLong(Block::minId).min().orElse(0);
+    }
+
+    public long getMaxId() {
+        return blocks.stream().mapToLong(Block::maxId).max().orElse(0);
+    }
+
+    public LocalDateTime getMinCreatedAt() {
+        return blocks.isEmpty() ? null : fromMicros(blocks.get(0).minCreatedAt());
+    }
+
+    public LocalDateTime getMaxCreatedAt() {
+        return blocks.isEmpty() ? null : fromMicros(blocks.get(blocks.size() - 1).maxCreatedAt());
+    }
+
+    // Timestamps are stored as microseconds since the epoch, read as if they were UTC
+    static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    /**
+     * @param compressedLengths bytes of each column on disk, columns follow each other from offset
+     * @param rawLengths        bytes of each column once decompressed
+     */
+    record Block(long offset, int rows, long minId, long maxId, long minCreatedAt, long maxCreatedAt,
+                 SessionBloomFilter sessions, int[] compressedLengths, int[] rawLengths) {
+
+        long columnOffset(int column) {
+            long position = offset;
+            for (int i = 0; i < column; i++) {
+                position += compressedLengths[i];
+            }
+            return position;
+        }
+    }
+}
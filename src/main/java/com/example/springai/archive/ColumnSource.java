@@ -0,0 +1,54 @@
+package com.example.springai.archive;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads back what a {@link ColumnBuffer} wrote.
+ */
+final class ColumnSource {
+
+    private final byte[] bytes;
+    private int position;
+
+    ColumnSource(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    int readByte() {
+        return bytes[position++];
+    }
+
+    long readVarLong() {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = bytes[position++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    long readSignedVarLong() {
+        long raw = readVarLong();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    String readString() {
+        int length = (int) readVarLong() - 1;
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    void skipString() {
+        int length = (int) readVarLong() - 1;
+        if (length > 0) {
+            position += length;
+        }
+    }
+}
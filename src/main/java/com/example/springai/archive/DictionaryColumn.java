@@ -0,0 +1,66 @@
+package com.example.springai.archive;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionary-encoded string column: each distinct value is stored once per block and rows hold
+ * its index, so repetitive columns such as provider, model, session and prompt cost a byte or two
+ * per row before compression.
+ *
+ * <pre>
+ * varint distinct, string[distinct], varint index[rows] (index + 1, 0 for null)
+ * </pre>
+ */
+final class DictionaryColumn {
+
+    private final Map<String, Integer> indexes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+    private final ColumnBuffer rows = new ColumnBuffer(1024);
+
+    void add(String value) {
+        if (value == null) {
+            rows.writeVarLong(0);
+            return;
+        }
+        Integer index = indexes.get(value);
+        if (index == null) {
+            index = values.size();
+            indexes.put(value, index);
+            values.add(value);
+        }
+        rows.writeVarLong(index + 1L);
+    }
+
+    void encodeTo(ColumnBuffer out) {
+        out.writeVarLong(values.size());
+        for (String value : values) {
+            out.writeString(value);
+        }
+        out.writeBuffer(rows);
+    }
+
+    void clear() {
+        indexes.clear();
+        values.clear();
+        rows.clear();
+    }
+
+    /**
+     * Decodes a whole column into one entry per row; rows with the same value share the instance.
+     */
+    static String[] decode(ColumnSource source, int rowCount) {
+        String[] dictionary = new String[(int) source.readVarLong()];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = source.readString();
+        }
+        String[] decoded = new String[rowCount];
+        for (int row = 0; row < rowCount; row++) {
+            int index = (int) source.readVarLong();
+            decoded[row] = index == 0 ? null : dictionary[index - 1];
+        }
+        return decoded;
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.springai.archive;
+
+import com.example.springai.model.LlmProvider;
+import com.example.springai.model.LlmResponse;
+import com.github.luben.zstd.Zstd;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Reads files written by {@link ResponseArchiveWriter}. A scan first prunes blocks on the footer,
+ * then decodes the ID, timestamp and session columns of the remaining blocks to find matching
+ * rows, and only decompresses the text columns of blocks that actually have a match.
+ */
+public final class ResponseArchiveReader {
+
+    private static final int TRAILER_LENGTH = Long.BYTES + Integer.BYTES;
+
+    private ResponseArchiveReader() {
+    }
+
+    public static ArchiveIndex readIndex(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 8 + TRAILER_LENGTH) {
+                throw new IOException("Not an archive file: " + file);
+            }
+            ByteBuffer header = read(channel, 0, 8);
+            ByteBuffer trailer = read(channel, size - TRAILER_LENGTH, TRAILER_LENGTH);
+            long footerOffset = trailer.getLong();
+            if (header.getInt() != ResponseArchiveWriter.MAGIC || trailer.getInt() != ResponseArchiveWriter.MAGIC) {
+                throw new IOException("Not an archive file or incomplete: " + file);
+            }
+            int version = header.getInt();
+            if (version != ResponseArchiveWriter.VERSION) {
+                throw new IOException("Unsupported archive version " + version + ": " + file);
+            }
+
+            ByteBuffer footer = read(channel, footerOffset, (int) (size - TRAILER_LENGTH - footerOffset));
+            int blockCount = footer.getInt();
+            List<ArchiveIndex.Block> blocks = new ArrayList<>(blockCount);
+            for (int b = 0; b < blockCount; b++) {
+                long offset = footer.getLong();
+                int rows = footer.getInt();
+                long minId = footer.getLong();
+                long maxId = footer.getLong();
+                long minCreatedAt = footer.getLong();
+                long maxCreatedAt = footer.getLong();
+                long[] bloom = new long[footer.getInt()];
+                for (int i = 0; i < bloom.length; i++) {
+                    bloom[i] = footer.getLong();
+                }
+                int[] compressedLengths = new int[ResponseArchiveWriter.COLUMNS];
+                int[] rawLengths = new int[ResponseArchiveWriter.COLUMNS];
+                for (int i = 0; i < compressedLengths.length; i++) {
+                    compressedLengths[i] = footer.getInt();
+                }
+                for (int i = 0; i < rawLengths.length; i++) {
+                    rawLengths[i] = footer.getInt();
+                }
+                blocks.add(new ArchiveIndex.Block(offset, rows, minId, maxId, minCreatedAt, maxCreatedAt,
+                        SessionBloomFilter.of(bloom), compressedLengths, rawLengths));
+            }
+            return new ArchiveIndex(blocks);
+        }
+    }
+
+    /**
+     * Hands the matching rows to the consumer in (createdAt, id) order, or the reverse when
+     * newestFirst is set, until it returns false.
+     *
+     * @return false if the consumer stopped the scan
+     */
+    public static boolean scan(Path file, ArchiveIndex index, ArchiveFilter filter, boolean newestFirst,
+                               Predicate<LlmResponse> consumer) throws IOException {
+        List<ArchiveIndex.Block> blocks = index.blocks();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (int i = 0; i < blocks.size(); i++) {
+                ArchiveIndex.Block block = blocks.get(newestFirst ? blocks.size() - 1 - i : i);
+                if (filter.mayMatch(block) && !scanBlock(channel, block, filter, newestFirst, consumer)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean scanBlock(FileChannel channel, ArchiveIndex.Block block, ArchiveFilter filter,
+                                     boolean newestFirst, Predicate<LlmResponse> consumer) throws IOException {
+        int rows = block.rows();
+        long[] ids = new long[rows];
+        long[] createdAt = new long[rows];
+        ColumnSource idSource = column(channel, block, ResponseArchiveWriter.COL_ID);
+        ColumnSource createdAtSource = column(channel, block, ResponseArchiveWriter.COL_CREATED_AT);
+        long id = 0;
+        long micros = 0;
+        for (int row = 0; row < rows; row++) {
+            id += idSource.readSignedVarLong();
+            micros += createdAtSource.readSignedVarLong();
+            ids[row] = id;
+            createdAt[row] = micros;
+        }
+        String[] sessions = DictionaryColumn.decode(
+                column(channel, block, ResponseArchiveWriter.COL_SESSION), rows);
+
+        boolean[] matches = new boolean[rows];
+        int matched = 0;
+        for (int row = 0; row < rows; row++) {
+            if (filter.matches(ids[row], createdAt[row], sessions[row])) {
+                matches[row] = true;
+                matched++;
+            }
+        }
+        if (matched == 0) {
+            return true;
+        }
+
+        String[] providers = DictionaryColumn.decode(
+                column(channel, block, ResponseArchiveWriter.COL_PROVIDER), rows);
+        String[] models = DictionaryColumn.decode(column(channel, block, ResponseArchiveWriter.COL_MODEL), rows);
+        String[] prompts = DictionaryColumn.decode(column(channel, block, ResponseArchiveWriter.COL_PROMPT), rows);
+        String[] requestHashes = DictionaryColumn.decode(
+                column(channel, block, ResponseArchiveWriter.COL_REQUEST_HASH), rows);
+        ColumnSource responseSource = column(channel, block, ResponseArchiveWriter.COL_RESPONSE);
+        ColumnSource responseTimeSource = column(channel, block, ResponseArchiveWriter.COL_RESPONSE_TIME);
+        ColumnSource tokenCountSource = column(channel, block, ResponseArchiveWriter.COL_TOKEN_COUNT);
+        ColumnSource cacheHitSource = column(channel, block, ResponseArchiveWriter.COL_CACHE_HIT);
+
+        // Variable-length columns can only be read forwards, rows are materialized before a reverse walk
+        LlmResponse[] decoded = new LlmResponse[rows];
+        for (int row = 0; row < rows; row++) {
+            if (!matches[row]) {
+                responseSource.skipString();
+                ResponseArchiveWriter.readNullable(responseTimeSource);
+                ResponseArchiveWriter.readNullable(tokenCountSource);
+                cacheHitSource.readByte();
+                continue;
+            }
+            LlmResponse response = new LlmResponse();
+            response.setId(ids[row]);
+            response.setCreatedAt(ArchiveIndex.fromMicros(createdAt[row]));
+            response.setSessionId(sessions[row]);
+            response.setProvider(providers[row] != null ? LlmProvider.valueOf(providers[row]) : null);
+            response.setModel(models[row]);
+            response.setPrompt(prompts[row]);
+            response.setRequestHash(requestHashes[row]);
+            response.setResponse(responseSource.readString());
+            response.setResponseTimeMs(ResponseArchiveWriter.readNullable(responseTimeSource));
+            Long tokenCount = ResponseArchiveWriter.readNullable(tokenCountSource);
+            response.setTokenCount(tokenCount != null ? tokenCount.intValue() : null);
+            response.setCacheHit(cacheHitSource.readByte() != 0);
+            decoded[row] = response;
+        }
+
+        for (int i = 0; i < rows; i++) {
+            LlmResponse response = decoded[newestFirst ? rows - 1 - i : i];
+            if (response != null && !consumer.test(response)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ColumnSource column(FileChannel channel, ArchiveIndex.Block block, int column)
+            throws IOException {
+        ByteBuffer compressed = read(channel, block.columnOffset(column), block.compressedLengths()[column]);
+        return new ColumnSource(Zstd.decompress(compressed.array(), block.rawLengths()[column]));
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Archive file truncated at " + (position + buffer.position()));
+            }
+        }
+        return buffer.flip();
+    }
+}
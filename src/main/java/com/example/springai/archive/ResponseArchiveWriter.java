@@ -0,0 +1,247 @@
+package com.example.springai.archive;
+
+import com.example.springai.model.LlmResponse;
+import com.github.luben.zstd.Zstd;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes responses into the archive format: rows are grouped into blocks and each block stores
+ * every field as its own zstd-compressed column, so a reader only decompresses the columns it
+ * needs and similar values compress together.
+ *
+ * <pre>
+ * header:  int magic, int version
+ * block:   column[COLUMNS], each compressed on its own
+ * footer:  int blocks, then per block: long offset, int rows, long minId, long maxId,
+ *          long minCreatedAt, long maxCreatedAt, int bloomWords, long[bloomWords],
+ *          int[COLUMNS] compressed lengths, int[COLUMNS] raw lengths
+ * trailer: long footerOffset, int magic
+ * </pre>
+ *
+ * IDs and timestamps are delta encoded, session, provider, model, prompt and request hash are
+ * dictionary encoded per block. Rows must be appended in (createdAt, id) order, which is what
+ * lets readers page through a file in either direction without sorting.
+ */
+public final class ResponseArchiveWriter implements Closeable {
+
+    static final int MAGIC = 0x4C4C4D41; // "LLMA"
+    static final int VERSION = 1;
+
+    static final int COL_ID = 0;
+    static final int COL_CREATED_AT = 1;
+    static final int COL_SESSION = 2;
+    static final int COL_PROVIDER = 3;
+    static final int COL_MODEL = 4;
+    static final int COL_PROMPT = 5;
+    static final int COL_REQUEST_HASH = 6;
+    static final int COL_RESPONSE = 7;
+    static final int COL_RESPONSE_TIME = 8;
+    static final int COL_TOKEN_COUNT = 9;
+    static final int COL_CACHE_HIT = 10;
+    static final int COLUMNS = 11;
+
+    // Raw response text per block before it is cut early, bounds the memory a reader needs per block
+    private static final int MAX_BLOCK_BYTES = 8 * 1024 * 1024;
+
+    private final DataOutputStream out;
+    private final int blockRows;
+    private final int compressionLevel;
+    private final List<ArchiveIndex.Block> blocks = new ArrayList<>();
+    private long position;
+
+    private final ColumnBuffer ids = new ColumnBuffer(16 * 1024);
+    private final ColumnBuffer createdAt = new ColumnBuffer(16 * 1024);
+    private final DictionaryColumn sessions = new DictionaryColumn();
+    private final DictionaryColumn providers = new DictionaryColumn();
+    private final DictionaryColumn models = new DictionaryColumn();
+    private final DictionaryColumn prompts = new DictionaryColumn();
+    private final DictionaryColumn requestHashes = new DictionaryColumn();
+    private final ColumnBuffer responses = new ColumnBuffer(1024 * 1024);
+    private final ColumnBuffer responseTimes = new ColumnBuffer(8 * 1024);
+    private final ColumnBuffer tokenCounts = new ColumnBuffer(8 * 1024);
+    private final ColumnBuffer cacheHits = new ColumnBuffer(4 * 1024);
+    private final Set<String> blockSessions = new HashSet<>();
+
+    private int rows;
+    private long previousId;
+    private long previousMicros;
+    private long minId;
+    private long maxId;
+    private long minMicros;
+    private long maxMicros;
+
+    public ResponseArchiveWriter(Path file, int blockRows, int compressionLevel) throws IOException {
+        if (blockRows < 1) {
+            throw new IllegalArgumentException("blockRows must be at least 1");
+        }
+        this.blockRows = blockRows;
+        this.compressionLevel = compressionLevel;
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 256 * 1024));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        position = 8;
+    }
+
+    public void append(LlmResponse response) throws IOException {
+        if (response.getId() == null || response.getCreatedAt() == null) {
+            throw new IllegalArgumentException("Only persisted responses can be archived");
+        }
+        long id = response.getId();
+        long micros = ArchiveIndex.toMicros(response.getCreatedAt());
+        if (rows > 0 && (micros < previousMicros || (micros == previousMicros && id <= previousId))) {
+            throw new IllegalArgumentException("Responses must be appended in (createdAt, id) order");
+        }
+        if (rows == 0) {
+            minId = id;
+            maxId = id;
+            minMicros = micros;
+        }
+
+        ids.writeSignedVarLong(id - (rows == 0 ? 0 : previousId));
+        createdAt.writeSignedVarLong(micros - (rows == 0 ? 0 : previousMicros));
+        sessions.add(response.getSessionId());
+        providers.add(response.getProvider() != null ? response.getProvider().name() : null);
+        models.add(response.getModel());
+        prompts.add(response.getPrompt());
+        requestHashes.add(response.getRequestHash());
+        responses.writeString(response.getResponse());
+        writeNullable(responseTimes, response.getResponseTimeMs());
+        writeNullable(tokenCounts, response.getTokenCount() != null ? response.getTokenCount().longValue() : null);
+        cacheHits.writeByte(response.isCacheHit() ? 1 : 0);
+        if (response.getSessionId() != null) {
+            blockSessions.add(response.getSessionId());
+        }
+
+        previousId = id;
+        previousMicros = micros;
+        minId = Math.min(minId, id);
+        maxId = Math.max(maxId, id);
+        maxMicros = micros;
+        if (++rows == blockRows || responses.size() >= MAX_BLOCK_BYTES) {
+            flushBlock();
+        }
+    }
+
+    /**
+     * Writes the last block and the footer. The file is complete once this returns.
+     */
+    public ArchiveIndex finish() throws IOException {
+        if (rows > 0) {
+            flushBlock();
+        }
+        long footerOffset = position;
+        out.writeInt(blocks.size());
+        for (ArchiveIndex.Block block : blocks) {
+            out.writeLong(block.offset());
+            out.writeInt(block.rows());
+            out.writeLong(block.minId());
+            out.writeLong(block.maxId());
+            out.writeLong(block.minCreatedAt());
+            out.writeLong(block.maxCreatedAt());
+            long[] bloom = block.sessions().bits();
+            out.writeInt(bloom.length);
+            for (long word : bloom) {
+                out.writeLong(word);
+            }
+            for (int length : block.compressedLengths()) {
+                out.writeInt(length);
+            }
+            for (int length : block.rawLengths()) {
+                out.writeInt(length);
+            }
+        }
+        out.writeLong(footerOffset);
+        out.writeInt(MAGIC);
+        out.flush();
+        return new ArchiveIndex(blocks);
+    }
+
+    private void flushBlock() throws IOException {
+        ColumnBuffer[] columns = new ColumnBuffer[COLUMNS];
+        columns[COL_ID] = ids;
+        columns[COL_CREATED_AT] = createdAt;
+        columns[COL_SESSION] = encode(sessions);
+        columns[COL_PROVIDER] = encode(providers);
+        columns[COL_MODEL] = encode(models);
+        columns[COL_PROMPT] = encode(prompts);
+        columns[COL_REQUEST_HASH] = encode(requestHashes);
+        columns[COL_RESPONSE] = responses;
+        columns[COL_RESPONSE_TIME] = responseTimes;
+        columns[COL_TOKEN_COUNT] = tokenCounts;
+        columns[COL_CACHE_HIT] = cacheHits;
+
+        long offset = position;
+        int[] compressedLengths = new int[COLUMNS];
+        int[] rawLengths = new int[COLUMNS];
+        for (int i = 0; i < COLUMNS; i++) {
+            byte[] raw = Arrays.copyOf(columns[i].array(), columns[i].size());
+            byte[] compressed = Zstd.compress(raw, compressionLevel);
+            out.write(compressed);
+            position += compressed.length;
+            compressedLengths[i] = compressed.length;
+            rawLengths[i] = raw.length;
+        }
+
+        SessionBloomFilter bloom = new SessionBloomFilter(blockSessions.size());
+        blockSessions.forEach(bloom::add);
+        blocks.add(new ArchiveIndex.Block(offset, rows, minId, maxId, minMicros, maxMicros, bloom,
+                compressedLengths, rawLengths));
+
+        rows = 0;
+        ids.clear();
+        createdAt.clear();
+        sessions.clear();
+        providers.clear();
+        models.clear();
+        prompts.clear();
+        requestHashes.clear();
+        responses.clear();
+        responseTimes.clear();
+        tokenCounts.clear();
+        cacheHits.clear();
+        blockSessions.clear();
+    }
+
+    private static ColumnBuffer encode(DictionaryColumn column) {
+        ColumnBuffer encoded = new ColumnBuffer(4 * 1024);
+        column.encodeTo(encoded);
+        return encoded;
+    }
+
+    // Zigzag value + 1, 0 for null
+    private static void writeNullable(ColumnBuffer column, Long value) {
+        if (value == null) {
+            column.writeVarLong(0);
+        } else {
+            column.writeVarLong(((value << 1) ^ (value >> 63)) + 1);
+        }
+    }
+
+    static Long readNullable(ColumnSource source) {
+        long raw = source.readVarLong();
+        if (raw == 0) {
+            return null;
+        }
+        raw -= 1;
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    /**
+     * Closes the file. Without a prior {@link #finish()} it is left incomplete and unreadable.
+     */
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
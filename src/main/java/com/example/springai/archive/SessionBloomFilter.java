@@ -0,0 +1,70 @@
+package com.example.springai.archive;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Bloom filter over the session IDs of one block, about 1% false positives at ten bits per
+ * session. Lets a session lookup skip every block that cannot contain it without decompressing
+ * anything.
+ */
+final class SessionBloomFilter {
+
+    private static final int HASHES = 7;
+    private static final int BITS_PER_ENTRY = 10;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final long[] bits;
+
+    SessionBloomFilter(int expectedEntries) {
+        this(new long[Math.max(1, (expectedEntries * BITS_PER_ENTRY + 63) / 64)]);
+    }
+
+    private SessionBloomFilter(long[] bits) {
+        this.bits = bits;
+    }
+
+    static SessionBloomFilter of(long[] bits) {
+        return new SessionBloomFilter(bits);
+    }
+
+    void add(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long size = bits.length * 64L;
+        for (int i = 0; i < HASHES; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % size;
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    boolean mightContain(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long size = bits.length * 64L;
+        for (int i = 0; i < HASHES; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % size;
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long[] bits() { return bits; }
+
+    private static long hash(String value) {
+        long hash = FNV_OFFSET;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xFF)) * FNV_PRIME;
+        }
+        // Finalizer from MurmurHash3 so both halves are usable as independent hashes
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.springai.config;
+
+/**
+ * How ComparisonServiceImpl fans out the per-provider calls.
+ */
+public enum ExecutionMode {
+    /** Non-blocking WebClient exchanges, no thread is held while a provider responds. */
+    REACTIVE,
+    /** Blocking LlmClientService calls, one task per provider on the provider call executor. */
+    BLOCKING
+}
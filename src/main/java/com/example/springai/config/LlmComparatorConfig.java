@@ -1,16 +1,204 @@
 package com.example.springai.config;
 
+import com.example.springai.metrics.LlmMetrics;
+import com.example.springai.model.LlmProvider;
+import com.example.springai.provider.ProviderAdapterSupport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelOption;
+import io.netty.util.AttributeKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Configuration
+@EnableScheduling
 public class LlmComparatorConfig {
 
+    private static final Logger logger = LoggerFactory.getLogger(LlmComparatorConfig.class);
+    private static final AttributeKey<Long> CONNECT_STARTED = AttributeKey.valueOf("llm.connectStarted");
+
+    @Bean
+    public WebClient openAiWebClient(WebClient.Builder webClientBuilder, Environment environment,
+                                     LlmMetrics metrics, ObjectMapper objectMapper) {
+        return providerWebClient(webClientBuilder, environment, metrics, objectMapper, LlmProvider.OPENAI);
+    }
+
     @Bean
-    public WebClient webClient() {
-        return WebClient.builder()
-                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(10 * 1024 * 1024))
+    public WebClient claudeWebClient(WebClient.Builder webClientBuilder, Environment environment,
+                                     LlmMetrics metrics, ObjectMapper objectMapper) {
+        return providerWebClient(webClientBuilder, environment, metrics, objectMapper, LlmProvider.CLAUDE);
+    }
+
+    /**
+     * Executor for the BLOCKING execution mode. Provider calls spend nearly all their time waiting
+     * on the network, so by default each one gets a virtual thread; the platform pool is kept for
+     * comparison and for JVMs where pinning is a concern. Queue wait and run time are published as
+     * executor.idle and executor{name=llm.provider}.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService providerCallExecutor(
+            @Value("${llm.execution.virtual-threads:true}") boolean virtualThreads,
+            @Value("${llm.execution.pool-size:32}") int poolSize,
+            MeterRegistry meterRegistry) {
+        ExecutorService executor = virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("llm-provider-", 0).factory())
+                : Executors.newFixedThreadPool(poolSize, Thread.ofPlatform().name("llm-provider-", 0).factory());
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, "llm.provider");
+    }
+
+    /**
+     * Executor for report writing, off the request path. The queue is bounded because every queued
+     * job holds its full comparison result; once it is full the submitting thread writes the report
+     * itself, which slows callers down instead of growing the heap.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService reportExecutor(@Value("${llm.reports.threads:2}") int threads,
+                                          @Value("${llm.reports.queue-capacity:100}") int queueCapacity,
+                                          MeterRegistry meterRegistry) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), Thread.ofPlatform().name("llm-report-", 0).factory(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, "llm.report");
+    }
+
+    /**
+     * WebClient with its own connection pool for one provider host, configured from
+     * llm.&lt;provider&gt;.http.*. Connections are kept alive and reused across comparisons so the
+     * TLS handshake stays off the hot path; HTTP/2 is negotiated over TLS when the host offers it.
+     */
+    private WebClient providerWebClient(WebClient.Builder webClientBuilder, Environment environment,
+                                        LlmMetrics metrics, ObjectMapper objectMapper, LlmProvider provider) {
+        String prefix = "llm." + provider.getConfigKey() + ".http.";
+        String baseUrl = environment.getRequiredProperty("llm." + provider.getConfigKey() + ".base-url");
+
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("llm-" + provider.getConfigKey())
+                .maxConnections(environment.getProperty(prefix + "max-connections", Integer.class, 100))
+                .pendingAcquireMaxCount(environment.getProperty(prefix + "pending-acquire-max-count", Integer.class, 1000))
+                .pendingAcquireTimeout(environment.getProperty(prefix + "pending-acquire-timeout", Duration.class, Duration.ofSeconds(30)))
+                .maxIdleTime(environment.getProperty(prefix + "max-idle-time", Duration.class, Duration.ofSeconds(60)))
+                .maxLifeTime(environment.getProperty(prefix + "max-life-time", Duration.class, Duration.ofMinutes(10)))
+                .evictInBackground(Duration.ofSeconds(30))
+                // active/idle/pending/total connection gauges under reactor.netty.connection.provider.*
+                .metrics(true)
                 .build();
+
+        boolean http2 = environment.getProperty(prefix + "http2", Boolean.class, true) && baseUrl.startsWith("https");
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .protocol(http2 ? new HttpProtocol[]{HttpProtocol.H2, HttpProtocol.HTTP11}
+                        : new HttpProtocol[]{HttpProtocol.HTTP11})
+                .keepAlive(true)
+                .compress(true)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) environment.getProperty(
+                        prefix + "connect-timeout", Duration.class, Duration.ofSeconds(5)).toMillis())
+                // Fixed URI tag, the paths are few and the metrics are per pool anyway
+                .metrics(true, uri -> provider.getConfigKey())
+                // Connect time of new connections; pooled ones skip the phase
+                .doOnChannelInit((observer, channel, remoteAddress) ->
+                        channel.attr(CONNECT_STARTED).set(System.nanoTime()))
+                .doOnConnected(connection -> {
+                    Channel channel = connection.channel().parent() != null
+                            ? connection.channel().parent() : connection.channel();
+                    Long started = channel.attr(CONNECT_STARTED).getAndSet(null);
+                    if (started != null) {
+                        metrics.recordProviderPhase(provider, LlmMetrics.PHASE_CONNECT, System.nanoTime() - started);
+                    }
+                });
+
+        // Initialise event loops, DNS resolver and SSL context now rather than on the first comparison
+        httpClient.warmup().block();
+        logger.info("{} HTTP client ready for {} ({})", provider.getDisplayName(), baseUrl,
+                http2 ? "HTTP/2 with HTTP/1.1 fallback" : "HTTP/1.1");
+
+        return webClientBuilder.clone()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(configurer -> {
+                    configurer.defaultCodecs().maxInMemorySize(10 * 1024 * 1024);
+                    configurer.defaultCodecs().jackson2JsonDecoder(
+                            new PhaseTimingJsonDecoder(objectMapper, metrics, provider));
+                })
+                .filter(phaseTimingFilter(metrics, provider))
+                .build();
+    }
+
+    /**
+     * Times the request until the response headers arrive (first byte) and from there until the
+     * last body buffer has been read (body). Streams count their whole duration as body. The end
+     * of the body is also handed to the adapter through the BODY_RECEIVED_AT request attribute,
+     * so that responseTimeMs stops before the decode.
+     */
+    private static ExchangeFilterFunction phaseTimingFilter(LlmMetrics metrics, LlmProvider provider) {
+        return (request, next) -> Mono.defer(() -> {
+            long started = System.nanoTime();
+            return next.exchange(request).map(response -> {
+                long headersAt = System.nanoTime();
+                metrics.recordProviderPhase(provider, LlmMetrics.PHASE_FIRST_BYTE, headersAt - started);
+                return response.mutate()
+                        .body(body -> body.doOnComplete(() -> {
+                            long receivedAt = System.nanoTime();
+                            metrics.recordProviderPhase(provider, LlmMetrics.PHASE_BODY, receivedAt - headersAt);
+                            request.attribute(ProviderAdapterSupport.BODY_RECEIVED_AT)
+                                    .ifPresent(holder -> ((AtomicLong) holder).set(receivedAt));
+                        }))
+                        .build();
+            });
+        });
+    }
+
+    /**
+     * Jackson decoder that times each decode of a response body into its DTO as the parse phase.
+     * Non-streaming bodies are joined from their DataBuffers and read by Jackson straight from the
+     * joined buffer, without an intermediate byte[] or String.
+     */
+    private static final class PhaseTimingJsonDecoder extends Jackson2JsonDecoder {
+
+        private final LlmMetrics metrics;
+        private final LlmProvider provider;
+
+        private PhaseTimingJsonDecoder(ObjectMapper objectMapper, LlmMetrics metrics, LlmProvider provider) {
+            super(objectMapper);
+            this.metrics = metrics;
+            this.provider = provider;
+        }
+
+        @Override
+        public Object decode(DataBuffer dataBuffer, ResolvableType targetType, @Nullable MimeType mimeType,
+                             @Nullable Map<String, Object> hints) throws DecodingException {
+            long started = System.nanoTime();
+            try {
+                return super.decode(dataBuffer, targetType, mimeType, hints);
+            } finally {
+                metrics.recordProviderPhase(provider, LlmMetrics.PHASE_PARSE, System.nanoTime() - started);
+            }
+        }
     }
 }
@@ -0,0 +1,11 @@
+package com.example.springai.config;
+
+/**
+ * When comparison responses are written to the database.
+ */
+public enum PersistenceMode {
+    /** Saved in one batched transaction before the comparison result is returned. */
+    SYNC,
+    /** Handed off to a background writer, the request does not wait for the database. */
+    ASYNC
+}
@@ -0,0 +1,75 @@
+package com.example.springai.config;
+
+import com.example.springai.model.LlmProvider;
+import com.example.springai.provider.ProviderAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Opens llm.&lt;provider&gt;.http.warmup-connections pooled connections per provider host once the
+ * application is ready, so the first comparisons do not pay for TCP and TLS setup. Providers whose
+ * adapter is not configured are skipped.
+ */
+@Component
+public class ProviderConnectionWarmup {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProviderConnectionWarmup.class);
+
+    private final Map<LlmProvider, WebClient> webClients;
+    private final List<ProviderAdapter> adapters;
+    private final Environment environment;
+
+    public ProviderConnectionWarmup(@Qualifier("openAiWebClient") WebClient openAiWebClient,
+                                    @Qualifier("claudeWebClient") WebClient claudeWebClient,
+                                    List<ProviderAdapter> adapters, Environment environment) {
+        this.webClients = Map.of(LlmProvider.OPENAI, openAiWebClient, LlmProvider.CLAUDE, claudeWebClient);
+        this.adapters = adapters;
+        this.environment = environment;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpConnections() {
+        webClients.forEach((provider, webClient) -> {
+            if (!isConfigured(provider)) {
+                logger.debug("Skipping connection warm-up for unconfigured provider {}", provider);
+                return;
+            }
+            String key = provider.getConfigKey();
+            int connections = environment.getProperty("llm." + key + ".http.warmup-connections", Integer.class, 2);
+            String baseUrl = environment.getRequiredProperty("llm." + key + ".base-url");
+            if (connections <= 0) {
+                return;
+            }
+
+            // Any HTTP answer (typically 404 or 401) leaves a live connection in the pool
+            Flux.range(0, connections)
+                    .flatMap(i -> webClient.head()
+                            .uri(baseUrl)
+                            .exchangeToMono(response -> response.releaseBody())
+                            .timeout(Duration.ofSeconds(10))
+                            .onErrorResume(e -> {
+                                logger.debug("Warm-up request to {} failed: {}", baseUrl, e.getMessage());
+                                return Mono.empty();
+                            }))
+                    .then()
+                    .subscribe(null, null,
+                            () -> logger.info("Warmed up {} connection(s) to {}", connections, baseUrl));
+        });
+    }
+
+    private boolean isConfigured(LlmProvider provider) {
+        return adapters.stream().anyMatch(adapter -> adapter.provider() == provider && adapter.isConfigured());
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.springai.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * File downloads with ETag revalidation and single byte ranges. On Tomcat the bytes are handed to
+ * the connector's sendfile, so they go from the page cache to the socket without passing through
+ * the JVM; elsewhere they are copied with FileChannel.transferTo. Multiple ranges are answered
+ * with the whole file, which RFC 9110 allows.
+ */
+final class FileRangeResponses {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private FileRangeResponses() {}
+
+    static ResponseEntity<StreamingResponseBody> serve(Path file, String contentType, String checksum,
+                                                       HttpHeaders requestHeaders, HttpServletRequest request) {
+        long length;
+        try {
+            length = Files.size(file);
+        } catch (IOException e) {
+            // Catalogued but gone, e.g. removed by hand
+            return ResponseEntity.notFound().build();
+        }
+
+        String etag = "\"" + checksum + "\"";
+        List<String> ifNoneMatch = requestHeaders.getIfNoneMatch();
+        if (ifNoneMatch.contains(etag) || ifNoneMatch.contains("*")) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        long start = 0;
+        long end = length - 1;
+        boolean partial = false;
+        // A stale If-Range means the client's copy changed, send the whole file instead
+        String ifRange = requestHeaders.getFirst(HttpHeaders.IF_RANGE);
+        if (ifRange == null || ifRange.equals(etag)) {
+            List<HttpRange> ranges;
+            try {
+                ranges = requestHeaders.getRange();
+            } catch (IllegalArgumentException e) {
+                return unsatisfiable(length);
+            }
+            if (ranges.size() == 1) {
+                HttpRange range = ranges.get(0);
+                try {
+                    start = range.getRangeStart(length);
+                    end = range.getRangeEnd(length);
+                } catch (IllegalArgumentException e) {
+                    return unsatisfiable(length);
+                }
+                if (start >= length || start > end) {
+                    return unsatisfiable(length);
+                }
+                partial = true;
+            }
+        }
+        long count = end - start + 1;
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(partial ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK)
+                .eTag(etag)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(file.getFileName().toString()).build().toString())
+                .contentType(MediaType.parseMediaType(contentType))
+                .contentLength(count);
+        if (partial) {
+            response.header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT)) && count > 0) {
+            // The connector writes the file once the headers are committed; end is exclusive
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return response.build();
+        }
+
+        long offset = start;
+        return response.body(out -> {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                WritableByteChannel target = Channels.newChannel(out);
+                long position = offset;
+                long remaining = count;
+                while (remaining > 0) {
+                    long sent = channel.transferTo(position, remaining, target);
+                    if (sent <= 0) {
+                        break;
+                    }
+                    position += sent;
+                    remaining -= sent;
+                }
+            }
+        });
+    }
+
+    private static ResponseEntity<StreamingResponseBody> unsatisfiable(long length) {
+        return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                .header(HttpHeaders.CONTENT_RANGE, "bytes */" + length)
+                .build();
+    }
+}
@@ -1,22 +1,47 @@
 package com.example.springai.controller;
 
 
+import com.example.springai.dto.BatchComparisonRequest;
+import com.example.springai.dto.BatchJobStatus;
 import com.example.springai.dto.ComparisonRequest;
 import com.example.springai.dto.ComparisonResult;
+import com.example.springai.dto.ComparisonStreamEvent;
+import com.example.springai.dto.ExportFormat;
+import com.example.springai.dto.HistoryPage;
+import com.example.springai.dto.ProviderInfo;
+import com.example.springai.dto.ProviderStats;
+import com.example.springai.dto.ReportStatus;
+import com.example.springai.dto.SearchResult;
+import com.example.springai.model.LlmProvider;
 import com.example.springai.model.LlmResponse;
+import com.example.springai.model.ReportEntry;
+import com.example.springai.service.BatchComparisonService;
 import com.example.springai.service.ComparisonService;
+import com.example.springai.service.LlmClientService;
+import com.example.springai.service.ProviderStatsService;
+import com.example.springai.service.ReportCatalogService;
 import com.example.springai.service.ReportService;
+import com.example.springai.service.ResponseCacheService;
+import com.example.springai.service.ResponseHistoryService;
+import com.example.springai.service.ResponseSearchService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.io.File;
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/llm")
@@ -24,17 +49,47 @@ import java.util.List;
 public class LlmComparisonController {
     private final ComparisonService comparisonService;
     private final ReportService reportService;
+    private final ResponseCacheService responseCacheService;
+    private final BatchComparisonService batchComparisonService;
+    private final ResponseSearchService responseSearchService;
+    private final ResponseHistoryService responseHistoryService;
+    private final ProviderStatsService providerStatsService;
+    private final ReportCatalogService reportCatalogService;
+    private final LlmClientService llmClientService;
 
     @Autowired
-    public LlmComparisonController(ComparisonService comparisonService, ReportService reportService) {
+    public LlmComparisonController(ComparisonService comparisonService, ReportService reportService,
+                                   ResponseCacheService responseCacheService,
+                                   BatchComparisonService batchComparisonService,
+                                   ResponseSearchService responseSearchService,
+                                   ResponseHistoryService responseHistoryService,
+                                   ProviderStatsService providerStatsService,
+                                   ReportCatalogService reportCatalogService,
+                                   LlmClientService llmClientService) {
         this.comparisonService = comparisonService;
         this.reportService = reportService;
+        this.responseCacheService = responseCacheService;
+        this.batchComparisonService = batchComparisonService;
+        this.responseSearchService = responseSearchService;
+        this.responseHistoryService = responseHistoryService;
+        this.providerStatsService = providerStatsService;
+        this.reportCatalogService = reportCatalogService;
+        this.llmClientService = llmClientService;
     }
 
     @PostMapping("/compare")
-    public ResponseEntity<ComparisonResult> compareModels(@Valid @RequestBody ComparisonRequest request) {
-        ComparisonResult result = comparisonService.compareModels(request);
-        return ResponseEntity.ok(result);
+    public Mono<ResponseEntity<ComparisonResult>> compareModels(@Valid @RequestBody ComparisonRequest request) {
+        return comparisonService.compareModelsAsync(request)
+                .map(ResponseEntity::ok);
+    }
+
+    @PostMapping(value = "/compare/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ComparisonStreamEvent>> compareModelsStream(
+            @Valid @RequestBody ComparisonRequest request) {
+        return comparisonService.compareModelsStream(request)
+                .map(event -> ServerSentEvent.builder(event)
+                        .event(event.getType().name().toLowerCase())
+                        .build());
     }
 
     @GetMapping("/history/{sessionId}")
@@ -43,11 +98,100 @@ public class LlmComparisonController {
         return ResponseEntity.ok(history);
     }
 
+    @GetMapping("/history/{sessionId}/page")
+    public ResponseEntity<HistoryPage> getComparisonHistoryPage(@PathVariable String sessionId,
+                                                                @RequestParam(required = false) String cursor,
+                                                                @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(responseHistoryService.getSessionPage(sessionId, cursor, size));
+    }
+
+    @GetMapping("/history")
+    public ResponseEntity<HistoryPage> getRecentHistory(@RequestParam(required = false) String cursor,
+                                                        @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(responseHistoryService.getRecentPage(cursor, size));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportResponses(
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            @RequestParam(required = false) String sessionId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        StreamingResponseBody body = out -> responseHistoryService.export(format, sessionId, from, to, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"llm_responses." + format.getExtension() + "\"")
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .body(body);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<SearchResult> search(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) LlmProvider provider,
+            @RequestParam(required = false) String model,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(responseSearchService.search(q, provider, model, from, to, page, size));
+    }
+
     @PostMapping("/compare/quick")
-    public ResponseEntity<ComparisonResult> quickCompare(@RequestParam String prompt) {
+    public Mono<ResponseEntity<ComparisonResult>> quickCompare(@RequestParam String prompt) {
         ComparisonRequest request = new ComparisonRequest(prompt);
-        ComparisonResult result = comparisonService.compareModels(request);
-        return ResponseEntity.ok(result);
+        return comparisonService.compareModelsAsync(request)
+                .map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/compare/batch")
+    public ResponseEntity<BatchJobStatus> compareBatch(@Valid @RequestBody BatchComparisonRequest request) {
+        BatchJobStatus status = batchComparisonService.submitBatch(request);
+        return ResponseEntity.accepted().body(status);
+    }
+
+    @PostMapping(value = "/compare/batch/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<BatchJobStatus> compareBatchUpload(@RequestParam("file") MultipartFile file,
+                                                             @RequestParam(required = false) List<String> providers,
+                                                             @RequestParam(required = false) Integer concurrency,
+                                                             @RequestParam(required = false) Integer perProviderConcurrency,
+                                                             @RequestParam(defaultValue = "false") boolean bypassCache)
+            throws IOException {
+        BatchComparisonRequest request = new BatchComparisonRequest(
+                batchComparisonService.readJsonlPrompts(file.getInputStream()));
+        request.setProviders(providers);
+        request.setConcurrency(concurrency);
+        request.setPerProviderConcurrency(perProviderConcurrency);
+        request.setBypassCache(bypassCache);
+        BatchJobStatus status = batchComparisonService.submitBatch(request);
+        return ResponseEntity.accepted().body(status);
+    }
+
+    @GetMapping("/compare/batch/{jobId}")
+    public ResponseEntity<BatchJobStatus> getBatchStatus(@PathVariable String jobId) {
+        return batchComparisonService.getJobStatus(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<List<ProviderStats>> getProviderStats(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) LlmProvider provider,
+            @RequestParam(required = false) String model,
+            @RequestParam(defaultValue = "true") boolean byModel) {
+        return ResponseEntity.ok(providerStatsService.getStats(from, to, provider, model, byModel));
+    }
+
+    @GetMapping("/providers")
+    public ResponseEntity<List<ProviderInfo>> getProviders() {
+        return ResponseEntity.ok(llmClientService.describeProviders());
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStatistics() {
+        return ResponseEntity.ok(responseCacheService.getStatistics());
     }
 
     @PostMapping("/report/json")
@@ -56,25 +200,34 @@ public class LlmComparisonController {
         return ResponseEntity.ok(reportPath);
     }
 
+    @GetMapping("/report/{reportId}/status")
+    public ResponseEntity<ReportStatus> getReportStatus(@PathVariable String reportId) {
+        return reportService.getReportStatus(reportId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @GetMapping("/report/download/{sessionId}")
-    public ResponseEntity<Resource> downloadReport(@PathVariable String sessionId) {
-        // This would typically fetch the report path from database
-        // For now, we'll return a simple response
-        try {
-            File file = new File("reports/");
-            if (file.exists() && file.listFiles().length > 0) {
-                File latestReport = file.listFiles()[file.listFiles().length - 1];
-                Resource resource = new FileSystemResource(latestReport);
-
-                return ResponseEntity.ok()
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + latestReport.getName() + "\"")
-                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                        .body(resource);
-            }
-        } catch (Exception e) {
-            // Handle exception
-        }
-
-        return ResponseEntity.notFound().build();
+    public ResponseEntity<StreamingResponseBody> downloadReport(@PathVariable String sessionId,
+                                                                @RequestHeader HttpHeaders requestHeaders,
+                                                                HttpServletRequest request) {
+        return reportCatalogService.findLatestForSession(sessionId)
+                .map(entry -> downloadEntry(entry, requestHeaders, request))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/report/{reportId}/download")
+    public ResponseEntity<StreamingResponseBody> downloadReportById(@PathVariable String reportId,
+                                                                    @RequestHeader HttpHeaders requestHeaders,
+                                                                    HttpServletRequest request) {
+        return reportCatalogService.findByReportId(reportId)
+                .map(entry -> downloadEntry(entry, requestHeaders, request))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private ResponseEntity<StreamingResponseBody> downloadEntry(ReportEntry entry, HttpHeaders requestHeaders,
+                                                                HttpServletRequest request) {
+        return FileRangeResponses.serve(reportCatalogService.resolve(entry), entry.getFormat().getContentType(),
+                entry.getChecksum(), requestHeaders, request);
     }
 }
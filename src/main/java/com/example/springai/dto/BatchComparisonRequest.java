@@ -0,0 +1,48 @@
+package com.example.springai.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+
+public class BatchComparisonRequest {
+
+    @NotEmpty(message = "Prompts cannot be empty")
+    private List<String> prompts;
+
+    private List<String> providers; // Optional: specific providers to test
+
+    @Min(value = 1, message = "Concurrency must be at least 1")
+    private Integer concurrency; // Optional: prompts compared at the same time
+
+    @Min(value = 1, message = "Per-provider concurrency must be at least 1")
+    private Integer perProviderConcurrency; // Optional: in-flight calls per provider
+
+    private boolean bypassCache;
+
+    private boolean saveToFile = true;
+
+    public BatchComparisonRequest() {}
+
+    public BatchComparisonRequest(List<String> prompts) {
+        this.prompts = prompts;
+    }
+
+    // Getters and Setters
+    public List<String> getPrompts() { return prompts; }
+    public void setPrompts(List<String> prompts) { this.prompts = prompts; }
+
+    public List<String> getProviders() { return providers; }
+    public void setProviders(List<String> providers) { this.providers = providers; }
+
+    public Integer getConcurrency() { return concurrency; }
+    public void setConcurrency(Integer concurrency) { this.concurrency = concurrency; }
+
+    public Integer getPerProviderConcurrency() { return perProviderConcurrency; }
+    public void setPerProviderConcurrency(Integer perProviderConcurrency) { this.perProviderConcurrency = perProviderConcurrency; }
+
+    public boolean isBypassCache() { return bypassCache; }
+    public void setBypassCache(boolean bypassCache) { this.bypassCache = bypassCache; }
+
+    public boolean isSaveToFile() { return saveToFile; }
+    public void setSaveToFile(boolean saveToFile) { this.saveToFile = saveToFile; }
+}
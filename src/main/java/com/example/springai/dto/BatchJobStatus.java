@@ -0,0 +1,107 @@
+package com.example.springai.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public class BatchJobStatus {
+
+    public enum State {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    /**
+     * Outcome of one prompt of the suite; the full responses are stored under its session ID.
+     */
+    public static class PromptResult {
+        private int index;
+        private String sessionId;
+        private String prompt;
+        private int errors;
+
+        public PromptResult() {}
+
+        public PromptResult(int index, String sessionId, String prompt, int errors) {
+            this.index = index;
+            this.sessionId = sessionId;
+            this.prompt = prompt;
+            this.errors = errors;
+        }
+
+        public int getIndex() { return index; }
+        public void setIndex(int index) { this.index = index; }
+
+        public String getSessionId() { return sessionId; }
+        public void setSessionId(String sessionId) { this.sessionId = sessionId; }
+
+        public String getPrompt() { return prompt; }
+        public void setPrompt(String prompt) { this.prompt = prompt; }
+
+        public int getErrors() { return errors; }
+        public void setErrors(int errors) { this.errors = errors; }
+    }
+
+    private String jobId;
+    private State state;
+    private int totalPrompts;
+    private int completedPrompts;
+    // Responses that could not be saved and are missing from history
+    private int persistErrors;
+    private List<String> providers;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime submittedAt;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime completedAt;
+
+    private Map<String, BatchProviderStats> providerStats;
+    // Emptied once the batch report is written; the report lists every prompt
+    private List<PromptResult> results;
+    private String reportFilePath;
+    private String error;
+
+    public BatchJobStatus() {}
+
+    // Getters and Setters
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
+
+    public State getState() { return state; }
+    public void setState(State state) { this.state = state; }
+
+    public int getTotalPrompts() { return totalPrompts; }
+    public void setTotalPrompts(int totalPrompts) { this.totalPrompts = totalPrompts; }
+
+    public int getCompletedPrompts() { return completedPrompts; }
+    public void setCompletedPrompts(int completedPrompts) { this.completedPrompts = completedPrompts; }
+
+    public int getPersistErrors() { return persistErrors; }
+    public void setPersistErrors(int persistErrors) { this.persistErrors = persistErrors; }
+
+    public List<String> getProviders() { return providers; }
+    public void setProviders(List<String> providers) { this.providers = providers; }
+
+    public LocalDateTime getSubmittedAt() { return submittedAt; }
+    public void setSubmittedAt(LocalDateTime submittedAt) { this.submittedAt = submittedAt; }
+
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+
+    public Map<String, BatchProviderStats> getProviderStats() { return providerStats; }
+    public void setProviderStats(Map<String, BatchProviderStats> providerStats) { this.providerStats = providerStats; }
+
+    public List<PromptResult> getResults() { return results; }
+    public void setResults(List<PromptResult> results) { this.results = results; }
+
+    public String getReportFilePath() { return reportFilePath; }
+    public void setReportFilePath(String reportFilePath) { this.reportFilePath = reportFilePath; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
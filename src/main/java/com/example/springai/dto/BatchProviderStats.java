@@ -0,0 +1,31 @@
+package com.example.springai.dto;
+
+import com.example.springai.analysis.ResponseStatsAccumulator;
+import com.example.springai.model.LlmResponse;
+
+/**
+ * Running per-provider totals of a batch job, updated as prompt results arrive.
+ */
+public class BatchProviderStats {
+
+    private final ResponseStatsAccumulator stats = new ResponseStatsAccumulator();
+
+    public synchronized void record(LlmResponse response) {
+        stats.add(response);
+    }
+
+    // Getters
+    public synchronized long getResponses() { return stats.getCount(); }
+
+    public synchronized long getErrors() { return stats.getErrors(); }
+
+    public synchronized double getAverageResponseTime() { return stats.getAverageResponseTime(); }
+
+    public synchronized long getMinResponseTime() { return stats.getMinResponseTime(); }
+
+    public synchronized long getMaxResponseTime() { return stats.getMaxResponseTime(); }
+
+    public synchronized long getTotalTokens() { return stats.getTotalTokens(); }
+
+    public synchronized double getAverageResponseLength() { return stats.getAverageResponseLength(); }
+}
@@ -0,0 +1,74 @@
+package com.example.springai.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * The fields we read from a Claude Messages API response, and from the events of a streamed one
+ * (message_start, content_block_delta, message_delta, error).
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ClaudeMessageResponse {
+
+    private String type;
+    private List<ContentBlock> content;
+    private Usage usage;
+    private ClaudeMessageResponse message; // message_start
+    private ContentBlock delta;            // content_block_delta
+    private Error error;                   // error
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class ContentBlock {
+        private String type;
+        private String text;
+
+        public String getType() { return type; }
+        public void setType(String type) { this.type = type; }
+
+        public String getText() { return text; }
+        public void setText(String text) { this.text = text; }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Usage {
+        @JsonProperty("input_tokens")
+        private int inputTokens;
+
+        @JsonProperty("output_tokens")
+        private int outputTokens;
+
+        public int getInputTokens() { return inputTokens; }
+        public void setInputTokens(int inputTokens) { this.inputTokens = inputTokens; }
+
+        public int getOutputTokens() { return outputTokens; }
+        public void setOutputTokens(int outputTokens) { this.outputTokens = outputTokens; }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Error {
+        private String message;
+
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+    }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public List<ContentBlock> getContent() { return content; }
+    public void setContent(List<ContentBlock> content) { this.content = content; }
+
+    public Usage getUsage() { return usage; }
+    public void setUsage(Usage usage) { this.usage = usage; }
+
+    public ClaudeMessageResponse getMessage() { return message; }
+    public void setMessage(ClaudeMessageResponse message) { this.message = message; }
+
+    public ContentBlock getDelta() { return delta; }
+    public void setDelta(ContentBlock delta) { this.delta = delta; }
+
+    public Error getError() { return error; }
+    public void setError(Error error) { this.error = error; }
+}
@@ -0,0 +1,64 @@
+package com.example.springai.dto;
+
+import java.util.Map;
+
+/**
+ * Summary statistics over a set of responses. Field names match the analysis map the API
+ * returned before, so the JSON is unchanged.
+ */
+public class ComparisonAnalysis {
+
+    private int totalResponses;
+    private double averageResponseTime;
+    private String fastestProvider;
+    private long fastestTime;
+    private String slowestProvider;
+    private long slowestTime;
+    private double averageResponseLength;
+    private String shortestProvider;
+    private int shortestLength;
+    private String longestProvider;
+    private int longestLength;
+    private double averageTokens;
+    private Map<String, Integer> commonWords;
+
+    // Getters and Setters
+    public int getTotalResponses() { return totalResponses; }
+    public void setTotalResponses(int totalResponses) { this.totalResponses = totalResponses; }
+
+    public double getAverageResponseTime() { return averageResponseTime; }
+    public void setAverageResponseTime(double averageResponseTime) { this.averageResponseTime = averageResponseTime; }
+
+    public String getFastestProvider() { return fastestProvider; }
+    public void setFastestProvider(String fastestProvider) { this.fastestProvider = fastestProvider; }
+
+    public long getFastestTime() { return fastestTime; }
+    public void setFastestTime(long fastestTime) { this.fastestTime = fastestTime; }
+
+    public String getSlowestProvider() { return slowestProvider; }
+    public void setSlowestProvider(String slowestProvider) { this.slowestProvider = slowestProvider; }
+
+    public long getSlowestTime() { return slowestTime; }
+    public void setSlowestTime(long slowestTime) { this.slowestTime = slowestTime; }
+
+    public double getAverageResponseLength() { return averageResponseLength; }
+    public void setAverageResponseLength(double averageResponseLength) { this.averageResponseLength = averageResponseLength; }
+
+    public String getShortestProvider() { return shortestProvider; }
+    public void setShortestProvider(String shortestProvider) { this.shortestProvider = shortestProvider; }
+
+    public int getShortestLength() { return shortestLength; }
+    public void setShortestLength(int shortestLength) { this.shortestLength = shortestLength; }
+
+    public String getLongestProvider() { return longestProvider; }
+    public void setLongestProvider(String longestProvider) { this.longestProvider = longestProvider; }
+
+    public int getLongestLength() { return longestLength; }
+    public void setLongestLength(int longestLength) { this.longestLength = longestLength; }
+
+    public double getAverageTokens() { return averageTokens; }
+    public void setAverageTokens(double averageTokens) { this.averageTokens = averageTokens; }
+
+    public Map<String, Integer> getCommonWords() { return commonWords; }
+    public void setCommonWords(Map<String, Integer> commonWords) { this.commonWords = commonWords; }
+}
@@ -12,6 +12,12 @@ public class ComparisonRequest {
 
     private boolean saveToFile = true;
 
+    private boolean bypassCache; // Skip the response cache and always call the providers
+
+    private RoutingMode routingMode = RoutingMode.ALL;
+
+    private Integer fanOut; // FASTEST_OF_N: race only the best-ranked N providers
+
     public ComparisonRequest() {}
 
     public ComparisonRequest(String prompt) {
@@ -27,4 +33,13 @@ public class ComparisonRequest {
 
     public boolean isSaveToFile() { return saveToFile; }
     public void setSaveToFile(boolean saveToFile) { this.saveToFile = saveToFile; }
+
+    public boolean isBypassCache() { return bypassCache; }
+    public void setBypassCache(boolean bypassCache) { this.bypassCache = bypassCache; }
+
+    public RoutingMode getRoutingMode() { return routingMode; }
+    public void setRoutingMode(RoutingMode routingMode) { this.routingMode = routingMode; }
+
+    public Integer getFanOut() { return fanOut; }
+    public void setFanOut(Integer fanOut) { this.fanOut = fanOut; }
 }
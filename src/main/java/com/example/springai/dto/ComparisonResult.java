@@ -6,15 +6,15 @@ package com.example.springai.dto;
 import com.example.springai.model.LlmResponse;
 
 import java.util.List;
-import java.util.Map;
 
 public class ComparisonResult {
 
     private String sessionId;
     private String prompt;
     private List<LlmResponse> responses;
-    private Map<String, Object> analysis;
-    private String reportFilePath;
+    private ComparisonAnalysis analysis;
+    private String reportFilePath; // Written in the background, see reportId
+    private String reportId;
 
     public ComparisonResult() {}
 
@@ -34,10 +34,13 @@ public class ComparisonResult {
     public List<LlmResponse> getResponses() { return responses; }
     public void setResponses(List<LlmResponse> responses) { this.responses = responses; }
 
-    public Map<String, Object> getAnalysis() { return analysis; }
-    public void setAnalysis(Map<String, Object> analysis) { this.analysis = analysis; }
+    public ComparisonAnalysis getAnalysis() { return analysis; }
+    public void setAnalysis(ComparisonAnalysis analysis) { this.analysis = analysis; }
 
     public String getReportFilePath() { return reportFilePath; }
     public void setReportFilePath(String reportFilePath) { this.reportFilePath = reportFilePath; }
+
+    public String getReportId() { return reportId; }
+    public void setReportId(String reportId) { this.reportId = reportId; }
 }
 
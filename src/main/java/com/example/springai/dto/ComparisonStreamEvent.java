@@ -0,0 +1,73 @@
+package com.example.springai.dto;
+
+import com.example.springai.model.LlmProvider;
+import com.example.springai.model.LlmResponse;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One Server-Sent Event of a streaming comparison: a content delta from a provider, the completed
+ * response of a provider, or the closing analysis once every provider stream has finished.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ComparisonStreamEvent {
+
+    public enum Type {
+        DELTA,
+        RESPONSE,
+        ANALYSIS
+    }
+
+    private Type type;
+    private String sessionId;
+    private LlmProvider provider;
+    private String content;
+    private LlmResponse response;
+    private ComparisonResult result;
+
+    public ComparisonStreamEvent() {}
+
+    public static ComparisonStreamEvent delta(LlmProvider provider, String sessionId, String content) {
+        ComparisonStreamEvent event = new ComparisonStreamEvent();
+        event.type = Type.DELTA;
+        event.provider = provider;
+        event.sessionId = sessionId;
+        event.content = content;
+        return event;
+    }
+
+    public static ComparisonStreamEvent response(LlmResponse response) {
+        ComparisonStreamEvent event = new ComparisonStreamEvent();
+        event.type = Type.RESPONSE;
+        event.provider = response.getProvider();
+        event.sessionId = response.getSessionId();
+        event.response = response;
+        return event;
+    }
+
+    public static ComparisonStreamEvent analysis(ComparisonResult result) {
+        ComparisonStreamEvent event = new ComparisonStreamEvent();
+        event.type = Type.ANALYSIS;
+        event.sessionId = result.getSessionId();
+        event.result = result;
+        return event;
+    }
+
+    // Getters and Setters
+    public Type getType() { return type; }
+    public void setType(Type type) { this.type = type; }
+
+    public String getSessionId() { return sessionId; }
+    public void setSessionId(String sessionId) { this.sessionId = sessionId; }
+
+    public LlmProvider getProvider() { return provider; }
+    public void setProvider(LlmProvider provider) { this.provider = provider; }
+
+    public String getContent() { return content; }
+    public void setContent(String content) { this.content = content; }
+
+    public LlmResponse getResponse() { return response; }
+    public void setResponse(LlmResponse response) { this.response = response; }
+
+    public ComparisonResult getResult() { return result; }
+    public void setResult(ComparisonResult result) { this.result = result; }
+}
@@ -0,0 +1,25 @@
+package com.example.springai.dto;
+
+import com.example.springai.model.LlmResponse;
+
+import java.util.List;
+
+public class HistoryPage {
+    private List<LlmResponse> items;
+    // Opaque keyset cursor for the next page, null on the last page
+    private String nextCursor;
+
+    public HistoryPage() {}
+
+    public HistoryPage(List<LlmResponse> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<LlmResponse> getItems() { return items; }
+    public void setItems(List<LlmResponse> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
@@ -0,0 +1,52 @@
+package com.example.springai.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * The fields we read from an OpenAI chat completion, or from one chunk of a streamed completion
+ * (where choices carry a delta instead of a message). Decoded straight from the response buffers.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class OpenAiChatResponse {
+
+    private List<Choice> choices;
+    private Usage usage;
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Choice {
+        private Message message;
+        private Message delta;
+
+        public Message getMessage() { return message; }
+        public void setMessage(Message message) { this.message = message; }
+
+        public Message getDelta() { return delta; }
+        public void setDelta(Message delta) { this.delta = delta; }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Message {
+        private String content;
+
+        public String getContent() { return content; }
+        public void setContent(String content) { this.content = content; }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Usage {
+        @JsonProperty("total_tokens")
+        private int totalTokens;
+
+        public int getTotalTokens() { return totalTokens; }
+        public void setTotalTokens(int totalTokens) { this.totalTokens = totalTokens; }
+    }
+
+    public List<Choice> getChoices() { return choices; }
+    public void setChoices(List<Choice> choices) { this.choices = choices; }
+
+    public Usage getUsage() { return usage; }
+    public void setUsage(Usage usage) { this.usage = usage; }
+}
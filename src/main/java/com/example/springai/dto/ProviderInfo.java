@@ -0,0 +1,39 @@
+package com.example.springai.dto;
+
+import com.example.springai.model.LlmProvider;
+import com.example.springai.provider.ProviderCapability;
+
+import java.util.Set;
+
+/**
+ * A registered provider adapter as reported by GET /providers.
+ */
+public class ProviderInfo {
+    private LlmProvider provider;
+    private String displayName;
+    private String model;
+    private Set<ProviderCapability> capabilities;
+    // Credentials or settings in place
+    private boolean configured;
+    // Configured and not currently shut off by its circuit breaker
+    private boolean available;
+
+    // Getters and Setters
+    public LlmProvider getProvider() { return provider; }
+    public void setProvider(LlmProvider provider) { this.provider = provider; }
+
+    public String getDisplayName() { return displayName; }
+    public void setDisplayName(String displayName) { this.displayName = displayName; }
+
+    public String getModel() { return model; }
+    public void setModel(String model) { this.model = model; }
+
+    public Set<ProviderCapability> getCapabilities() { return capabilities; }
+    public void setCapabilities(Set<ProviderCapability> capabilities) { this.capabilities = capabilities; }
+
+    public boolean isConfigured() { return configured; }
+    public void setConfigured(boolean configured) { this.configured = configured; }
+
+    public boolean isAvailable() { return available; }
+    public void setAvailable(boolean available) { this.available = available; }
+}
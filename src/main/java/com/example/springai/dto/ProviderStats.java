@@ -0,0 +1,67 @@
+package com.example.springai.dto;
+
+import com.example.springai.model.LlmProvider;
+
+/**
+ * Latency, token and length figures for a provider (and model, unless grouped by provider only)
+ * over the requested time range.
+ */
+public class ProviderStats {
+    private LlmProvider provider;
+    private String model;
+    private long responses;
+    private long errors;
+    private double errorRate;
+    private double latencyMean;
+    private long latencyP50;
+    private long latencyP95;
+    private long latencyP99;
+    private long latencyMax;
+    private double tokensMean;
+    private long tokensP95;
+    private long totalTokens;
+    private double averageResponseLength;
+
+    // Getters and Setters
+    public LlmProvider getProvider() { return provider; }
+    public void setProvider(LlmProvider provider) { this.provider = provider; }
+
+    public String getModel() { return model; }
+    public void setModel(String model) { this.model = model; }
+
+    public long getResponses() { return responses; }
+    public void setResponses(long responses) { this.responses = responses; }
+
+    public long getErrors() { return errors; }
+    public void setErrors(long errors) { this.errors = errors; }
+
+    public double getErrorRate() { return errorRate; }
+    public void setErrorRate(double errorRate) { this.errorRate = errorRate; }
+
+    public double getLatencyMean() { return latencyMean; }
+    public void setLatencyMean(double latencyMean) { this.latencyMean = latencyMean; }
+
+    public long getLatencyP50() { return latencyP50; }
+    public void setLatencyP50(long latencyP50) { this.latencyP50 = latencyP50; }
+
+    public long getLatencyP95() { return latencyP95; }
+    public void setLatencyP95(long latencyP95) { this.latencyP95 = latencyP95; }
+
+    public long getLatencyP99() { return latencyP99; }
+    public void setLatencyP99(long latencyP99) { this.latencyP99 = latencyP99; }
+
+    public long getLatencyMax() { return latencyMax; }
+    public void setLatencyMax(long latencyMax) { this.latencyMax = latencyMax; }
+
+    public double getTokensMean() { return tokensMean; }
+    public void setTokensMean(double tokensMean) { this.tokensMean = tokensMean; }
+
+    public long getTokensP95() { return tokensP95; }
+    public void setTokensP95(long tokensP95) { this.tokensP95 = tokensP95; }
+
+    public long getTotalTokens() { return totalTokens; }
+    public void setTotalTokens(long totalTokens) { this.totalTokens = totalTokens; }
+
+    public double getAverageResponseLength() { return averageResponseLength; }
+    public void setAverageResponseLength(double averageResponseLength) { this.averageResponseLength = averageResponseLength; }
+}
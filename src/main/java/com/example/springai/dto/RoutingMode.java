@@ -0,0 +1,10 @@
+package com.example.springai.dto;
+
+public enum RoutingMode {
+    // Query every selected provider and compare the answers
+    ALL,
+    // Race the selected providers, keep the first good answer and cancel the rest
+    FASTEST_OF_N,
+    // Query only the provider with the best recent latency and error rate, falling back in rank order
+    LOWEST_LATENCY
+}
@@ -0,0 +1,39 @@
+package com.example.springai.dto;
+
+import com.example.springai.model.LlmResponse;
+
+import java.util.List;
+
+public class SearchResult {
+    private String query;
+    private int page;
+    private int size;
+    private long totalHits;
+    private List<LlmResponse> results;
+
+    public SearchResult() {}
+
+    public SearchResult(String query, int page, int size, long totalHits, List<LlmResponse> results) {
+        this.query = query;
+        this.page = page;
+        this.size = size;
+        this.totalHits = totalHits;
+        this.results = results;
+    }
+
+    // Getters and Setters
+    public String getQuery() { return query; }
+    public void setQuery(String query) { this.query = query; }
+
+    public int getPage() { return page; }
+    public void setPage(int page) { this.page = page; }
+
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+
+    public long getTotalHits() { return totalHits; }
+    public void setTotalHits(long totalHits) { this.totalHits = totalHits; }
+
+    public List<LlmResponse> getResults() { return results; }
+    public void setResults(List<LlmResponse> results) { this.results = results; }
+}
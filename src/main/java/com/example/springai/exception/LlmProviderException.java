@@ -0,0 +1,57 @@
+package com.example.springai.exception;
+
+import com.example.springai.model.LlmProvider;
+
+import java.time.Duration;
+
+/**
+ * Failure of a provider call, keeping the HTTP status and Retry-After hint for the rate limiter.
+ */
+public class LlmProviderException extends RuntimeException {
+
+    private final LlmProvider provider;
+    private final int statusCode; // 0 when no HTTP error status was received
+    private final Duration retryAfter;
+    private final boolean invalidResponse;
+
+    public LlmProviderException(LlmProvider provider, String message, int statusCode, Duration retryAfter,
+                                Throwable cause) {
+        this(provider, message, statusCode, retryAfter, false, cause);
+    }
+
+    private LlmProviderException(LlmProvider provider, String message, int statusCode, Duration retryAfter,
+                                 boolean invalidResponse, Throwable cause) {
+        super(message, cause);
+        this.provider = provider;
+        this.statusCode = statusCode;
+        this.retryAfter = retryAfter;
+        this.invalidResponse = invalidResponse;
+    }
+
+    /**
+     * The provider answered successfully but the body could not be decoded or had no answer in it.
+     * Asking again would get the same body, so these are never retried.
+     */
+    public static LlmProviderException invalidResponse(LlmProvider provider, String message, Throwable cause) {
+        return new LlmProviderException(provider, message, 0, null, true, cause);
+    }
+
+    public LlmProvider getProvider() { return provider; }
+
+    public int getStatusCode() { return statusCode; }
+
+    public Duration getRetryAfter() { return retryAfter; }
+
+    public boolean isInvalidResponse() { return invalidResponse; }
+
+    /**
+     * No response at all: connect or read timeout, connection reset, closed mid-body.
+     */
+    public boolean isTransportFailure() {
+        return statusCode == 0 && !invalidResponse;
+    }
+
+    public boolean isOverload() {
+        return statusCode == 429 || statusCode >= 500;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.springai.metrics;
+
+import com.example.springai.exception.LlmProviderException;
+import com.example.springai.model.LlmProvider;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Meters for the comparison hot path. All durations are measured with System.nanoTime, so they are
+ * unaffected by wall-clock adjustments.
+ *
+ * <pre>
+ * llm.provider.phase{provider, phase}   connect, first_byte, body, parse
+ * llm.provider.calls{provider, outcome} whole call including retries, success or error
+ * llm.provider.tokens{provider, model}  tokens reported by the provider
+ * llm.provider.errors{provider, status} failed calls by HTTP status, "none" when no response came
+ * llm.comparison.phase{phase}           save, analysis, report
+ * llm.persistence.write                 one batched database write
+ * </pre>
+ * Executor queue wait is published by ExecutorServiceMetrics as executor.idle{name}.
+ */
+@Component
+public class LlmMetrics {
+
+    public static final String PHASE_CONNECT = "connect";
+    public static final String PHASE_FIRST_BYTE = "first_byte";
+    public static final String PHASE_BODY = "body";
+    public static final String PHASE_PARSE = "parse";
+
+    public static final String PHASE_SAVE = "save";
+    public static final String PHASE_ANALYSIS = "analysis";
+    public static final String PHASE_REPORT = "report";
+
+    private final MeterRegistry registry;
+    private final ObservationRegistry observationRegistry;
+
+    public LlmMetrics(MeterRegistry registry, ObservationRegistry observationRegistry) {
+        this.registry = registry;
+        this.observationRegistry = observationRegistry;
+    }
+
+    public MeterRegistry getRegistry() { return registry; }
+
+    public void recordProviderPhase(LlmProvider provider, String phase, long nanos) {
+        Timer.builder("llm.provider.phase")
+                .description("Time spent in one phase of a provider HTTP call")
+                .tag("provider", provider.getConfigKey())
+                .tag("phase", phase)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordProviderCall(LlmProvider provider, boolean success, long nanos) {
+        Timer.builder("llm.provider.calls")
+                .description("Provider calls from request to response, retries included")
+                .tag("provider", provider.getConfigKey())
+                .tag("outcome", success ? "success" : "error")
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordTokens(LlmProvider provider, String model, int tokens) {
+        if (tokens <= 0) {
+            return;
+        }
+        Counter.builder("llm.provider.tokens")
+                .description("Tokens reported by the provider, prompt and completion")
+                .tag("provider", provider.getConfigKey())
+                .tag("model", model != null ? model : "unknown")
+                .register(registry)
+                .increment(tokens);
+    }
+
+    public void recordError(LlmProvider provider, Throwable error) {
+        String status = "other";
+        if (error instanceof LlmProviderException providerException) {
+            status = providerException.getStatusCode() > 0 ? String.valueOf(providerException.getStatusCode())
+                    : providerException.isInvalidResponse() ? "invalid" : "none";
+        }
+        Counter.builder("llm.provider.errors")
+                .description("Failed provider calls by HTTP status")
+                .tag("provider", provider.getConfigKey())
+                .tag("status", status)
+                .register(registry)
+                .increment();
+    }
+
+    public <T> T timeComparisonPhase(String phase, Supplier<T> work) {
+        return Timer.builder("llm.comparison.phase")
+                .description("Post-processing steps of a comparison")
+                .tag("phase", phase)
+                .register(registry)
+                .record(work);
+    }
+
+    public void timeComparisonPhase(String phase, Runnable work) {
+        Timer.builder("llm.comparison.phase")
+                .description("Post-processing steps of a comparison")
+                .tag("phase", phase)
+                .register(registry)
+                .record(work);
+    }
+
+    public void recordPersistenceWrite(int rows, long nanos) {
+        Timer.builder("llm.persistence.write")
+                .description("Batched database writes of responses")
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        Counter.builder("llm.persistence.rows")
+                .description("Responses written to the database")
+                .register(registry)
+                .increment(rows);
+    }
+
+    /**
+     * Observation covering one comparison. It is a timer when tracing is off and the root span
+     * of the comparison when it is on, with the HTTP client spans of the provider calls below it.
+     */
+    public Observation comparisonObservation(String sessionId, String routingMode) {
+        return Observation.createNotStarted("llm.comparison", observationRegistry)
+                .contextualName("llm comparison")
+                .lowCardinalityKeyValue("routing.mode", routingMode)
+                .highCardinalityKeyValue("session.id", sessionId);
+    }
+}
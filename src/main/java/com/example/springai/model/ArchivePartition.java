@@ -0,0 +1,91 @@
+package com.example.springai.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Catalog row for one archive file holding a day's worth of responses moved out of llm_responses.
+ * The path is relative to the archive directory. A day archived in several runs, e.g. because late
+ * rows arrived after it was first archived, has one partition per run.
+ */
+@Entity
+@Table(name = "archive_partitions",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_archive_partitions_path", columnNames = "path")
+        },
+        indexes = {
+                @Index(name = "idx_archive_partitions_min_created", columnList = "min_created_at"),
+                @Index(name = "idx_archive_partitions_max_created", columnList = "max_created_at")
+        })
+public class ArchivePartition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "archive_partitions_seq")
+    @SequenceGenerator(name = "archive_partitions_seq", sequenceName = "archive_partitions_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, length = 512)
+    private String path;
+
+    @Column(name = "partition_date", nullable = false)
+    private LocalDate partitionDate;
+
+    @Column(name = "row_count")
+    private long rowCount;
+
+    @Column(name = "min_created_at", nullable = false)
+    private LocalDateTime minCreatedAt;
+
+    @Column(name = "max_created_at", nullable = false)
+    private LocalDateTime maxCreatedAt;
+
+    @Column(name = "min_response_id")
+    private long minResponseId;
+
+    @Column(name = "max_response_id")
+    private long maxResponseId;
+
+    @Column(name = "size_bytes")
+    private long sizeBytes;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public ArchivePartition() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getPath() { return path; }
+    public void setPath(String path) { this.path = path; }
+
+    public LocalDate getPartitionDate() { return partitionDate; }
+    public void setPartitionDate(LocalDate partitionDate) { this.partitionDate = partitionDate; }
+
+    public long getRowCount() { return rowCount; }
+    public void setRowCount(long rowCount) { this.rowCount = rowCount; }
+
+    public LocalDateTime getMinCreatedAt() { return minCreatedAt; }
+    public void setMinCreatedAt(LocalDateTime minCreatedAt) { this.minCreatedAt = minCreatedAt; }
+
+    public LocalDateTime getMaxCreatedAt() { return maxCreatedAt; }
+    public void setMaxCreatedAt(LocalDateTime maxCreatedAt) { this.maxCreatedAt = maxCreatedAt; }
+
+    public long getMinResponseId() { return minResponseId; }
+    public void setMinResponseId(long minResponseId) { this.minResponseId = minResponseId; }
+
+    public long getMaxResponseId() { return maxResponseId; }
+    public void setMaxResponseId(long maxResponseId) { this.maxResponseId = maxResponseId; }
+
+    public long getSizeBytes() { return sizeBytes; }
+    public void setSizeBytes(long sizeBytes) { this.sizeBytes = sizeBytes; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
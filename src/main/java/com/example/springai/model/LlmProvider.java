@@ -6,9 +6,12 @@ import lombok.Getter;
 @Getter
 @AllArgsConstructor
 public enum LlmProvider {
-    OPENAI("OpenAI GPT"),
-    CLAUDE("Claude"),
-    VERTEX_GEMINI("Vertex Gemini");
+    OPENAI("OpenAI GPT", "openai"),
+    CLAUDE("Claude", "claude"),
+    VERTEX_GEMINI("Vertex Gemini", "vertex"),
+    // Simulated provider for offline load and latency testing, see LocalMockProviderAdapter
+    LOCAL_MOCK("Local Mock", "mock");
 
     private final String displayName;
+    private final String configKey; // llm.<configKey>.* in application.yaml
 }
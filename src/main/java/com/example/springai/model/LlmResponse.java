@@ -1,18 +1,37 @@
 package com.example.springai.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "llm_responses")
+@Table(name = "llm_responses", indexes = {
+        @Index(name = "idx_llm_responses_request_hash", columnList = "request_hash"),
+        @Index(name = "idx_llm_responses_session_created", columnList = "session_id, created_at"),
+        @Index(name = "idx_llm_responses_created", columnList = "created_at"),
+        @Index(name = "idx_llm_responses_prompt", columnList = "prompt_id")
+})
 public class LlmResponse {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence instead of IDENTITY so Hibernate can batch the inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "llm_responses_seq")
+    @SequenceGenerator(name = "llm_responses_seq", sequenceName = "llm_responses_seq", allocationSize = 50)
     private Long id;
 
-    @Column(nullable = false)
+    // Prompt text is stored once in the prompts table, resolved when the row is persisted
+    @JsonIgnore
+    @ManyToOne
+    @JoinColumn(name = "prompt_id")
+    private Prompt promptRef;
+
+    // Text of rows written before prompts were normalized, moved over by PromptBackfill
+    @JsonIgnore
+    @Column(name = "prompt", columnDefinition = "TEXT")
+    private String legacyPrompt;
+
+    @Transient
     private String prompt;
 
     @Enumerated(EnumType.STRING)
@@ -38,6 +57,12 @@ public class LlmResponse {
     @Column(name = "session_id")
     private String sessionId;
 
+    @Column(name = "request_hash", length = 64)
+    private String requestHash;
+
+    @Column(name = "cache_hit")
+    private boolean cacheHit;
+
     public LlmResponse() {
         this.createdAt = LocalDateTime.now();
     }
@@ -55,13 +80,34 @@ public class LlmResponse {
         this.sessionId = sessionId;
     }
 
+    /**
+     * Copy of this answer for another comparison session, with a fresh creation time and no ID.
+     */
+    public LlmResponse copyForSession(String sessionId) {
+        LlmResponse copy = new LlmResponse(getPrompt(), provider, model, response, responseTimeMs, tokenCount, sessionId);
+        copy.promptRef = promptRef;
+        copy.requestHash = requestHash;
+        return copy;
+    }
+
     // Getters and Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
-    public String getPrompt() { return prompt; }
+    public String getPrompt() {
+        if (prompt == null) {
+            prompt = promptRef != null ? promptRef.getText() : legacyPrompt;
+        }
+        return prompt;
+    }
     public void setPrompt(String prompt) { this.prompt = prompt; }
 
+    public Prompt getPromptRef() { return promptRef; }
+    public void setPromptRef(Prompt promptRef) { this.promptRef = promptRef; }
+
+    public String getLegacyPrompt() { return legacyPrompt; }
+    public void setLegacyPrompt(String legacyPrompt) { this.legacyPrompt = legacyPrompt; }
+
     public LlmProvider getProvider() { return provider; }
     public void setProvider(LlmProvider provider) { this.provider = provider; }
 
@@ -82,4 +128,10 @@ public class LlmResponse {
 
     public String getSessionId() { return sessionId; }
     public void setSessionId(String sessionId) { this.sessionId = sessionId; }
+
+    public String getRequestHash() { return requestHash; }
+    public void setRequestHash(String requestHash) { this.requestHash = requestHash; }
+
+    public boolean isCacheHit() { return cacheHit; }
+    public void setCacheHit(boolean cacheHit) { this.cacheHit = cacheHit; }
 }
@@ -0,0 +1,53 @@
+package com.example.springai.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A distinct prompt text, stored once and referenced by every response to it.
+ */
+@Entity
+@Table(name = "prompts", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_prompts_content_hash", columnNames = "content_hash")
+})
+public class Prompt {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "prompts_seq")
+    @SequenceGenerator(name = "prompts_seq", sequenceName = "prompts_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "content_hash", length = 64, nullable = false)
+    private String contentHash;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String text;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    public Prompt() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public Prompt(String contentHash, String text) {
+        this();
+        this.contentHash = contentHash;
+        this.text = text;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+
+    public String getText() { return text; }
+    public void setText(String text) { this.text = text; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
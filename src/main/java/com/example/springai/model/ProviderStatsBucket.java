@@ -0,0 +1,108 @@
+package com.example.springai.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Persisted snapshot of the analytics sketch for one provider, model and hour.
+ */
+@Entity
+@Table(name = "provider_stats_buckets",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_provider_stats_bucket",
+                        columnNames = {"provider", "model", "bucket_start"})
+        },
+        indexes = {
+                @Index(name = "idx_provider_stats_bucket_start", columnList = "bucket_start")
+        })
+public class ProviderStatsBucket {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "provider_stats_buckets_seq")
+    @SequenceGenerator(name = "provider_stats_buckets_seq", sequenceName = "provider_stats_buckets_seq",
+            allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private LlmProvider provider;
+
+    @Column(nullable = false)
+    private String model;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "response_count")
+    private long count;
+
+    @Column(name = "error_count")
+    private long errors;
+
+    @Column(name = "token_sum")
+    private long tokenSum;
+
+    @Column(name = "length_sum")
+    private long lengthSum;
+
+    // Compressed HdrHistogram encodings
+    @Lob
+    @Column(name = "latency_histogram")
+    private byte[] latencyHistogram;
+
+    @Lob
+    @Column(name = "tokens_histogram")
+    private byte[] tokensHistogram;
+
+    @Lob
+    @Column(name = "length_histogram")
+    private byte[] lengthHistogram;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public ProviderStatsBucket() {}
+
+    public ProviderStatsBucket(LlmProvider provider, String model, LocalDateTime bucketStart) {
+        this.provider = provider;
+        this.model = model;
+        this.bucketStart = bucketStart;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public LlmProvider getProvider() { return provider; }
+    public void setProvider(LlmProvider provider) { this.provider = provider; }
+
+    public String getModel() { return model; }
+    public void setModel(String model) { this.model = model; }
+
+    public LocalDateTime getBucketStart() { return bucketStart; }
+    public void setBucketStart(LocalDateTime bucketStart) { this.bucketStart = bucketStart; }
+
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+
+    public long getErrors() { return errors; }
+    public void setErrors(long errors) { this.errors = errors; }
+
+    public long getTokenSum() { return tokenSum; }
+    public void setTokenSum(long tokenSum) { this.tokenSum = tokenSum; }
+
+    public long getLengthSum() { return lengthSum; }
+    public void setLengthSum(long lengthSum) { this.lengthSum = lengthSum; }
+
+    public byte[] getLatencyHistogram() { return latencyHistogram; }
+    public void setLatencyHistogram(byte[] latencyHistogram) { this.latencyHistogram = latencyHistogram; }
+
+    public byte[] getTokensHistogram() { return tokensHistogram; }
+    public void setTokensHistogram(byte[] tokensHistogram) { this.tokensHistogram = tokensHistogram; }
+
+    public byte[] getLengthHistogram() { return lengthHistogram; }
+    public void setLengthHistogram(byte[] lengthHistogram) { this.lengthHistogram = lengthHistogram; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,90 @@
+package com.example.springai.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Catalog row for one report file. The path is relative to the reports directory; the checksum is
+ * the SHA-256 of the file contents and doubles as its ETag.
+ */
+@Entity
+@Table(name = "report_entries",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_report_entries_report_id", columnNames = "report_id")
+        },
+        indexes = {
+                @Index(name = "idx_report_entries_session_created", columnList = "session_id, created_at"),
+                @Index(name = "idx_report_entries_created_at", columnList = "created_at")
+        })
+public class ReportEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "report_entries_seq")
+    @SequenceGenerator(name = "report_entries_seq", sequenceName = "report_entries_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "report_id", length = 36, nullable = false)
+    private String reportId;
+
+    // Comparison session, or batch job ID for batch reports
+    @Column(name = "session_id", nullable = false)
+    private String sessionId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ReportFormat format;
+
+    @Column(nullable = false, length = 512)
+    private String path;
+
+    @Column(name = "size_bytes")
+    private long sizeBytes;
+
+    @Column(length = 64, nullable = false)
+    private String checksum;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public ReportEntry() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public ReportEntry(String reportId, String sessionId, ReportFormat format, String path, long sizeBytes,
+                       String checksum) {
+        this();
+        this.reportId = reportId;
+        this.sessionId = sessionId;
+        this.format = format;
+        this.path = path;
+        this.sizeBytes = sizeBytes;
+        this.checksum = checksum;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getReportId() { return reportId; }
+    public void setReportId(String reportId) { this.reportId = reportId; }
+
+    public String getSessionId() { return sessionId; }
+    public void setSessionId(String sessionId) { this.sessionId = sessionId; }
+
+    public ReportFormat getFormat() { return format; }
+    public void setFormat(ReportFormat format) { this.format = format; }
+
+    public String getPath() { return path; }
+    public void setPath(String path) { this.path = path; }
+
+    public long getSizeBytes() { return sizeBytes; }
+    public void setSizeBytes(long sizeBytes) { this.sizeBytes = sizeBytes; }
+
+    public String getChecksum() { return checksum; }
+    public void setChecksum(String checksum) { this.checksum = checksum; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,28 @@
+package com.example.springai.model;
+
+import java.util.Optional;
+
+public enum ReportFormat {
+    MARKDOWN("md", "text/markdown"),
+    JSON("json", "application/json");
+
+    private final String extension;
+    private final String contentType;
+
+    ReportFormat(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    public String getExtension() { return extension; }
+    public String getContentType() { return contentType; }
+
+    public static Optional<ReportFormat> fromExtension(String extension) {
+        for (ReportFormat format : values()) {
+            if (format.extension.equals(extension)) {
+                return Optional.of(format);
+            }
+        }
+        return Optional.empty();
+    }
+}
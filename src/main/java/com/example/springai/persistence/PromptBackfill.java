@@ -0,0 +1,64 @@
+package com.example.springai.persistence;
+
+import com.example.springai.model.LlmResponse;
+import com.example.springai.repository.LlmResponseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Moves prompt text from rows written before prompts were normalized into the prompts table,
+ * one page per transaction. Once no row is left with a legacy prompt, the prompt column on
+ * llm_responses can be dropped.
+ */
+@Component
+public class PromptBackfill implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromptBackfill.class);
+
+    private final LlmResponseRepository responseRepository;
+    private final PromptRegistry promptRegistry;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${llm.persistence.prompt-backfill.enabled:true}")
+    private boolean enabled;
+
+    public PromptBackfill(LlmResponseRepository responseRepository, PromptRegistry promptRegistry,
+                          PlatformTransactionManager transactionManager) {
+        this.responseRepository = responseRepository;
+        this.promptRegistry = promptRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        long migrated = 0;
+        int page;
+        do {
+            page = transactionTemplate.execute(status -> {
+                List<LlmResponse> legacyRows =
+                        responseRepository.findTop500ByPromptRefIsNullAndLegacyPromptIsNotNullOrderById();
+                for (LlmResponse row : legacyRows) {
+                    row.setPromptRef(promptRegistry.resolve(row.getLegacyPrompt()));
+                    row.setLegacyPrompt(null);
+                }
+                return legacyRows.size();
+            });
+            migrated += page;
+        } while (page > 0);
+
+        if (migrated > 0) {
+            logger.info("Moved {} legacy prompts into the prompts table", migrated);
+        }
+    }
+}
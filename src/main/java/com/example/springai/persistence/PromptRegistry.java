@@ -0,0 +1,87 @@
+package com.example.springai.persistence;
+
+import com.example.springai.model.Prompt;
+import com.example.springai.repository.PromptRepository;
+import com.example.springai.util.HashUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Maps prompt text to its row in the prompts table, inserting it the first time it is seen.
+ * Must be called inside a transaction. Only committed rows are cached, so a concurrent writer
+ * never references a prompt whose insert may still roll back.
+ */
+@Component
+public class PromptRegistry {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final PromptRepository promptRepository;
+
+    // Content hash to prompt ID, saves the lookup for prompts repeated across providers and runs
+    private final Cache<String, Long> knownPrompts = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .build();
+
+    public PromptRegistry(PromptRepository promptRepository) {
+        this.promptRepository = promptRepository;
+    }
+
+    public Prompt resolve(String text) {
+        String contentHash = HashUtils.sha256Hex(text);
+        Long id = knownPrompts.getIfPresent(contentHash);
+        if (id == null) {
+            id = createdInTransaction().get(contentHash);
+        }
+        if (id != null) {
+            return entityManager.getReference(Prompt.class, id);
+        }
+
+        Optional<Prompt> existing = promptRepository.findByContentHash(contentHash);
+        if (existing.isPresent()) {
+            // Committed by an earlier transaction, safe to share
+            knownPrompts.put(contentHash, existing.get().getId());
+            return existing.get();
+        }
+        Prompt created = new Prompt(contentHash, text);
+        entityManager.persist(created);
+        createdInTransaction().put(contentHash, created.getId());
+        return created;
+    }
+
+    /**
+     * Prompts inserted by the current transaction. Other writers only see their IDs once it has
+     * committed; a rollback discards them along with the rows.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Long> createdInTransaction() {
+        Map<String, Long> created = (Map<String, Long>) TransactionSynchronizationManager.getResource(this);
+        if (created != null) {
+            return created;
+        }
+        Map<String, Long> pending = new HashMap<>();
+        TransactionSynchronizationManager.bindResource(this, pending);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                knownPrompts.putAll(pending);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(PromptRegistry.this);
+            }
+        });
+        return pending;
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.springai.persistence;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only, memory-mapped journal of rows that were accepted but not yet written to the database.
+ * Writes land in the page cache as soon as they are made, so the rows survive a crash of the JVM
+ * (not of the OS, unless forceOnAppend is set) and are handed back by {@link #recover()} on startup.
+ *
+ * <pre>
+ * header : int magic, int version
+ * record : int length, byte state (PENDING / FLUSHED), byte[length] payload
+ * </pre>
+ * A zero length marks the end of the log. Once every appended record has been flushed the log is
+ * rewound to the start of the file, so its size only has to cover the rows in flight.
+ */
+public class ResponseJournal implements AutoCloseable {
+
+    private static final int MAGIC = 0x4C4C4D4A; // "LLMJ"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 5;
+
+    private static final byte PENDING = 1;
+    private static final byte FLUSHED = 2;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final boolean forceOnAppend;
+
+    private int position = HEADER_SIZE;
+    private int outstanding;
+
+    private ResponseJournal(FileChannel channel, MappedByteBuffer buffer, boolean forceOnAppend) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.forceOnAppend = forceOnAppend;
+    }
+
+    public static ResponseJournal open(Path path, int capacityBytes, boolean forceOnAppend) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        int size = (int) Math.max(capacityBytes, channel.size());
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+        if (buffer.getInt(0) != MAGIC) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(HEADER_SIZE, 0);
+        } else if (buffer.getInt(4) != VERSION) {
+            channel.close();
+            throw new IOException("Unsupported journal version " + buffer.getInt(4) + " in " + path);
+        }
+        return new ResponseJournal(channel, buffer, forceOnAppend);
+    }
+
+    /**
+     * Scans the log for records that were never marked flushed. The log is positioned after the
+     * last record, and the pending ones stay outstanding until they are marked flushed.
+     */
+    public synchronized List<Record> recover() {
+        List<Record> pending = new ArrayList<>();
+        int offset = HEADER_SIZE;
+        while (offset + RECORD_HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(offset);
+            // Zero ends the log, anything out of range is a torn write from the crash; the range
+            // check subtracts so that a garbage length cannot overflow it
+            if (length <= 0 || length > buffer.capacity() - offset - RECORD_HEADER_SIZE) {
+                break;
+            }
+            if (buffer.get(offset + 4) == PENDING) {
+                byte[] payload = new byte[length];
+                buffer.get(offset + RECORD_HEADER_SIZE, payload);
+                pending.add(new Record(offset, payload));
+            }
+            offset += RECORD_HEADER_SIZE + length;
+        }
+        position = offset;
+        outstanding = pending.size();
+        if (outstanding == 0) {
+            rewind();
+        }
+        return pending;
+    }
+
+    /**
+     * Appends all payloads or none of them. Returns the record offsets, or null when the
+     * journal has no room left for the whole group.
+     */
+    public synchronized long[] appendAll(List<byte[]> payloads) {
+        int required = 0;
+        for (byte[] payload : payloads) {
+            required += RECORD_HEADER_SIZE + payload.length;
+        }
+        // Keep room for the terminating zero length
+        if (position + required + 4 > buffer.capacity()) {
+            return null;
+        }
+
+        long[] offsets = new long[payloads.size()];
+        for (int i = 0; i < payloads.size(); i++) {
+            byte[] payload = payloads.get(i);
+            offsets[i] = position;
+            buffer.put(position + 4, PENDING);
+            buffer.put(position + RECORD_HEADER_SIZE, payload);
+            buffer.putInt(position + RECORD_HEADER_SIZE + payload.length, 0);
+            // Length last, so a torn record reads as the end of the log
+            buffer.putInt(position, payload.length);
+            position += RECORD_HEADER_SIZE + payload.length;
+        }
+        outstanding += payloads.size();
+        if (forceOnAppend) {
+            buffer.force();
+        }
+        return offsets;
+    }
+
+    public synchronized void markFlushed(long[] offsets) {
+        for (long offset : offsets) {
+            buffer.put((int) offset + 4, FLUSHED);
+        }
+        outstanding -= offsets.length;
+        if (outstanding <= 0) {
+            rewind();
+        }
+    }
+
+    public synchronized int getOutstanding() {
+        return outstanding;
+    }
+
+    private void rewind() {
+        outstanding = 0;
+        position = HEADER_SIZE;
+        buffer.putInt(HEADER_SIZE, 0);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    public record Record(long offset, byte[] payload) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.springai.persistence;
+
+import com.example.springai.model.LlmResponse;
+
+import java.util.List;
+
+/**
+ * Published after a batch of responses has been committed to the database.
+ */
+public record ResponsesPersistedEvent(List<LlmResponse> responses) {
+}
@@ -0,0 +1,299 @@
+package com.example.springai.persistence;
+
+import com.example.springai.model.LlmResponse;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Bounded write-behind queue in front of the database. Responses are journaled, queued and
+ * acknowledged immediately; a single writer thread drains them in batches once batchSize rows are
+ * waiting or every flushInterval. When the queue or the journal is full the caller writes its own
+ * rows synchronously, which is the only point where callers wait on the database.
+ *
+ * <p>A batch the database rejects is retried as a whole on the next tick. After
+ * {@value #MAX_ATTEMPTS} failed attempts its rows are written one by one, and a row that still
+ * fails while the database keeps accepting others is dead-lettered: logged and released from the
+ * journal, so one bad row cannot hold back its batch-mates or keep the journal from rewinding.
+ * While nothing gets through, e.g. during an outage, rows are kept and retried.
+ */
+public class WriteBehindBuffer implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindBuffer.class);
+
+    private static final long NOT_JOURNALED = -1;
+    // Failed batch writes before its rows are written one at a time
+    static final int MAX_ATTEMPTS = 3;
+
+    private final Queue<Entry> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "llm-write-behind");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Consumer<List<LlmResponse>> sink;
+    private final ResponseJournal journal;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper journalMapper;
+    private final int capacity;
+    private final int batchSize;
+    private final Duration flushInterval;
+
+    // Successful sink calls, lets a failing row tell a bad row from an unreachable database
+    private long successfulWrites;
+
+    /**
+     * @param journal may be null to buffer in memory only
+     */
+    public WriteBehindBuffer(Consumer<List<LlmResponse>> sink, ResponseJournal journal, ObjectMapper objectMapper,
+                             int capacity, int batchSize, Duration flushInterval) {
+        this.sink = sink;
+        this.journal = journal;
+        this.objectMapper = objectMapper;
+        this.journalMapper = objectMapper.copy().addMixIn(LlmResponse.class, JournalFormat.class);
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+    }
+
+    /**
+     * Queues any rows left pending in the journal by a previous run and starts the periodic flush.
+     * A crash between the database commit and marking the rows flushed leaves rows in the journal
+     * that were already written; alreadyWritten skips those so replay is idempotent.
+     */
+    public void start(Predicate<LlmResponse> alreadyWritten) {
+        if (journal != null) {
+            List<ResponseJournal.Record> recovered = journal.recover();
+            int replayed = 0;
+            for (ResponseJournal.Record record : recovered) {
+                LlmResponse response;
+                try {
+                    response = deserialize(record.payload());
+                } catch (IOException e) {
+                    logger.error("Dropping unreadable journal record at offset {}: {}", record.offset(),
+                            e.getMessage());
+                    journal.markFlushed(new long[]{record.offset()});
+                    continue;
+                }
+                if (alreadyWritten.test(response)) {
+                    journal.markFlushed(new long[]{record.offset()});
+                    continue;
+                }
+                queue.add(new Entry(response, record.offset(), 0, 0));
+                size.incrementAndGet();
+                replayed++;
+            }
+            if (!recovered.isEmpty()) {
+                logger.info("Replaying {} of {} unflushed responses from the journal", replayed, recovered.size());
+            }
+        }
+        long intervalMs = flushInterval.toMillis();
+        writer.scheduleWithFixedDelay(this::drain, 0, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void offer(List<LlmResponse> responses) {
+        if (responses.isEmpty()) {
+            return;
+        }
+        int reserved = size.addAndGet(responses.size());
+        if (reserved > capacity) {
+            size.addAndGet(-responses.size());
+            writeThrough(responses);
+            return;
+        }
+
+        long[] offsets = journal != null ? journal.appendAll(serialize(responses)) : null;
+        if (journal != null && offsets == null) {
+            size.addAndGet(-responses.size());
+            writeThrough(responses);
+            return;
+        }
+        for (int i = 0; i < responses.size(); i++) {
+            queue.add(new Entry(responses.get(i), offsets != null ? offsets[i] : NOT_JOURNALED, 0, 0));
+        }
+
+        if (reserved >= batchSize && flushScheduled.compareAndSet(false, true)) {
+            writer.execute(this::drain);
+        }
+    }
+
+    public int getQueued() {
+        return size.get();
+    }
+
+    private void writeThrough(List<LlmResponse> responses) {
+        logger.debug("Write-behind buffer full, persisting {} responses on the caller thread", responses.size());
+        sink.accept(responses);
+    }
+
+    private List<byte[]> serialize(List<LlmResponse> responses) {
+        List<byte[]> payloads = new ArrayList<>(responses.size());
+        for (LlmResponse response : responses) {
+            try {
+                payloads.add(journalMapper.writeValueAsBytes(response));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not journal response: " + e.getMessage(), e);
+            }
+        }
+        return payloads;
+    }
+
+    private LlmResponse deserialize(byte[] payload) throws IOException {
+        try {
+            return journalMapper.readValue(payload, LlmResponse.class);
+        } catch (IOException e) {
+            // Written before the journal had its own format, timestamps in the API's whole-second pattern
+            return objectMapper.readValue(payload, LlmResponse.class);
+        }
+    }
+
+    /**
+     * Runs on the writer thread only.
+     */
+    private void drain() {
+        flushScheduled.set(false);
+        List<Entry> batch = new ArrayList<>(batchSize);
+        Entry entry;
+        while ((entry = queue.poll()) != null) {
+            batch.add(entry);
+            if (batch.size() == batchSize) {
+                if (!flush(batch)) {
+                    return;
+                }
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            flush(batch);
+        }
+    }
+
+    private boolean flush(List<Entry> batch) {
+        try {
+            sink.accept(batch.stream().map(Entry::response).toList());
+        } catch (RuntimeException e) {
+            if (batch.stream().anyMatch(entry -> entry.attempts() + 1 >= MAX_ATTEMPTS)) {
+                return flushOneByOne(batch);
+            }
+            // Rows stay pending in the journal, put them back and retry on the next tick
+            logger.error("Error flushing {} buffered responses, will retry: {}", batch.size(), e.getMessage());
+            requeue(batch);
+            return false;
+        }
+        flushed(batch);
+        return true;
+    }
+
+    private boolean flushOneByOne(List<Entry> batch) {
+        List<Entry> failed = new ArrayList<>();
+        List<RuntimeException> errors = new ArrayList<>();
+        for (Entry entry : batch) {
+            try {
+                sink.accept(List.of(entry.response()));
+                flushed(List.of(entry));
+            } catch (RuntimeException e) {
+                failed.add(entry);
+                errors.add(e);
+            }
+        }
+
+        List<Entry> retry = new ArrayList<>();
+        for (int i = 0; i < failed.size(); i++) {
+            Entry entry = failed.get(i);
+            // Other rows were written since this one last failed, so it is the row being rejected
+            if (entry.attempts() + 1 >= MAX_ATTEMPTS && successfulWrites > entry.writesAtLastFailure()) {
+                deadLetter(entry, errors.get(i));
+            } else {
+                retry.add(entry);
+            }
+        }
+        if (retry.isEmpty()) {
+            return true;
+        }
+        logger.error("Error flushing {} buffered responses one by one, will retry: {}", retry.size(),
+                errors.get(errors.size() - 1).getMessage());
+        requeue(retry);
+        return false;
+    }
+
+    private void requeue(List<Entry> entries) {
+        for (Entry entry : entries) {
+            queue.add(new Entry(entry.response(), entry.journalOffset(), entry.attempts() + 1, successfulWrites));
+        }
+    }
+
+    private void flushed(List<Entry> entries) {
+        successfulWrites++;
+        release(entries);
+    }
+
+    private void deadLetter(Entry entry, RuntimeException error) {
+        LlmResponse response = entry.response();
+        logger.error("Dropping response of session {} from {} ({}) after {} failed writes: {}",
+                response.getSessionId(), response.getProvider(), response.getModel(), entry.attempts() + 1,
+                error.getMessage(), error);
+        release(List.of(entry));
+    }
+
+    private void release(List<Entry> entries) {
+        size.addAndGet(-entries.size());
+        if (journal != null) {
+            journal.markFlushed(entries.stream()
+                    .mapToLong(Entry::journalOffset)
+                    .filter(offset -> offset != NOT_JOURNALED)
+                    .toArray());
+        }
+    }
+
+    /**
+     * Stops the periodic flush and writes out whatever is still queued.
+     */
+    @Override
+    public void close() throws IOException {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drain();
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    /**
+     * Journal records keep createdAt at full precision instead of the API's whole-second pattern,
+     * so a replayed row sorts exactly where it would have without the journal.
+     */
+    private abstract static class JournalFormat {
+        @JsonFormat(shape = JsonFormat.Shape.STRING)
+        private LocalDateTime createdAt;
+    }
+
+    /**
+     * @param writesAtLastFailure successfulWrites when the row last failed
+     */
+    private record Entry(LlmResponse response, long journalOffset, int attempts, long writesAtLastFailure) {
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.springai.provider;
+
+import com.example.springai.dto.ClaudeMessageResponse;
+import com.example.springai.dto.ComparisonStreamEvent;
+import com.example.springai.exception.LlmProviderException;
+import com.example.springai.model.LlmProvider;
+import com.example.springai.model.LlmResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.example.springai.provider.ProviderAdapterSupport.BODY_RECEIVED_AT;
+import static com.example.springai.provider.ProviderAdapterSupport.elapsedMs;
+import static com.example.springai.provider.ProviderAdapterSupport.receivedMs;
+
+@Component
+public class ClaudeProviderAdapter implements ProviderAdapter {
+
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SSE_EVENT_TYPE =
+            new ParameterizedTypeReference<>() {};
+
+    @Value("${llm.claude.api-key:}")
+    private String claudeApiKey;
+
+    @Value("${llm.claude.base-url}")
+    private String claudeBaseUrl;
+
+    @Value("${llm.claude.model}")
+    private String claudeModel;
+
+    private final WebClient claudeWebClient;
+    private final ProviderAdapterSupport support;
+
+    public ClaudeProviderAdapter(@Qualifier("claudeWebClient") WebClient claudeWebClient,
+                                 ProviderAdapterSupport support) {
+        this.claudeWebClient = claudeWebClient;
+        this.support = support;
+    }
+
+    @Override
+    public LlmProvider provider() {
+        return LlmProvider.CLAUDE;
+    }
+
+    @Override
+    public Set<ProviderCapability> capabilities() {
+        return EnumSet.of(ProviderCapability.STREAMING, ProviderCapability.TOKEN_ACCOUNTING);
+    }
+
+    @Override
+    public boolean isConfigured() {
+        return claudeApiKey != null && !claudeApiKey.isEmpty() && !claudeApiKey.startsWith("your-");
+    }
+
+    @Override
+    public String model() {
+        return claudeModel;
+    }
+
+    @Override
+    public Mono<LlmResponse> query(String prompt, String sessionId, long startTime) {
+        Map<String, Object> requestBody = Map.of(
+                "model", claudeModel,
+                "max_tokens", support.getMaxTokens(),
+                "temperature", support.getTemperature(),
+                "messages", new Object[]{
+                        Map.of("role", "user", "content", prompt)
+                }
+        );
+
+        AtomicLong bodyReceivedAt = new AtomicLong();
+        return claudeWebClient.post()
+                .uri(claudeBaseUrl + "/messages")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + claudeApiKey)
+                .header("anthropic-version", "2023-06-01")
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .bodyValue(requestBody)
+                .attribute(BODY_RECEIVED_AT, bodyReceivedAt)
+                .retrieve()
+                .bodyToMono(ClaudeMessageResponse.class)
+                .timeout(support.getCallTimeout())
+                .map(response -> {
+                    long responseTime = receivedMs(startTime, bodyReceivedAt);
+                    if (response.getContent() == null || response.getContent().isEmpty()) {
+                        throw new IllegalStateException("Claude response contained no content");
+                    }
+
+                    String content = response.getContent().get(0).getText();
+                    ClaudeMessageResponse.Usage usage = response.getUsage();
+                    int totalTokens = usage != null ? usage.getInputTokens() + usage.getOutputTokens() : 0;
+
+                    return new LlmResponse(prompt, LlmProvider.CLAUDE, claudeModel,
+                            content != null ? content : "", responseTime, totalTokens, sessionId);
+                })
+                .onErrorMap(e -> support.toProviderException(LlmProvider.CLAUDE, "Claude", e));
+    }
+
+    @Override
+    public Flux<ComparisonStreamEvent> stream(String prompt, String sessionId, long startTime) {
+        Map<String, Object> requestBody = Map.of(
+                "model", claudeModel,
+                "max_tokens", support.getMaxTokens(),
+                "temperature", support.getTemperature(),
+                "stream", true,
+                "messages", new Object[]{
+                        Map.of("role", "user", "content", prompt)
+                }
+        );
+        ProviderAdapterSupport.StreamState state = new ProviderAdapterSupport.StreamState();
+
+        return claudeWebClient.post()
+                .uri(claudeBaseUrl + "/messages")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + claudeApiKey)
+                .header("anthropic-version", "2023-06-01")
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .bodyValue(requestBody)
+                .retrieve()
+                .bodyToFlux(SSE_EVENT_TYPE)
+                .timeout(support.getCallTimeout())
+                .mapNotNull(ServerSentEvent::data)
+                .<ComparisonStreamEvent>handle((data, sink) -> {
+                    try {
+                        ClaudeMessageResponse event = support.getObjectMapper()
+                                .readValue(data, ClaudeMessageResponse.class);
+                        switch (event.getType() != null ? event.getType() : "") {
+                            case "message_start":
+                                if (event.getMessage() != null && event.getMessage().getUsage() != null) {
+                                    state.tokens += event.getMessage().getUsage().getInputTokens();
+                                }
+                                break;
+                            case "message_delta":
+                                if (event.getUsage() != null) {
+                                    state.tokens += event.getUsage().getOutputTokens();
+                                }
+                                break;
+                            case "content_block_delta":
+                                String delta = event.getDelta() != null ? event.getDelta().getText() : null;
+                                if (delta != null && !delta.isEmpty()) {
+                                    state.content.append(delta);
+                                    sink.next(ComparisonStreamEvent.delta(LlmProvider.CLAUDE, sessionId, delta));
+                                }
+                                break;
+                            case "error":
+                                // Overload or API failure after the 200, the provider's fault rather
+                                // than a bad body, so it still counts against the circuit breaker
+                                sink.error(new LlmProviderException(LlmProvider.CLAUDE, "Claude stream error: "
+                                        + (event.getError() != null ? event.getError().getMessage() : "unknown"),
+                                        0, null, null));
+                                break;
+                            default:
+                                break;
+                        }
+                    } catch (JsonProcessingException e) {
+                        sink.error(e);
+                    }
+                })
+                .concatWith(Mono.fromCallable(() -> ComparisonStreamEvent.response(
+                        new LlmResponse(prompt, LlmProvider.CLAUDE, claudeModel, state.content.toString(),
+                                elapsedMs(startTime), state.tokens, sessionId))))
+                .onErrorMap(e -> support.toProviderException(LlmProvider.CLAUDE, "Claude", e));
+    }
+}
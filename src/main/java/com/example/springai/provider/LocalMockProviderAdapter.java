@@ -0,0 +1,192 @@
+package com.example.springai.provider;
+
+import com.example.springai.dto.ComparisonStreamEvent;
+import com.example.springai.exception.LlmProviderException;
+import com.example.springai.model.LlmProvider;
+import com.example.springai.model.LlmResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.example.springai.provider.ProviderAdapterSupport.elapsedMs;
+
+/**
+ * Answers locally after a simulated delay, with configurable latency distribution, error rate and
+ * answer length, so the whole comparison pipeline can be load tested without network access or
+ * API spend. Delays are timers, not sleeping threads. Each call draws from a random generator
+ * derived from llm.mock.seed and the call's sequence number, so a run with the same seed and the
+ * same call order produces the same latencies, errors and answers.
+ */
+@Component
+public class LocalMockProviderAdapter implements ProviderAdapter {
+
+    // 99th percentile of the standard normal distribution
+    private static final double Z_P99 = 2.3263;
+    private static final long SEQUENCE_MIX = 0x9E3779B97F4A7C15L;
+
+    private static final String[] WORDS = {
+            "model", "latency", "response", "token", "provider", "compare", "quality", "answer",
+            "context", "prompt", "request", "stream", "result", "analysis", "summary", "detail",
+            "the", "a", "of", "and", "to", "in", "is", "that", "for", "with", "as", "on", "it", "by",
+            "example", "language", "system", "data", "value", "output", "input", "test", "mock", "local"
+    };
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Value("${llm.mock.enabled:false}")
+    private boolean enabled;
+
+    @Value("${llm.mock.model:mock-1}")
+    private String mockModel;
+
+    @Value("${llm.mock.seed:42}")
+    private long seed;
+
+    @Value("${llm.mock.latency.distribution:LOG_NORMAL}")
+    private MockLatencyDistribution latencyDistribution;
+
+    @Value("${llm.mock.latency.median:800ms}")
+    private Duration latencyMedian;
+
+    @Value("${llm.mock.latency.p99:4s}")
+    private Duration latencyP99;
+
+    @Value("${llm.mock.latency.min:200ms}")
+    private Duration latencyMin;
+
+    @Value("${llm.mock.latency.max:2s}")
+    private Duration latencyMax;
+
+    @Value("${llm.mock.error-rate:0.0}")
+    private double errorRate;
+
+    // Reported with simulated errors; 429 and 5xx exercise the retry and backoff paths
+    @Value("${llm.mock.error-status:503}")
+    private int errorStatus;
+
+    @Value("${llm.mock.response.min-tokens:100}")
+    private int minResponseTokens;
+
+    @Value("${llm.mock.response.max-tokens:400}")
+    private int maxResponseTokens;
+
+    @Value("${llm.mock.stream-chunks:20}")
+    private int streamChunks;
+
+    @Override
+    public LlmProvider provider() {
+        return LlmProvider.LOCAL_MOCK;
+    }
+
+    @Override
+    public Set<ProviderCapability> capabilities() {
+        return EnumSet.of(ProviderCapability.STREAMING, ProviderCapability.TOKEN_ACCOUNTING);
+    }
+
+    @Override
+    public boolean isConfigured() {
+        return enabled;
+    }
+
+    @Override
+    public String model() {
+        return mockModel;
+    }
+
+    @Override
+    public Mono<LlmResponse> query(String prompt, String sessionId, long startTime) {
+        SimulatedCall call = nextCall();
+        return Mono.delay(call.latency())
+                .then(Mono.fromCallable(() -> {
+                    if (call.fails()) {
+                        throw simulatedError();
+                    }
+                    return new LlmResponse(prompt, LlmProvider.LOCAL_MOCK, mockModel, String.join(" ", call.words()),
+                            elapsedMs(startTime), totalTokens(prompt, call), sessionId);
+                }));
+    }
+
+    /**
+     * Deltas spread evenly over the simulated latency; a failing call errors once it has elapsed.
+     */
+    @Override
+    public Flux<ComparisonStreamEvent> stream(String prompt, String sessionId, long startTime) {
+        SimulatedCall call = nextCall();
+        if (call.fails()) {
+            return Mono.delay(call.latency()).then(Mono.<ComparisonStreamEvent>error(simulatedError())).flux();
+        }
+
+        List<String> chunks = chunk(call.words(), Math.max(1, streamChunks));
+        Duration step = call.latency().dividedBy(chunks.size());
+        return Flux.fromIterable(chunks)
+                .delayElements(step)
+                .map(delta -> ComparisonStreamEvent.delta(LlmProvider.LOCAL_MOCK, sessionId, delta))
+                .concatWith(Mono.fromCallable(() -> ComparisonStreamEvent.response(
+                        new LlmResponse(prompt, LlmProvider.LOCAL_MOCK, mockModel, String.join("", chunks),
+                                elapsedMs(startTime), totalTokens(prompt, call), sessionId))));
+    }
+
+    private SimulatedCall nextCall() {
+        SplittableRandom random = new SplittableRandom(seed + sequence.getAndIncrement() * SEQUENCE_MIX);
+        Duration latency = Duration.ofMillis(Math.max(0, sampleLatencyMs(random)));
+        boolean fails = random.nextDouble() < errorRate;
+        int tokens = maxResponseTokens > minResponseTokens
+                ? random.nextInt(minResponseTokens, maxResponseTokens + 1)
+                : Math.max(1, minResponseTokens);
+        List<String> words = new ArrayList<>(tokens);
+        for (int i = 0; i < tokens; i++) {
+            words.add(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return new SimulatedCall(latency, fails, words);
+    }
+
+    private long sampleLatencyMs(SplittableRandom random) {
+        long median = latencyMedian.toMillis();
+        return switch (latencyDistribution) {
+            case FIXED -> median;
+            case UNIFORM -> {
+                long min = latencyMin.toMillis();
+                long max = Math.max(min, latencyMax.toMillis());
+                yield min + (long) (random.nextDouble() * (max - min));
+            }
+            case LOG_NORMAL -> {
+                // Median e^mu and p99 e^(mu + z99 * sigma) pin down both parameters
+                double sigma = Math.log((double) Math.max(latencyP99.toMillis(), median + 1) / Math.max(median, 1))
+                        / Z_P99;
+                yield Math.round(Math.max(median, 1) * Math.exp(sigma * random.nextGaussian()));
+            }
+        };
+    }
+
+    private LlmProviderException simulatedError() {
+        return new LlmProviderException(LlmProvider.LOCAL_MOCK,
+                "Local Mock simulated error (HTTP " + errorStatus + ")", errorStatus, null, null);
+    }
+
+    // Roughly four characters per prompt token, one token per generated word
+    private static int totalTokens(String prompt, SimulatedCall call) {
+        return prompt.length() / 4 + call.words().size();
+    }
+
+    private static List<String> chunk(List<String> words, int chunks) {
+        int perChunk = Math.max(1, (words.size() + chunks - 1) / chunks);
+        List<String> deltas = new ArrayList<>(chunks);
+        for (int start = 0; start < words.size(); start += perChunk) {
+            String delta = String.join(" ", words.subList(start, Math.min(words.size(), start + perChunk)));
+            deltas.add(start == 0 ? delta : " " + delta);
+        }
+        return deltas;
+    }
+
+    private record SimulatedCall(Duration latency, boolean fails, List<String> words) {
+    }
+}
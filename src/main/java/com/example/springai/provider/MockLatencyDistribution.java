@@ -0,0 +1,13 @@
+package com.example.springai.provider;
+
+/**
+ * Shape of the simulated response times of LocalMockProviderAdapter.
+ */
+public enum MockLatencyDistribution {
+    /** Always the median. */
+    FIXED,
+    /** Evenly spread between min and max. */
+    UNIFORM,
+    /** Long-tailed like real providers, fitted to the median and p99. */
+    LOG_NORMAL
+}
@@ -0,0 +1,167 @@
+package com.example.springai.provider;
+
+import com.example.springai.dto.ComparisonStreamEvent;
+import com.example.springai.dto.OpenAiChatResponse;
+import com.example.springai.model.LlmProvider;
+import com.example.springai.model.LlmResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.example.springai.provider.ProviderAdapterSupport.BODY_RECEIVED_AT;
+import static com.example.springai.provider.ProviderAdapterSupport.elapsedMs;
+import static com.example.springai.provider.ProviderAdapterSupport.receivedMs;
+
+@Component
+public class OpenAiProviderAdapter implements ProviderAdapter {
+
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SSE_EVENT_TYPE =
+            new ParameterizedTypeReference<>() {};
+
+    @Value("${llm.openai.api-key:}")
+    private String openaiApiKey;
+
+    @Value("${llm.openai.base-url}")
+    private String openaiBaseUrl;
+
+    @Value("${llm.openai.model}")
+    private String openaiModel;
+
+    private final WebClient openAiWebClient;
+    private final ProviderAdapterSupport support;
+
+    public OpenAiProviderAdapter(@Qualifier("openAiWebClient") WebClient openAiWebClient,
+                                 ProviderAdapterSupport support) {
+        this.openAiWebClient = openAiWebClient;
+        this.support = support;
+    }
+
+    @Override
+    public LlmProvider provider() {
+        return LlmProvider.OPENAI;
+    }
+
+    @Override
+    public Set<ProviderCapability> capabilities() {
+        return EnumSet.of(ProviderCapability.STREAMING, ProviderCapability.TOKEN_ACCOUNTING);
+    }
+
+    @Override
+    public boolean isConfigured() {
+//        return openaiApiKey != null && !openaiApiKey.isEmpty() && !openaiApiKey.startsWith("your-");
+        return "openaiApiKey" != null && !"openaiApiKey".isEmpty() && !"openaiApiKey".startsWith("your-");
+    }
+
+    @Override
+    public String model() {
+        return openaiModel;
+    }
+
+    @Override
+    public Mono<LlmResponse> query(String prompt, String sessionId, long startTime) {
+        Map<String, Object> requestBody = Map.of(
+                "model", openaiModel,
+                "messages", new Object[]{
+                        Map.of("role", "user", "content", prompt)
+                },
+                "max_tokens", support.getMaxTokens(),
+                "temperature", support.getTemperature()
+        );
+
+        AtomicLong bodyReceivedAt = new AtomicLong();
+        return openAiWebClient.post()
+                .uri(openaiBaseUrl + "/chat/completions")
+//                .header(HttpHeaders.AUTHORIZATION, "Bearer " + openaiApiKey)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + "openaiApiKey")
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .bodyValue(requestBody)
+                .attribute(BODY_RECEIVED_AT, bodyReceivedAt)
+                .retrieve()
+                // Decoded by the WebClient's Jackson codec, timed as the parse phase
+                .bodyToMono(OpenAiChatResponse.class)
+                .timeout(support.getCallTimeout())
+                .map(response -> {
+                    long responseTime = receivedMs(startTime, bodyReceivedAt);
+                    if (response.getChoices() == null || response.getChoices().isEmpty()
+                            || response.getChoices().get(0).getMessage() == null) {
+                        throw new IllegalStateException("OpenAI response contained no choices");
+                    }
+
+                    String content = response.getChoices().get(0).getMessage().getContent();
+                    int totalTokens = response.getUsage() != null ? response.getUsage().getTotalTokens() : 0;
+
+                    return new LlmResponse(prompt, LlmProvider.OPENAI, openaiModel,
+                            content != null ? content : "", responseTime, totalTokens, sessionId);
+                })
+                .onErrorMap(e -> support.toProviderException(LlmProvider.OPENAI, "OpenAI", e));
+    }
+
+    @Override
+    public Flux<ComparisonStreamEvent> stream(String prompt, String sessionId, long startTime) {
+        Map<String, Object> requestBody = Map.of(
+                "model", openaiModel,
+                "messages", new Object[]{
+                        Map.of("role", "user", "content", prompt)
+                },
+                "max_tokens", support.getMaxTokens(),
+                "temperature", support.getTemperature(),
+                "stream", true,
+                "stream_options", Map.of("include_usage", true)
+        );
+        ProviderAdapterSupport.StreamState state = new ProviderAdapterSupport.StreamState();
+
+        return openAiWebClient.post()
+                .uri(openaiBaseUrl + "/chat/completions")
+//                .header(HttpHeaders.AUTHORIZATION, "Bearer " + openaiApiKey)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + "openaiApiKey")
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .bodyValue(requestBody)
+                .retrieve()
+                .bodyToFlux(SSE_EVENT_TYPE)
+                // Idle timeout between chunks rather than for the whole answer
+                .timeout(support.getCallTimeout())
+                .mapNotNull(ServerSentEvent::data)
+                .takeWhile(data -> !"[DONE]".equals(data))
+                .<ComparisonStreamEvent>handle((data, sink) -> {
+                    try {
+                        OpenAiChatResponse chunk = support.getObjectMapper().readValue(data, OpenAiChatResponse.class);
+                        if (chunk.getUsage() != null) {
+                            state.tokens = chunk.getUsage().getTotalTokens();
+                        }
+                        String delta = firstDelta(chunk);
+                        if (delta != null && !delta.isEmpty()) {
+                            state.content.append(delta);
+                            sink.next(ComparisonStreamEvent.delta(LlmProvider.OPENAI, sessionId, delta));
+                        }
+                    } catch (JsonProcessingException e) {
+                        sink.error(e);
+                    }
+                })
+                .concatWith(Mono.fromCallable(() -> ComparisonStreamEvent.response(
+                        new LlmResponse(prompt, LlmProvider.OPENAI, openaiModel, state.content.toString(),
+                                elapsedMs(startTime), state.tokens, sessionId))))
+                .onErrorMap(e -> support.toProviderException(LlmProvider.OPENAI, "OpenAI", e));
+    }
+
+    private static String firstDelta(OpenAiChatResponse chunk) {
+        if (chunk.getChoices() == null || chunk.getChoices().isEmpty()) {
+            return null;
+        }
+        OpenAiChatResponse.Message delta = chunk.getChoices().get(0).getDelta();
+        return delta != null ? delta.getContent() : null;
+    }
+}
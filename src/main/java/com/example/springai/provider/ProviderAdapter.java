@@ -0,0 +1,51 @@
+package com.example.springai.provider;
+
+import com.example.springai.dto.ComparisonStreamEvent;
+import com.example.springai.model.LlmProvider;
+import com.example.springai.model.LlmResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+/**
+ * One LLM provider behind LlmClientServiceImpl. Adapters are Spring beans and are picked up by
+ * provider, so adding a provider means adding an LlmProvider constant and an adapter bean; rate
+ * limiting, resilience, metrics and error responses stay in the client service.
+ *
+ * <p>Adapters only make the call: failures are signalled as errors, preferably
+ * LlmProviderException so that the status code reaches the rate limiter and retry policy.
+ */
+public interface ProviderAdapter {
+
+    LlmProvider provider();
+
+    Set<ProviderCapability> capabilities();
+
+    default boolean supports(ProviderCapability capability) {
+        return capabilities().contains(capability);
+    }
+
+    /**
+     * Whether credentials or settings are in place to call the provider at all.
+     */
+    boolean isConfigured();
+
+    /**
+     * Model answering the requests, part of the response cache key.
+     */
+    String model();
+
+    /**
+     * @param startTime System.nanoTime() when the attempt started, for responseTimeMs
+     */
+    Mono<LlmResponse> query(String prompt, String sessionId, long startTime);
+
+    /**
+     * DELTA events followed by one RESPONSE event. Only called on adapters with
+     * {@link ProviderCapability#STREAMING}.
+     */
+    default Flux<ComparisonStreamEvent> stream(String prompt, String sessionId, long startTime) {
+        return Flux.error(new UnsupportedOperationException(provider() + " does not support streaming"));
+    }
+}
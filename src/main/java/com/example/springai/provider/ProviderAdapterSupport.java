@@ -0,0 +1,130 @@
+package com.example.springai.provider;
+
+import com.example.springai.exception.LlmProviderException;
+import com.example.springai.model.LlmProvider;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generation settings and helpers shared by the HTTP provider adapters.
+ */
+@Component
+public class ProviderAdapterSupport {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProviderAdapterSupport.class);
+
+    /**
+     * Request attribute carrying an AtomicLong that the provider WebClient's filter sets to
+     * System.nanoTime() once the last body buffer has arrived, before the body is decoded.
+     */
+    public static final String BODY_RECEIVED_AT = "llm.bodyReceivedAt";
+
+    private final ObjectMapper objectMapper;
+    private final int maxTokens;
+    private final double temperature;
+    private final Duration callTimeout;
+
+    public ProviderAdapterSupport(ObjectMapper objectMapper,
+                                  @Value("${llm.generation.max-tokens:1500}") int maxTokens,
+                                  @Value("${llm.generation.temperature:0.7}") double temperature,
+                                  @Value("${llm.resilience.timeout:60s}") Duration callTimeout) {
+        this.objectMapper = objectMapper;
+        this.maxTokens = maxTokens;
+        this.temperature = temperature;
+        this.callTimeout = callTimeout;
+    }
+
+    public ObjectMapper getObjectMapper() { return objectMapper; }
+
+    public int getMaxTokens() { return maxTokens; }
+
+    public double getTemperature() { return temperature; }
+
+    // Per attempt; for streams, the maximum gap between chunks
+    public Duration getCallTimeout() { return callTimeout; }
+
+    public LlmProviderException toProviderException(LlmProvider provider, String providerName, Throwable e) {
+        if (e instanceof LlmProviderException providerException) {
+            return providerException;
+        }
+        if (e instanceof WebClientResponseException responseException) {
+            logger.error("{} API error: {} - {}", providerName, responseException.getStatusCode(),
+                    responseException.getResponseBodyAsString());
+            return new LlmProviderException(provider, providerName + " API error: " + e.getMessage(),
+                    responseException.getStatusCode().value(),
+                    parseRetryAfter(responseException.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)), e);
+        }
+        if (isTransportFailure(e)) {
+            logger.error("Error calling {}: ", providerName, e);
+            return new LlmProviderException(provider, providerName + " error: " + e.getMessage(), 0, null, e);
+        }
+        // Anything else came out of a 2xx body: undecodable JSON, or no answer in it
+        logger.error("Invalid {} response: ", providerName, e);
+        return LlmProviderException.invalidResponse(provider,
+                providerName + " returned an invalid response: " + e.getMessage(), e);
+    }
+
+    private static boolean isTransportFailure(Throwable e) {
+        return e instanceof TimeoutException
+                || e instanceof WebClientRequestException
+                || (e instanceof IOException && !(e instanceof JsonProcessingException));
+    }
+
+    /**
+     * Retry-After is either a number of seconds or an HTTP date.
+     */
+    private Duration parseRetryAfter(String retryAfter) {
+        if (retryAfter == null || retryAfter.isBlank()) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Long.parseLong(retryAfter.trim()));
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime until = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                Duration delay = Duration.between(ZonedDateTime.now(until.getZone()), until);
+                return delay.isNegative() ? Duration.ZERO : delay;
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+
+    // Monotonic, unaffected by wall-clock adjustments
+    public static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * responseTimeMs of a decoded answer: up to the last body byte, so JSON decoding is not
+     * counted. Falls back to now when the client did not record it.
+     */
+    public static long receivedMs(long startNanos, AtomicLong bodyReceivedAt) {
+        long receivedAt = bodyReceivedAt.get();
+        return receivedAt != 0 ? TimeUnit.NANOSECONDS.toMillis(receivedAt - startNanos) : elapsedMs(startNanos);
+    }
+
+    /**
+     * Content and token usage accumulated over one provider stream.
+     */
+    static final class StreamState {
+        final StringBuilder content = new StringBuilder();
+        int tokens;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.springai.provider;
+
+/**
+ * What a provider adapter can do beyond a single blocking answer.
+ */
+public enum ProviderCapability {
+    /** Answers arrive as deltas; without it the whole answer is emitted as one delta. */
+    STREAMING,
+    /** Accepts several prompts per call through a batch API. */
+    BATCHING,
+    /** Reports token usage, used to reconcile the token rate limit and for token metrics. */
+    TOKEN_ACCOUNTING
+}
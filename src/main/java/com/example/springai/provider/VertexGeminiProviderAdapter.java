@@ -0,0 +1,69 @@
+package com.example.springai.provider;
+
+import com.example.springai.model.LlmProvider;
+import com.example.springai.model.LlmResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import static com.example.springai.provider.ProviderAdapterSupport.elapsedMs;
+
+@Component
+public class VertexGeminiProviderAdapter implements ProviderAdapter {
+
+    private static final Logger logger = LoggerFactory.getLogger(VertexGeminiProviderAdapter.class);
+
+    @Value("${llm.vertex.model:gemini-1.5-pro}")
+    private String vertexModel;
+
+    @Override
+    public LlmProvider provider() {
+        return LlmProvider.VERTEX_GEMINI;
+    }
+
+    @Override
+    public Set<ProviderCapability> capabilities() {
+        return EnumSet.noneOf(ProviderCapability.class);
+    }
+
+    @Override
+    public boolean isConfigured() {
+        // Add your Vertex AI availability check here
+        return false; // Disabled for now
+    }
+
+    @Override
+    public String model() {
+        return vertexModel;
+    }
+
+    @Override
+    public Mono<LlmResponse> query(String prompt, String sessionId, long startTime) {
+        return Mono.fromCallable(() -> queryVertexGemini(prompt, sessionId, startTime));
+    }
+
+    private LlmResponse queryVertexGemini(String prompt, String sessionId, long startTime) {
+        // Note: For Vertex AI, you'll need to implement OAuth2 authentication
+        // This is a simplified version - in production, use Google Cloud client libraries
+        try {
+            // This would typically use Google Cloud client libraries for proper authentication
+            // For now, returning a placeholder response
+            long responseTime = elapsedMs(startTime);
+
+            String placeholderResponse = "Vertex Gemini integration requires Google Cloud authentication setup. " +
+                    "Please configure proper OAuth2 credentials and use Google Cloud client libraries.";
+
+            return new LlmResponse(prompt, LlmProvider.VERTEX_GEMINI, vertexModel,
+                    placeholderResponse, responseTime, 0, sessionId);
+
+        } catch (Exception e) {
+            logger.error("Error calling Vertex Gemini: ", e);
+            throw new RuntimeException("Vertex Gemini error: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.springai.repository;
+
+import com.example.springai.model.ArchivePartition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ArchivePartitionRepository extends JpaRepository<ArchivePartition, Long> {
+
+    // Oldest first for forward scans, newest first for recent pages
+    List<ArchivePartition> findAllByOrderByMinCreatedAtAsc();
+
+    List<ArchivePartition> findAllByOrderByMaxCreatedAtDesc();
+
+    long countByPartitionDate(LocalDate partitionDate);
+
+    boolean existsByPath(String path);
+
+    @Query("select max(p.maxResponseId) from ArchivePartition p")
+    Long findMaxResponseId();
+}
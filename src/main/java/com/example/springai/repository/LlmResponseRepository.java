@@ -1,17 +1,92 @@
 package com.example.springai.repository;
 
+import com.example.springai.model.LlmProvider;
 import com.example.springai.model.LlmResponse;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface LlmResponseRepository extends JpaRepository<LlmResponse, Long> {
 
+    @EntityGraph(attributePaths = "promptRef")
     List<LlmResponse> findBySessionIdOrderByCreatedAt(String sessionId);
 
-    List<LlmResponse> findByPromptContainingIgnoreCase(String prompt);
+    // A session holds at most one answer per provider, which makes this the natural key of a row
+    boolean existsBySessionIdAndProvider(String sessionId, LlmProvider provider);
+
+    // Matches against the deduplicated prompts table rather than every response row
+    @Query("select r from LlmResponse r join fetch r.promptRef p "
+            + "where lower(p.text) like lower(concat('%', :prompt, '%')) order by r.createdAt desc")
+    List<LlmResponse> findByPromptContainingIgnoreCase(@Param("prompt") String prompt);
 
+    @EntityGraph(attributePaths = "promptRef")
     List<LlmResponse> findTop10ByOrderByCreatedAtDesc();
-}
 
+    @EntityGraph(attributePaths = "promptRef")
+    Optional<LlmResponse> findFirstByRequestHashAndCacheHitFalseAndCreatedAtAfterOrderByCreatedAtDesc(
+            String requestHash, LocalDateTime createdAfter);
+
+    // Keyset pages: (created_at, id) seeks on the indexes instead of counting past an offset.
+    // Pageable only carries the page size, always pass page 0.
+
+    @Query("select r from LlmResponse r left join fetch r.promptRef "
+            + "where r.sessionId = :sessionId order by r.createdAt, r.id")
+    List<LlmResponse> findSessionPage(@Param("sessionId") String sessionId, Pageable limit);
+
+    @Query("select r from LlmResponse r left join fetch r.promptRef "
+            + "where r.sessionId = :sessionId "
+            + "and (r.createdAt > :createdAt or (r.createdAt = :createdAt and r.id > :id)) "
+            + "order by r.createdAt, r.id")
+    List<LlmResponse> findSessionPageAfter(@Param("sessionId") String sessionId,
+                                           @Param("createdAt") LocalDateTime createdAt, @Param("id") long id,
+                                           Pageable limit);
+
+    @Query("select r from LlmResponse r left join fetch r.promptRef order by r.createdAt desc, r.id desc")
+    List<LlmResponse> findRecentPage(Pageable limit);
+
+    @Query("select r from LlmResponse r left join fetch r.promptRef "
+            + "where r.createdAt < :createdAt or (r.createdAt = :createdAt and r.id < :id) "
+            + "order by r.createdAt desc, r.id desc")
+    List<LlmResponse> findRecentPageBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") long id,
+                                           Pageable limit);
+
+    /**
+     * Cursor over the rows for export. Must be consumed inside a transaction and closed.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select r from LlmResponse r left join fetch r.promptRef "
+            + "where (:sessionId is null or r.sessionId = :sessionId) "
+            + "and (:from is null or r.createdAt >= :from) and (:to is null or r.createdAt < :to) "
+            + "order by r.createdAt, r.id")
+    Stream<LlmResponse> streamForExport(@Param("sessionId") String sessionId,
+                                        @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Oldest creation time before the cutoff, the next day the archiver moves out.
+     */
+    @Query("select min(r.createdAt) from LlmResponse r where r.createdAt < :cutoff")
+    LocalDateTime findOldestCreatedAtBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    @Query("select max(r.id) from LlmResponse r")
+    Long findMaxId();
+
+    /**
+     * Rows from before prompt normalization that still carry their own prompt text.
+     */
+    List<LlmResponse> findTop500ByPromptRefIsNullAndLegacyPromptIsNotNullOrderById();
+}
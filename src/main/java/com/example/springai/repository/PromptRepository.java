@@ -0,0 +1,13 @@
+package com.example.springai.repository;
+
+import com.example.springai.model.Prompt;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface PromptRepository extends JpaRepository<Prompt, Long> {
+
+    Optional<Prompt> findByContentHash(String contentHash);
+}
@@ -0,0 +1,20 @@
+package com.example.springai.repository;
+
+import com.example.springai.model.LlmProvider;
+import com.example.springai.model.ProviderStatsBucket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ProviderStatsBucketRepository extends JpaRepository<ProviderStatsBucket, Long> {
+
+    Optional<ProviderStatsBucket> findByProviderAndModelAndBucketStart(LlmProvider provider, String model,
+                                                                        LocalDateTime bucketStart);
+
+    List<ProviderStatsBucket> findByBucketStartGreaterThanEqualAndBucketStartLessThan(LocalDateTime from,
+                                                                                      LocalDateTime to);
+}
@@ -0,0 +1,26 @@
+package com.example.springai.repository;
+
+import com.example.springai.model.ReportEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReportEntryRepository extends JpaRepository<ReportEntry, Long> {
+
+    Optional<ReportEntry> findByReportId(String reportId);
+
+    @Query("select e.reportId from ReportEntry e")
+    List<String> findAllReportIds();
+
+    Optional<ReportEntry> findFirstBySessionIdOrderByCreatedAtDesc(String sessionId);
+
+    // Retention works through old entries a chunk at a time
+    List<ReportEntry> findTop500ByCreatedAtBeforeOrderByCreatedAtAsc(LocalDateTime cutoff);
+
+    List<ReportEntry> findTop500ByOrderByCreatedAtAsc();
+}
@@ -0,0 +1,63 @@
+package com.example.springai.resilience;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * AIMD concurrency limit: grows by one permit per window of successful calls and is multiplied by
+ * the backoff ratio whenever a call fails with an overload signal (HTTP 429 or 5xx).
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private final ConcurrencyLimiter limiter;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final Predicate<Throwable> isOverload;
+    private double limit;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+                                    Predicate<Throwable> isOverload) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.backoffRatio = backoffRatio;
+        this.isOverload = isOverload;
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        this.limiter = new ConcurrencyLimiter((int) limit);
+    }
+
+    public <T> Mono<T> run(Supplier<Mono<T>> call) {
+        return limiter.run(call)
+                .doOnSuccess(value -> onSuccess())
+                .doOnError(this::onError);
+    }
+
+    public <T> Flux<T> runMany(Supplier<Flux<T>> call) {
+        return limiter.runMany(call)
+                .doOnComplete(this::onSuccess)
+                .doOnError(this::onError);
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return limiter.getInFlight();
+    }
+
+    private synchronized void onSuccess() {
+        limit = Math.min(maxLimit, limit + 1.0 / limit);
+        limiter.setLimit((int) limit);
+    }
+
+    private synchronized void onError(Throwable error) {
+        if (isOverload.test(error)) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+            limiter.setLimit((int) limit);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.springai.resilience;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Count-based circuit breaker. Opens when the failure rate over the last window of calls reaches
+ * the threshold, rejects calls while open, then lets a few trial calls through (half-open) and
+ * closes again once they all succeed.
+ */
+public class CircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openDurationNanos;
+    private final int halfOpenCalls;
+    private final Predicate<Throwable> isFailure;
+
+    private final boolean[] outcomes; // true = failure
+    private int index;
+    private int count;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenInFlight;
+    private int halfOpenSuccesses;
+
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, double failureRateThreshold,
+                          Duration openDuration, int halfOpenCalls, Predicate<Throwable> isFailure) {
+        this.name = name;
+        this.outcomes = new boolean[Math.max(1, windowSize)];
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, outcomes.length));
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+        this.isFailure = isFailure;
+    }
+
+    public <T> Mono<T> protect(Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            if (!tryAcquirePermission()) {
+                return Mono.error(new CircuitBreakerOpenException(name));
+            }
+            return Mono.defer(call)
+                    .doOnSuccess(value -> onSuccess())
+                    .doOnError(this::onError)
+                    .doOnCancel(this::onCancel);
+        });
+    }
+
+    public <T> Flux<T> protectMany(Supplier<Flux<T>> call) {
+        return Flux.defer(() -> {
+            if (!tryAcquirePermission()) {
+                return Flux.error(new CircuitBreakerOpenException(name));
+            }
+            return Flux.defer(call)
+                    .doOnComplete(this::onSuccess)
+                    .doOnError(this::onError)
+                    .doOnCancel(this::onCancel);
+        });
+    }
+
+    /**
+     * False only while open and still inside the open duration.
+     */
+    public synchronized boolean allowsRequests() {
+        return state != State.OPEN || System.nanoTime() - openedAt >= openDurationNanos;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openDurationNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            halfOpenInFlight = 0;
+            halfOpenSuccesses = 0;
+            logger.info("Circuit breaker {} half-open, allowing {} trial calls", name, halfOpenCalls);
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenInFlight + halfOpenSuccesses >= halfOpenCalls) {
+                return false;
+            }
+            halfOpenInFlight++;
+        }
+        return true;
+    }
+
+    private void onError(Throwable error) {
+        if (isFailure.test(error)) {
+            onFailure();
+        } else {
+            onSuccess();
+        }
+    }
+
+    private synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            halfOpenInFlight--;
+            if (++halfOpenSuccesses >= halfOpenCalls) {
+                state = State.CLOSED;
+                resetWindow();
+                logger.info("Circuit breaker {} closed", name);
+            }
+            return;
+        }
+        record(false);
+    }
+
+    private synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && count >= minimumCalls && (double) failures / count >= failureRateThreshold) {
+            open();
+        }
+    }
+
+    private synchronized void onCancel() {
+        if (state == State.HALF_OPEN && halfOpenInFlight > 0) {
+            halfOpenInFlight--;
+        }
+    }
+
+    private void record(boolean failure) {
+        if (count == outcomes.length) {
+            if (outcomes[index]) {
+                failures--;
+            }
+        } else {
+            count++;
+        }
+        outcomes[index] = failure;
+        if (failure) {
+            failures++;
+        }
+        index = (index + 1) % outcomes.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+        resetWindow();
+        logger.warn("Circuit breaker {} opened for {} ms", name, openDurationNanos / 1_000_000);
+    }
+
+    private void resetWindow() {
+        index = 0;
+        count = 0;
+        failures = 0;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.springai.resilience;
+
+public class CircuitBreakerOpenException extends RuntimeException {
+
+    public CircuitBreakerOpenException(String name) {
+        super("Circuit breaker " + name + " is open, failing fast");
+    }
+}
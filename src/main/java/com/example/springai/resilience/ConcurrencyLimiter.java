@@ -0,0 +1,115 @@
+package com.example.springai.resilience;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking concurrency limit for reactive calls. Callers over the limit wait in a FIFO queue
+ * without holding a thread; the permit is released when the call terminates or is cancelled.
+ */
+public class ConcurrencyLimiter {
+
+    private static final int WAITING = 0;
+    private static final int GRANTED = 1;
+    private static final int DONE = 2;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private volatile int limit;
+
+    public ConcurrencyLimiter(int limit) {
+        this.limit = Math.max(1, limit);
+    }
+
+    public <T> Mono<T> run(Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            Waiter waiter = enqueue();
+            return waiter.granted.asMono()
+                    .then(Mono.defer(call))
+                    .doFinally(signal -> waiter.finish());
+        });
+    }
+
+    /**
+     * Like run, but the permit is held until the stream terminates.
+     */
+    public <T> Flux<T> runMany(Supplier<Flux<T>> call) {
+        return Flux.defer(() -> {
+            Waiter waiter = enqueue();
+            return waiter.granted.asMono()
+                    .thenMany(Flux.defer(call))
+                    .doFinally(signal -> waiter.finish());
+        });
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public void setLimit(int limit) {
+        this.limit = Math.max(1, limit);
+        drain();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getQueued() {
+        return waiters.size();
+    }
+
+    private Waiter enqueue() {
+        Waiter waiter = new Waiter();
+        waiters.offer(waiter);
+        drain();
+        return waiter;
+    }
+
+    private void release() {
+        inFlight.decrementAndGet();
+        drain();
+    }
+
+    private void drain() {
+        while (!waiters.isEmpty()) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return;
+            }
+            if (!inFlight.compareAndSet(current, current + 1)) {
+                continue;
+            }
+            Waiter waiter = waiters.poll();
+            if (waiter == null || !waiter.grant()) {
+                // Nobody to hand the permit to, or the caller already cancelled
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    private final class Waiter {
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        private final Sinks.Empty<Void> granted = Sinks.empty();
+
+        boolean grant() {
+            if (state.compareAndSet(WAITING, GRANTED)) {
+                granted.tryEmitEmpty();
+                return true;
+            }
+            return false;
+        }
+
+        void finish() {
+            if (state.getAndSet(DONE) == GRANTED) {
+                release();
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.springai.resilience;
+
+import java.util.Arrays;
+
+/**
+ * Latencies of the most recent successful calls, used to derive the hedging delay.
+ */
+public class LatencyTracker {
+
+    private final long[] samples;
+    private int index;
+    private int count;
+
+    public LatencyTracker(int capacity) {
+        this.samples = new long[Math.max(1, capacity)];
+    }
+
+    public synchronized void record(long latencyMs) {
+        samples[index] = latencyMs;
+        index = (index + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+    }
+
+    /**
+     * Percentile (0..1) of the recorded latencies, or -1 with fewer than minSamples recorded.
+     */
+    public long percentile(double percentile, int minSamples) {
+        long[] snapshot;
+        synchronized (this) {
+            if (count < minSamples || count == 0) {
+                return -1;
+            }
+            snapshot = Arrays.copyOf(samples, count);
+        }
+        Arrays.sort(snapshot);
+        int rank = (int) Math.ceil(percentile * snapshot.length) - 1;
+        return snapshot[Math.min(snapshot.length - 1, Math.max(0, rank))];
+    }
+
+    public synchronized int getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.springai.resilience;
+
+import com.example.springai.exception.LlmProviderException;
+import com.example.springai.model.LlmProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+
+/**
+ * Failure handling around provider calls: a circuit breaker per provider, retries with jittered
+ * exponential backoff for transient failures, and optional hedging once a call runs past the
+ * provider's recent p95 latency. Also keeps the per-provider latency and error-rate averages that
+ * latency-aware routing ranks providers by.
+ */
+@Component
+public class ProviderCallPolicy {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProviderCallPolicy.class);
+    private static final int HEDGE_MIN_SAMPLES = 20;
+
+    private final Map<LlmProvider, CircuitBreaker> circuitBreakers = new EnumMap<>(LlmProvider.class);
+    private final Map<LlmProvider, LatencyTracker> latencyTrackers = new EnumMap<>(LlmProvider.class);
+    private final Map<LlmProvider, ProviderHealth> health = new EnumMap<>(LlmProvider.class);
+
+    private final Duration deadline;
+    private final int retryMaxAttempts;
+    private final Duration retryMinBackoff;
+    private final Duration retryMaxBackoff;
+    private final double retryJitter;
+    private final boolean hedgingEnabled;
+    private final double hedgingPercentile;
+    private final Duration hedgingMinDelay;
+    private final double routingMaxErrorRate;
+
+    public ProviderCallPolicy(@Value("${llm.resilience.deadline:100s}") Duration deadline,
+                              @Value("${llm.resilience.retry.max-attempts:2}") int retryMaxAttempts,
+                              @Value("${llm.resilience.retry.min-backoff:500ms}") Duration retryMinBackoff,
+                              @Value("${llm.resilience.retry.max-backoff:5s}") Duration retryMaxBackoff,
+                              @Value("${llm.resilience.retry.jitter:0.5}") double retryJitter,
+                              @Value("${llm.resilience.hedging.enabled:false}") boolean hedgingEnabled,
+                              @Value("${llm.resilience.hedging.percentile:0.95}") double hedgingPercentile,
+                              @Value("${llm.resilience.hedging.min-delay:2s}") Duration hedgingMinDelay,
+                              @Value("${llm.resilience.circuit-breaker.window-size:20}") int windowSize,
+                              @Value("${llm.resilience.circuit-breaker.minimum-calls:10}") int minimumCalls,
+                              @Value("${llm.resilience.circuit-breaker.failure-rate-threshold:0.5}") double failureRateThreshold,
+                              @Value("${llm.resilience.circuit-breaker.open-duration:30s}") Duration openDuration,
+                              @Value("${llm.resilience.circuit-breaker.half-open-calls:2}") int halfOpenCalls,
+                              @Value("${llm.routing.ewma-alpha:0.2}") double routingAlpha,
+                              @Value("${llm.routing.max-error-rate:0.95}") double routingMaxErrorRate) {
+        this.deadline = deadline;
+        this.retryMaxAttempts = retryMaxAttempts;
+        this.retryMinBackoff = retryMinBackoff;
+        this.retryMaxBackoff = retryMaxBackoff;
+        this.retryJitter = retryJitter;
+        this.hedgingEnabled = hedgingEnabled;
+        this.hedgingPercentile = hedgingPercentile;
+        this.hedgingMinDelay = hedgingMinDelay;
+        this.routingMaxErrorRate = routingMaxErrorRate;
+
+        for (LlmProvider provider : LlmProvider.values()) {
+            circuitBreakers.put(provider, new CircuitBreaker(provider.name(), windowSize, minimumCalls,
+                    failureRateThreshold, openDuration, halfOpenCalls, ProviderCallPolicy::isProviderFailure));
+            latencyTrackers.put(provider, new LatencyTracker(256));
+            health.put(provider, new ProviderHealth(routingAlpha));
+        }
+    }
+
+    /**
+     * Runs one logical provider call: breaker outermost so that a call counts once however many
+     * attempts it took, then the overall deadline, retries, and hedging of each attempt. The deadline
+     * cancels whatever attempt or backoff is still running, so no retry outlives the request.
+     */
+    public <T> Mono<T> execute(LlmProvider provider, Supplier<Mono<T>> attempt) {
+        return circuitBreakers.get(provider).protect(() -> hedge(provider, attempt)
+                .retryWhen(Retry.backoff(retryMaxAttempts, retryMinBackoff)
+                        .maxBackoff(retryMaxBackoff)
+                        .jitter(retryJitter)
+                        .filter(ProviderCallPolicy::isRetryable)
+                        .doBeforeRetry(signal -> logger.warn("Retrying {} call (attempt {}): {}", provider,
+                                signal.totalRetries() + 2, signal.failure().getMessage()))
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                .timeout(deadline, Mono.error(() -> new LlmProviderException(provider,
+                        provider.getDisplayName() + " did not answer within " + deadline.toSeconds() + "s",
+                        0, null, null))));
+    }
+
+    /**
+     * Streams are only guarded by the breaker: once deltas have been forwarded a retry or hedge
+     * would duplicate them.
+     */
+    public <T> Flux<T> executeStreaming(LlmProvider provider, Supplier<Flux<T>> call) {
+        return circuitBreakers.get(provider).protectMany(call);
+    }
+
+    public void recordLatency(LlmProvider provider, long latencyMs) {
+        latencyTrackers.get(provider).record(latencyMs);
+        health.get(provider).recordSuccess(latencyMs);
+    }
+
+    public void recordFailure(LlmProvider provider) {
+        health.get(provider).recordFailure();
+    }
+
+    public void recordCancelled(LlmProvider provider, long elapsedMs) {
+        health.get(provider).recordCancelled(elapsedMs);
+    }
+
+    /**
+     * Providers ordered by expected time to a successful answer, best first. Ties, including
+     * providers not measured yet, keep the given order.
+     */
+    public List<LlmProvider> rankByLatency(List<LlmProvider> providers) {
+        Map<LlmProvider, Double> scores = new EnumMap<>(LlmProvider.class);
+        for (LlmProvider provider : providers) {
+            scores.put(provider, health.get(provider).score(routingMaxErrorRate));
+        }
+        List<LlmProvider> ranked = new ArrayList<>(providers);
+        ranked.sort(Comparator.comparingDouble(scores::get));
+        return ranked;
+    }
+
+    public ProviderHealth getHealth(LlmProvider provider) {
+        return health.get(provider);
+    }
+
+    public boolean allowsRequests(LlmProvider provider) {
+        return circuitBreakers.get(provider).allowsRequests();
+    }
+
+    public CircuitBreaker.State getCircuitState(LlmProvider provider) {
+        return circuitBreakers.get(provider).getState();
+    }
+
+    private <T> Mono<T> hedge(LlmProvider provider, Supplier<Mono<T>> attempt) {
+        if (!hedgingEnabled) {
+            return Mono.defer(attempt);
+        }
+        return Mono.defer(() -> {
+            long percentileMs = latencyTrackers.get(provider).percentile(hedgingPercentile, HEDGE_MIN_SAMPLES);
+            if (percentileMs < 0) {
+                return Mono.defer(attempt);
+            }
+            Duration hedgeDelay = Duration.ofMillis(Math.max(percentileMs, hedgingMinDelay.toMillis()));
+            // Whichever answers first wins, the other exchange is cancelled
+            return Mono.firstWithValue(
+                            Mono.defer(attempt),
+                            Mono.delay(hedgeDelay)
+                                    .doOnNext(tick -> logger.debug("Hedging {} call after {} ms", provider,
+                                            hedgeDelay.toMillis()))
+                                    .then(Mono.defer(attempt)))
+                    .onErrorMap(NoSuchElementException.class,
+                            e -> e.getSuppressed().length > 0 ? e.getSuppressed()[0] : e);
+        });
+    }
+
+    /**
+     * Transient failures worth another attempt: no response at all (connect/read timeout, reset),
+     * throttling, and 5xx other than 501. An undecodable or empty 2xx body is not retried.
+     */
+    private static boolean isRetryable(Throwable error) {
+        if (error instanceof LlmProviderException providerException) {
+            int status = providerException.getStatusCode();
+            return providerException.isTransportFailure() || status == 429 || (status >= 500 && status != 501);
+        }
+        return false;
+    }
+
+    /**
+     * Failures that suggest the provider is down. Throttling, other 4xx and invalid 2xx bodies do
+     * not trip the breaker.
+     */
+    private static boolean isProviderFailure(Throwable error) {
+        if (error instanceof LlmProviderException providerException) {
+            return providerException.isTransportFailure() || providerException.getStatusCode() >= 500;
+        }
+        return true;
+    }
+}
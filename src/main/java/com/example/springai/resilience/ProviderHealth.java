@@ -0,0 +1,65 @@
+package com.example.springai.resilience;
+
+/**
+ * Exponentially weighted moving averages of a provider's latency and error rate, the live signal
+ * behind latency-aware routing. Recent calls dominate, so a provider that slows down or starts
+ * failing drops in the ranking within a handful of calls and recovers just as quickly.
+ */
+public class ProviderHealth {
+
+    private final double alpha;
+
+    private double latencyMs;
+    private double errorRate;
+    private long samples;
+    private long successes;
+
+    public ProviderHealth(double alpha) {
+        this.alpha = alpha;
+    }
+
+    public synchronized void recordSuccess(long latencyMs) {
+        this.latencyMs = successes == 0 ? latencyMs : this.latencyMs + alpha * (latencyMs - this.latencyMs);
+        this.errorRate = samples == 0 ? 0.0 : this.errorRate * (1 - alpha);
+        samples++;
+        successes++;
+    }
+
+    public synchronized void recordFailure() {
+        this.errorRate = samples == 0 ? 1.0 : this.errorRate + alpha * (1 - this.errorRate);
+        samples++;
+    }
+
+    /**
+     * A call that was cancelled after elapsedMs took at least that long, so only raise the
+     * estimate. Without this the losers of a race would never record anything and keep their
+     * stale, optimistic latency.
+     */
+    public synchronized void recordCancelled(long elapsedMs) {
+        if (successes > 0 && elapsedMs > latencyMs) {
+            latencyMs += alpha * (elapsedMs - latencyMs);
+        }
+    }
+
+    /**
+     * Expected time to a successful answer: the latency inflated by the chance of having to go
+     * elsewhere. Providers without samples score 0 so they are tried and get measured; ones that
+     * have only ever failed go last.
+     */
+    public synchronized double score(double maxErrorRate) {
+        if (samples == 0) {
+            return 0.0;
+        }
+        if (successes == 0) {
+            return Double.MAX_VALUE;
+        }
+        double boundedErrorRate = Math.min(errorRate, maxErrorRate);
+        return latencyMs / (1 - boundedErrorRate);
+    }
+
+    public synchronized double getLatencyMs() { return latencyMs; }
+
+    public synchronized double getErrorRate() { return errorRate; }
+
+    public synchronized long getSamples() { return samples; }
+}
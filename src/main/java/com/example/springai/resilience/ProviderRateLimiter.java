@@ -0,0 +1,90 @@
+package com.example.springai.resilience;
+
+import com.example.springai.exception.LlmProviderException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Keeps one provider within its quota: token buckets for requests and tokens per minute, a pause
+ * honouring Retry-After, and an adaptive concurrency limit that backs off on 429/5xx.
+ * A limit of 0 disables the corresponding bucket.
+ */
+public class ProviderRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProviderRateLimiter.class);
+
+    private final String name;
+    private final TokenBucket requestBucket;
+    private final TokenBucket tokenBucket;
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private final AtomicLong pausedUntil = new AtomicLong();
+
+    public ProviderRateLimiter(String name, long requestsPerMinute, long tokensPerMinute,
+                               AdaptiveConcurrencyLimit concurrencyLimit) {
+        this.name = name;
+        this.requestBucket = requestsPerMinute > 0 ? new TokenBucket(requestsPerMinute) : null;
+        this.tokenBucket = tokensPerMinute > 0 ? new TokenBucket(tokensPerMinute) : null;
+        this.concurrencyLimit = concurrencyLimit;
+    }
+
+    /**
+     * Runs the call once the request and token budgets allow it and a concurrency permit is free.
+     */
+    public <T> Mono<T> execute(int estimatedTokens, Supplier<Mono<T>> call) {
+        return Mono.defer(() -> admissionDelay(estimatedTokens)
+                .then(concurrencyLimit.run(call))
+                .doOnError(this::onError));
+    }
+
+    public <T> Flux<T> executeMany(int estimatedTokens, Supplier<Flux<T>> call) {
+        return Flux.defer(() -> admissionDelay(estimatedTokens)
+                .thenMany(concurrencyLimit.runMany(call))
+                .doOnError(this::onError));
+    }
+
+    /**
+     * Corrects the token bucket once the provider reported the real usage of a call.
+     */
+    public void reconcileTokens(int estimatedTokens, int actualTokens) {
+        if (tokenBucket != null && actualTokens > 0) {
+            tokenBucket.adjust(estimatedTokens - actualTokens);
+        }
+    }
+
+    public int getConcurrencyLimit() {
+        return concurrencyLimit.getLimit();
+    }
+
+    public int getInFlight() {
+        return concurrencyLimit.getInFlight();
+    }
+
+    private Mono<Void> admissionDelay(int estimatedTokens) {
+        long delayNanos = Math.max(0, pausedUntil.get() - System.nanoTime());
+        if (requestBucket != null) {
+            delayNanos = Math.max(delayNanos, requestBucket.reserve(1));
+        }
+        if (tokenBucket != null) {
+            delayNanos = Math.max(delayNanos, tokenBucket.reserve(estimatedTokens));
+        }
+        if (delayNanos == 0) {
+            return Mono.empty();
+        }
+        logger.debug("Delaying {} call by {} ms to stay within quota", name, delayNanos / 1_000_000);
+        return Mono.delay(Duration.ofNanos(delayNanos)).then();
+    }
+
+    private void onError(Throwable error) {
+        if (error instanceof LlmProviderException providerException && providerException.getRetryAfter() != null) {
+            long until = System.nanoTime() + providerException.getRetryAfter().toNanos();
+            pausedUntil.accumulateAndGet(until, Math::max);
+            logger.warn("{} asked to retry after {}, pausing new calls", name, providerException.getRetryAfter());
+        }
+    }
+}
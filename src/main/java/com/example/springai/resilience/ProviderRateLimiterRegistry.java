@@ -0,0 +1,38 @@
+package com.example.springai.resilience;
+
+import com.example.springai.exception.LlmProviderException;
+import com.example.springai.model.LlmProvider;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * One ProviderRateLimiter per LlmProvider, configured from llm.&lt;provider&gt;.rate-limit.*.
+ */
+@Component
+public class ProviderRateLimiterRegistry {
+
+    private final Map<LlmProvider, ProviderRateLimiter> limiters = new EnumMap<>(LlmProvider.class);
+
+    public ProviderRateLimiterRegistry(Environment environment) {
+        for (LlmProvider provider : LlmProvider.values()) {
+            String prefix = "llm." + provider.getConfigKey() + ".rate-limit.";
+            AdaptiveConcurrencyLimit concurrencyLimit = new AdaptiveConcurrencyLimit(
+                    environment.getProperty(prefix + "initial-concurrency", Integer.class, 16),
+                    environment.getProperty(prefix + "min-concurrency", Integer.class, 1),
+                    environment.getProperty(prefix + "max-concurrency", Integer.class, 256),
+                    environment.getProperty(prefix + "backoff-ratio", Double.class, 0.5),
+                    error -> error instanceof LlmProviderException providerException && providerException.isOverload());
+            limiters.put(provider, new ProviderRateLimiter(provider.name(),
+                    environment.getProperty(prefix + "requests-per-minute", Long.class, 0L),
+                    environment.getProperty(prefix + "tokens-per-minute", Long.class, 0L),
+                    concurrencyLimit));
+        }
+    }
+
+    public ProviderRateLimiter get(LlmProvider provider) {
+        return limiters.get(provider);
+    }
+}
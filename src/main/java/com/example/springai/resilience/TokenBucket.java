@@ -0,0 +1,49 @@
+package com.example.springai.resilience;
+
+/**
+ * Token bucket refilled continuously at a per-minute rate, holding at most one minute of tokens.
+ * Reservations may drive the balance negative; the caller then waits the returned delay, so
+ * waiting callers are served in reservation order without holding a thread.
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private double available;
+    private long lastRefill;
+
+    public TokenBucket(long tokensPerMinute) {
+        this.capacity = tokensPerMinute;
+        this.tokensPerNano = tokensPerMinute / 60_000_000_000.0;
+        this.available = tokensPerMinute;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Takes the tokens and returns how many nanoseconds the caller must wait before using them.
+     */
+    public synchronized long reserve(double tokens) {
+        refill();
+        available -= tokens;
+        return available >= 0 ? 0 : (long) Math.ceil(-available / tokensPerNano);
+    }
+
+    /**
+     * Returns over-reserved tokens (positive) or charges under-reserved ones (negative).
+     */
+    public synchronized void adjust(double tokens) {
+        refill();
+        available = Math.min(capacity, available + tokens);
+    }
+
+    public synchronized double getAvailable() {
+        refill();
+        return available;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        available = Math.min(capacity, available + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+    }
+}
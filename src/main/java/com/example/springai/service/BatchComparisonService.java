@@ -0,0 +1,23 @@
+package com.example.springai.service;
+
+import com.example.springai.dto.BatchComparisonRequest;
+import com.example.springai.dto.BatchJobStatus;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Optional;
+
+public interface BatchComparisonService {
+
+    /**
+     * Starts a batch job in the background and returns its initial status.
+     */
+    BatchJobStatus submitBatch(BatchComparisonRequest request);
+
+    /**
+     * Reads one prompt per JSONL line (a "prompt" or "body" field, or a bare JSON string).
+     */
+    List<String> readJsonlPrompts(InputStream jsonl);
+
+    Optional<BatchJobStatus> getJobStatus(String jobId);
+}
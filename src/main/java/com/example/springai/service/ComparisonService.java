@@ -2,12 +2,20 @@ package com.example.springai.service;
 
 import com.example.springai.dto.ComparisonRequest;
 import com.example.springai.dto.ComparisonResult;
+import com.example.springai.dto.ComparisonStreamEvent;
+import com.example.springai.model.LlmProvider;
 import com.example.springai.model.LlmResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 
 public interface ComparisonService {
     ComparisonResult compareModels(ComparisonRequest request);
+    Mono<ComparisonResult> compareModelsAsync(ComparisonRequest request);
+    Flux<ComparisonStreamEvent> compareModelsStream(ComparisonRequest request);
+    List<LlmProvider> determineProviders(List<String> providerNames);
+    Mono<LlmResponse> queryProvider(String prompt, LlmProvider provider, String sessionId, boolean bypassCache);
     List<LlmResponse> getComparisonHistory(String sessionId);
     ComparisonResult analyzeResponses(List<LlmResponse> responses);
 }
@@ -1,11 +1,36 @@
 package com.example.springai.service;
 
+import com.example.springai.dto.ComparisonStreamEvent;
+import com.example.springai.dto.ProviderInfo;
 import com.example.springai.model.LlmProvider;
 import com.example.springai.model.LlmResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
 
 public interface LlmClientService {
 
     LlmResponse queryLlm(String prompt, LlmProvider provider, String sessionId);
 
+    Mono<LlmResponse> queryLlmAsync(String prompt, LlmProvider provider, String sessionId);
+
+    /**
+     * Streams the provider's answer as DELTA events followed by a single RESPONSE event carrying
+     * the assembled LlmResponse. Failures are reported as an "Error" RESPONSE, like queryLlmAsync.
+     */
+    Flux<ComparisonStreamEvent> streamLlm(String prompt, LlmProvider provider, String sessionId);
+
     boolean isProviderAvailable(LlmProvider provider);
+
+    /**
+     * Stable hash of everything that determines a provider's answer: provider, model, generation
+     * parameters and prompt. Used as the response cache key.
+     */
+    String requestFingerprint(String prompt, LlmProvider provider);
+
+    /**
+     * Every provider with a registered adapter, with its model, capabilities and availability.
+     */
+    List<ProviderInfo> describeProviders();
 }
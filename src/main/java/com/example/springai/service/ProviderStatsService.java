@@ -0,0 +1,17 @@
+package com.example.springai.service;
+
+import com.example.springai.dto.ProviderStats;
+import com.example.springai.model.LlmProvider;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ProviderStatsService {
+
+    /**
+     * Stats merged over the hourly buckets between from (inclusive) and to (exclusive), one entry per
+     * provider and model, or per provider when byModel is false. Provider and model filters are optional.
+     */
+    List<ProviderStats> getStats(LocalDateTime from, LocalDateTime to, LlmProvider provider, String model,
+                                 boolean byModel);
+}
@@ -0,0 +1,33 @@
+package com.example.springai.service;
+
+import com.example.springai.model.ReportEntry;
+import com.example.springai.model.ReportFormat;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+public interface ReportCatalogService {
+
+    /**
+     * Where a new report file goes: a day/shard directory under the reports directory, named
+     * after the report ID so that no two reports can share a path.
+     */
+    Path newReportPath(String reportId, String prefix, ReportFormat format);
+
+    ReportEntry register(String reportId, String sessionId, ReportFormat format, Path file, String checksum);
+
+    /**
+     * The most recent report of a comparison session or batch job.
+     */
+    Optional<ReportEntry> findLatestForSession(String sessionId);
+
+    Optional<ReportEntry> findByReportId(String reportId);
+
+    Path resolve(ReportEntry entry);
+
+    /**
+     * Deletes reports past the retention age or beyond the file limit, oldest first, and removes
+     * the directories they leave empty. Returns the number of reports deleted.
+     */
+    int applyRetention();
+}
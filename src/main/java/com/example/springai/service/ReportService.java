@@ -1,8 +1,22 @@
 package com.example.springai.service;
 
+import com.example.springai.dto.BatchJobStatus;
 import com.example.springai.dto.ComparisonResult;
+import com.example.springai.dto.ReportStatus;
+
+import java.util.Optional;
 
 public interface ReportService {
     String generateMarkdownReport(ComparisonResult result);
+
+    /**
+     * Queues the markdown report on the report executor and returns at once; the returned status
+     * carries the report ID and the path the file will be written to.
+     */
+    ReportStatus submitMarkdownReport(ComparisonResult result);
+
+    Optional<ReportStatus> getReportStatus(String reportId);
+
     String generateJsonReport(ComparisonResult result);
+    String generateBatchReport(BatchJobStatus status);
 }
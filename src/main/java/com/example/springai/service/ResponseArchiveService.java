@@ -0,0 +1,42 @@
+package com.example.springai.service;
+
+import com.example.springai.archive.ArchiveFilter;
+import com.example.springai.model.LlmResponse;
+import com.example.springai.util.KeysetCursor;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+
+public interface ResponseArchiveService {
+
+    /**
+     * Moves responses past the archive age out of llm_responses into archive partitions, one day
+     * at a time. Returns the number of rows archived.
+     */
+    long archiveAgedResponses();
+
+    /**
+     * Every archived response of a session, oldest first.
+     */
+    List<LlmResponse> findSession(String sessionId);
+
+    /**
+     * Archived responses of a session after the cursor, oldest first. A null cursor starts at the
+     * beginning.
+     */
+    List<LlmResponse> findSessionPage(String sessionId, KeysetCursor after, int limit);
+
+    /**
+     * Archived responses before the cursor, newest first. A null cursor starts at the newest.
+     */
+    List<LlmResponse> findRecentPage(KeysetCursor before, int limit);
+
+    List<LlmResponse> findByIds(Collection<Long> ids);
+
+    /**
+     * Hands the archived rows matching the filter to the consumer, partition by partition and
+     * oldest first, until it returns false. Returns the number of rows handed over.
+     */
+    long scan(ArchiveFilter filter, Predicate<LlmResponse> consumer);
+}
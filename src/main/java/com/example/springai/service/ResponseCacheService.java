@@ -0,0 +1,22 @@
+package com.example.springai.service;
+
+import com.example.springai.model.LlmResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+public interface ResponseCacheService {
+
+    /**
+     * Looks up a cached answer for the request hash and returns a copy stamped with the caller's
+     * session ID, or an empty Mono on a miss.
+     */
+    Mono<LlmResponse> lookup(String requestHash, String sessionId);
+
+    /**
+     * Caches a fresh provider answer. Error responses are never cached.
+     */
+    void store(String requestHash, LlmResponse response);
+
+    Map<String, Object> getStatistics();
+}
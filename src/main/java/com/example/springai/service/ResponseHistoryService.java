@@ -0,0 +1,27 @@
+package com.example.springai.service;
+
+import com.example.springai.dto.ExportFormat;
+import com.example.springai.dto.HistoryPage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+public interface ResponseHistoryService {
+
+    /**
+     * One page of a session's responses, oldest first. Pass the previous page's nextCursor to continue.
+     */
+    HistoryPage getSessionPage(String sessionId, String cursor, int size);
+
+    /**
+     * One page of all responses, newest first.
+     */
+    HistoryPage getRecentPage(String cursor, int size);
+
+    /**
+     * Streams the matching responses to the output row by row. All filters are optional.
+     */
+    void export(ExportFormat format, String sessionId, LocalDateTime from, LocalDateTime to,
+                OutputStream out) throws IOException;
+}
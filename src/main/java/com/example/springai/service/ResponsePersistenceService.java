@@ -0,0 +1,24 @@
+package com.example.springai.service;
+
+import com.example.springai.model.LlmResponse;
+
+import java.util.List;
+
+public interface ResponsePersistenceService {
+
+    /**
+     * Persists the responses according to the configured persistence mode, either before
+     * returning or in the background.
+     */
+    void persist(List<LlmResponse> responses);
+
+    /**
+     * Persists the responses in a single transaction using JDBC batch inserts, before returning.
+     */
+    void persistNow(List<LlmResponse> responses);
+
+    /**
+     * Responses accepted in ASYNC mode that are not in the database yet.
+     */
+    int getQueuedWrites();
+}
@@ -0,0 +1,17 @@
+package com.example.springai.service;
+
+import com.example.springai.dto.SearchResult;
+import com.example.springai.model.LlmProvider;
+
+import java.time.LocalDateTime;
+
+public interface ResponseSearchService {
+
+    /**
+     * Full-text search over prompt and response text. A blank query matches everything, so the
+     * filters alone can be used to browse. Provider, model and the date bounds are optional;
+     * from is inclusive and to exclusive, as in export.
+     */
+    SearchResult search(String query, LlmProvider provider, String model,
+                        LocalDateTime from, LocalDateTime to, int page, int size);
+}
@@ -0,0 +1,286 @@
+package com.example.springai.service.impl;
+
+import com.example.springai.dto.BatchComparisonRequest;
+import com.example.springai.dto.BatchJobStatus;
+import com.example.springai.dto.BatchProviderStats;
+import com.example.springai.model.LlmProvider;
+import com.example.springai.model.LlmResponse;
+import com.example.springai.resilience.ConcurrencyLimiter;
+import com.example.springai.service.BatchComparisonService;
+import com.example.springai.service.ComparisonService;
+import com.example.springai.service.ReportService;
+import com.example.springai.service.ResponsePersistenceService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Runs prompt suites in the background. Job status is kept for a limited time, like report status;
+ * the per-prompt results of a job are dropped once its batch report has been written, since the
+ * report lists them. Only finished jobs count towards the status cache's size bound, so a running
+ * job is never evicted.
+ */
+@Service
+public class BatchComparisonServiceImpl implements BatchComparisonService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchComparisonServiceImpl.class);
+
+    private final ComparisonService comparisonService;
+    private final ResponsePersistenceService persistenceService;
+    private final ReportService reportService;
+    private final ObjectMapper objectMapper;
+
+    private final Cache<String, BatchJob> jobs;
+
+    @Value("${llm.batch.concurrency:8}")
+    private int defaultConcurrency;
+
+    @Value("${llm.batch.per-provider-concurrency:4}")
+    private int defaultPerProviderConcurrency;
+
+    @Value("${llm.batch.max-prompts:10000}")
+    private int maxPrompts;
+
+    @Value("${llm.batch.persist-batch-size:200}")
+    private int persistBatchSize;
+
+    public BatchComparisonServiceImpl(ComparisonService comparisonService,
+                                      ResponsePersistenceService persistenceService,
+                                      ReportService reportService, ObjectMapper objectMapper,
+                                      @Value("${llm.batch.status-ttl:1h}") Duration statusTtl,
+                                      @Value("${llm.batch.status-max-size:1000}") long statusMaxSize) {
+        this.comparisonService = comparisonService;
+        this.persistenceService = persistenceService;
+        this.reportService = reportService;
+        this.objectMapper = objectMapper;
+        this.jobs = Caffeine.newBuilder()
+                .expireAfterWrite(statusTtl)
+                .maximumWeight(statusMaxSize)
+                .weigher((String jobId, BatchJob job) -> job.isFinished() ? 1 : 0)
+                .build();
+    }
+
+    @Override
+    public BatchJobStatus submitBatch(BatchComparisonRequest request) {
+        List<String> prompts = request.getPrompts().stream()
+                .filter(prompt -> prompt != null && !prompt.isBlank())
+                .toList();
+        if (prompts.isEmpty()) {
+            throw new IllegalArgumentException("Batch contains no prompts");
+        }
+        if (prompts.size() > maxPrompts) {
+            throw new IllegalArgumentException("Batch exceeds the limit of " + maxPrompts + " prompts");
+        }
+
+        List<LlmProvider> providers = comparisonService.determineProviders(request.getProviders());
+        int concurrency = request.getConcurrency() != null ? request.getConcurrency() : defaultConcurrency;
+        int perProviderConcurrency = request.getPerProviderConcurrency() != null
+                ? request.getPerProviderConcurrency() : defaultPerProviderConcurrency;
+        // The upload endpoint builds its request by hand, so @Min on the DTO is not enough
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Concurrency must be at least 1");
+        }
+        if (perProviderConcurrency < 1) {
+            throw new IllegalArgumentException("Per-provider concurrency must be at least 1");
+        }
+
+        BatchJob job = new BatchJob(UUID.randomUUID().toString(), prompts.size(), providers);
+        jobs.put(job.jobId, job);
+        logger.info("Starting batch job {} with {} prompts across {}", job.jobId, prompts.size(), providers);
+
+        // One limiter per provider for this job, on top of the global prompt concurrency
+        Map<LlmProvider, ConcurrencyLimiter> limiters = new EnumMap<>(LlmProvider.class);
+        providers.forEach(provider -> limiters.put(provider, new ConcurrencyLimiter(perProviderConcurrency)));
+
+        Flux.range(0, prompts.size())
+                .flatMap(index -> comparePrompt(job, index, prompts.get(index), request, limiters), concurrency)
+                .flatMapIterable(responses -> responses)
+                .bufferTimeout(persistBatchSize, Duration.ofSeconds(2))
+                .concatMap(batch -> Mono.fromRunnable(() -> persist(job, batch))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .then(Mono.fromRunnable(() -> finishJob(job, request.isSaveToFile()))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .doFirst(() -> job.state = BatchJobStatus.State.RUNNING)
+                .subscribe(null, e -> {
+                    logger.error("Batch job {} failed: ", job.jobId, e);
+                    job.fail(e.getMessage());
+                    jobs.put(job.jobId, job);
+                });
+
+        return job.toStatus();
+    }
+
+    private Mono<List<LlmResponse>> comparePrompt(BatchJob job, int index, String prompt,
+                                                  BatchComparisonRequest request,
+                                                  Map<LlmProvider, ConcurrencyLimiter> limiters) {
+        String sessionId = UUID.randomUUID().toString();
+        return Flux.fromIterable(job.providers)
+                .flatMapSequential(provider -> limiters.get(provider).run(() ->
+                        comparisonService.queryProvider(prompt, provider, sessionId, request.isBypassCache())))
+                .collectList()
+                .doOnNext(responses -> {
+                    job.record(index, sessionId, prompt, responses);
+                    // Rewriting the entry keeps a long-running job from expiring while it makes progress
+                    jobs.put(job.jobId, job);
+                });
+    }
+
+    /**
+     * Saves one chunk of responses. A chunk that fails is logged and counted against the job instead
+     * of aborting it; its responses stay in the job's stats and report but not in history.
+     */
+    private void persist(BatchJob job, List<LlmResponse> batch) {
+        try {
+            persistenceService.persistNow(batch);
+        } catch (RuntimeException e) {
+            logger.error("Batch job {} could not save {} responses: ", job.jobId, batch.size(), e);
+            job.recordPersistErrors(batch.size());
+        }
+    }
+
+    private void finishJob(BatchJob job, boolean saveToFile) {
+        if (saveToFile) {
+            try {
+                job.reportFilePath = reportService.generateBatchReport(job.toStatus());
+                job.dropResults();
+                logger.info("Batch report saved to: {}", job.reportFilePath);
+            } catch (Exception e) {
+                logger.error("Error generating batch report: ", e);
+            }
+        }
+        job.completedAt = LocalDateTime.now();
+        job.state = BatchJobStatus.State.COMPLETED;
+        jobs.put(job.jobId, job);
+        logger.info("Batch job {} completed", job.jobId);
+    }
+
+    @Override
+    public List<String> readJsonlPrompts(InputStream jsonl) {
+        List<String> prompts = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(jsonl, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode node = objectMapper.readTree(line);
+                String prompt = node.isTextual() ? node.asText()
+                        : node.hasNonNull("prompt") ? node.get("prompt").asText()
+                        : node.path("body").asText(null);
+                if (prompt == null) {
+                    throw new IllegalArgumentException("Line " + lineNumber + " has no prompt or body field");
+                }
+                prompts.add(prompt);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid JSONL file: " + e.getMessage(), e);
+        }
+        return prompts;
+    }
+
+    @Override
+    public Optional<BatchJobStatus> getJobStatus(String jobId) {
+        return Optional.ofNullable(jobs.getIfPresent(jobId)).map(BatchJob::toStatus);
+    }
+
+    /**
+     * Mutable state of a running job; callers only ever see BatchJobStatus snapshots.
+     */
+    private static final class BatchJob {
+        private final String jobId;
+        private final int totalPrompts;
+        private final List<LlmProvider> providers;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private final Map<LlmProvider, BatchProviderStats> providerStats = new EnumMap<>(LlmProvider.class);
+        private final ArrayList<BatchJobStatus.PromptResult> results = new ArrayList<>();
+        private int completedPrompts;
+        private int persistErrors;
+
+        private volatile BatchJobStatus.State state = BatchJobStatus.State.QUEUED;
+        private volatile LocalDateTime completedAt;
+        private volatile String reportFilePath;
+        private volatile String error;
+
+        private BatchJob(String jobId, int totalPrompts, List<LlmProvider> providers) {
+            this.jobId = jobId;
+            this.totalPrompts = totalPrompts;
+            this.providers = providers;
+            providers.forEach(provider -> providerStats.put(provider, new BatchProviderStats()));
+        }
+
+        private synchronized void record(int index, String sessionId, String prompt, List<LlmResponse> responses) {
+            int errors = 0;
+            for (LlmResponse response : responses) {
+                providerStats.get(response.getProvider()).record(response);
+                if ("Error".equals(response.getModel())) {
+                    errors++;
+                }
+            }
+            results.add(new BatchJobStatus.PromptResult(index, sessionId, prompt, errors));
+            completedPrompts++;
+        }
+
+        private synchronized void recordPersistErrors(int responses) {
+            persistErrors += responses;
+        }
+
+        private boolean isFinished() {
+            return state == BatchJobStatus.State.COMPLETED || state == BatchJobStatus.State.FAILED;
+        }
+
+        /**
+         * Releases the per-prompt results once the batch report holds them.
+         */
+        private synchronized void dropResults() {
+            results.clear();
+            results.trimToSize();
+        }
+
+        private void fail(String message) {
+            error = message;
+            completedAt = LocalDateTime.now();
+            state = BatchJobStatus.State.FAILED;
+        }
+
+        private synchronized BatchJobStatus toStatus() {
+            BatchJobStatus status = new BatchJobStatus();
+            status.setJobId(jobId);
+            status.setState(state);
+            status.setTotalPrompts(totalPrompts);
+            status.setCompletedPrompts(completedPrompts);
+            status.setPersistErrors(persistErrors);
+            status.setProviders(providers.stream().map(Enum::name).toList());
+            status.setSubmittedAt(submittedAt);
+            status.setCompletedAt(completedAt);
+            status.setProviderStats(providerStats.entrySet().stream()
+                    .collect(Collectors.toMap(entry -> entry.getKey().getDisplayName(), Map.Entry::getValue,
+                            (a, b) -> a, LinkedHashMap::new)));
+            List<BatchJobStatus.PromptResult> snapshot = new ArrayList<>(results);
+            snapshot.sort(Comparator.comparingInt(BatchJobStatus.PromptResult::getIndex));
+            status.setResults(snapshot);
+            status.setReportFilePath(reportFilePath);
+            status.setError(error);
+            return status;
+        }
+    }
+}
@@ -1,22 +1,40 @@
 package com.example.springai.service.impl;
 
+import com.example.springai.analysis.ResponseStatsAccumulator;
+import com.example.springai.analysis.WordFrequencyAnalyzer;
+import com.example.springai.config.ExecutionMode;
+import com.example.springai.dto.ComparisonAnalysis;
 import com.example.springai.dto.ComparisonRequest;
 import com.example.springai.dto.ComparisonResult;
+import com.example.springai.dto.ComparisonStreamEvent;
+import com.example.springai.dto.ReportStatus;
+import com.example.springai.dto.RoutingMode;
+import com.example.springai.metrics.LlmMetrics;
 import com.example.springai.model.LlmProvider;
 import com.example.springai.model.LlmResponse;
 import com.example.springai.repository.LlmResponseRepository;
+import com.example.springai.resilience.ProviderCallPolicy;
 import com.example.springai.service.ComparisonService;
 import com.example.springai.service.LlmClientService;
 import com.example.springai.service.ReportService;
+import com.example.springai.service.ResponseArchiveService;
+import com.example.springai.service.ResponsePersistenceService;
+import com.example.springai.service.ResponseCacheService;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,56 +44,254 @@ public class ComparisonServiceImpl implements ComparisonService {
 
     private final LlmClientService llmClientService;
     private final LlmResponseRepository responseRepository;
+    private final ResponseArchiveService archiveService;
+    private final ResponsePersistenceService persistenceService;
     private final ReportService reportService;
+    private final ResponseCacheService responseCache;
+    private final InFlightRequestCoalescer requestCoalescer;
+    private final WordFrequencyAnalyzer wordFrequencyAnalyzer;
+    private final ProviderCallPolicy callPolicy;
+    private final LlmMetrics metrics;
+    private final Scheduler providerCallScheduler;
+
+    @Value("${llm.execution.mode:REACTIVE}")
+    private ExecutionMode executionMode;
 
     @Autowired
     public ComparisonServiceImpl(LlmClientService llmClientService, LlmResponseRepository responseRepository,
-                                 ReportService reportService) {
+                                 ResponseArchiveService archiveService, ResponsePersistenceService persistenceService, ReportService reportService,
+                                 ResponseCacheService responseCache,
+                                 InFlightRequestCoalescer requestCoalescer,
+                                 WordFrequencyAnalyzer wordFrequencyAnalyzer,
+                                 ProviderCallPolicy callPolicy, LlmMetrics metrics,
+                                 @Qualifier("providerCallExecutor") ExecutorService providerCallExecutor) {
         this.llmClientService = llmClientService;
         this.responseRepository = responseRepository;
+        this.archiveService = archiveService;
+        this.persistenceService = persistenceService;
         this.reportService = reportService;
+        this.responseCache = responseCache;
+        this.requestCoalescer = requestCoalescer;
+        this.wordFrequencyAnalyzer = wordFrequencyAnalyzer;
+        this.callPolicy = callPolicy;
+        this.metrics = metrics;
+        this.providerCallScheduler = Schedulers.fromExecutorService(providerCallExecutor, "llm-provider");
     }
 
-    private final ExecutorService executorService = Executors.newFixedThreadPool(3);
-
     @Override
     public ComparisonResult compareModels(ComparisonRequest request) {
-        String sessionId = UUID.randomUUID().toString();
-        logger.info("Starting comparison with session ID: {}", sessionId);
+        return compareModelsAsync(request).block();
+    }
+
+    @Override
+    public Mono<ComparisonResult> compareModelsAsync(ComparisonRequest request) {
+        return Mono.defer(() -> {
+            String sessionId = UUID.randomUUID().toString();
+            logger.info("Starting comparison with session ID: {}", sessionId);
+
+            // Determine which providers to query
+            List<LlmProvider> providersToQuery = determineProviders(request.getProviders());
+
+            Observation observation = metrics.comparisonObservation(sessionId, String.valueOf(request.getRoutingMode()))
+                    .start();
+            return routeQueries(request, sessionId, providersToQuery)
+                    // Persistence and report writing are blocking, keep them off the I/O threads
+                    .publishOn(Schedulers.boundedElastic())
+                    .map(responses -> completeComparison(request, sessionId, responses))
+                    .doOnError(observation::error)
+                    .doFinally(signal -> observation.stop())
+                    // WebClient picks the observation up from the context as the parent of its spans
+                    .contextWrite(context -> context.put(ObservationThreadLocalAccessor.KEY, observation));
+        });
+    }
+
+    /**
+     * ALL returns every answer in provider order. The other modes return just the winning answer,
+     * or every error response when no provider succeeded.
+     */
+    private Mono<List<LlmResponse>> routeQueries(ComparisonRequest request, String sessionId,
+                                                 List<LlmProvider> providers) {
+        RoutingMode mode = request.getRoutingMode() != null ? request.getRoutingMode() : RoutingMode.ALL;
+        if (mode == RoutingMode.ALL || providers.size() <= 1) {
+            // Query all providers concurrently; flatMapSequential keeps the responses in provider order
+            return Flux.fromIterable(providers)
+                    .flatMapSequential(provider ->
+                            queryProvider(request.getPrompt(), provider, sessionId, request.isBypassCache()))
+                    .collectList();
+        }
 
-        // Determine which providers to query
-        List<LlmProvider> providersToQuery = determineProviders(request);
+        List<LlmProvider> ranked = callPolicy.rankByLatency(providers);
+        if (mode == RoutingMode.FASTEST_OF_N) {
+            return raceProviders(request, sessionId, ranked.subList(0, racerCount(request, ranked.size())));
+        }
+        return queryInRankOrder(request, sessionId, ranked);
+    }
 
-        // Query all providers concurrently
-        List<CompletableFuture<LlmResponse>> futures = providersToQuery.stream()
-                .map(provider -> CompletableFuture.supplyAsync(
-                        () -> llmClientService.queryLlm(request.getPrompt(), provider, sessionId),
-                        executorService))
+    /**
+     * First successful answer wins. Error responses are filtered out so they never win the race,
+     * and the losing calls are cancelled as soon as the winner arrives.
+     */
+    private Mono<List<LlmResponse>> raceProviders(ComparisonRequest request, String sessionId,
+                                                  List<LlmProvider> candidates) {
+        List<LlmResponse> failures = Collections.synchronizedList(new ArrayList<>());
+        List<Mono<LlmResponse>> racers = candidates.stream()
+                .map(provider -> queryProvider(request.getPrompt(), provider, sessionId, request.isBypassCache())
+                        .filter(response -> {
+                            if ("Error".equals(response.getModel())) {
+                                failures.add(response);
+                                return false;
+                            }
+                            return true;
+                        }))
                 .toList();
 
-        // Wait for all responses
-        List<LlmResponse> responses = futures.stream()
-                .map(CompletableFuture::join)
-                .collect(Collectors.toList());
+        return Mono.firstWithValue(racers)
+                .map(List::of)
+                // Every racer completed empty, i.e. failed
+                .onErrorResume(NoSuchElementException.class, e -> Mono.fromSupplier(() -> List.copyOf(failures)));
+    }
+
+    private static int racerCount(ComparisonRequest request, int available) {
+        Integer fanOut = request.getFanOut();
+        if (fanOut == null) {
+            return available;
+        }
+        if (fanOut < 1) {
+            throw new IllegalArgumentException("fanOut must be at least 1");
+        }
+        return Math.min(fanOut, available);
+    }
+
+    /**
+     * One provider at a time, best-ranked first, moving on only when a call fails.
+     */
+    private Mono<List<LlmResponse>> queryInRankOrder(ComparisonRequest request, String sessionId,
+                                                     List<LlmProvider> ranked) {
+        return Flux.fromIterable(ranked)
+                .concatMap(provider ->
+                        queryProvider(request.getPrompt(), provider, sessionId, request.isBypassCache()))
+                .takeUntil(response -> !"Error".equals(response.getModel()))
+                .collectList()
+                .map(attempts -> {
+                    LlmResponse last = attempts.get(attempts.size() - 1);
+                    return "Error".equals(last.getModel()) ? attempts : List.of(last);
+                });
+    }
 
-        // Save responses to database
-        responses.forEach(responseRepository::save);
+    @Override
+    public Flux<ComparisonStreamEvent> compareModelsStream(ComparisonRequest request) {
+        return Flux.defer(() -> {
+            String sessionId = UUID.randomUUID().toString();
+            logger.info("Starting streaming comparison with session ID: {}", sessionId);
+
+            List<LlmProvider> providersToQuery = determineProviders(request.getProviders());
+            List<LlmResponse> responses = Collections.synchronizedList(new ArrayList<>());
+
+            Flux<ComparisonStreamEvent> providerEvents = routeStreams(request, sessionId, providersToQuery)
+                    .doOnNext(event -> {
+                        if (event.getType() == ComparisonStreamEvent.Type.RESPONSE) {
+                            responses.add(event.getResponse());
+                        }
+                    });
+
+            // The analysis follows once every provider stream has closed
+            Mono<ComparisonStreamEvent> analysis = Mono.fromCallable(() -> {
+                        List<LlmResponse> ordered = new ArrayList<>(responses);
+                        ordered.sort(Comparator.comparingInt(r -> providersToQuery.indexOf(r.getProvider())));
+                        ComparisonResult result = completeComparison(request, sessionId, ordered);
+
+                        // Responses were already streamed, only send the summary
+                        ComparisonResult summary = new ComparisonResult(sessionId, request.getPrompt(), null);
+                        summary.setAnalysis(result.getAnalysis());
+                        summary.setReportFilePath(result.getReportFilePath());
+                        summary.setReportId(result.getReportId());
+                        return ComparisonStreamEvent.analysis(summary);
+                    })
+                    .subscribeOn(Schedulers.boundedElastic());
+
+            return providerEvents.concatWith(analysis);
+        });
+    }
 
-        // Create comparison result
-//        ComparisonResult result = new ComparisonResult(sessionId, request.getPrompt(), responses);
-        ComparisonResult result = new ComparisonResult();
+    /**
+     * Streaming counterpart of routeQueries. FASTEST_OF_N keeps the provider that starts answering
+     * first; LOWEST_LATENCY streams from the best-ranked provider only, since a fallback after
+     * deltas have been sent would mix two answers.
+     */
+    private Flux<ComparisonStreamEvent> routeStreams(ComparisonRequest request, String sessionId,
+                                                     List<LlmProvider> providers) {
+        RoutingMode mode = request.getRoutingMode() != null ? request.getRoutingMode() : RoutingMode.ALL;
+        if (mode == RoutingMode.ALL || providers.size() <= 1) {
+            // Deltas from all providers are interleaved as they arrive
+            return Flux.fromIterable(providers)
+                    .flatMap(provider -> llmClientService.streamLlm(request.getPrompt(), provider, sessionId));
+        }
+
+        List<LlmProvider> ranked = callPolicy.rankByLatency(providers);
+        if (mode == RoutingMode.LOWEST_LATENCY) {
+            return llmClientService.streamLlm(request.getPrompt(), ranked.get(0), sessionId);
+        }
+
+        List<ComparisonStreamEvent> failures = Collections.synchronizedList(new ArrayList<>());
+        List<Flux<ComparisonStreamEvent>> racers = ranked.subList(0, racerCount(request, ranked.size())).stream()
+                .map(provider -> llmClientService.streamLlm(request.getPrompt(), provider, sessionId)
+                        .filter(event -> {
+                            // A failed stream is a lone error RESPONSE, it must not win the race
+                            if (event.getType() == ComparisonStreamEvent.Type.RESPONSE
+                                    && "Error".equals(event.getResponse().getModel())) {
+                                failures.add(event);
+                                return false;
+                            }
+                            return true;
+                        }))
+                .toList();
+
+        return Flux.firstWithValue(racers)
+                .onErrorResume(NoSuchElementException.class, e -> Flux.defer(() -> Flux.fromIterable(
+                        List.copyOf(failures))));
+    }
+
+    @Override
+    public Mono<LlmResponse> queryProvider(String prompt, LlmProvider provider, String sessionId,
+                                           boolean bypassCache) {
+        String requestHash = llmClientService.requestFingerprint(prompt, provider);
+        if (bypassCache) {
+            return requestCoalescer.execute(requestHash, sessionId,
+                    () -> invokeProvider(prompt, provider, sessionId));
+        }
+
+        return responseCache.lookup(requestHash, sessionId)
+                .switchIfEmpty(requestCoalescer.execute(requestHash, sessionId,
+                        () -> invokeProvider(prompt, provider, sessionId)
+                                .doOnNext(response -> responseCache.store(requestHash, response))));
+    }
+
+    private Mono<LlmResponse> invokeProvider(String prompt, LlmProvider provider, String sessionId) {
+        if (executionMode == ExecutionMode.BLOCKING) {
+            return Mono.fromCallable(() -> llmClientService.queryLlm(prompt, provider, sessionId))
+                    .subscribeOn(providerCallScheduler);
+        }
+        return llmClientService.queryLlmAsync(prompt, provider, sessionId);
+    }
+
+    private ComparisonResult completeComparison(ComparisonRequest request, String sessionId,
+                                                List<LlmResponse> responses) {
+        // Save responses to database, one batched transaction
+        metrics.timeComparisonPhase(LlmMetrics.PHASE_SAVE, () -> persistenceService.persist(responses));
 
         // Analyze responses
-        result = analyzeResponses(responses);
+        ComparisonResult result = metrics.timeComparisonPhase(LlmMetrics.PHASE_ANALYSIS,
+                () -> analyzeResponses(responses));
         result.setSessionId(sessionId);
         result.setPrompt(request.getPrompt());
 
-        // Generate report file if requested
+        // Queue the report file if requested, it is written in the background
         if (request.isSaveToFile()) {
             try {
-                String reportPath = reportService.generateMarkdownReport(result);
-                result.setReportFilePath(reportPath);
-                logger.info("Report saved to: {}", reportPath);
+                ReportStatus report = reportService.submitMarkdownReport(result);
+                result.setReportId(report.getReportId());
+                result.setReportFilePath(report.getReportFilePath());
+                logger.info("Report {} queued for: {}", report.getReportId(), report.getReportFilePath());
             } catch (Exception e) {
                 logger.error("Error generating report: ", e);
             }
@@ -84,9 +300,10 @@ public class ComparisonServiceImpl implements ComparisonService {
         return result;
     }
 
-    private List<LlmProvider> determineProviders(ComparisonRequest request) {
-        if (request.getProviders() != null && !request.getProviders().isEmpty()) {
-            return request.getProviders().stream()
+    @Override
+    public List<LlmProvider> determineProviders(List<String> providerNames) {
+        if (providerNames != null && !providerNames.isEmpty()) {
+            return providerNames.stream()
                     .map(LlmProvider::valueOf)
                     .filter(llmClientService::isProviderAvailable)
                     .collect(Collectors.toList());
@@ -100,7 +317,16 @@ public class ComparisonServiceImpl implements ComparisonService {
 
     @Override
     public List<LlmResponse> getComparisonHistory(String sessionId) {
-        return responseRepository.findBySessionIdOrderByCreatedAt(sessionId);
+        List<LlmResponse> current = responseRepository.findBySessionIdOrderByCreatedAt(sessionId);
+        List<LlmResponse> archived = archiveService.findSession(sessionId);
+        if (archived.isEmpty()) {
+            return current;
+        }
+        // Archived rows predate everything still in the database
+        List<LlmResponse> history = new ArrayList<>(archived.size() + current.size());
+        history.addAll(archived);
+        history.addAll(current);
+        return history;
     }
 
     @Override
@@ -109,59 +335,12 @@ public class ComparisonServiceImpl implements ComparisonService {
             return new ComparisonResult();
         }
 
-        Map<String, Object> analysis = new HashMap<>();
-
-        // Response time analysis
-        OptionalDouble avgResponseTime = responses.stream()
-                .mapToLong(LlmResponse::getResponseTimeMs)
-                .average();
-
-        LlmResponse fastest = responses.stream()
-                .min(Comparator.comparing(LlmResponse::getResponseTimeMs))
-                .orElse(null);
-
-        LlmResponse slowest = responses.stream()
-                .max(Comparator.comparing(LlmResponse::getResponseTimeMs))
-                .orElse(null);
-
-        // Response length analysis
-        OptionalDouble avgResponseLength = responses.stream()
-                .mapToInt(r -> r.getResponse().length())
-                .average();
-
-        LlmResponse shortest = responses.stream()
-                .min(Comparator.comparing(r -> r.getResponse().length()))
-                .orElse(null);
-
-        LlmResponse longest = responses.stream()
-                .max(Comparator.comparing(r -> r.getResponse().length()))
-                .orElse(null);
-
-        // Token usage analysis
-        OptionalDouble avgTokens = responses.stream()
-                .filter(r -> r.getTokenCount() != null && r.getTokenCount() > 0)
-                .mapToInt(LlmResponse::getTokenCount)
-                .average();
-
-        // Build analysis map
-        analysis.put("totalResponses", responses.size());
-        analysis.put("averageResponseTime", avgResponseTime.orElse(0.0));
-        analysis.put("fastestProvider", fastest != null ? fastest.getProvider().getDisplayName() : "N/A");
-        analysis.put("fastestTime", fastest != null ? fastest.getResponseTimeMs() : 0);
-        analysis.put("slowestProvider", slowest != null ? slowest.getProvider().getDisplayName() : "N/A");
-        analysis.put("slowestTime", slowest != null ? slowest.getResponseTimeMs() : 0);
-
-        analysis.put("averageResponseLength", avgResponseLength.orElse(0.0));
-        analysis.put("shortestProvider", shortest != null ? shortest.getProvider().getDisplayName() : "N/A");
-        analysis.put("shortestLength", shortest != null ? shortest.getResponse().length() : 0);
-        analysis.put("longestProvider", longest != null ? longest.getProvider().getDisplayName() : "N/A");
-        analysis.put("longestLength", longest != null ? longest.getResponse().length() : 0);
-
-        analysis.put("averageTokens", avgTokens.orElse(0.0));
-
-        // Content analysis
-        Map<String, Integer> commonWords = analyzeCommonWords(responses);
-        analysis.put("commonWords", commonWords);
+        // One pass for time, length and token statistics
+        ComparisonAnalysis analysis = new ResponseStatsAccumulator()
+                .addAll(responses)
+                .toAnalysis(wordFrequencyAnalyzer.topWords(responses.stream()
+                        .map(LlmResponse::getResponse)
+                        .toList()));
 
         ComparisonResult result = new ComparisonResult();
         result.setResponses(responses);
@@ -169,30 +348,4 @@ public class ComparisonServiceImpl implements ComparisonService {
 
         return result;
     }
-
-    private Map<String, Integer> analyzeCommonWords(List<LlmResponse> responses) {
-        Map<String, Integer> wordCount = new HashMap<>();
-
-        for (LlmResponse response : responses) {
-            String[] words = response.getResponse().toLowerCase()
-                    .replaceAll("[^a-zA-Z\\s]", "")
-                    .split("\\s+");
-
-            for (String word : words) {
-                if (word.length() > 3) { // Only count words longer than 3 characters
-                    wordCount.merge(word, 1, Integer::sum);
-                }
-            }
-        }
-
-        // Return top 10 common words
-        return wordCount.entrySet().stream()
-                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
-                .limit(10)
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        Map.Entry::getValue,
-                        (e1, e2) -> e1,
-                        LinkedHashMap::new));
-    }
 }
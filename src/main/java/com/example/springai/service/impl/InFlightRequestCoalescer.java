@@ -0,0 +1,69 @@
+package com.example.springai.service.impl;
+
+import com.example.springai.model.LlmResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight deduplication of provider calls: concurrent callers with the same request hash share
+ * one upstream call. Each caller receives its own LlmResponse stamped with its own session ID.
+ */
+@Component
+public class InFlightRequestCoalescer {
+
+    private static final Logger logger = LoggerFactory.getLogger(InFlightRequestCoalescer.class);
+
+    private final Map<String, Mono<LlmResponse>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+    @Value("${llm.coalescing.enabled:true}")
+    private boolean enabled;
+
+    public Mono<LlmResponse> execute(String requestHash, String sessionId, Supplier<Mono<LlmResponse>> call) {
+        if (!enabled) {
+            return Mono.defer(call);
+        }
+
+        return Mono.defer(() -> {
+            Mono<LlmResponse> existing = inFlight.get(requestHash);
+            Mono<LlmResponse> shared = existing != null
+                    ? existing
+                    : inFlight.computeIfAbsent(requestHash, key -> share(key, call));
+            if (existing != null) {
+                coalescedCount.incrementAndGet();
+                logger.debug("Joining in-flight request {} for session {}", requestHash, sessionId);
+            }
+
+            return shared.map(response -> sessionId.equals(response.getSessionId())
+                    ? response
+                    : response.copyForSession(sessionId));
+        });
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    private Mono<LlmResponse> share(String key, Supplier<Mono<LlmResponse>> call) {
+        AtomicReference<Mono<LlmResponse>> self = new AtomicReference<>();
+        // replay(1) hands the answer to callers that join late; refCount(1) cancels the upstream
+        // exchange once every caller has cancelled, instead of letting it run to completion
+        Mono<LlmResponse> shared = Mono.defer(call)
+                .doFinally(signal -> inFlight.remove(key, self.get()))
+                .flux()
+                .replay(1)
+                .refCount(1)
+                .next();
+        self.set(shared);
+        return shared;
+    }
+}
@@ -2,194 +2,208 @@ package com.example.springai.service.impl;
 
 // src/main/java/com/example/llmcomparator/service/impl/LlmClientServiceImpl.java
 
+import com.example.springai.dto.ComparisonStreamEvent;
+import com.example.springai.dto.ProviderInfo;
+import com.example.springai.metrics.LlmMetrics;
 import com.example.springai.model.LlmProvider;
 import com.example.springai.model.LlmResponse;
+import com.example.springai.provider.ProviderAdapter;
+import com.example.springai.provider.ProviderCapability;
+import com.example.springai.resilience.ProviderCallPolicy;
+import com.example.springai.resilience.ProviderRateLimiter;
+import com.example.springai.resilience.ProviderRateLimiterRegistry;
 import com.example.springai.service.LlmClientService;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.springai.util.HashUtils;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
 
+import static com.example.springai.provider.ProviderAdapterSupport.elapsedMs;
+
+/**
+ * Runs provider calls through rate limiting, the call policy and metrics, and hands the call
+ * itself to the ProviderAdapter registered for the provider.
+ */
 @Service
 public class LlmClientServiceImpl implements LlmClientService {
 
     private static final Logger logger = LoggerFactory.getLogger(LlmClientServiceImpl.class);
 
-    @Value("${llm.openai.api-key:}")
-    private String openaiApiKey;
-
-    @Value("${llm.openai.base-url}")
-    private String openaiBaseUrl;
-
-    @Value("${llm.openai.model}")
-    private String openaiModel;
-
-    @Value("${llm.claude.api-key:}")
-    private String claudeApiKey;
+    @Value("${llm.generation.max-tokens:1500}")
+    private int maxTokens;
 
-    @Value("${llm.claude.base-url}")
-    private String claudeBaseUrl;
+    @Value("${llm.generation.temperature:0.7}")
+    private double temperature;
 
-    @Value("${llm.claude.model}")
-    private String claudeModel;
+    private final Map<LlmProvider, ProviderAdapter> adapters = new EnumMap<>(LlmProvider.class);
+    private final ProviderRateLimiterRegistry rateLimiters;
+    private final ProviderCallPolicy callPolicy;
+    private final LlmMetrics metrics;
 
-    private final WebClient webClient;
-    private final ObjectMapper objectMapper;
-
-    public LlmClientServiceImpl(WebClient.Builder webClientBuilder, ObjectMapper objectMapper) {
-        this.webClient = webClientBuilder
-                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(10 * 1024 * 1024))
-                .build();
-        this.objectMapper = objectMapper;
+    public LlmClientServiceImpl(List<ProviderAdapter> adapters, ProviderRateLimiterRegistry rateLimiters,
+                                ProviderCallPolicy callPolicy, LlmMetrics metrics) {
+        for (ProviderAdapter adapter : adapters) {
+            ProviderAdapter previous = this.adapters.putIfAbsent(adapter.provider(), adapter);
+            if (previous != null) {
+                throw new IllegalStateException("Two adapters for " + adapter.provider() + ": "
+                        + previous.getClass().getSimpleName() + " and " + adapter.getClass().getSimpleName());
+            }
+        }
+        this.rateLimiters = rateLimiters;
+        this.callPolicy = callPolicy;
+        this.metrics = metrics;
     }
 
     @Override
     public LlmResponse queryLlm(String prompt, LlmProvider provider, String sessionId) {
-        long startTime = System.currentTimeMillis();
-
-        try {
-            switch (provider) {
-                case OPENAI:
-                    return queryOpenAI(prompt, sessionId, startTime);
-                case CLAUDE:
-                    return queryClaude(prompt, sessionId, startTime);
-                case VERTEX_GEMINI:
-                    return queryVertexGemini(prompt, sessionId, startTime);
-                default:
-                    throw new IllegalArgumentException("Unsupported provider: " + provider);
-            }
-        } catch (Exception e) {
-            logger.error("Error querying {}: {}", provider, e.getMessage());
-            long responseTime = System.currentTimeMillis() - startTime;
-            return new LlmResponse(prompt, provider, "Error",
-                    "Error: " + e.getMessage(), responseTime, 0, sessionId);
-        }
+        return queryLlmAsync(prompt, provider, sessionId).block();
     }
 
-    private LlmResponse queryOpenAI(String prompt, String sessionId, long startTime) {
-        try {
-            Map<String, Object> requestBody = Map.of(
-                    "model", openaiModel,
-                    "messages", new Object[]{
-                            Map.of("role", "user", "content", prompt)
-                    },
-                    "max_tokens", 1500,
-                    "temperature", 0.7
-            );
-
-            String response = webClient.post()
-                    .uri(openaiBaseUrl + "/chat/completions")
-//                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + openaiApiKey)
-                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + "openaiApiKey")
-                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
-                    .bodyValue(requestBody)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .timeout(Duration.ofSeconds(60))
-                    .block();
-
-            long responseTime = System.currentTimeMillis() - startTime;
-            JsonNode jsonResponse = objectMapper.readTree(response);
-
-            String content = jsonResponse.path("choices").get(0).path("message").path("content").asText();
-            int totalTokens = jsonResponse.path("usage").path("total_tokens").asInt(0);
-
-            return new LlmResponse(prompt, LlmProvider.OPENAI, openaiModel,
-                    content, responseTime, totalTokens, sessionId);
-
-        } catch (WebClientResponseException e) {
-            logger.error("OpenAI API error: {} - {}", e.getStatusCode(), e.getResponseBodyAsString());
-            throw new RuntimeException("OpenAI API error: " + e.getMessage());
-        } catch (Exception e) {
-            logger.error("Error calling OpenAI: ", e);
-            throw new RuntimeException("OpenAI error: " + e.getMessage());
-        }
+    @Override
+    public Mono<LlmResponse> queryLlmAsync(String prompt, LlmProvider provider, String sessionId) {
+        return Mono.defer(() -> {
+            long startTime = System.nanoTime();
+
+            ProviderRateLimiter rateLimiter = rateLimiters.get(provider);
+            int estimatedTokens = estimateTokens(prompt);
+            boolean tokenAccounting = supports(provider, ProviderCapability.TOKEN_ACCOUNTING);
+
+            return callPolicy.execute(provider, () -> rateLimiter.execute(estimatedTokens,
+                            () -> callProvider(prompt, provider, sessionId, System.nanoTime())
+                                    .doOnNext(response -> callPolicy.recordLatency(provider,
+                                            response.getResponseTimeMs()))))
+                    .doOnNext(response -> {
+                        metrics.recordProviderCall(provider, true, System.nanoTime() - startTime);
+                        // Without reported usage the reservation stands as the best estimate
+                        if (tokenAccounting) {
+                            rateLimiter.reconcileTokens(estimatedTokens, response.getTokenCount());
+                            metrics.recordTokens(provider, response.getModel(), response.getTokenCount());
+                        }
+                    })
+                    .onErrorResume(e -> {
+                        logger.error("Error querying {}: {}", provider, e.getMessage());
+                        callPolicy.recordFailure(provider);
+                        metrics.recordProviderCall(provider, false, System.nanoTime() - startTime);
+                        metrics.recordError(provider, e);
+                        long responseTime = elapsedMs(startTime);
+                        return Mono.just(new LlmResponse(prompt, provider, "Error",
+                                "Error: " + e.getMessage(), responseTime, 0, sessionId));
+                    })
+                    // Cancelling disposes the WebClient exchange, the connection is closed mid-response
+                    .doOnCancel(() -> callPolicy.recordCancelled(provider, elapsedMs(startTime)));
+        });
     }
 
-    private LlmResponse queryClaude(String prompt, String sessionId, long startTime) {
-        try {
-            Map<String, Object> requestBody = Map.of(
-                    "model", claudeModel,
-                    "max_tokens", 1500,
-                    "temperature", 0.7,
-                    "messages", new Object[]{
-                            Map.of("role", "user", "content", prompt)
-                    }
-            );
-
-            String response = webClient.post()
-                    .uri(claudeBaseUrl + "/messages")
-                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + claudeApiKey)
-                    .header("anthropic-version", "2023-06-01")
-                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
-                    .bodyValue(requestBody)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .timeout(Duration.ofSeconds(60))
-                    .block();
-
-            long responseTime = System.currentTimeMillis() - startTime;
-            JsonNode jsonResponse = objectMapper.readTree(response);
-
-            String content = jsonResponse.path("content").get(0).path("text").asText();
-            int inputTokens = jsonResponse.path("usage").path("input_tokens").asInt(0);
-            int outputTokens = jsonResponse.path("usage").path("output_tokens").asInt(0);
-
-            return new LlmResponse(prompt, LlmProvider.CLAUDE, claudeModel,
-                    content, responseTime, inputTokens + outputTokens, sessionId);
-
-        } catch (WebClientResponseException e) {
-            logger.error("Claude API error: {} - {}", e.getStatusCode(), e.getResponseBodyAsString());
-            throw new RuntimeException("Claude API error: " + e.getMessage());
-        } catch (Exception e) {
-            logger.error("Error calling Claude: ", e);
-            throw new RuntimeException("Claude error: " + e.getMessage());
+    private Mono<LlmResponse> callProvider(String prompt, LlmProvider provider, String sessionId, long startTime) {
+        ProviderAdapter adapter = adapters.get(provider);
+        if (adapter == null) {
+            return Mono.error(new IllegalArgumentException("Unsupported provider: " + provider));
         }
+        return adapter.query(prompt, sessionId, startTime);
     }
 
-    private LlmResponse queryVertexGemini(String prompt, String sessionId, long startTime) {
-        // Note: For Vertex AI, you'll need to implement OAuth2 authentication
-        // This is a simplified version - in production, use Google Cloud client libraries
-        try {
-            // This would typically use Google Cloud client libraries for proper authentication
-            // For now, returning a placeholder response
-            long responseTime = System.currentTimeMillis() - startTime;
+    @Override
+    public Flux<ComparisonStreamEvent> streamLlm(String prompt, LlmProvider provider, String sessionId) {
+        return Flux.defer(() -> {
+            long startTime = System.nanoTime();
+            ProviderRateLimiter rateLimiter = rateLimiters.get(provider);
+            int estimatedTokens = estimateTokens(prompt);
+            boolean tokenAccounting = supports(provider, ProviderCapability.TOKEN_ACCOUNTING);
+
+            Flux<ComparisonStreamEvent> events = callPolicy.executeStreaming(provider,
+                            () -> rateLimiter.executeMany(estimatedTokens,
+                                    () -> streamProvider(prompt, provider, sessionId, System.nanoTime())))
+                    .doOnNext(event -> {
+                        if (event.getType() == ComparisonStreamEvent.Type.RESPONSE) {
+                            callPolicy.recordLatency(provider, event.getResponse().getResponseTimeMs());
+                            metrics.recordProviderCall(provider, true, System.nanoTime() - startTime);
+                            if (tokenAccounting) {
+                                rateLimiter.reconcileTokens(estimatedTokens, event.getResponse().getTokenCount());
+                                metrics.recordTokens(provider, event.getResponse().getModel(),
+                                        event.getResponse().getTokenCount());
+                            }
+                        }
+                    });
+
+            return events.onErrorResume(e -> {
+                logger.error("Error streaming {}: {}", provider, e.getMessage());
+                callPolicy.recordFailure(provider);
+                metrics.recordProviderCall(provider, false, System.nanoTime() - startTime);
+                metrics.recordError(provider, e);
+                long responseTime = elapsedMs(startTime);
+                return Mono.just(ComparisonStreamEvent.response(new LlmResponse(prompt, provider, "Error",
+                        "Error: " + e.getMessage(), responseTime, 0, sessionId)));
+            }).doOnCancel(() -> callPolicy.recordCancelled(provider, elapsedMs(startTime)));
+        });
+    }
 
-            String placeholderResponse = "Vertex Gemini integration requires Google Cloud authentication setup. " +
-                    "Please configure proper OAuth2 credentials and use Google Cloud client libraries.";
+    private Flux<ComparisonStreamEvent> streamProvider(String prompt, LlmProvider provider, String sessionId,
+                                                       long startTime) {
+        if (supports(provider, ProviderCapability.STREAMING)) {
+            return adapters.get(provider).stream(prompt, sessionId, startTime);
+        }
+        // No streaming API, emit the whole answer as a single delta
+        return callProvider(prompt, provider, sessionId, startTime)
+                .flatMapMany(response -> Flux.just(
+                        ComparisonStreamEvent.delta(provider, sessionId, response.getResponse()),
+                        ComparisonStreamEvent.response(response)));
+    }
+
+    private boolean supports(LlmProvider provider, ProviderCapability capability) {
+        ProviderAdapter adapter = adapters.get(provider);
+        return adapter != null && adapter.supports(capability);
+    }
 
-            return new LlmResponse(prompt, LlmProvider.VERTEX_GEMINI, "gemini-1.5-pro",
-                    placeholderResponse, responseTime, 0, sessionId);
+    /**
+     * Upper bound used to reserve TPM budget before the call: roughly four characters per prompt
+     * token plus the full completion allowance. Corrected from the reported usage afterwards.
+     */
+    private int estimateTokens(String prompt) {
+        return prompt.length() / 4 + maxTokens;
+    }
 
-        } catch (Exception e) {
-            logger.error("Error calling Vertex Gemini: ", e);
-            throw new RuntimeException("Vertex Gemini error: " + e.getMessage());
+    @Override
+    public String requestFingerprint(String prompt, LlmProvider provider) {
+        ProviderAdapter adapter = adapters.get(provider);
+        if (adapter == null) {
+            throw new IllegalArgumentException("Unsupported provider: " + provider);
         }
+        return HashUtils.sha256Hex(provider.name(), adapter.model(), String.valueOf(maxTokens),
+                String.valueOf(temperature), prompt);
     }
 
     @Override
     public boolean isProviderAvailable(LlmProvider provider) {
-        switch (provider) {
-            case OPENAI:
-//                return openaiApiKey != null && !openaiApiKey.isEmpty() && !openaiApiKey.startsWith("your-");
-                return "openaiApiKey" != null && !"openaiApiKey".isEmpty() && !"openaiApiKey".startsWith("your-");
-            case CLAUDE:
-                return claudeApiKey != null && !claudeApiKey.isEmpty() && !claudeApiKey.startsWith("your-");
-            case VERTEX_GEMINI:
-                // Add your Vertex AI availability check here
-                return false; // Disabled for now
-            default:
-                return false;
-        }
+        // A provider whose circuit breaker is open is skipped instead of failing every comparison
+        return isProviderConfigured(provider) && callPolicy.allowsRequests(provider);
+    }
+
+    private boolean isProviderConfigured(LlmProvider provider) {
+        ProviderAdapter adapter = adapters.get(provider);
+        return adapter != null && adapter.isConfigured();
+    }
+
+    @Override
+    public List<ProviderInfo> describeProviders() {
+        return adapters.values().stream()
+                .map(adapter -> {
+                    ProviderInfo info = new ProviderInfo();
+                    info.setProvider(adapter.provider());
+                    info.setDisplayName(adapter.provider().getDisplayName());
+                    info.setModel(adapter.model());
+                    info.setCapabilities(adapter.capabilities());
+                    info.setConfigured(adapter.isConfigured());
+                    info.setAvailable(isProviderAvailable(adapter.provider()));
+                    return info;
+                })
+                .toList();
     }
 }
@@ -0,0 +1,258 @@
+package com.example.springai.service.impl;
+
+import com.example.springai.analysis.ProviderStatsSketch;
+import com.example.springai.dto.ProviderStats;
+import com.example.springai.model.LlmProvider;
+import com.example.springai.model.LlmResponse;
+import com.example.springai.model.ProviderStatsBucket;
+import com.example.springai.persistence.ResponsesPersistedEvent;
+import com.example.springai.provider.ProviderAdapter;
+import com.example.springai.repository.ProviderStatsBucketRepository;
+import com.example.springai.service.ProviderStatsService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Folds every persisted response into an hourly sketch per provider and model, so percentiles over
+ * any range are a merge of a few hundred histograms rather than a scan of llm_responses. Recent
+ * buckets live in memory and are written back periodically; older ones are read from their
+ * persisted snapshots when a query reaches that far.
+ */
+@Service
+public class ProviderStatsServiceImpl implements ProviderStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProviderStatsServiceImpl.class);
+
+    private final ProviderStatsBucketRepository bucketRepository;
+    private final Map<LlmProvider, ProviderAdapter> adapters = new EnumMap<>(LlmProvider.class);
+    private final Map<BucketKey, BucketState> buckets = new ConcurrentHashMap<>();
+
+    @Value("${llm.stats.enabled:true}")
+    private boolean enabled;
+
+    // How far back buckets are kept in memory
+    @Value("${llm.stats.memory-window:7d}")
+    private Duration memoryWindow;
+
+    public ProviderStatsServiceImpl(ProviderStatsBucketRepository bucketRepository, List<ProviderAdapter> adapters) {
+        this.bucketRepository = bucketRepository;
+        adapters.forEach(adapter -> this.adapters.putIfAbsent(adapter.provider(), adapter));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRecentBuckets() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime horizon = memoryHorizon();
+        List<ProviderStatsBucket> rows = bucketRepository
+                .findByBucketStartGreaterThanEqualAndBucketStartLessThan(horizon, LocalDateTime.now().plusHours(1));
+        for (ProviderStatsBucket row : rows) {
+            ProviderStatsSketch stored = decode(row);
+            BucketKey bucketKey = new BucketKey(row.getProvider(), row.getModel(), row.getBucketStart());
+            buckets.compute(bucketKey, (key, state) -> {
+                if (state == null) {
+                    return new BucketState(stored, true);
+                }
+                state.sketch.merge(stored);
+                state.baselineLoaded = true;
+                return state;
+            });
+        }
+        logger.info("Loaded {} provider stats buckets", rows.size());
+    }
+
+    @EventListener
+    public void onResponsesPersisted(ResponsesPersistedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        for (LlmResponse response : event.responses()) {
+            // Cache hits never reached the provider
+            if (response.isCacheHit() || response.getProvider() == null) {
+                continue;
+            }
+            LocalDateTime createdAt = response.getCreatedAt() != null
+                    ? response.getCreatedAt() : LocalDateTime.now();
+            BucketKey key = new BucketKey(response.getProvider(), modelOf(response),
+                    createdAt.truncatedTo(ChronoUnit.HOURS));
+            // Recorded under the map's lock for the key, so persistBuckets cannot drop the bucket
+            // between a record and its next save
+            buckets.compute(key, (k, state) -> {
+                BucketState target = state != null ? state : new BucketState(new ProviderStatsSketch(), false);
+                target.sketch.record(response);
+                return target;
+            });
+        }
+    }
+
+    /**
+     * Error rows carry "Error" as their model; they are counted against the model the provider's
+     * adapter is configured with, so each model's error rate covers its own failures.
+     */
+    private String modelOf(LlmResponse response) {
+        if (!"Error".equals(response.getModel())) {
+            return response.getModel();
+        }
+        ProviderAdapter adapter = adapters.get(response.getProvider());
+        return adapter != null ? adapter.model() : response.getModel();
+    }
+
+    /**
+     * Writes changed buckets back and drops the ones that have left the memory window.
+     */
+    @Scheduled(fixedDelayString = "${llm.stats.persist-interval:60s}",
+            initialDelayString = "${llm.stats.persist-interval:60s}")
+    public void persistBuckets() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime horizon = memoryHorizon();
+        int written = 0;
+        for (Map.Entry<BucketKey, BucketState> entry : buckets.entrySet()) {
+            BucketKey key = entry.getKey();
+            BucketState state = entry.getValue();
+            try {
+                if (state.sketch.takeDirty()) {
+                    save(key, state);
+                    written++;
+                }
+                if (key.bucketStart().isBefore(horizon)) {
+                    // A response recorded since the save keeps the bucket until the next pass
+                    buckets.computeIfPresent(key, (k, current) -> current == state && !current.sketch.isDirty()
+                            ? null : current);
+                }
+            } catch (RuntimeException e) {
+                logger.error("Error persisting stats bucket {}: {}", key, e.getMessage());
+            }
+        }
+        if (written > 0) {
+            logger.debug("Persisted {} provider stats buckets", written);
+        }
+    }
+
+    @PreDestroy
+    public void flush() {
+        persistBuckets();
+    }
+
+    private void save(BucketKey key, BucketState state) {
+        Optional<ProviderStatsBucket> existing = bucketRepository
+                .findByProviderAndModelAndBucketStart(key.provider(), key.model(), key.bucketStart());
+        // A bucket created in memory after startup may already have a snapshot, e.g. from before
+        // a restart when its responses arrive late from the write-behind journal
+        if (!state.baselineLoaded) {
+            existing.ifPresent(row -> state.sketch.merge(decode(row)));
+            state.baselineLoaded = true;
+        }
+
+        ProviderStatsBucket row = existing.orElseGet(
+                () -> new ProviderStatsBucket(key.provider(), key.model(), key.bucketStart()));
+        ProviderStatsSketch snapshot = state.sketch.copy();
+        row.setCount(snapshot.getCount());
+        row.setErrors(snapshot.getErrors());
+        row.setTokenSum(snapshot.getTokenSum());
+        row.setLengthSum(snapshot.getLengthSum());
+        row.setLatencyHistogram(snapshot.encodeLatency());
+        row.setTokensHistogram(snapshot.encodeTokens());
+        row.setLengthHistogram(snapshot.encodeLength());
+        row.setUpdatedAt(LocalDateTime.now());
+        bucketRepository.save(row);
+    }
+
+    @Override
+    public List<ProviderStats> getStats(LocalDateTime from, LocalDateTime to, LlmProvider provider, String model,
+                                        boolean byModel) {
+        LocalDateTime rangeStart = (from != null ? from : LocalDateTime.now().minusDays(1))
+                .truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime rangeEnd = to != null ? to : LocalDateTime.now().plusHours(1);
+
+        Map<BucketKey, ProviderStatsSketch> inRange = new HashMap<>();
+        // Persisted snapshots only matter for buckets that are no longer held in memory
+        if (rangeStart.isBefore(memoryHorizon())) {
+            for (ProviderStatsBucket row : bucketRepository
+                    .findByBucketStartGreaterThanEqualAndBucketStartLessThan(rangeStart, rangeEnd)) {
+                inRange.put(new BucketKey(row.getProvider(), row.getModel(), row.getBucketStart()), decode(row));
+            }
+        }
+        buckets.forEach((key, state) -> {
+            if (!key.bucketStart().isBefore(rangeStart) && key.bucketStart().isBefore(rangeEnd)) {
+                inRange.put(key, state.sketch);
+            }
+        });
+
+        Map<GroupKey, ProviderStatsSketch> groups = new HashMap<>();
+        inRange.forEach((key, sketch) -> {
+            if ((provider != null && key.provider() != provider) || (model != null && !model.equals(key.model()))) {
+                return;
+            }
+            GroupKey group = new GroupKey(key.provider(), byModel ? key.model() : null);
+            groups.computeIfAbsent(group, g -> new ProviderStatsSketch()).merge(sketch);
+        });
+
+        return groups.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator
+                        .comparing(GroupKey::provider)
+                        .thenComparing(GroupKey::model, Comparator.nullsFirst(Comparator.naturalOrder()))))
+                .map(entry -> toStats(entry.getKey().provider(), entry.getKey().model(), entry.getValue()))
+                .toList();
+    }
+
+    private ProviderStats toStats(LlmProvider provider, String model, ProviderStatsSketch sketch) {
+        ProviderStats stats = new ProviderStats();
+        stats.setProvider(provider);
+        stats.setModel(model);
+        stats.setResponses(sketch.getCount());
+        stats.setErrors(sketch.getErrors());
+        long attempts = sketch.getCount() + sketch.getErrors();
+        stats.setErrorRate(attempts > 0 ? (double) sketch.getErrors() / attempts : 0.0);
+        stats.setLatencyMean(sketch.latencyMean());
+        stats.setLatencyP50(sketch.latencyPercentile(50));
+        stats.setLatencyP95(sketch.latencyPercentile(95));
+        stats.setLatencyP99(sketch.latencyPercentile(99));
+        stats.setLatencyMax(sketch.latencyMax());
+        stats.setTokensMean(sketch.tokensMean());
+        stats.setTokensP95(sketch.tokensPercentile(95));
+        stats.setTotalTokens(sketch.getTokenSum());
+        stats.setAverageResponseLength(sketch.lengthMean());
+        return stats;
+    }
+
+    private LocalDateTime memoryHorizon() {
+        return LocalDateTime.now().minus(memoryWindow).truncatedTo(ChronoUnit.HOURS);
+    }
+
+    private static ProviderStatsSketch decode(ProviderStatsBucket row) {
+        return ProviderStatsSketch.decode(row.getLatencyHistogram(), row.getTokensHistogram(),
+                row.getLengthHistogram(), row.getCount(), row.getErrors(), row.getTokenSum(), row.getLengthSum());
+    }
+
+    private record BucketKey(LlmProvider provider, String model, LocalDateTime bucketStart) {
+    }
+
+    private record GroupKey(LlmProvider provider, String model) {
+    }
+
+    private static final class BucketState {
+        private final ProviderStatsSketch sketch;
+        // Whether the persisted snapshot, if any, has been merged into the sketch
+        private volatile boolean baselineLoaded;
+
+        private BucketState(ProviderStatsSketch sketch, boolean baselineLoaded) {
+            this.sketch = sketch;
+            this.baselineLoaded = baselineLoaded;
+        }
+    }
+}
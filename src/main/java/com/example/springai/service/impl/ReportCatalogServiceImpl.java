@@ -0,0 +1,356 @@
+package com.example.springai.service.impl;
+
+import com.example.springai.model.ReportEntry;
+import com.example.springai.model.ReportFormat;
+import com.example.springai.repository.ReportEntryRepository;
+import com.example.springai.service.ReportCatalogService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.example.springai.util.HashUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Catalog of report files, kept in report_entries and fronted by an in-memory cache, so a download
+ * is an indexed lookup instead of a directory listing. Files are spread over
+ * yyyy/MM/dd/&lt;shard&gt; directories, with the shard taken from the report ID, which keeps every
+ * directory small however many reports are retained.
+ *
+ * <p>Each report file has a small properties sidecar (&lt;file&gt;.meta) holding its catalog row, so
+ * the files stay the source of truth: on startup any file the table does not know about, e.g.
+ * because the in-memory database was recreated, is catalogued again from its sidecar.
+ */
+@Service
+public class ReportCatalogServiceImpl implements ReportCatalogService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportCatalogServiceImpl.class);
+    private static final DateTimeFormatter DAY_DIRECTORY = DateTimeFormatter.ofPattern("yyyy/MM/dd");
+    private static final String SIDECAR_SUFFIX = ".meta";
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    private final ReportEntryRepository entryRepository;
+    private final Path reportsDirectory;
+    private final Cache<String, ReportEntry> latestBySession;
+
+    @Value("${llm.reports.retention.max-age:30d}")
+    private Duration maxAge;
+
+    @Value("${llm.reports.retention.max-files:100000}")
+    private long maxFiles;
+
+    public ReportCatalogServiceImpl(ReportEntryRepository entryRepository,
+                                    @Value("${llm.reports.directory:reports}") Path reportsDirectory,
+                                    @Value("${llm.reports.catalog-cache-size:10000}") long cacheSize) {
+        this.entryRepository = entryRepository;
+        this.reportsDirectory = reportsDirectory.toAbsolutePath().normalize();
+        this.latestBySession = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .build();
+    }
+
+    @Override
+    public Path newReportPath(String reportId, String prefix, ReportFormat format) {
+        return reportsDirectory
+                .resolve(LocalDate.now().format(DAY_DIRECTORY))
+                .resolve(reportId.substring(0, 2))
+                .resolve(prefix + "_" + reportId + "." + format.getExtension());
+    }
+
+    @Override
+    public ReportEntry register(String reportId, String sessionId, ReportFormat format, Path file, String checksum) {
+        long size;
+        try {
+            size = Files.size(file);
+        } catch (IOException e) {
+            throw new IllegalStateException("Report file missing: " + file, e);
+        }
+        // Stored relative with forward slashes, so the reports directory can move between hosts
+        String relativePath = reportsDirectory.relativize(file.toAbsolutePath().normalize())
+                .toString().replace('\\', '/');
+        ReportEntry entry = entryRepository.save(new ReportEntry(reportId, sessionId, format, relativePath, size,
+                checksum));
+        writeSidecar(file, entry);
+        latestBySession.put(sessionId, entry);
+        return entry;
+    }
+
+    /**
+     * Catalogues report files that have no row yet. Files written before sidecars existed are
+     * recovered from their path alone and re-hashed; see {@link #reportIdOf}. A file that cannot
+     * be catalogued is logged and skipped, it never keeps the application from starting.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public int rebuildCatalog() {
+        if (!Files.isDirectory(reportsDirectory)) {
+            return 0;
+        }
+        // Loaded once, so a boot costs one query however many reports there are
+        Set<String> known = new HashSet<>(entryRepository.findAllReportIds());
+        int recovered = 0;
+        List<ReportEntry> batch = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(reportsDirectory)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                Optional<ReportEntry> entry;
+                try {
+                    entry = recover(file, known);
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("Could not catalog report file {}: {}", file, e.getMessage());
+                    continue;
+                }
+                if (entry.isEmpty()) {
+                    continue;
+                }
+                batch.add(entry.get());
+                if (batch.size() == REBUILD_BATCH_SIZE) {
+                    recovered += saveRecovered(batch);
+                    batch = new ArrayList<>();
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            logger.error("Report catalog rebuild stopped early: {}", e.getMessage(), e);
+        }
+        recovered += saveRecovered(batch);
+        if (recovered > 0) {
+            logger.info("Report catalog recovered {} reports from {}", recovered, reportsDirectory);
+        }
+        return recovered;
+    }
+
+    @Override
+    public Optional<ReportEntry> findLatestForSession(String sessionId) {
+        ReportEntry cached = latestBySession.getIfPresent(sessionId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<ReportEntry> entry = entryRepository.findFirstBySessionIdOrderByCreatedAtDesc(sessionId);
+        entry.ifPresent(found -> latestBySession.put(sessionId, found));
+        return entry;
+    }
+
+    @Override
+    public Optional<ReportEntry> findByReportId(String reportId) {
+        return entryRepository.findByReportId(reportId);
+    }
+
+    @Override
+    public Path resolve(ReportEntry entry) {
+        Path file = reportsDirectory.resolve(entry.getPath()).normalize();
+        if (!file.startsWith(reportsDirectory)) {
+            throw new IllegalStateException("Report path escapes the reports directory: " + entry.getPath());
+        }
+        return file;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${llm.reports.retention.interval:1h}",
+            initialDelayString = "${llm.reports.retention.interval:1h}")
+    public int applyRetention() {
+        int deleted = 0;
+        LocalDateTime cutoff = LocalDateTime.now().minus(maxAge);
+        List<ReportEntry> expired;
+        while (!(expired = entryRepository.findTop500ByCreatedAtBeforeOrderByCreatedAtAsc(cutoff)).isEmpty()) {
+            deleted += delete(expired);
+        }
+
+        long excess = entryRepository.count() - maxFiles;
+        while (excess > 0) {
+            List<ReportEntry> oldest = entryRepository.findTop500ByOrderByCreatedAtAsc();
+            List<ReportEntry> chunk = oldest.subList(0, (int) Math.min(excess, oldest.size()));
+            int removed = delete(chunk);
+            if (removed == 0) {
+                break;
+            }
+            deleted += removed;
+            excess -= removed;
+        }
+
+        if (deleted > 0) {
+            logger.info("Report retention removed {} reports", deleted);
+        }
+        return deleted;
+    }
+
+    private int delete(List<ReportEntry> entries) {
+        for (ReportEntry entry : entries) {
+            try {
+                Path file = resolve(entry);
+                Files.deleteIfExists(file);
+                Files.deleteIfExists(sidecarOf(file));
+                pruneEmptyDirectories(file.getParent());
+            } catch (IOException | IllegalStateException e) {
+                logger.warn("Could not delete report file {}: {}", entry.getPath(), e.getMessage());
+            }
+            latestBySession.invalidate(entry.getSessionId());
+        }
+        entryRepository.deleteAllInBatch(entries);
+        return entries.size();
+    }
+
+    /**
+     * Removes the shard and day directories once their last report is gone.
+     */
+    private void pruneEmptyDirectories(Path directory) throws IOException {
+        Path current = directory;
+        while (current != null && current.startsWith(reportsDirectory) && !current.equals(reportsDirectory)) {
+            try {
+                if (!Files.deleteIfExists(current)) {
+                    return;
+                }
+            } catch (DirectoryNotEmptyException e) {
+                return;
+            }
+            current = current.getParent();
+        }
+    }
+
+    private Optional<ReportEntry> recover(Path file, Set<String> known) throws IOException {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        Optional<ReportFormat> format = dot < 0 ? Optional.empty() : ReportFormat.fromExtension(name.substring(dot + 1));
+        if (format.isEmpty()) {
+            // Sidecars, temporary files and anything else that is not a report
+            return Optional.empty();
+        }
+        String relativePath = reportsDirectory.relativize(file).toString().replace('\\', '/');
+        Properties sidecar = readSidecar(file);
+        String reportId = sidecar.getProperty("reportId", reportIdOf(name.substring(0, dot), relativePath));
+        // Also guards against two files of this walk claiming one ID
+        if (!known.add(reportId)) {
+            return Optional.empty();
+        }
+
+        try {
+            ReportEntry entry = new ReportEntry(reportId, sidecar.getProperty("sessionId", reportId), format.get(),
+                    relativePath, Files.size(file), sidecar.getProperty("checksum", null));
+            if (entry.getChecksum() == null) {
+                entry.setChecksum(checksumOf(file));
+            }
+            String createdAt = sidecar.getProperty("createdAt");
+            entry.setCreatedAt(createdAt != null
+                    ? LocalDateTime.parse(createdAt)
+                    : LocalDateTime.ofInstant(Files.getLastModifiedTime(file).toInstant(), ZoneId.systemDefault()));
+            return Optional.of(entry);
+        } catch (NoSuchFileException e) {
+            // Removed while the directory was being walked
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * The report ID a file without a sidecar is catalogued under: the UUID its name ends with
+     * (&lt;prefix&gt;_&lt;report ID&gt;), or for the llm_comparison_&lt;timestamp&gt; files of older
+     * versions a name-based UUID of the relative path, as their timestamps are not unique.
+     */
+    static String reportIdOf(String baseName, String relativePath) {
+        String suffix = baseName.substring(baseName.lastIndexOf('_') + 1);
+        try {
+            UUID reportId = UUID.fromString(suffix);
+            if (reportId.toString().equals(suffix)) {
+                return suffix;
+            }
+        } catch (IllegalArgumentException e) {
+            // Not a report ID
+        }
+        return UUID.nameUUIDFromBytes(relativePath.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    /**
+     * Saves a batch in one go, or row by row if that fails, so one bad row only loses itself.
+     */
+    private int saveRecovered(List<ReportEntry> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            entryRepository.saveAll(batch);
+            return batch.size();
+        } catch (RuntimeException e) {
+            int saved = 0;
+            for (ReportEntry entry : batch) {
+                try {
+                    entryRepository.save(entry);
+                    saved++;
+                } catch (RuntimeException rowFailure) {
+                    logger.warn("Could not catalog report file {}: {}", entry.getPath(), rowFailure.getMessage());
+                }
+            }
+            return saved;
+        }
+    }
+
+    /**
+     * Written next to the report once it is registered; a lost sidecar only costs the session link
+     * and a re-hash when the catalog is rebuilt, so failures are logged and not raised.
+     */
+    private void writeSidecar(Path file, ReportEntry entry) {
+        Properties sidecar = new Properties();
+        sidecar.setProperty("reportId", entry.getReportId());
+        sidecar.setProperty("sessionId", entry.getSessionId());
+        sidecar.setProperty("checksum", entry.getChecksum());
+        sidecar.setProperty("createdAt", entry.getCreatedAt().toString());
+        Path target = sidecarOf(file);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                sidecar.store(out, null);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Could not write report sidecar {}: {}", target, e.getMessage());
+        }
+    }
+
+    private static Properties readSidecar(Path file) {
+        Properties sidecar = new Properties();
+        try (InputStream in = Files.newInputStream(sidecarOf(file))) {
+            sidecar.load(in);
+        } catch (IOException e) {
+            // Missing or unreadable, recover from the file name
+        }
+        return sidecar;
+    }
+
+    private static Path sidecarOf(Path file) {
+        return file.resolveSibling(file.getFileName() + SIDECAR_SUFFIX);
+    }
+
+    private static String checksumOf(Path file) throws IOException {
+        MessageDigest digest = HashUtils.newSha256();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
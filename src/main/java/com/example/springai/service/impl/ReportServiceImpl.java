@@ -2,182 +2,408 @@ package com.example.springai.service.impl;
 
 // Report Service Implementation
 
+import com.example.springai.dto.BatchJobStatus;
+import com.example.springai.dto.BatchProviderStats;
+import com.example.springai.dto.ComparisonAnalysis;
 import com.example.springai.dto.ComparisonResult;
+import com.example.springai.dto.ReportStatus;
+import com.example.springai.metrics.LlmMetrics;
 import com.example.springai.model.LlmResponse;
+import com.example.springai.model.ReportEntry;
+import com.example.springai.model.ReportFormat;
+import com.example.springai.service.ReportCatalogService;
 import com.example.springai.service.ReportService;
+import com.example.springai.util.HashUtils;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.FileWriter;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
 import java.util.Map;
-
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Markdown and JSON reports. Reports are streamed through a buffered UTF-8 writer into a temporary
+ * file that is moved into place once complete, so memory use does not grow with the size of the
+ * responses and a report path never points at a half-written file. Every file is registered in the
+ * report catalog with its checksum. Comparison reports are written on the report executor; their
+ * progress is kept for status queries for a limited time.
+ */
 @Service
 public class ReportServiceImpl implements ReportService {
 
     private static final Logger logger = LoggerFactory.getLogger(ReportServiceImpl.class);
+    private static final String COMPARISON_PREFIX = "llm_comparison";
+    private static final String BATCH_PREFIX = "llm_batch";
+    private static final DateTimeFormatter DISPLAY_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService reportExecutor;
+    private final ReportCatalogService reportCatalog;
+    private final LlmMetrics metrics;
+    private final Cache<String, ReportJob> jobs;
+
+    public ReportServiceImpl(@Qualifier("reportExecutor") ExecutorService reportExecutor,
+                             ReportCatalogService reportCatalog, LlmMetrics metrics,
+                             @Value("${llm.reports.status-ttl:1h}") Duration statusTtl,
+                             @Value("${llm.reports.status-max-size:10000}") long statusMaxSize) {
+        this.reportExecutor = reportExecutor;
+        this.reportCatalog = reportCatalog;
+        this.metrics = metrics;
+        this.jobs = Caffeine.newBuilder()
+                .expireAfterWrite(statusTtl)
+                .maximumSize(statusMaxSize)
+                .build();
+    }
 
     @Override
     public String generateMarkdownReport(ComparisonResult result) {
         try {
-            // Create reports directory if it doesn't exist
-            Path reportsDir = Paths.get("reports");
-            if (!Files.exists(reportsDir)) {
-                Files.createDirectories(reportsDir);
-            }
+            String reportId = UUID.randomUUID().toString();
+            Path filePath = reportCatalog.newReportPath(reportId, COMPARISON_PREFIX, ReportFormat.MARKDOWN);
+            String checksum = writeAtomically(filePath, out -> writeComparison(out, result));
+            reportCatalog.register(reportId, sessionKey(result.getSessionId(), reportId), ReportFormat.MARKDOWN,
+                    filePath, checksum);
+            logger.info("Markdown report generated: {}", filePath);
+            return filePath.toString();
+        } catch (IOException e) {
+            logger.error("Error generating markdown report: ", e);
+            throw new RuntimeException("Failed to generate markdown report", e);
+        }
+    }
+
+    @Override
+    public ReportStatus submitMarkdownReport(ComparisonResult result) {
+        String reportId = UUID.randomUUID().toString();
+        Path filePath = reportCatalog.newReportPath(reportId, COMPARISON_PREFIX, ReportFormat.MARKDOWN);
+        ReportJob job = new ReportJob(reportId, result.getSessionId(), filePath);
+        jobs.put(reportId, job);
+
+        // The executor runs the job on the caller when its queue is full
+        reportExecutor.execute(() -> runReport(job, result));
+        return job.toStatus();
+    }
+
+    private void runReport(ReportJob job, ComparisonResult result) {
+        job.state = ReportStatus.State.RUNNING;
+        try {
+            String checksum = metrics.timeComparisonPhase(LlmMetrics.PHASE_REPORT, () -> {
+                try {
+                    return writeAtomically(job.filePath, out -> writeComparison(out, result));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            ReportEntry entry = reportCatalog.register(job.reportId, sessionKey(job.sessionId, job.reportId),
+                    ReportFormat.MARKDOWN, job.filePath, checksum);
+            job.sizeBytes = entry.getSizeBytes();
+            job.checksum = checksum;
+            job.completedAt = LocalDateTime.now();
+            job.state = ReportStatus.State.COMPLETED;
+            logger.info("Markdown report generated: {}", job.filePath);
+        } catch (RuntimeException e) {
+            logger.error("Error generating markdown report {}: ", job.reportId, e);
+            job.error = e.getMessage();
+            job.completedAt = LocalDateTime.now();
+            job.state = ReportStatus.State.FAILED;
+        }
+    }
+
+    @Override
+    public Optional<ReportStatus> getReportStatus(String reportId) {
+        return Optional.ofNullable(jobs.getIfPresent(reportId)).map(ReportJob::toStatus);
+    }
 
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
-            String filename = String.format("llm_comparison_%s.md", timestamp);
-            Path filePath = reportsDir.resolve(filename);
-
-            StringBuilder markdown = new StringBuilder();
-
-            // Header
-            markdown.append("# LLM Comparison Report\n\n");
-            markdown.append(String.format("**Generated on:** %s\n\n", LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))));
-            markdown.append(String.format("**Session ID:** %s\n\n", result.getSessionId()));
-
-            // Prompt
-            markdown.append("## Prompt\n\n");
-            markdown.append("```\n").append(result.getPrompt()).append("\n```\n\n");
-
-            // Analysis Summary
-            if (result.getAnalysis() != null) {
-                markdown.append("## Analysis Summary\n\n");
-                Map<String, Object> analysis = result.getAnalysis();
-
-                markdown.append("### Performance Metrics\n\n");
-                markdown.append(String.format("- **Total Responses:** %s\n", analysis.get("totalResponses")));
-                markdown.append(String.format("- **Average Response Time:** %.2f ms\n", (Double) analysis.get("averageResponseTime")));
-                markdown.append(String.format("- **Fastest Provider:** %s (%.0f ms)\n",
-                        analysis.get("fastestProvider"), analysis.get("fastestTime")));
-                markdown.append(String.format("- **Slowest Provider:** %s (%.0f ms)\n",
-                        analysis.get("slowestProvider"), analysis.get("slowestTime")));
-
-                markdown.append("\n### Content Metrics\n\n");
-                markdown.append(String.format("- **Average Response Length:** %.0f characters\n", (Double) analysis.get("averageResponseLength")));
-                markdown.append(String.format("- **Shortest Response:** %s (%s characters)\n",
-                        analysis.get("shortestProvider"), analysis.get("shortestLength")));
-                markdown.append(String.format("- **Longest Response:** %s (%s characters)\n",
-                        analysis.get("longestProvider"), analysis.get("longestLength")));
-                markdown.append(String.format("- **Average Tokens:** %.0f\n", (Double) analysis.get("averageTokens")));
-
-                // Common words
-                @SuppressWarnings("unchecked")
-                Map<String, Integer> commonWords = (Map<String, Integer>) analysis.get("commonWords");
-                if (!commonWords.isEmpty()) {
-                    markdown.append("\n### Most Common Words\n\n");
-                    commonWords.forEach((word, count) ->
-                            markdown.append(String.format("- **%s:** %d occurrences\n", word, count)));
+    private void writeComparison(Writer out, ComparisonResult result) throws IOException {
+        // Header
+        out.write("# LLM Comparison Report\n\n");
+        out.write("**Generated on:** " + LocalDateTime.now().format(DISPLAY_TIMESTAMP) + "\n\n");
+        out.write("**Session ID:** " + result.getSessionId() + "\n\n");
+
+        // Prompt
+        out.write("## Prompt\n\n");
+        out.write("```\n");
+        out.write(String.valueOf(result.getPrompt()));
+        out.write("\n```\n\n");
+
+        // Analysis Summary
+        if (result.getAnalysis() != null) {
+            out.write("## Analysis Summary\n\n");
+            ComparisonAnalysis analysis = result.getAnalysis();
+
+            out.write("### Performance Metrics\n\n");
+            out.write("- **Total Responses:** " + analysis.getTotalResponses() + "\n");
+            out.write(String.format("- **Average Response Time:** %.2f ms\n", analysis.getAverageResponseTime()));
+            out.write("- **Fastest Provider:** " + analysis.getFastestProvider()
+                    + " (" + analysis.getFastestTime() + " ms)\n");
+            out.write("- **Slowest Provider:** " + analysis.getSlowestProvider()
+                    + " (" + analysis.getSlowestTime() + " ms)\n");
+
+            out.write("\n### Content Metrics\n\n");
+            out.write(String.format("- **Average Response Length:** %.0f characters\n",
+                    analysis.getAverageResponseLength()));
+            out.write("- **Shortest Response:** " + analysis.getShortestProvider()
+                    + " (" + analysis.getShortestLength() + " characters)\n");
+            out.write("- **Longest Response:** " + analysis.getLongestProvider()
+                    + " (" + analysis.getLongestLength() + " characters)\n");
+            out.write(String.format("- **Average Tokens:** %.0f\n", analysis.getAverageTokens()));
+
+            // Common words
+            Map<String, Integer> commonWords = analysis.getCommonWords();
+            if (commonWords != null && !commonWords.isEmpty()) {
+                out.write("\n### Most Common Words\n\n");
+                for (Map.Entry<String, Integer> entry : commonWords.entrySet()) {
+                    out.write("- **" + entry.getKey() + ":** " + entry.getValue() + " occurrences\n");
                 }
-                markdown.append("\n");
             }
+            out.write("\n");
+        }
 
-            // Individual Responses
-            markdown.append("## Detailed Responses\n\n");
+        // Individual Responses
+        out.write("## Detailed Responses\n\n");
 
-            for (int i = 0; i < result.getResponses().size(); i++) {
-                LlmResponse response = result.getResponses().get(i);
+        for (int i = 0; i < result.getResponses().size(); i++) {
+            LlmResponse response = result.getResponses().get(i);
 
-                markdown.append(String.format("### %d. %s (%s)\n\n",
-                        i + 1, response.getProvider().getDisplayName(), response.getModel()));
+            out.write("### " + (i + 1) + ". " + response.getProvider().getDisplayName()
+                    + " (" + response.getModel() + ")\n\n");
 
-                markdown.append("**Metadata:**\n");
-                markdown.append(String.format("- Response Time: %d ms\n", response.getResponseTimeMs()));
-                markdown.append(String.format("- Token Count: %s\n", response.getTokenCount() != null ? response.getTokenCount() : "N/A"));
-                markdown.append(String.format("- Response Length: %d characters\n", response.getResponse().length()));
-                markdown.append(String.format("- Timestamp: %s\n\n", response.getCreatedAt().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))));
+            out.write("**Metadata:**\n");
+            out.write("- Response Time: " + response.getResponseTimeMs() + " ms\n");
+            out.write("- Token Count: " + (response.getTokenCount() != null ? response.getTokenCount() : "N/A") + "\n");
+            out.write("- Response Length: " + response.getResponse().length() + " characters\n");
+            out.write("- Timestamp: " + (response.getCreatedAt() != null
+                    ? response.getCreatedAt().format(DISPLAY_TIMESTAMP) : "N/A") + "\n\n");
 
-                markdown.append("**Response:**\n\n");
-                markdown.append("```\n").append(response.getResponse()).append("\n```\n\n");
+            // Written straight from the response, the buffer copies it through in small chunks
+            out.write("**Response:**\n\n");
+            out.write("```\n");
+            out.write(response.getResponse());
+            out.write("\n```\n\n");
 
-                markdown.append("---\n\n");
-            }
+            out.write("---\n\n");
+        }
+
+        // Comparison Analysis
+        out.write("## Comparison Analysis\n\n");
+        out.write("### Key Differences\n\n");
 
-            // Comparison Analysis
-            markdown.append("## Comparison Analysis\n\n");
-            markdown.append("### Key Differences\n\n");
-
-            if (result.getResponses().size() >= 2) {
-                markdown.append("**Response Style Comparison:**\n");
-                for (LlmResponse response : result.getResponses()) {
-                    markdown.append(String.format("- **%s**: ", response.getProvider().getDisplayName()));
-
-                    String resp = response.getResponse().toLowerCase();
-                    if (resp.contains("example") || resp.contains("for instance")) {
-                        markdown.append("Uses examples frequently. ");
-                    }
-                    if (resp.contains("step") || resp.contains("first") || resp.contains("second")) {
-                        markdown.append("Structured/step-by-step approach. ");
-                    }
-                    if (resp.length() > 1000) {
-                        markdown.append("Detailed explanation. ");
-                    } else if (resp.length() < 500) {
-                        markdown.append("Concise response. ");
-                    } else {
-                        markdown.append("Moderate length response. ");
-                    }
-                    markdown.append("\n");
+        if (result.getResponses().size() >= 2) {
+            out.write("**Response Style Comparison:**\n");
+            for (LlmResponse response : result.getResponses()) {
+                out.write("- **" + response.getProvider().getDisplayName() + "**: ");
+
+                // Case-insensitive scans instead of lower-casing a copy of the whole response
+                String resp = response.getResponse();
+                if (containsIgnoreCase(resp, "example") || containsIgnoreCase(resp, "for instance")) {
+                    out.write("Uses examples frequently. ");
+                }
+                if (containsIgnoreCase(resp, "step") || containsIgnoreCase(resp, "first")
+                        || containsIgnoreCase(resp, "second")) {
+                    out.write("Structured/step-by-step approach. ");
                 }
-                markdown.append("\n");
+                if (resp.length() > 1000) {
+                    out.write("Detailed explanation. ");
+                } else if (resp.length() < 500) {
+                    out.write("Concise response. ");
+                } else {
+                    out.write("Moderate length response. ");
+                }
+                out.write("\n");
             }
+            out.write("\n");
+        }
 
-            markdown.append("### Recommendations\n\n");
-            if (result.getAnalysis() != null) {
-                String fastestProvider = (String) result.getAnalysis().get("fastestProvider");
-                String longestProvider = (String) result.getAnalysis().get("longestProvider");
+        out.write("### Recommendations\n\n");
+        if (result.getAnalysis() != null) {
+            String fastestProvider = result.getAnalysis().getFastestProvider();
+            String longestProvider = result.getAnalysis().getLongestProvider();
 
-                markdown.append(String.format("- **For Speed:** %s provided the fastest response\n", fastestProvider));
-                markdown.append(String.format("- **For Detail:** %s provided the most comprehensive response\n", longestProvider));
-                markdown.append("- **Overall:** Consider the trade-off between response time and detail based on your use case\n\n");
-            }
+            out.write("- **For Speed:** " + fastestProvider + " provided the fastest response\n");
+            out.write("- **For Detail:** " + longestProvider + " provided the most comprehensive response\n");
+            out.write("- **Overall:** Consider the trade-off between response time and detail based on your use case\n\n");
+        }
 
-            // Footer
-            markdown.append("---\n");
-            markdown.append("*Report generated by LLM Comparator Spring Boot Application*\n");
+        // Footer
+        out.write("---\n");
+        out.write("*Report generated by LLM Comparator Spring Boot Application*\n");
+    }
 
-            // Write to file
-            try (FileWriter writer = new FileWriter(filePath.toFile())) {
-                writer.write(markdown.toString());
+    private static boolean containsIgnoreCase(String text, String word) {
+        char first = word.charAt(0);
+        int last = text.length() - word.length();
+        for (int i = 0; i <= last; i++) {
+            if (Character.toLowerCase(text.charAt(i)) == first
+                    && text.regionMatches(true, i, word, 0, word.length())) {
+                return true;
             }
+        }
+        return false;
+    }
+
+    @Override
+    public String generateJsonReport(ComparisonResult result) {
+        try {
+            String reportId = UUID.randomUUID().toString();
+            Path filePath = reportCatalog.newReportPath(reportId, COMPARISON_PREFIX, ReportFormat.JSON);
+            String checksum = writeAtomically(filePath,
+                    out -> objectMapper.writerWithDefaultPrettyPrinter().writeValue(out, result));
+            reportCatalog.register(reportId, sessionKey(result.getSessionId(), reportId), ReportFormat.JSON,
+                    filePath, checksum);
 
-            logger.info("Markdown report generated: {}", filePath.toAbsolutePath());
-            return filePath.toAbsolutePath().toString();
+            logger.info("JSON report generated: {}", filePath);
+            return filePath.toString();
 
         } catch (IOException e) {
-            logger.error("Error generating markdown report: ", e);
-            throw new RuntimeException("Failed to generate markdown report", e);
+            logger.error("Error generating JSON report: ", e);
+            throw new RuntimeException("Failed to generate JSON report", e);
         }
     }
 
     @Override
-    public String generateJsonReport(ComparisonResult result) {
+    public String generateBatchReport(BatchJobStatus status) {
         try {
-            Path reportsDir = Paths.get("reports");
-            if (!Files.exists(reportsDir)) {
-                Files.createDirectories(reportsDir);
+            String reportId = UUID.randomUUID().toString();
+            Path filePath = reportCatalog.newReportPath(reportId, BATCH_PREFIX, ReportFormat.MARKDOWN);
+            String checksum = writeAtomically(filePath, out -> writeBatch(out, status));
+            // Batch reports are catalogued under their job ID
+            reportCatalog.register(reportId, status.getJobId(), ReportFormat.MARKDOWN, filePath, checksum);
+
+            logger.info("Batch report generated: {}", filePath);
+            return filePath.toString();
+
+        } catch (IOException e) {
+            logger.error("Error generating batch report: ", e);
+            throw new RuntimeException("Failed to generate batch report", e);
+        }
+    }
+
+    private void writeBatch(Writer out, BatchJobStatus status) throws IOException {
+        // Header
+        out.write("# LLM Batch Comparison Report\n\n");
+        out.write("**Generated on:** " + LocalDateTime.now().format(DISPLAY_TIMESTAMP) + "\n\n");
+        out.write("**Job ID:** " + status.getJobId() + "\n\n");
+        out.write("**Prompts:** " + status.getCompletedPrompts() + " of " + status.getTotalPrompts()
+                + " completed\n\n");
+        if (status.getPersistErrors() > 0) {
+            out.write("**Unsaved responses:** " + status.getPersistErrors() + " (missing from history)\n\n");
+        }
+
+        // Per-provider summary
+        out.write("## Provider Summary\n\n");
+        out.write("| Provider | Responses | Errors | Avg Time (ms) | Min Time (ms) | Max Time (ms) | Total Tokens | Avg Length |\n");
+        out.write("|---|---|---|---|---|---|---|---|\n");
+        for (Map.Entry<String, BatchProviderStats> entry : status.getProviderStats().entrySet()) {
+            BatchProviderStats stats = entry.getValue();
+            out.write(String.format("| %s | %d | %d | %.2f | %d | %d | %d | %.0f |\n",
+                    entry.getKey(), stats.getResponses(), stats.getErrors(), stats.getAverageResponseTime(),
+                    stats.getMinResponseTime(), stats.getMaxResponseTime(), stats.getTotalTokens(),
+                    stats.getAverageResponseLength()));
+        }
+        out.write("\n");
+
+        // Per-prompt index, full responses are available through /history/{sessionId}
+        out.write("## Prompts\n\n");
+        out.write("| # | Session ID | Errors | Prompt |\n");
+        out.write("|---|---|---|---|\n");
+        for (BatchJobStatus.PromptResult promptResult : status.getResults()) {
+            String prompt = promptResult.getPrompt().replaceAll("\\s+", " ").replace("|", "\\|");
+            if (prompt.length() > 80) {
+                prompt = prompt.substring(0, 77) + "...";
             }
+            out.write("| " + (promptResult.getIndex() + 1) + " | " + promptResult.getSessionId()
+                    + " | " + promptResult.getErrors() + " | " + prompt + " |\n");
+        }
+        out.write("\n");
 
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
-            String filename = String.format("llm_comparison_%s.json", timestamp);
-            Path filePath = reportsDir.resolve(filename);
+        // Footer
+        out.write("---\n");
+        out.write("*Report generated by LLM Comparator Spring Boot Application*\n");
+    }
 
-            objectMapper.writerWithDefaultPrettyPrinter().writeValue(filePath.toFile(), result);
+    // Results posted to /report/json may carry no session, they are catalogued under the report ID
+    private static String sessionKey(String sessionId, String reportId) {
+        return sessionId != null ? sessionId : reportId;
+    }
 
-            logger.info("JSON report generated: {}", filePath.toAbsolutePath());
-            return filePath.toAbsolutePath().toString();
+    /**
+     * Streams the content into a temporary sibling and moves it over the target once complete.
+     * Returns the SHA-256 of the written bytes, computed on the way out.
+     */
+    private static String writeAtomically(Path target, ReportWriter content) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        MessageDigest digest = HashUtils.newSha256();
+        try (BufferedWriter out = new BufferedWriter(new OutputStreamWriter(
+                new DigestOutputStream(Files.newOutputStream(temp), digest), StandardCharsets.UTF_8))) {
+            content.write(out);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return HexFormat.of().formatHex(digest.digest());
+    }
 
-        } catch (IOException e) {
-            logger.error("Error generating JSON report: ", e);
-            throw new RuntimeException("Failed to generate JSON report", e);
+    @FunctionalInterface
+    private interface ReportWriter {
+        void write(Writer out) throws IOException;
+    }
+
+    /**
+     * Mutable state of a queued or running report; callers only ever see ReportStatus snapshots.
+     */
+    private static final class ReportJob {
+        private final String reportId;
+        private final String sessionId;
+        private final Path filePath;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+
+        private volatile ReportStatus.State state = ReportStatus.State.QUEUED;
+        private volatile LocalDateTime completedAt;
+        private volatile long sizeBytes;
+        private volatile String checksum;
+        private volatile String error;
+
+        private ReportJob(String reportId, String sessionId, Path filePath) {
+            this.reportId = reportId;
+            this.sessionId = sessionId;
+            this.filePath = filePath;
+        }
+
+        private ReportStatus toStatus() {
+            ReportStatus status = new ReportStatus();
+            status.setReportId(reportId);
+            status.setSessionId(sessionId);
+            status.setState(state);
+            status.setReportFilePath(filePath.toString());
+            status.setSizeBytes(sizeBytes);
+            status.setChecksum(checksum);
+            status.setError(error);
+            status.setSubmittedAt(submittedAt);
+            status.setCompletedAt(completedAt);
+            return status;
         }
     }
 }
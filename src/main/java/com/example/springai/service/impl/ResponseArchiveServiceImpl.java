@@ -0,0 +1,451 @@
+package com.example.springai.service.impl;
+
+import com.example.springai.archive.ArchiveFilter;
+import com.example.springai.archive.ArchiveIndex;
+import com.example.springai.archive.ResponseArchiveReader;
+import com.example.springai.archive.ResponseArchiveWriter;
+import com.example.springai.model.ArchivePartition;
+import com.example.springai.model.LlmResponse;
+import com.example.springai.repository.ArchivePartitionRepository;
+import com.example.springai.repository.LlmResponseRepository;
+import com.example.springai.service.ResponseArchiveService;
+import com.example.springai.util.KeysetCursor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Rolls aged responses out of llm_responses into compressed columnar files, one partition per
+ * day, and reads them back for the history endpoints. A day is written to a temporary file,
+ * moved into place, and only then registered and deleted from the database in one transaction,
+ * so a row is always readable from exactly one of the two. File footers are cached, so a lookup
+ * that a block's bloom filter or ranges rule out never touches the file's data.
+ *
+ * <p>The files are the source of truth: a footer carries everything an archive_partitions row
+ * holds, so on startup any file the table does not know about, e.g. because the in-memory
+ * database was recreated, is registered again, and the response ID sequence is moved past the
+ * highest archived ID so that new rows never share an ID with archived ones.
+ */
+@Service
+public class ResponseArchiveServiceImpl implements ResponseArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseArchiveServiceImpl.class);
+    private static final DateTimeFormatter MONTH_DIRECTORY = DateTimeFormatter.ofPattern("yyyy/MM");
+    private static final String PARTITION_SUFFIX = ".llma";
+    // Matches the allocationSize of llm_responses_seq
+    private static final int RESPONSE_ID_ALLOCATION = 50;
+
+    // Rows between persistence context clears while a day is streamed out
+    private static final int CLEAR_INTERVAL = 1000;
+    // IDs per delete statement once a partition is registered
+    private static final int DELETE_CHUNK = 1000;
+
+    private static final Comparator<LlmResponse> OLDEST_FIRST = Comparator
+            .comparing(LlmResponse::getCreatedAt)
+            .thenComparing(LlmResponse::getId);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final LlmResponseRepository responseRepository;
+    private final ArchivePartitionRepository partitionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Path archiveDirectory;
+    private final Cache<String, ArchiveIndex> indexes;
+
+    @Value("${llm.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${llm.archive.after:90d}")
+    private Duration archiveAfter;
+
+    @Value("${llm.archive.max-days-per-run:7}")
+    private int maxDaysPerRun;
+
+    @Value("${llm.archive.block-rows:4096}")
+    private int blockRows;
+
+    @Value("${llm.archive.compression-level:9}")
+    private int compressionLevel;
+
+    public ResponseArchiveServiceImpl(LlmResponseRepository responseRepository,
+                                      ArchivePartitionRepository partitionRepository,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${llm.archive.directory:data/archive}") Path archiveDirectory,
+                                      @Value("${llm.archive.index-cache-size:512}") long indexCacheSize) {
+        this.responseRepository = responseRepository;
+        this.partitionRepository = partitionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.archiveDirectory = archiveDirectory.toAbsolutePath().normalize();
+        this.indexes = Caffeine.newBuilder()
+                .maximumSize(indexCacheSize)
+                .build();
+    }
+
+    /**
+     * Runs before any traffic, so no response ID has been handed out yet when the sequence moves.
+     */
+    @PostConstruct
+    public void recoverPartitions() throws IOException {
+        if (Files.isDirectory(archiveDirectory)) {
+            try (Stream<Path> files = Files.walk(archiveDirectory)) {
+                for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                    recoverPartition(file);
+                }
+            }
+        }
+
+        Long maxArchivedId = partitionRepository.findMaxResponseId();
+        Long maxResponseId = responseRepository.findMaxId();
+        if (maxArchivedId != null && (maxResponseId == null || maxResponseId < maxArchivedId)) {
+            // Past the whole allocation block, however Hibernate's pooled optimizer reads the next value
+            long next = maxArchivedId + RESPONSE_ID_ALLOCATION + 1;
+            transactionTemplate.executeWithoutResult(status -> entityManager
+                    .createNativeQuery("alter sequence llm_responses_seq restart with " + next)
+                    .executeUpdate());
+            logger.info("Response IDs continue at {} after the highest archived ID {}", next, maxArchivedId);
+        }
+    }
+
+    private void recoverPartition(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        if (name.endsWith(PARTITION_SUFFIX + ".tmp")) {
+            // Left by a run that died mid-write, its rows are still in the database
+            deleteQuietly(file);
+            return;
+        }
+        String path = archiveDirectory.relativize(file).toString().replace('\\', '/');
+        if (!name.endsWith(PARTITION_SUFFIX) || partitionRepository.existsByPath(path)) {
+            return;
+        }
+
+        ArchiveIndex index;
+        try {
+            index = ResponseArchiveReader.readIndex(file);
+        } catch (IOException e) {
+            logger.error("Skipping unreadable archive partition {}: {}", path, e.getMessage());
+            return;
+        }
+        if (index.getRowCount() == 0) {
+            return;
+        }
+        // Rows are deleted in the transaction that registers the file, if they are still there the run
+        // died in between and the day is archived again on the next run
+        if (responseRepository.existsById(index.getMinId())) {
+            logger.warn("Removing archive partition {} whose rows were never deleted from the database", path);
+            deleteQuietly(file);
+            return;
+        }
+
+        ArchivePartition partition = newPartition(path, index);
+        partition.setSizeBytes(Files.size(file));
+        partitionRepository.save(partition);
+        indexes.put(path, index);
+        logger.info("Recovered archive partition {} ({} responses)", path, index.getRowCount());
+    }
+
+    @Scheduled(fixedDelayString = "${llm.archive.interval:6h}", initialDelayString = "${llm.archive.interval:6h}")
+    public void runArchive() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            archiveAgedResponses();
+        } catch (RuntimeException e) {
+            logger.error("Error archiving aged responses: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public long archiveAgedResponses() {
+        // Whole days only, so each partition covers one calendar day
+        LocalDateTime cutoff = LocalDateTime.now().minus(archiveAfter).truncatedTo(ChronoUnit.DAYS);
+        long archived = 0;
+        for (int day = 0; day < maxDaysPerRun; day++) {
+            LocalDateTime oldest = responseRepository.findOldestCreatedAtBefore(cutoff);
+            if (oldest == null) {
+                break;
+            }
+            long rows = archiveDay(oldest.toLocalDate());
+            if (rows == 0) {
+                break;
+            }
+            archived += rows;
+        }
+        if (archived > 0) {
+            logger.info("Archived {} responses older than {}", archived, cutoff);
+        }
+        return archived;
+    }
+
+    private long archiveDay(LocalDate date) {
+        LocalDateTime from = date.atStartOfDay();
+        LocalDateTime to = date.plusDays(1).atStartOfDay();
+        long part = partitionRepository.countByPartitionDate(date);
+        Path file = archiveDirectory
+                .resolve(date.format(MONTH_DIRECTORY))
+                .resolve("responses_" + date + "_" + part + PARTITION_SUFFIX);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+
+        List<Long> ids = new ArrayList<>();
+        ArchiveIndex index;
+        try {
+            Files.createDirectories(file.getParent());
+            index = readOnlyTransaction.execute(status -> {
+                try {
+                    return writePartition(temp, from, to, ids);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (ids.isEmpty()) {
+                Files.deleteIfExists(temp);
+                return 0;
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | UncheckedIOException e) {
+            deleteQuietly(temp);
+            throw new IllegalStateException("Could not write archive partition " + file + ": " + e.getMessage(), e);
+        }
+
+        ArchivePartition partition = newPartition(archiveDirectory.relativize(file).toString().replace('\\', '/'),
+                index);
+        try {
+            partition.setSizeBytes(Files.size(file));
+            transactionTemplate.executeWithoutResult(status -> {
+                partitionRepository.save(partition);
+                for (int i = 0; i < ids.size(); i += DELETE_CHUNK) {
+                    responseRepository.deleteAllByIdInBatch(ids.subList(i, Math.min(ids.size(), i + DELETE_CHUNK)));
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            // The rows are still in the database, the day is archived again on the next run
+            deleteQuietly(file);
+            throw new IllegalStateException("Could not register archive partition " + file + ": " + e.getMessage(), e);
+        }
+        indexes.put(partition.getPath(), index);
+        logger.debug("Archived {} responses from {} into {} ({} bytes)", ids.size(), date, partition.getPath(),
+                partition.getSizeBytes());
+        return ids.size();
+    }
+
+    /**
+     * A partition covers one calendar day, the date is that of its first row.
+     */
+    private static ArchivePartition newPartition(String path, ArchiveIndex index) {
+        ArchivePartition partition = new ArchivePartition();
+        partition.setPath(path);
+        partition.setPartitionDate(index.getMinCreatedAt().toLocalDate());
+        partition.setRowCount(index.getRowCount());
+        partition.setMinCreatedAt(index.getMinCreatedAt());
+        partition.setMaxCreatedAt(index.getMaxCreatedAt());
+        partition.setMinResponseId(index.getMinId());
+        partition.setMaxResponseId(index.getMaxId());
+        return partition;
+    }
+
+    private ArchiveIndex writePartition(Path temp, LocalDateTime from, LocalDateTime to, List<Long> ids)
+            throws IOException {
+        try (ResponseArchiveWriter writer = new ResponseArchiveWriter(temp, blockRows, compressionLevel);
+             Stream<LlmResponse> rows = responseRepository.streamForExport(null, from, to)) {
+            Iterator<LlmResponse> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                LlmResponse row = iterator.next();
+                writer.append(row);
+                ids.add(row.getId());
+                if (ids.size() % CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            }
+            return writer.finish();
+        }
+    }
+
+    @Override
+    public List<LlmResponse> findSession(String sessionId) {
+        List<LlmResponse> rows = new ArrayList<>();
+        scan(ArchiveFilter.forSession(sessionId), rows::add);
+        rows.sort(OLDEST_FIRST);
+        return rows;
+    }
+
+    @Override
+    public List<LlmResponse> findSessionPage(String sessionId, KeysetCursor after, int limit) {
+        ArchiveFilter filter = new ArchiveFilter(sessionId, after != null ? after.createdAt() : null, null, null);
+        return collectPage(partitionRepository.findAllByOrderByMinCreatedAtAsc(), filter, false,
+                row -> after == null || isAfter(row, after), limit);
+    }
+
+    @Override
+    public List<LlmResponse> findRecentPage(KeysetCursor before, int limit) {
+        // The filter's upper bound is exclusive, rows at the cursor's own timestamp are compared by ID
+        ArchiveFilter filter = new ArchiveFilter(null, null,
+                before != null ? before.createdAt().plus(1, ChronoUnit.MICROS) : null, null);
+        return collectPage(partitionRepository.findAllByOrderByMaxCreatedAtDesc(), filter, true,
+                row -> before == null || isBefore(row, before), limit);
+    }
+
+    /**
+     * Top rows across partitions whose time ranges may overlap. Partitions come in scan order and
+     * are read until the next one cannot beat the last row kept.
+     */
+    private List<LlmResponse> collectPage(List<ArchivePartition> partitions, ArchiveFilter filter, boolean newestFirst,
+                                          Predicate<LlmResponse> accept, int limit) {
+        Comparator<LlmResponse> order = newestFirst ? OLDEST_FIRST.reversed() : OLDEST_FIRST;
+        List<LlmResponse> page = new ArrayList<>();
+        for (ArchivePartition partition : partitions) {
+            if (!overlaps(partition, filter)) {
+                continue;
+            }
+            if (page.size() == limit) {
+                LocalDateTime boundary = page.get(limit - 1).getCreatedAt();
+                if (newestFirst ? partition.getMaxCreatedAt().isBefore(boundary)
+                        : partition.getMinCreatedAt().isAfter(boundary)) {
+                    break;
+                }
+            }
+            int[] taken = {0};
+            scanPartition(partition, filter, newestFirst, row -> {
+                if (!accept.test(row)) {
+                    return true;
+                }
+                page.add(row);
+                return ++taken[0] < limit;
+            });
+            page.sort(order);
+            if (page.size() > limit) {
+                page.subList(limit, page.size()).clear();
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public List<LlmResponse> findByIds(Collection<Long> ids) {
+        Set<Long> wanted = new HashSet<>(ids);
+        List<LlmResponse> found = new ArrayList<>();
+        if (wanted.isEmpty()) {
+            return found;
+        }
+        ArchiveFilter filter = ArchiveFilter.forIds(wanted);
+        for (ArchivePartition partition : partitionRepository.findAllByOrderByMinCreatedAtAsc()) {
+            if (!overlaps(partition, filter)) {
+                continue;
+            }
+            scanPartition(partition, filter, false, row -> {
+                found.add(row);
+                wanted.remove(row.getId());
+                return !wanted.isEmpty();
+            });
+            if (wanted.isEmpty()) {
+                break;
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public long scan(ArchiveFilter filter, Predicate<LlmResponse> consumer) {
+        long[] rows = {0};
+        for (ArchivePartition partition : partitionRepository.findAllByOrderByMinCreatedAtAsc()) {
+            if (!overlaps(partition, filter)) {
+                continue;
+            }
+            boolean more = scanPartition(partition, filter, false, row -> {
+                rows[0]++;
+                return consumer.test(row);
+            });
+            if (!more) {
+                break;
+            }
+        }
+        return rows[0];
+    }
+
+    private boolean scanPartition(ArchivePartition partition, ArchiveFilter filter, boolean newestFirst,
+                                  Predicate<LlmResponse> consumer) {
+        Path file = archiveDirectory.resolve(partition.getPath());
+        // One damaged or missing file should not take the history endpoints down with it
+        ArchiveIndex index;
+        try {
+            index = indexes.get(partition.getPath(), key -> {
+                try {
+                    return ResponseArchiveReader.readIndex(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            logger.error("Skipping unreadable archive partition {}: {}", partition.getPath(), e.getMessage());
+            return true;
+        }
+        // Errors thrown by the consumer are left to the caller
+        try {
+            return ResponseArchiveReader.scan(file, index, filter, newestFirst, consumer);
+        } catch (IOException e) {
+            logger.error("Skipping unreadable archive partition {}: {}", partition.getPath(), e.getMessage());
+            return true;
+        }
+    }
+
+    private static boolean overlaps(ArchivePartition partition, ArchiveFilter filter) {
+        if (filter.from() != null && partition.getMaxCreatedAt().isBefore(filter.from())) {
+            return false;
+        }
+        if (filter.to() != null && !partition.getMinCreatedAt().isBefore(filter.to())) {
+            return false;
+        }
+        return filter.ids() == null || filter.ids().stream()
+                .anyMatch(id -> id >= partition.getMinResponseId() && id <= partition.getMaxResponseId());
+    }
+
+    private static boolean isAfter(LlmResponse row, KeysetCursor cursor) {
+        int byTime = row.getCreatedAt().compareTo(cursor.createdAt());
+        return byTime > 0 || (byTime == 0 && row.getId() > cursor.id());
+    }
+
+    private static boolean isBefore(LlmResponse row, KeysetCursor cursor) {
+        int byTime = row.getCreatedAt().compareTo(cursor.createdAt());
+        return byTime < 0 || (byTime == 0 && row.getId() < cursor.id());
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete {}: {}", file, e.getMessage());
+        }
+    }
+}
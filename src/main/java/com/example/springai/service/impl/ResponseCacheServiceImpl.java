@@ -0,0 +1,169 @@
+package com.example.springai.service.impl;
+
+import com.example.springai.model.LlmResponse;
+import com.example.springai.repository.LlmResponseRepository;
+import com.example.springai.service.ResponseCacheService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Two-tier prompt-response cache: a W-TinyLFU in-memory tier (Caffeine) bounded by entry count and
+ * TTL, optionally backed by earlier rows of the llm_responses table within the same TTL. Entries
+ * expire {@code ttl} after the response was created, not after they were cached, so a row refilled
+ * from the persistent tier keeps only its remaining lifetime.
+ */
+@Service
+public class ResponseCacheServiceImpl implements ResponseCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCacheServiceImpl.class);
+
+    private final LlmResponseRepository responseRepository;
+    private final Cache<String, LlmResponse> cache;
+    private final boolean enabled;
+    private final boolean persistentEnabled;
+    private final Duration ttl;
+
+    private final AtomicLong persistentHits = new AtomicLong();
+    private final AtomicLong persistentMisses = new AtomicLong();
+
+    public ResponseCacheServiceImpl(LlmResponseRepository responseRepository,
+                                    @Value("${llm.cache.enabled:true}") boolean enabled,
+                                    @Value("${llm.cache.max-size:10000}") long maxSize,
+                                    @Value("${llm.cache.ttl:1h}") Duration ttl,
+                                    @Value("${llm.cache.persistent.enabled:false}") boolean persistentEnabled,
+                                    MeterRegistry meterRegistry) {
+        this.responseRepository = responseRepository;
+        this.enabled = enabled;
+        this.persistentEnabled = persistentEnabled;
+        this.ttl = ttl;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new RemainingLifetime(ttl))
+                .recordStats()
+                .build();
+        // Hits, misses, evictions and size as cache.*{cache=llm.responses}
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "llm.responses");
+    }
+
+    @Override
+    public Mono<LlmResponse> lookup(String requestHash, String sessionId) {
+        if (!enabled) {
+            return Mono.empty();
+        }
+
+        LlmResponse cached = cache.getIfPresent(requestHash);
+        if (cached != null) {
+            return Mono.just(copyForSession(cached, sessionId));
+        }
+        if (!persistentEnabled) {
+            return Mono.empty();
+        }
+
+        return Mono.fromCallable(() -> responseRepository
+                        .findFirstByRequestHashAndCacheHitFalseAndCreatedAtAfterOrderByCreatedAtDesc(
+                                requestHash, LocalDateTime.now().minus(ttl))
+                        .orElse(null))
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnNext(stored -> {
+                    persistentHits.incrementAndGet();
+                    cache.put(requestHash, snapshot(requestHash, stored));
+                })
+                .switchIfEmpty(Mono.fromRunnable(persistentMisses::incrementAndGet))
+                .map(stored -> copyForSession(stored, sessionId))
+                .onErrorResume(e -> {
+                    logger.warn("Persistent cache lookup failed: {}", e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    @Override
+    public void store(String requestHash, LlmResponse response) {
+        if (!enabled || "Error".equals(response.getModel())) {
+            return;
+        }
+        response.setRequestHash(requestHash);
+        cache.put(requestHash, snapshot(requestHash, response));
+    }
+
+    @Override
+    public Map<String, Object> getStatistics() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("enabled", enabled);
+        statistics.put("size", cache.estimatedSize());
+        statistics.put("hits", stats.hitCount());
+        statistics.put("misses", stats.missCount());
+        statistics.put("hitRate", stats.hitRate());
+        statistics.put("evictions", stats.evictionCount());
+        statistics.put("persistentEnabled", persistentEnabled);
+        statistics.put("persistentHits", persistentHits.get());
+        statistics.put("persistentMisses", persistentMisses.get());
+        return statistics;
+    }
+
+    /**
+     * Detached copy to keep in the cache. The caller's instance goes on to persistence, which
+     * assigns its ID and prompt reference (on the write-behind thread in ASYNC mode), so the cache
+     * must never share it with hits.
+     */
+    private LlmResponse snapshot(String requestHash, LlmResponse response) {
+        LlmResponse copy = response.copyForSession(response.getSessionId());
+        copy.setRequestHash(requestHash);
+        copy.setCreatedAt(response.getCreatedAt());
+        return copy;
+    }
+
+    private LlmResponse copyForSession(LlmResponse cached, String sessionId) {
+        LlmResponse copy = cached.copyForSession(sessionId);
+        copy.setCacheHit(true);
+        return copy;
+    }
+
+    /**
+     * Expires an entry {@code ttl} after its response's createdAt. Replacing an entry restarts the
+     * clock from the new value; reads leave it alone.
+     */
+    private static final class RemainingLifetime implements Expiry<String, LlmResponse> {
+
+        private final Duration ttl;
+
+        RemainingLifetime(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, LlmResponse value, long currentTime) {
+            if (value.getCreatedAt() == null) {
+                return ttl.toNanos();
+            }
+            Duration age = Duration.between(value.getCreatedAt(), LocalDateTime.now());
+            return Math.max(0, ttl.minus(age).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, LlmResponse value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, LlmResponse value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.springai.service.impl;
+
+import com.example.springai.archive.ArchiveFilter;
+import com.example.springai.dto.ExportFormat;
+import com.example.springai.dto.HistoryPage;
+import com.example.springai.model.LlmResponse;
+import com.example.springai.repository.LlmResponseRepository;
+import com.example.springai.service.ResponseArchiveService;
+import com.example.springai.service.ResponseHistoryService;
+import com.example.springai.util.KeysetCursor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * History pages and exports over llm_responses, continued into the archive for rows that have been
+ * moved out of it. Archived rows are always older than the ones still in the database, so a
+ * session page reads the archive first and the database after it, and a recent page the other way
+ * round.
+ */
+@Service
+public class ResponseHistoryServiceImpl implements ResponseHistoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseHistoryServiceImpl.class);
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    // Rows between persistence context clears during export, bounds the memory held by the session
+    private static final int EXPORT_CLEAR_INTERVAL = 1000;
+
+    private static final String CSV_HEADER = "id,session_id,created_at,provider,model,response_time_ms,"
+            + "token_count,cache_hit,prompt,response";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final LlmResponseRepository responseRepository;
+    private final ResponseArchiveService archiveService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ResponseHistoryServiceImpl(LlmResponseRepository responseRepository, ResponseArchiveService archiveService,
+                                      ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.responseRepository = responseRepository;
+        this.archiveService = archiveService;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public HistoryPage getSessionPage(String sessionId, String cursor, int size) {
+        checkPageSize(size);
+        KeysetCursor after = cursor == null || cursor.isBlank() ? null : KeysetCursor.decode(cursor);
+        List<LlmResponse> items = new ArrayList<>(archiveService.findSessionPage(sessionId, after, size));
+        if (items.size() < size) {
+            if (!items.isEmpty()) {
+                LlmResponse last = items.get(items.size() - 1);
+                after = new KeysetCursor(last.getCreatedAt(), last.getId());
+            }
+            PageRequest limit = PageRequest.of(0, size - items.size());
+            items.addAll(after == null
+                    ? responseRepository.findSessionPage(sessionId, limit)
+                    : responseRepository.findSessionPageAfter(sessionId, after.createdAt(), after.id(), limit));
+        }
+        return toPage(items, size);
+    }
+
+    @Override
+    public HistoryPage getRecentPage(String cursor, int size) {
+        PageRequest limit = PageRequest.of(0, checkPageSize(size));
+        KeysetCursor before = cursor == null || cursor.isBlank() ? null : KeysetCursor.decode(cursor);
+        List<LlmResponse> items = new ArrayList<>(before == null
+                ? responseRepository.findRecentPage(limit)
+                : responseRepository.findRecentPageBefore(before.createdAt(), before.id(), limit));
+        if (items.size() < size) {
+            // Past the oldest row in the database, carry on into the archive
+            if (!items.isEmpty()) {
+                LlmResponse last = items.get(items.size() - 1);
+                before = new KeysetCursor(last.getCreatedAt(), last.getId());
+            }
+            items.addAll(archiveService.findRecentPage(before, size - items.size()));
+        }
+        return toPage(items, size);
+    }
+
+    private int checkPageSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return size;
+    }
+
+    private HistoryPage toPage(List<LlmResponse> items, int size) {
+        // A short page is the last one
+        String nextCursor = null;
+        if (items.size() == size) {
+            LlmResponse last = items.get(items.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new HistoryPage(items, nextCursor);
+    }
+
+    @Override
+    public void export(ExportFormat format, String sessionId, LocalDateTime from, LocalDateTime to,
+                       OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        long rows;
+        try {
+            // Archived rows are the oldest, they come first
+            long archived = archiveService.scan(new ArchiveFilter(sessionId, from, to, null), row -> {
+                try {
+                    writeRow(writer, format, row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return true;
+            });
+            rows = archived + readOnlyTransaction.execute(status -> {
+                long written = 0;
+                try (Stream<LlmResponse> stream = responseRepository.streamForExport(sessionId, from, to)) {
+                    Iterator<LlmResponse> iterator = stream.iterator();
+                    while (iterator.hasNext()) {
+                        writeRow(writer, format, iterator.next());
+                        // Rows are not needed once written, keep the session from growing with the export
+                        if (++written % EXPORT_CLEAR_INTERVAL == 0) {
+                            entityManager.clear();
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return written;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        logger.info("Exported {} responses as {}", rows, format);
+    }
+
+    private void writeRow(Writer writer, ExportFormat format, LlmResponse row) throws IOException {
+        if (format == ExportFormat.CSV) {
+            writeCsvRow(writer, row);
+        } else {
+            writer.write(objectMapper.writeValueAsString(row));
+            writer.write('\n');
+        }
+    }
+
+    private void writeCsvRow(Writer writer, LlmResponse row) throws IOException {
+        writer.write(String.valueOf(row.getId()));
+        writer.write(',');
+        writeCsvField(writer, row.getSessionId());
+        writer.write(',');
+        writer.write(String.valueOf(row.getCreatedAt()));
+        writer.write(',');
+        writer.write(row.getProvider().name());
+        writer.write(',');
+        writeCsvField(writer, row.getModel());
+        writer.write(',');
+        writer.write(String.valueOf(row.getResponseTimeMs()));
+        writer.write(',');
+        writer.write(String.valueOf(row.getTokenCount()));
+        writer.write(',');
+        writer.write(String.valueOf(row.isCacheHit()));
+        writer.write(',');
+        writeCsvField(writer, row.getPrompt());
+        writer.write(',');
+        writeCsvField(writer, row.getResponse());
+        writer.write('\n');
+    }
+
+    /**
+     * RFC 4180 quoting, only when the value needs it.
+     */
+    static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
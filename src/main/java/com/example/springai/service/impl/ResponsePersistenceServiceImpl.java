@@ -0,0 +1,194 @@
+package com.example.springai.service.impl;
+
+import com.example.springai.config.PersistenceMode;
+import com.example.springai.metrics.LlmMetrics;
+import com.example.springai.model.LlmResponse;
+import com.example.springai.persistence.PromptRegistry;
+import com.example.springai.persistence.ResponseJournal;
+import com.example.springai.persistence.ResponsesPersistedEvent;
+import com.example.springai.persistence.WriteBehindBuffer;
+import com.example.springai.repository.LlmResponseRepository;
+import com.example.springai.service.ResponsePersistenceService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+@Service
+public class ResponsePersistenceServiceImpl implements ResponsePersistenceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponsePersistenceServiceImpl.class);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+    private final PromptRegistry promptRegistry;
+    private final LlmResponseRepository responseRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final LlmMetrics metrics;
+
+    @Value("${llm.persistence.mode:SYNC}")
+    private PersistenceMode persistenceMode;
+
+    // Matches hibernate.jdbc.batch_size so each flush sends full JDBC batches
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    @Value("${llm.persistence.write-behind.capacity:10000}")
+    private int writeBehindCapacity;
+
+    @Value("${llm.persistence.write-behind.batch-size:200}")
+    private int writeBehindBatchSize;
+
+    @Value("${llm.persistence.write-behind.flush-interval:1s}")
+    private Duration writeBehindFlushInterval;
+
+    @Value("${llm.persistence.journal.enabled:true}")
+    private boolean journalEnabled;
+
+    @Value("${llm.persistence.journal.path:data/llm-response-journal.dat}")
+    private Path journalPath;
+
+    @Value("${llm.persistence.journal.size:64MB}")
+    private DataSize journalSize;
+
+    @Value("${llm.persistence.journal.force-on-append:false}")
+    private boolean journalForceOnAppend;
+
+    @Value("${spring.datasource.url:}")
+    private String datasourceUrl;
+
+    private volatile WriteBehindBuffer writeBehind;
+
+    public ResponsePersistenceServiceImpl(PlatformTransactionManager transactionManager,
+                                          PromptRegistry promptRegistry, LlmResponseRepository responseRepository,
+                                          ApplicationEventPublisher eventPublisher,
+                                          ObjectMapper objectMapper, LlmMetrics metrics) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.promptRegistry = promptRegistry;
+        this.responseRepository = responseRepository;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+        Gauge.builder("llm.persistence.queued", this, ResponsePersistenceServiceImpl::getQueuedWrites)
+                .description("Responses accepted but not yet written to the database")
+                .register(metrics.getRegistry());
+    }
+
+    /**
+     * Starts the write-behind buffer in ASYNC mode, replaying rows the journal still holds from an
+     * earlier run before new traffic arrives. Replay skips rows that were committed but not yet
+     * marked flushed when the process died. It only restores anything with a persistent
+     * datasource: against an in-memory database the rows land in a schema that was just created.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startWriteBehind() throws IOException {
+        if (persistenceMode != PersistenceMode.ASYNC) {
+            return;
+        }
+        if (journalEnabled && datasourceUrl.startsWith("jdbc:h2:mem:")) {
+            logger.warn("Response journal {} is enabled with an in-memory datasource; rows it replays after "
+                    + "a restart go into an empty database", journalPath);
+        }
+        ResponseJournal journal = journalEnabled
+                ? ResponseJournal.open(journalPath, (int) journalSize.toBytes(), journalForceOnAppend)
+                : null;
+        WriteBehindBuffer buffer = new WriteBehindBuffer(this::persistNow, journal, objectMapper,
+                writeBehindCapacity, writeBehindBatchSize, writeBehindFlushInterval);
+        buffer.start(response -> response.getSessionId() != null
+                && responseRepository.existsBySessionIdAndProvider(response.getSessionId(), response.getProvider()));
+        writeBehind = buffer;
+        logger.info("Write-behind persistence started (journal: {})", journalEnabled ? journalPath : "disabled");
+    }
+
+    @PreDestroy
+    public void stopWriteBehind() throws IOException {
+        if (writeBehind != null) {
+            writeBehind.close();
+        }
+    }
+
+    @Override
+    public void persist(List<LlmResponse> responses) {
+        if (responses.isEmpty()) {
+            return;
+        }
+        WriteBehindBuffer buffer = writeBehind;
+        if (persistenceMode == PersistenceMode.ASYNC && buffer != null) {
+            buffer.offer(responses);
+            return;
+        }
+        persistNow(responses);
+    }
+
+    @Override
+    public void persistNow(List<LlmResponse> responses) {
+        if (responses.isEmpty()) {
+            return;
+        }
+        long started = System.nanoTime();
+        try {
+            writeBatch(responses);
+        } catch (DataIntegrityViolationException e) {
+            // Another writer inserted one of our new prompts first, the retry picks up its row
+            logger.debug("Prompt insert raced with another writer, retrying: {}", e.getMessage());
+            resetAfterRollback(responses);
+            writeBatch(responses);
+        } catch (RuntimeException e) {
+            resetAfterRollback(responses);
+            throw e;
+        }
+        metrics.recordPersistenceWrite(responses.size(), System.nanoTime() - started);
+        logger.debug("Persisted {} responses", responses.size());
+        eventPublisher.publishEvent(new ResponsesPersistedEvent(List.copyOf(responses)));
+    }
+
+    private void writeBatch(List<LlmResponse> responses) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < responses.size(); i++) {
+                LlmResponse response = responses.get(i);
+                if (response.getPromptRef() == null && response.getPrompt() != null) {
+                    response.setPromptRef(promptRegistry.resolve(response.getPrompt()));
+                }
+                entityManager.persist(response);
+                // Flush and detach per batch so the persistence context stays small on large runs
+                if ((i + 1) % batchSize == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+        });
+    }
+
+    private void resetAfterRollback(List<LlmResponse> responses) {
+        responses.forEach(response -> {
+            response.setId(null);
+            response.setPromptRef(null);
+        });
+    }
+
+    @Override
+    public int getQueuedWrites() {
+        WriteBehindBuffer buffer = writeBehind;
+        return buffer != null ? buffer.getQueued() : 0;
+    }
+}
@@ -0,0 +1,327 @@
+package com.example.springai.service.impl;
+
+import com.example.springai.archive.ArchiveFilter;
+import com.example.springai.dto.SearchResult;
+import com.example.springai.model.LlmProvider;
+import com.example.springai.model.LlmResponse;
+import com.example.springai.persistence.ResponsesPersistedEvent;
+import com.example.springai.repository.LlmResponseRepository;
+import com.example.springai.service.ResponseArchiveService;
+import com.example.springai.service.ResponseSearchService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Embedded Lucene index over prompt and response text. Rows are added as they are persisted and
+ * become searchable after the next refresh; hits are loaded back from the database by ID, or from
+ * the archive once their rows have been moved there.
+ */
+@Service
+public class ResponseSearchServiceImpl implements ResponseSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseSearchServiceImpl.class);
+
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_PROVIDER = "provider";
+    private static final String FIELD_MODEL = "model";
+    private static final String FIELD_CREATED_AT = "created_at";
+    private static final String FIELD_PROMPT = "prompt";
+    private static final String FIELD_RESPONSE = "response";
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    // Deepest result offset served, keeps deep paging from collecting huge top-N lists
+    private static final int MAX_RESULT_WINDOW = 10_000;
+
+    private final LlmResponseRepository responseRepository;
+    private final ResponseArchiveService archiveService;
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "llm-search-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${llm.search.index-path:}")
+    private String indexPath;
+
+    @Value("${llm.search.refresh-interval:1s}")
+    private Duration refreshInterval;
+
+    private Directory directory;
+    private IndexWriter indexWriter;
+    private SearcherManager searcherManager;
+
+    public ResponseSearchServiceImpl(LlmResponseRepository responseRepository,
+                                     ResponseArchiveService archiveService) {
+        this.responseRepository = responseRepository;
+        this.archiveService = archiveService;
+    }
+
+    @PostConstruct
+    public void openIndex() throws IOException {
+        directory = indexPath == null || indexPath.isBlank()
+                ? new ByteBuffersDirectory()
+                : FSDirectory.open(Path.of(indexPath));
+        IndexWriterConfig config = new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+        indexWriter = new IndexWriter(directory, config);
+        searcherManager = new SearcherManager(indexWriter, null);
+
+        long intervalMs = refreshInterval.toMillis();
+        refresher.scheduleWithFixedDelay(this::refresh, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Search index opened ({})", directory instanceof FSDirectory ? indexPath : "in memory");
+    }
+
+    /**
+     * Rebuilds the index from the database and the archive when it starts out empty, e.g.
+     * in-memory index or a deleted index directory. Runs on the indexing thread, ahead of any
+     * rows persisted meanwhile.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        refresher.execute(() -> {
+            try {
+                if (indexWriter.getDocStats().numDocs > 0) {
+                    return;
+                }
+                long indexed = 0;
+                // Keyset pages, newest first, so rows inserted meanwhile are neither skipped nor repeated
+                List<LlmResponse> page = responseRepository.findRecentPage(PageRequest.of(0, REBUILD_BATCH_SIZE));
+                while (!page.isEmpty()) {
+                    write(toDocuments(page));
+                    indexed += page.size();
+                    LlmResponse last = page.get(page.size() - 1);
+                    page = responseRepository.findRecentPageBefore(last.getCreatedAt(), last.getId(),
+                            PageRequest.of(0, REBUILD_BATCH_SIZE));
+                }
+
+                List<Document> archived = new ArrayList<>(REBUILD_BATCH_SIZE);
+                indexed += archiveService.scan(ArchiveFilter.all(), row -> {
+                    archived.add(toDocument(row));
+                    if (archived.size() == REBUILD_BATCH_SIZE) {
+                        writeUnchecked(archived);
+                        archived.clear();
+                    }
+                    return true;
+                });
+                write(archived);
+
+                if (indexed > 0) {
+                    refresh();
+                    logger.info("Rebuilt search index with {} responses", indexed);
+                }
+            } catch (Exception e) {
+                logger.error("Error rebuilding search index: ", e);
+            }
+        });
+    }
+
+    /**
+     * Documents are built here, analysis and indexing happen on the indexing thread, so a
+     * synchronous persist does not pay for them on the request path.
+     */
+    @EventListener
+    public void onResponsesPersisted(ResponsesPersistedEvent event) {
+        List<Document> documents = toDocuments(event.responses());
+        try {
+            refresher.execute(() -> {
+                try {
+                    write(documents);
+                } catch (Exception e) {
+                    // Search lags behind, the rows themselves are safely stored
+                    logger.error("Error indexing {} responses: ", documents.size(), e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.warn("Search index is closed, {} responses not indexed", documents.size());
+        }
+    }
+
+    private static List<Document> toDocuments(List<LlmResponse> responses) {
+        List<Document> documents = new ArrayList<>(responses.size());
+        for (LlmResponse response : responses) {
+            if (response.getId() != null) {
+                documents.add(toDocument(response));
+            }
+        }
+        return documents;
+    }
+
+    private static Document toDocument(LlmResponse response) {
+        long createdAt = toEpochMilli(response.getCreatedAt());
+        Document document = new Document();
+        document.add(new StringField(FIELD_ID, String.valueOf(response.getId()), Field.Store.YES));
+        document.add(new StringField(FIELD_PROVIDER, response.getProvider().name(), Field.Store.NO));
+        document.add(new StringField(FIELD_MODEL, response.getModel(), Field.Store.NO));
+        document.add(new LongPoint(FIELD_CREATED_AT, createdAt));
+        document.add(new NumericDocValuesField(FIELD_CREATED_AT, createdAt));
+        document.add(new TextField(FIELD_PROMPT, Objects.toString(response.getPrompt(), ""), Field.Store.NO));
+        document.add(new TextField(FIELD_RESPONSE, Objects.toString(response.getResponse(), ""), Field.Store.NO));
+        return document;
+    }
+
+    private void write(List<Document> documents) throws IOException {
+        for (Document document : documents) {
+            // Keyed by ID so journal replays and rebuilds do not duplicate documents
+            indexWriter.updateDocument(new Term(FIELD_ID, document.get(FIELD_ID)), document);
+        }
+    }
+
+    private void writeUnchecked(List<Document> documents) {
+        try {
+            write(documents);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void refresh() {
+        try {
+            searcherManager.maybeRefresh();
+            if (directory instanceof FSDirectory && indexWriter.hasUncommittedChanges()) {
+                indexWriter.commit();
+            }
+        } catch (IOException e) {
+            logger.error("Error refreshing search index: ", e);
+        }
+    }
+
+    @Override
+    public SearchResult search(String query, LlmProvider provider, String model,
+                               LocalDateTime from, LocalDateTime to, int page, int size) {
+        if (page < 0 || size < 1 || size > 100) {
+            throw new IllegalArgumentException("page must be >= 0 and size between 1 and 100");
+        }
+        int window = (page + 1) * size;
+        if (window > MAX_RESULT_WINDOW) {
+            throw new IllegalArgumentException("Results beyond " + MAX_RESULT_WINDOW
+                    + " are not available, narrow the search instead");
+        }
+
+        Query luceneQuery = buildQuery(query, provider, model, from, to);
+        boolean hasText = query != null && !query.isBlank();
+        // Best matches first for text searches, newest first when only browsing by filters
+        Sort sort = hasText
+                ? new Sort(SortField.FIELD_SCORE, new SortField(FIELD_CREATED_AT, SortField.Type.LONG, true))
+                : new Sort(new SortField(FIELD_CREATED_AT, SortField.Type.LONG, true));
+
+        List<Long> ids = new ArrayList<>(size);
+        long totalHits;
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                totalHits = searcher.count(luceneQuery);
+                ScoreDoc[] hits = searcher.search(luceneQuery, window, sort).scoreDocs;
+                StoredFields storedFields = searcher.storedFields();
+                for (int i = page * size; i < hits.length; i++) {
+                    ids.add(Long.parseLong(storedFields.document(hits[i].doc).get(FIELD_ID)));
+                }
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Search failed: " + e.getMessage(), e);
+        }
+
+        // Keep the index order, the database returns rows in arbitrary order
+        Map<Long, LlmResponse> rows = responseRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(LlmResponse::getId, Function.identity(), (a, b) -> a, HashMap::new));
+        if (rows.size() < ids.size()) {
+            List<Long> missing = ids.stream().filter(id -> !rows.containsKey(id)).toList();
+            archiveService.findByIds(missing).forEach(row -> rows.put(row.getId(), row));
+        }
+        List<LlmResponse> results = ids.stream()
+                .map(rows::get)
+                .filter(Objects::nonNull)
+                .toList();
+
+        return new SearchResult(query, page, size, totalHits, results);
+    }
+
+    private Query buildQuery(String query, LlmProvider provider, String model,
+                             LocalDateTime from, LocalDateTime to) {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        if (query != null && !query.isBlank()) {
+            // Simple syntax never throws on user input: quotes, +, -, * and | are supported
+            SimpleQueryParser parser = new SimpleQueryParser(analyzer,
+                    Map.of(FIELD_PROMPT, 2.0f, FIELD_RESPONSE, 1.0f));
+            parser.setDefaultOperator(BooleanClause.Occur.MUST);
+            builder.add(parser.parse(query), BooleanClause.Occur.MUST);
+        } else {
+            builder.add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST);
+        }
+        if (provider != null) {
+            builder.add(new TermQuery(new Term(FIELD_PROVIDER, provider.name())), BooleanClause.Occur.FILTER);
+        }
+        if (model != null && !model.isBlank()) {
+            builder.add(new TermQuery(new Term(FIELD_MODEL, model)), BooleanClause.Occur.FILTER);
+        }
+        if (from != null || to != null) {
+            long lower = from != null ? toEpochMilli(from) : Long.MIN_VALUE;
+            // to is exclusive, as in export and the archive filters
+            long upper = to != null ? toEpochMilli(to) - 1 : Long.MAX_VALUE;
+            builder.add(LongPoint.newRangeQuery(FIELD_CREATED_AT, lower, upper), BooleanClause.Occur.FILTER);
+        }
+        return builder.build();
+    }
+
+    private static long toEpochMilli(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    @PreDestroy
+    public void closeIndex() throws IOException {
+        refresher.shutdown();
+        searcherManager.close();
+        indexWriter.close();
+        directory.close();
+    }
+}
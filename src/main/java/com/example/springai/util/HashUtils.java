@@ -0,0 +1,36 @@
+package com.example.springai.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+public final class HashUtils {
+
+    private HashUtils() {}
+
+    /**
+     * SHA-256 over the given parts, each length-prefixed so that ("ab", "c") and ("a", "bc")
+     * hash differently. Null parts hash like empty strings.
+     */
+    public static String sha256Hex(String... parts) {
+        MessageDigest digest = newSha256();
+        ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+        for (String part : parts) {
+            byte[] bytes = (part == null ? "" : part).getBytes(StandardCharsets.UTF_8);
+            length.clear();
+            digest.update(length.putInt(bytes.length).array());
+            digest.update(bytes);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.springai.analysis;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WordCountTableTest {
+
+    @Test
+    void countsRepeatedHashes() {
+        WordCountTable table = new WordCountTable(4);
+
+        table.increment(42L, 0, 0, 5);
+        table.increment(42L, 1, 10, 15);
+        table.increment(7L, 0, 6, 9);
+
+        Map<Long, Integer> counts = counts(table);
+        assertThat(counts).containsEntry(42L, 2).containsEntry(7L, 1).hasSize(2);
+    }
+
+    @Test
+    void keepsWhereAWordWasFirstSeen() {
+        WordCountTable table = new WordCountTable(4);
+
+        table.increment(42L, 3, 10, 15);
+        table.increment(42L, 5, 20, 25);
+
+        int slot = slotOf(table, 2);
+        assertThat(table.textIndex(slot)).isEqualTo(3);
+        assertThat(table.start(slot)).isEqualTo(10);
+        assertThat(table.end(slot)).isEqualTo(15);
+        assertThat(table.firstSeen(slot)).isZero();
+    }
+
+    @Test
+    void probesPastCollidingSlotsAndKeepsCountsAcrossGrowth() {
+        // Far more keys than the initial 32 slots: collisions and several resizes are certain
+        WordCountTable table = new WordCountTable(8);
+        int initialCapacity = table.capacity();
+        Map<Long, Integer> expected = new HashMap<>();
+        for (long key = 1; key <= 5_000; key++) {
+            int times = (int) (key % 3) + 1;
+            for (int i = 0; i < times; i++) {
+                table.increment(key * 0x9E3779B97F4A7C15L, 0, 0, 0);
+            }
+            expected.put(key * 0x9E3779B97F4A7C15L, times);
+        }
+
+        assertThat(table.capacity()).isGreaterThan(initialCapacity);
+        assertThat(counts(table)).isEqualTo(expected);
+    }
+
+    @Test
+    void keysThatDifferOnlyInHighBitsStayApart() {
+        WordCountTable table = new WordCountTable(4);
+        for (long high = 1; high <= 64; high++) {
+            table.add(high << 40);
+        }
+
+        for (long high = 1; high <= 64; high++) {
+            assertThat(table.contains(high << 40)).isTrue();
+        }
+        assertThat(table.contains(65L << 40)).isFalse();
+    }
+
+    @Test
+    void zeroHashIsStoredLikeAnyOther() {
+        WordCountTable table = new WordCountTable(4);
+
+        table.add(0L);
+
+        assertThat(table.contains(0L)).isTrue();
+    }
+
+    private static Map<Long, Integer> counts(WordCountTable table) {
+        Map<Long, Integer> counts = new HashMap<>();
+        for (int slot = 0; slot < table.capacity(); slot++) {
+            if (table.occupied(slot)) {
+                counts.put(keyOf(table, slot), table.count(slot));
+            }
+        }
+        return counts;
+    }
+
+    private static long keyOf(WordCountTable table, int slot) {
+        // The analyzer never needs a slot's hash back, so the table does not expose it
+        return ((long[]) ReflectionTestUtils.getField(table, "keys"))[slot];
+    }
+
+    private static int slotOf(WordCountTable table, int count) {
+        for (int slot = 0; slot < table.capacity(); slot++) {
+            if (table.occupied(slot) && table.count(slot) == count) {
+                return slot;
+            }
+        }
+        throw new AssertionError("No slot with count " + count);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.springai.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WordFrequencyAnalyzerTest {
+
+    private final WordFrequencyAnalyzer analyzer = new WordFrequencyAnalyzer(3, 4, List.of());
+
+    @Test
+    void ranksByCountAcrossTexts() {
+        Map<String, Integer> top = analyzer.topWords(List.of("river stone river", "stone river cloud"));
+
+        assertThat(top).containsExactly(Map.entry("river", 3), Map.entry("stone", 2), Map.entry("cloud", 1));
+    }
+
+    @Test
+    void tiesGoToTheWordSeenFirst() {
+        Map<String, Integer> top = analyzer.topWords(List.of("delta gamma beta alpha alpha beta gamma delta"));
+
+        assertThat(top).containsExactly(Map.entry("delta", 2), Map.entry("gamma", 2), Map.entry("beta", 2));
+    }
+
+    @Test
+    void tiesAtTheCutOffKeepTheEarlierWord() {
+        Map<String, Integer> top = analyzer.topWords(List.of("omega omega first second third fourth"));
+
+        assertThat(top).containsExactly(Map.entry("omega", 2), Map.entry("first", 1), Map.entry("second", 1));
+    }
+
+    @Test
+    void countsCaseInsensitivelyAndSkipsPunctuationInsideWords() {
+        Map<String, Integer> top = analyzer.topWords(List.of("Don't DONT dont, Hello hello!"));
+
+        assertThat(top).containsExactly(Map.entry("dont", 3), Map.entry("hello", 2));
+    }
+
+    @Test
+    void shortWordsAreNotCounted() {
+        assertThat(analyzer.topWords(List.of("the cat sat on a mat"))).isEmpty();
+    }
+
+    @Test
+    void noStopWordsByDefault() {
+        Map<String, Integer> top = analyzer.topWords(List.of("that this that with"));
+
+        assertThat(top).containsExactly(Map.entry("that", 2), Map.entry("this", 1), Map.entry("with", 1));
+    }
+
+    @Test
+    void configuredStopWordsAreLeftOut() {
+        WordFrequencyAnalyzer withStopWords = new WordFrequencyAnalyzer(3, 4, List.of("That", "with"));
+
+        assertThat(withStopWords.topWords(List.of("that this that with"))).containsExactly(Map.entry("this", 1));
+    }
+
+    @Test
+    void lettersOutsideAsciiCount() {
+        assertThat(analyzer.topWords(List.of("café café naïve"))).containsExactly(
+                Map.entry("café", 2), Map.entry("naïve", 1));
+    }
+
+    @Test
+    void indicVowelSignsStayPartOfTheWord() {
+        // ि, ा and ी are spacing marks and ं is non-spacing; without them हिंदी is too short to count
+        assertThat(analyzer.topWords(List.of("हिंदी किताब हिंदी"))).containsExactly(
+                Map.entry("हिंदी", 2), Map.entry("किताब", 1));
+    }
+
+    @Test
+    void manyDistinctWordsStillGiveTheTopK() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            text.append("word").append((char) ('a' + i % 26)).append((char) ('a' + i / 26 % 26))
+                    .append((char) ('a' + i / 676 % 26)).append(' ');
+        }
+        text.append("wordaaa wordaaa wordbaa");
+
+        Map<String, Integer> top = analyzer.topWords(List.of(text));
+
+        assertThat(top.keySet()).first().isEqualTo("wordaaa");
+        assertThat(top).hasSize(3);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.springai.archive;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DictionaryColumnTest {
+
+    @Test
+    void decodesRowsInOrderIncludingNulls() {
+        String[] rows = {"openai", null, "claude", "openai", "", "claude", null};
+
+        assertThat(roundTrip(rows)).containsExactly(rows);
+    }
+
+    @Test
+    void storesEachDistinctValueOnce() {
+        DictionaryColumn column = new DictionaryColumn();
+        String prompt = "a long prompt ".repeat(100);
+        for (int i = 0; i < 100; i++) {
+            column.add(prompt);
+        }
+        ColumnBuffer encoded = new ColumnBuffer(64);
+        column.encodeTo(encoded);
+
+        // One copy of the text plus a one-byte index per row
+        assertThat(encoded.size()).isLessThan(prompt.length() + 110);
+        String[] decoded = DictionaryColumn.decode(source(encoded), 100);
+        assertThat(decoded).containsOnly(prompt);
+        assertThat(decoded[0]).isSameAs(decoded[99]);
+    }
+
+    @Test
+    void clearStartsAFreshDictionary() {
+        DictionaryColumn column = new DictionaryColumn();
+        column.add("first");
+        column.clear();
+        column.add("second");
+        ColumnBuffer encoded = new ColumnBuffer(64);
+        column.encodeTo(encoded);
+
+        assertThat(DictionaryColumn.decode(source(encoded), 1)).containsExactly("second");
+    }
+
+    @Test
+    void decodesNonAsciiValues() {
+        String[] rows = {"héllo", "日本語", "héllo"};
+
+        assertThat(roundTrip(rows)).containsExactly(rows);
+    }
+
+    private static String[] roundTrip(String[] rows) {
+        DictionaryColumn column = new DictionaryColumn();
+        Arrays.stream(rows).forEach(column::add);
+        ColumnBuffer encoded = new ColumnBuffer(64);
+        column.encodeTo(encoded);
+        return DictionaryColumn.decode(source(encoded), rows.length);
+    }
+
+    private static ColumnSource source(ColumnBuffer buffer) {
+        return new ColumnSource(Arrays.copyOf(buffer.array(), buffer.size()));
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.springai.archive;
+
+import com.example.springai.model.LlmProvider;
+import com.example.springai.model.LlmResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResponseArchiveRoundTripTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2026, 1, 15, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void rowsSurviveTheRoundTripAcrossBlocks() throws IOException {
+        List<LlmResponse> rows = rows(10);
+        Path file = write(rows, 3);
+
+        ArchiveIndex index = ResponseArchiveReader.readIndex(file);
+
+        assertThat(index.blocks()).hasSize(4);
+        assertThat(index.getRowCount()).isEqualTo(10);
+        assertThat(index.getMinId()).isEqualTo(100);
+        assertThat(index.getMaxId()).isEqualTo(109);
+        assertThat(index.getMinCreatedAt()).isEqualTo(rows.get(0).getCreatedAt());
+        assertThat(index.getMaxCreatedAt()).isEqualTo(rows.get(9).getCreatedAt());
+
+        List<LlmResponse> read = scan(file, ArchiveFilter.all(), false);
+        assertThat(read).hasSize(10);
+        for (int i = 0; i < rows.size(); i++) {
+            assertSameRow(read.get(i), rows.get(i));
+        }
+    }
+
+    @Test
+    void scansNewestFirst() throws IOException {
+        Path file = write(rows(10), 3);
+
+        assertThat(scan(file, ArchiveFilter.all(), true))
+                .extracting(LlmResponse::getId)
+                .containsExactly(109L, 108L, 107L, 106L, 105L, 104L, 103L, 102L, 101L, 100L);
+    }
+
+    @Test
+    void filtersBySessionIdsAndTime() throws IOException {
+        Path file = write(rows(10), 3);
+
+        assertThat(scan(file, ArchiveFilter.forSession("session-1"), false))
+                .extracting(LlmResponse::getId)
+                .containsExactly(101L, 104L, 107L);
+        assertThat(scan(file, ArchiveFilter.forIds(Set.of(102L, 108L, 500L)), false))
+                .extracting(LlmResponse::getId)
+                .containsExactly(102L, 108L);
+        // From inclusive, to exclusive
+        assertThat(scan(file, new ArchiveFilter(null, DAY.plusMinutes(3), DAY.plusMinutes(5), null), false))
+                .extracting(LlmResponse::getId)
+                .containsExactly(103L, 104L);
+    }
+
+    @Test
+    void footerPrunesBlocksThatCannotMatch() throws IOException {
+        ArchiveIndex index = ResponseArchiveReader.readIndex(write(rows(10), 3));
+
+        ArchiveFilter ids = ArchiveFilter.forIds(Set.of(104L));
+        assertThat(index.blocks()).filteredOn(ids::mayMatch).hasSize(1);
+        ArchiveFilter late = new ArchiveFilter(null, DAY.plusMinutes(9), null, null);
+        assertThat(index.blocks()).filteredOn(late::mayMatch).hasSize(1);
+        assertThat(index.blocks()).filteredOn(ArchiveFilter.forSession("unknown")::mayMatch).isEmpty();
+    }
+
+    @Test
+    void consumerCanStopTheScan() throws IOException {
+        Path file = write(rows(10), 3);
+        List<Long> seen = new ArrayList<>();
+
+        boolean completed = ResponseArchiveReader.scan(file, ResponseArchiveReader.readIndex(file),
+                ArchiveFilter.all(), false, row -> {
+                    seen.add(row.getId());
+                    return seen.size() < 4;
+                });
+
+        assertThat(completed).isFalse();
+        assertThat(seen).containsExactly(100L, 101L, 102L, 103L);
+    }
+
+    @Test
+    void rejectsRowsOutOfOrder() throws IOException {
+        List<LlmResponse> rows = rows(2);
+        try (ResponseArchiveWriter writer = new ResponseArchiveWriter(directory.resolve("bad.llma"), 10, 3)) {
+            writer.append(rows.get(1));
+            assertThatThrownBy(() -> writer.append(rows.get(0)))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void unfinishedFileIsNotReadable() throws IOException {
+        Path file = directory.resolve("unfinished.llma");
+        try (ResponseArchiveWriter writer = new ResponseArchiveWriter(file, 10, 3)) {
+            rows(5).forEach(row -> {
+                try {
+                    writer.append(row);
+                } catch (IOException e) {
+                    throw new AssertionError(e);
+                }
+            });
+        }
+
+        assertThatThrownBy(() -> ResponseArchiveReader.readIndex(file)).isInstanceOf(IOException.class);
+    }
+
+    /**
+     * Rows a minute apart with IDs from 100, cycling through three sessions. Even rows are cache
+     * hits with no token count or request hash, row 5 has no session.
+     */
+    private static List<LlmResponse> rows(int count) {
+        List<LlmResponse> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            LlmResponse row = new LlmResponse("prompt " + (i % 2), i % 2 == 0 ? LlmProvider.OPENAI : LlmProvider.CLAUDE,
+                    i % 2 == 0 ? "gpt-4o-mini" : "claude-3-5-haiku", "answer " + i, 100L + i,
+                    i % 2 == 0 ? null : i * 10, i == 5 ? null : "session-" + (i % 3));
+            row.setId(100L + i);
+            row.setCreatedAt(DAY.plusMinutes(i).plusNanos(i * 1_000L));
+            row.setRequestHash(i % 2 == 0 ? null : "hash-" + i);
+            row.setCacheHit(i % 2 == 0);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private Path write(List<LlmResponse> rows, int blockRows) throws IOException {
+        Path file = directory.resolve("responses.llma");
+        try (ResponseArchiveWriter writer = new ResponseArchiveWriter(file, blockRows, 3)) {
+            for (LlmResponse row : rows) {
+                writer.append(row);
+            }
+            writer.finish();
+        }
+        assertThat(Files.size(file)).isPositive();
+        return file;
+    }
+
+    private static List<LlmResponse> scan(Path file, ArchiveFilter filter, boolean newestFirst) throws IOException {
+        List<LlmResponse> rows = new ArrayList<>();
+        ResponseArchiveReader.scan(file, ResponseArchiveReader.readIndex(file), filter, newestFirst, rows::add);
+        return rows;
+    }
+
+    private static void assertSameRow(LlmResponse actual, LlmResponse expected) {
+        assertThat(actual.getId()).isEqualTo(expected.getId());
+        assertThat(actual.getCreatedAt()).isEqualTo(expected.getCreatedAt());
+        assertThat(actual.getSessionId()).isEqualTo(expected.getSessionId());
+        assertThat(actual.getProvider()).isEqualTo(expected.getProvider());
+        assertThat(actual.getModel()).isEqualTo(expected.getModel());
+        assertThat(actual.getPrompt()).isEqualTo(expected.getPrompt());
+        assertThat(actual.getRequestHash()).isEqualTo(expected.getRequestHash());
+        assertThat(actual.getResponse()).isEqualTo(expected.getResponse());
+        assertThat(actual.getResponseTimeMs()).isEqualTo(expected.getResponseTimeMs());
+        assertThat(actual.getTokenCount()).isEqualTo(expected.getTokenCount());
+        assertThat(actual.isCacheHit()).isEqualTo(expected.isCacheHit());
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.springai.archive;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionBloomFilterTest {
+
+    @Test
+    void addedSessionsAreAlwaysFound() {
+        SessionBloomFilter filter = new SessionBloomFilter(1000);
+        IntStream.range(0, 1000).forEach(i -> filter.add("session-" + i));
+
+        assertThat(IntStream.range(0, 1000)).allMatch(i -> filter.mightContain("session-" + i));
+    }
+
+    @Test
+    void falsePositiveRateStaysNearOnePercent() {
+        SessionBloomFilter filter = new SessionBloomFilter(1000);
+        IntStream.range(0, 1000).forEach(i -> filter.add("session-" + i));
+
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> filter.mightContain("other-" + i))
+                .count();
+
+        assertThat(falsePositives).isLessThan(3_000);
+    }
+
+    @Test
+    void survivesARoundTripThroughItsBits() {
+        SessionBloomFilter filter = new SessionBloomFilter(10);
+        filter.add("a");
+        filter.add("b");
+
+        SessionBloomFilter copy = SessionBloomFilter.of(filter.bits().clone());
+
+        assertThat(copy.mightContain("a")).isTrue();
+        assertThat(copy.mightContain("b")).isTrue();
+    }
+
+    @Test
+    void emptyFilterMatchesNothing() {
+        SessionBloomFilter filter = new SessionBloomFilter(0);
+
+        assertThat(filter.bits()).hasSize(1);
+        assertThat(filter.mightContain("a")).isFalse();
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.springai.benchmark;
+
+import com.example.springai.analysis.ResponseStatsAccumulator;
+import com.example.springai.model.LlmProvider;
+import com.example.springai.model.LlmResponse;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response statistics over datasets from one comparison up to a historical export: the former
+ * seven stream passes against the single-pass accumulator, and the accumulator merged over chunks
+ * the way batch and history rollups use it. Common-word analysis is left out, see
+ * WordFrequencyBenchmark.
+ *
+ * <pre>mvn -Pbenchmark test -Dbenchmark=AnalysisBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnalysisBenchmark {
+
+    @Param({"3", "1000", "100000"})
+    public int responseCount;
+
+    private List<LlmResponse> responses;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        LlmProvider[] providers = LlmProvider.values();
+        responses = new ArrayList<>(responseCount);
+        for (int i = 0; i < responseCount; i++) {
+            String text = "x".repeat(200 + random.nextInt(4000));
+            responses.add(new LlmResponse("prompt", providers[i % providers.length], "model", text,
+                    (long) random.nextInt(10_000), random.nextInt(2000), "session"));
+        }
+    }
+
+    @Benchmark
+    public void streamPasses(Blackhole bh) {
+        bh.consume(responses.stream().mapToLong(LlmResponse::getResponseTimeMs).average());
+        bh.consume(responses.stream().min(Comparator.comparing(LlmResponse::getResponseTimeMs)));
+        bh.consume(responses.stream().max(Comparator.comparing(LlmResponse::getResponseTimeMs)));
+        bh.consume(responses.stream().mapToInt(r -> r.getResponse().length()).average());
+        bh.consume(responses.stream().min(Comparator.comparing(r -> r.getResponse().length())));
+        bh.consume(responses.stream().max(Comparator.comparing(r -> r.getResponse().length())));
+        bh.consume(responses.stream()
+                .filter(r -> r.getTokenCount() != null && r.getTokenCount() > 0)
+                .mapToInt(LlmResponse::getTokenCount)
+                .average());
+    }
+
+    @Benchmark
+    public void singlePass(Blackhole bh) {
+        bh.consume(new ResponseStatsAccumulator().addAll(responses).toAnalysis(null));
+    }
+
+    @Benchmark
+    public void mergedChunks(Blackhole bh) {
+        ResponseStatsAccumulator total = new ResponseStatsAccumulator();
+        for (int from = 0; from < responses.size(); from += 100) {
+            total.merge(new ResponseStatsAccumulator()
+                    .addAll(responses.subList(from, Math.min(from + 100, responses.size()))));
+        }
+        bh.consume(total.toAnalysis(null));
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.springai.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load and soak suite for the comparison API. Boots the application against MockWebServer stubs
+ * standing in for OpenAI and Claude, then drives /compare, /compare/quick and /history at fixed
+ * arrival rates, one scenario after another. Throughput, latency percentiles and a per-second
+ * timeline with heap and GC figures are written to {@code load.output.dir}/comparison-load.json.
+ *
+ * <p>Excluded from the normal test run. Run it alone with
+ * {@code mvn -Pbenchmark test -Dexec.skip=true}; everything is tuned through system properties,
+ * e.g. {@code -Dload.rate=50 -Dload.duration-seconds=3600} for a one hour soak. The load driver
+ * shares the JVM with the application, so heap and GC figures include its own allocations.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        // Placeholders so the Spring AI auto-configurations start on a box without credentials
+        "spring.ai.openai.api-key=load-test-key",
+        "spring.ai.vertex.ai.gemini.project-id=load-test",
+        "spring.ai.vertex.ai.gemini.location=us-central1",
+        "llm.openai.api-key=load-test-key",
+        "llm.claude.api-key=load-test-key",
+        "llm.mock.enabled=false",
+        "llm.archive.enabled=false",
+        "llm.openai.http.warmup-connections=0",
+        "llm.claude.http.warmup-connections=0",
+        "llm.openai.http.max-connections=1000",
+        "llm.claude.http.max-connections=1000",
+        // Limits are what is being measured, not what the stubs would enforce
+        "llm.openai.rate-limit.requests-per-minute=0",
+        "llm.openai.rate-limit.tokens-per-minute=0",
+        "llm.openai.rate-limit.initial-concurrency=256",
+        "llm.openai.rate-limit.max-concurrency=4096",
+        "llm.claude.rate-limit.requests-per-minute=0",
+        "llm.claude.rate-limit.tokens-per-minute=0",
+        "llm.claude.rate-limit.initial-concurrency=256",
+        "llm.claude.rate-limit.max-concurrency=4096"
+})
+class ComparisonLoadBenchmark {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private static final Path OUTPUT_DIR = Path.of(System.getProperty("load.output.dir", "target/load-results"));
+    private static final List<String> SCENARIOS = Arrays.stream(
+                    System.getProperty("load.scenarios", "compare,quick,history").split(","))
+            .map(String::trim)
+            .filter(name -> !name.isEmpty())
+            .toList();
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("load.warmup-seconds", 5));
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("load.duration-seconds", 30));
+    private static final double MAX_ERROR_RATE = Double.parseDouble(System.getProperty("load.max-error-rate", "0.01"));
+    private static final long STUB_LATENCY_MS = Long.getLong("load.stub.latency-ms", 200);
+    private static final long STUB_JITTER_MS = Long.getLong("load.stub.jitter-ms", 100);
+    private static final int STUB_RESPONSE_CHARS = Integer.getInteger("load.stub.response-chars", 2000);
+
+    private static MockWebServer openAi;
+    private static MockWebServer claude;
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void stubProviders(DynamicPropertyRegistry registry) throws IOException {
+        StubProviderDispatcher dispatcher = new StubProviderDispatcher(JSON,
+                STUB_LATENCY_MS, STUB_JITTER_MS, STUB_RESPONSE_CHARS);
+        openAi = startStub(dispatcher);
+        claude = startStub(dispatcher);
+        registry.add("llm.openai.base-url", () -> baseUrl(openAi));
+        registry.add("llm.claude.base-url", () -> baseUrl(claude));
+        registry.add("llm.persistence.journal.path", () -> OUTPUT_DIR.resolve("journal.dat").toString());
+        registry.add("llm.reports.directory", () -> OUTPUT_DIR.resolve("reports").toString());
+    }
+
+    private static MockWebServer startStub(StubProviderDispatcher dispatcher) throws IOException {
+        MockWebServer server = new MockWebServer();
+        server.setDispatcher(dispatcher);
+        server.start();
+        return server;
+    }
+
+    private static String baseUrl(MockWebServer server) {
+        return "http://" + server.getHostName() + ":" + server.getPort() + "/v1";
+    }
+
+    @AfterAll
+    static void stopStubs() throws IOException {
+        if (openAi != null) {
+            openAi.shutdown();
+        }
+        if (claude != null) {
+            claude.shutdown();
+        }
+    }
+
+    @Test
+    void comparisonApiUnderLoad() throws Exception {
+        JvmSampler jvm = new JvmSampler();
+        FixedRateLoadDriver driver = new FixedRateLoadDriver(jvm);
+
+        List<FixedRateLoadDriver.ScenarioResult> results = new ArrayList<>();
+        for (String scenario : SCENARIOS) {
+            results.add(driver.run(scenario, requests(scenario), rate(scenario), WARMUP, DURATION));
+        }
+        writeResults(results, jvm);
+
+        for (FixedRateLoadDriver.ScenarioResult result : results) {
+            assertThat(result.errorRate())
+                    .as("error rate of %s", result.name())
+                    .isLessThanOrEqualTo(MAX_ERROR_RATE);
+        }
+    }
+
+    private LongFunction<HttpRequest> requests(String scenario) {
+        String api = "http://localhost:" + port + "/api/v1/llm";
+        return switch (scenario) {
+            // Distinct prompts, so every request goes through to the providers instead of the cache
+            case "compare" -> n -> HttpRequest.newBuilder(URI.create(api + "/compare"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"prompt\":\"" + prompt("compare", n) + "\",\"saveToFile\":true}"))
+                    .build();
+            case "quick" -> n -> HttpRequest.newBuilder(URI.create(api + "/compare/quick?prompt="
+                            + URLEncoder.encode(prompt("quick", n), StandardCharsets.UTF_8)))
+                    .POST(HttpRequest.BodyPublishers.noBody())
+                    .build();
+            case "history" -> n -> HttpRequest.newBuilder(URI.create(api + "/history?size=50"))
+                    .GET()
+                    .build();
+            default -> throw new IllegalArgumentException("Unknown load scenario: " + scenario);
+        };
+    }
+
+    private static String prompt(String scenario, long n) {
+        return "Load test " + scenario + " prompt " + n + ": explain the trade-offs between latency and "
+                + "throughput when calling several language model providers at once.";
+    }
+
+    private static double rate(String scenario) {
+        String fallback = System.getProperty("load.rate", "history".equals(scenario) ? "100" : "20");
+        return Double.parseDouble(System.getProperty("load." + scenario + ".rate", fallback));
+    }
+
+    private static void writeResults(List<FixedRateLoadDriver.ScenarioResult> results, JvmSampler jvm)
+            throws IOException {
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("warmupSeconds", WARMUP.toSeconds());
+        config.put("durationSeconds", DURATION.toSeconds());
+        config.put("stubLatencyMs", STUB_LATENCY_MS);
+        config.put("stubJitterMs", STUB_JITTER_MS);
+        config.put("stubResponseChars", STUB_RESPONSE_CHARS);
+        config.put("maxErrorRate", MAX_ERROR_RATE);
+
+        Runtime runtime = Runtime.getRuntime();
+        Map<String, Object> jvmInfo = new LinkedHashMap<>();
+        jvmInfo.put("version", Runtime.version().toString());
+        jvmInfo.put("availableProcessors", runtime.availableProcessors());
+        jvmInfo.put("maxHeapMb", JvmSampler.toMb(runtime.maxMemory()));
+        jvmInfo.put("garbageCollectors", jvm.collectorNames());
+        jvmInfo.put("inputArguments", ManagementFactory.getRuntimeMXBean().getInputArguments());
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("suite", "comparison-load");
+        report.put("timestamp", Instant.now().toString());
+        report.put("config", config);
+        report.put("jvm", jvmInfo);
+        report.put("scenarios", results);
+
+        Files.createDirectories(OUTPUT_DIR);
+        JSON.enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(OUTPUT_DIR.resolve("comparison-load.json").toFile(), report);
+    }
+}
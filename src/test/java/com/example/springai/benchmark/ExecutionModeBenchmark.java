@@ -0,0 +1,180 @@
+package com.example.springai.benchmark;
+
+import com.example.springai.analysis.WordFrequencyAnalyzer;
+import com.example.springai.config.ExecutionMode;
+import com.example.springai.dto.ComparisonRequest;
+import com.example.springai.dto.ComparisonStreamEvent;
+import com.example.springai.dto.ProviderInfo;
+import com.example.springai.metrics.LlmMetrics;
+import com.example.springai.model.LlmProvider;
+import com.example.springai.model.LlmResponse;
+import com.example.springai.repository.LlmResponseRepository;
+import com.example.springai.resilience.ProviderCallPolicy;
+import com.example.springai.service.LlmClientService;
+import com.example.springai.service.ReportService;
+import com.example.springai.service.ResponseArchiveService;
+import com.example.springai.service.ResponsePersistenceService;
+import com.example.springai.service.ResponseCacheService;
+import com.example.springai.service.impl.ComparisonServiceImpl;
+import com.example.springai.service.impl.InFlightRequestCoalescer;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bursts of concurrent comparisons in BLOCKING execution mode against a local stub provider,
+ * comparing the platform thread pool with virtual threads.
+ *
+ * <pre>mvn -Pbenchmark test -Dbenchmark=ExecutionModeBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class ExecutionModeBenchmark {
+
+    private static final String STUB_BODY =
+            "{\"choices\":[{\"message\":{\"content\":\"stub response\"}}],\"usage\":{\"total_tokens\":42}}";
+
+    @Param({"true", "false"})
+    public boolean virtualThreads;
+
+    @Param({"32"})
+    public int poolSize;
+
+    @Param({"50"})
+    public int stubLatencyMs;
+
+    @Param({"200"})
+    public int concurrentComparisons;
+
+    private HttpServer stubServer;
+    private ExecutorService providerCallExecutor;
+    private ComparisonServiceImpl comparisonService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        stubServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 4096);
+        stubServer.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        stubServer.createContext("/", exchange -> {
+            try {
+                Thread.sleep(stubLatencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = STUB_BODY.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        stubServer.start();
+
+        providerCallExecutor = virtualThreads
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(poolSize);
+
+        URI stubUri = URI.create("http://127.0.0.1:" + stubServer.getAddress().getPort() + "/chat/completions");
+        comparisonService = new ComparisonServiceImpl(new StubLlmClientService(stubUri),
+                Mockito.mock(LlmResponseRepository.class), Mockito.mock(ResponseArchiveService.class),
+                Mockito.mock(ResponsePersistenceService.class), Mockito.mock(ReportService.class),
+                Mockito.mock(ResponseCacheService.class), new InFlightRequestCoalescer(),
+                new WordFrequencyAnalyzer(10, 4, List.of()), Mockito.mock(ProviderCallPolicy.class),
+                new LlmMetrics(new SimpleMeterRegistry(), ObservationRegistry.NOOP), providerCallExecutor);
+        ReflectionTestUtils.setField(comparisonService, "executionMode", ExecutionMode.BLOCKING);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        providerCallExecutor.shutdownNow();
+        stubServer.stop(0);
+    }
+
+    @Benchmark
+    public void comparisonBurst() {
+        Flux.range(0, concurrentComparisons)
+                .flatMap(i -> {
+                    ComparisonRequest request = new ComparisonRequest("benchmark prompt " + i);
+                    request.setSaveToFile(false);
+                    request.setBypassCache(true);
+                    return comparisonService.compareModelsAsync(request);
+                }, concurrentComparisons)
+                .blockLast();
+    }
+
+    /**
+     * Blocking client that answers every provider from the stub server, standing in for the
+     * WebClient exchange of LlmClientServiceImpl.
+     */
+    private static final class StubLlmClientService implements LlmClientService {
+
+        private final HttpClient httpClient = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        private final URI stubUri;
+
+        private StubLlmClientService(URI stubUri) {
+            this.stubUri = stubUri;
+        }
+
+        @Override
+        public LlmResponse queryLlm(String prompt, LlmProvider provider, String sessionId) {
+            long startTime = System.currentTimeMillis();
+            try {
+                HttpRequest request = HttpRequest.newBuilder(stubUri)
+                        .POST(HttpRequest.BodyPublishers.ofString(prompt))
+                        .build();
+                String body = httpClient.send(request, HttpResponse.BodyHandlers.ofString()).body();
+                return new LlmResponse(prompt, provider, "stub", body,
+                        System.currentTimeMillis() - startTime, 42, sessionId);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public Mono<LlmResponse> queryLlmAsync(String prompt, LlmProvider provider, String sessionId) {
+            return Mono.fromCallable(() -> queryLlm(prompt, provider, sessionId));
+        }
+
+        @Override
+        public Flux<ComparisonStreamEvent> streamLlm(String prompt, LlmProvider provider, String sessionId) {
+            return queryLlmAsync(prompt, provider, sessionId).map(ComparisonStreamEvent::response).flux();
+        }
+
+        @Override
+        public boolean isProviderAvailable(LlmProvider provider) {
+            return provider == LlmProvider.OPENAI || provider == LlmProvider.CLAUDE;
+        }
+
+        @Override
+        public String requestFingerprint(String prompt, LlmProvider provider) {
+            return provider + ":" + prompt;
+        }
+
+        @Override
+        public List<ProviderInfo> describeProviders() {
+            return List.of();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.springai.benchmark;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+/**
+ * Open-model load generator: requests are started on a fixed schedule whether or not earlier ones
+ * have returned, and each latency is measured from the request's scheduled start. A server that
+ * stalls therefore shows up as higher latency instead of as fewer requests being sent.
+ */
+final class FixedRateLoadDriver {
+
+    private static final long DRAIN_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(130);
+
+    private final HttpClient client;
+    private final JvmSampler jvm;
+
+    FixedRateLoadDriver(JvmSampler jvm) {
+        this.jvm = jvm;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    /**
+     * Sends {@code requests.apply(n)} at {@code ratePerSecond} for the warm-up and then the measured
+     * duration. Only requests scheduled after the warm-up count towards the result.
+     */
+    ScenarioResult run(String name, LongFunction<HttpRequest> requests, double ratePerSecond,
+                       Duration warmup, Duration duration) throws InterruptedException {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        // Every request feeds the timeline, only measured ones feed the totals
+        Recorder intervalRecorder = new Recorder(3);
+        Recorder measuredRecorder = new Recorder(3);
+        AtomicLong intervalCompleted = new AtomicLong();
+        AtomicLong intervalErrors = new AtomicLong();
+        AtomicLong completed = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        AtomicInteger inFlight = new AtomicInteger();
+        List<TimelinePoint> timeline = new ArrayList<>();
+
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(10);
+        long measureStart = start + warmup.toNanos();
+        long end = measureStart + duration.toNanos();
+
+        jvm.sample();
+        ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor();
+        ticker.scheduleAtFixedRate(() -> {
+            Histogram interval = intervalRecorder.getIntervalHistogram();
+            long now = System.nanoTime();
+            synchronized (timeline) {
+                timeline.add(new TimelinePoint(
+                        Math.round((now - start) / 1e9),
+                        now < measureStart,
+                        intervalCompleted.getAndSet(0),
+                        intervalErrors.getAndSet(0),
+                        inFlight.get(),
+                        toMs(interval.getValueAtPercentile(50)),
+                        toMs(interval.getValueAtPercentile(99)),
+                        toMs(interval.getMaxValue()),
+                        jvm.sample()));
+            }
+        }, 1, 1, TimeUnit.SECONDS);
+
+        long sent = 0;
+        for (long n = 0; ; n++) {
+            long scheduled = start + n * intervalNanos;
+            if (scheduled >= end) {
+                break;
+            }
+            parkUntil(scheduled);
+            boolean measured = scheduled >= measureStart;
+            if (measured) {
+                sent++;
+            }
+            inFlight.incrementAndGet();
+            client.sendAsync(requests.apply(n), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        long latencyMicros = (System.nanoTime() - scheduled) / 1000;
+                        boolean failed = error != null || response.statusCode() >= 400;
+                        intervalRecorder.recordValue(latencyMicros);
+                        intervalCompleted.incrementAndGet();
+                        if (failed) {
+                            intervalErrors.incrementAndGet();
+                        }
+                        if (measured) {
+                            measuredRecorder.recordValue(latencyMicros);
+                            completed.incrementAndGet();
+                            if (failed) {
+                                errors.incrementAndGet();
+                            }
+                        }
+                        inFlight.decrementAndGet();
+                    });
+        }
+
+        // Let the tail finish, anything still open after the drain timeout counts as an error
+        long drainDeadline = System.nanoTime() + DRAIN_TIMEOUT_NANOS;
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(50);
+        }
+        ticker.shutdown();
+        ticker.awaitTermination(5, TimeUnit.SECONDS);
+
+        Histogram total = measuredRecorder.getIntervalHistogram();
+        synchronized (timeline) {
+            long timedOut = sent - completed.get();
+            long failed = errors.get() + timedOut;
+            double seconds = duration.toNanos() / 1e9;
+            return new ScenarioResult(name, ratePerSecond, warmup.toSeconds(), duration.toSeconds(),
+                    sent, completed.get(), failed, sent > 0 ? (double) failed / sent : 0.0,
+                    completed.get() / seconds, LatencySummary.of(total), List.copyOf(timeline));
+        }
+    }
+
+    private static void parkUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private static double toMs(long micros) {
+        return Math.round(micros / 100.0) / 10.0;
+    }
+
+    record ScenarioResult(String name, double targetRate, long warmupSeconds, long durationSeconds,
+                          long requests, long completed, long errors, double errorRate, double throughput,
+                          LatencySummary latencyMs, List<TimelinePoint> timeline) {
+    }
+
+    record LatencySummary(long count, double mean, double p50, double p90, double p99, double p999, double max) {
+
+        static LatencySummary of(Histogram micros) {
+            return new LatencySummary(micros.getTotalCount(),
+                    Math.round(micros.getMean() / 100.0) / 10.0,
+                    toMs(micros.getValueAtPercentile(50)),
+                    toMs(micros.getValueAtPercentile(90)),
+                    toMs(micros.getValueAtPercentile(99)),
+                    toMs(micros.getValueAtPercentile(99.9)),
+                    toMs(micros.getMaxValue()));
+        }
+    }
+
+    /**
+     * One second of the run, warm-up included. Counts and latencies cover the requests that
+     * completed during that second.
+     */
+    record TimelinePoint(long second, boolean warmup, long completed, long errors, int inFlight,
+                         double p50Ms, double p99Ms, double maxMs, JvmSampler.Sample jvm) {
+    }
+}
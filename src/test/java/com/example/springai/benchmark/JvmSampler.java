@@ -0,0 +1,52 @@
+package com.example.springai.benchmark;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.List;
+
+/**
+ * Heap use and GC activity of this JVM, which runs both the application and the load driver.
+ * GC counts and times are reported as the change since the previous sample.
+ */
+final class JvmSampler {
+
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private long lastGcCount;
+    private long lastGcTimeMs;
+
+    JvmSampler() {
+        lastGcCount = totalGcCount();
+        lastGcTimeMs = totalGcTimeMs();
+    }
+
+    synchronized Sample sample() {
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        long gcCount = totalGcCount();
+        long gcTimeMs = totalGcTimeMs();
+        Sample sample = new Sample(toMb(heap.getUsed()), toMb(heap.getCommitted()),
+                gcCount - lastGcCount, gcTimeMs - lastGcTimeMs);
+        lastGcCount = gcCount;
+        lastGcTimeMs = gcTimeMs;
+        return sample;
+    }
+
+    List<String> collectorNames() {
+        return collectors.stream().map(GarbageCollectorMXBean::getName).toList();
+    }
+
+    private long totalGcCount() {
+        return collectors.stream().mapToLong(collector -> Math.max(0, collector.getCollectionCount())).sum();
+    }
+
+    private long totalGcTimeMs() {
+        return collectors.stream().mapToLong(collector -> Math.max(0, collector.getCollectionTime())).sum();
+    }
+
+    static double toMb(long bytes) {
+        return Math.round(bytes / 1024.0 / 1024.0 * 10) / 10.0;
+    }
+
+    record Sample(double heapUsedMb, double heapCommittedMb, long gcCount, long gcTimeMs) {
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.springai.benchmark;
+
+import com.example.springai.dto.ClaudeMessageResponse;
+import com.example.springai.dto.OpenAiChatResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import reactor.core.publisher.Flux;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of large provider payloads: the old path (body to String, then readTree), typed decoding
+ * from a byte[] copy of the body, and the production path, where the WebClient's Jackson codec
+ * joins the body's DataBuffers (arriving here in 8 KB chunks) and decodes them into the DTO.
+ * Run with the GC profiler to compare allocation per operation:
+ *
+ * <pre>mvn -Pbenchmark test -Dbenchmark="ProviderResponseParsingBenchmark -prof gc"</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProviderResponseParsingBenchmark {
+
+    @Param({"102400", "1048576", "5242880"})
+    public int contentBytes;
+
+    private static final int CHUNK_BYTES = 8192;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Jackson2JsonDecoder decoder = new Jackson2JsonDecoder(objectMapper);
+    private final DefaultDataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+    private byte[] openAiPayload;
+    private byte[] claudePayload;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        decoder.setMaxInMemorySize(-1);
+        String content = "The quick brown fox jumps over the lazy dog. ".repeat(contentBytes / 45 + 1)
+                .substring(0, contentBytes);
+        openAiPayload = ("{\"id\":\"chatcmpl-1\",\"object\":\"chat.completion\",\"choices\":[{\"index\":0,"
+                + "\"message\":{\"role\":\"assistant\",\"content\":\"" + content + "\"},\"finish_reason\":\"stop\"}],"
+                + "\"usage\":{\"prompt_tokens\":12,\"completion_tokens\":900,\"total_tokens\":912}}")
+                .getBytes(StandardCharsets.UTF_8);
+        claudePayload = ("{\"id\":\"msg_1\",\"type\":\"message\",\"role\":\"assistant\",\"content\":[{\"type\":\"text\","
+                + "\"text\":\"" + content + "\"}],\"stop_reason\":\"end_turn\","
+                + "\"usage\":{\"input_tokens\":12,\"output_tokens\":900}}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public void openAiStringTree(Blackhole bh) throws Exception {
+        String body = new String(openAiPayload, StandardCharsets.UTF_8);
+        JsonNode json = objectMapper.readTree(body);
+        bh.consume(json.path("choices").get(0).path("message").path("content").asText());
+        bh.consume(json.path("usage").path("total_tokens").asInt(0));
+    }
+
+    @Benchmark
+    public void openAiTyped(Blackhole bh) throws Exception {
+        OpenAiChatResponse response = objectMapper.readValue(openAiPayload, OpenAiChatResponse.class);
+        bh.consume(response.getChoices().get(0).getMessage().getContent());
+        bh.consume(response.getUsage().getTotalTokens());
+    }
+
+    @Benchmark
+    public void openAiCodec(Blackhole bh) {
+        OpenAiChatResponse response = decode(openAiPayload, OpenAiChatResponse.class);
+        bh.consume(response.getChoices().get(0).getMessage().getContent());
+        bh.consume(response.getUsage().getTotalTokens());
+    }
+
+    @Benchmark
+    public void claudeStringTree(Blackhole bh) throws Exception {
+        String body = new String(claudePayload, StandardCharsets.UTF_8);
+        JsonNode json = objectMapper.readTree(body);
+        bh.consume(json.path("content").get(0).path("text").asText());
+        bh.consume(json.path("usage").path("output_tokens").asInt(0));
+    }
+
+    @Benchmark
+    public void claudeTyped(Blackhole bh) throws Exception {
+        ClaudeMessageResponse response = objectMapper.readValue(claudePayload, ClaudeMessageResponse.class);
+        bh.consume(response.getContent().get(0).getText());
+        bh.consume(response.getUsage().getOutputTokens());
+    }
+
+    @Benchmark
+    public void claudeCodec(Blackhole bh) {
+        ClaudeMessageResponse response = decode(claudePayload, ClaudeMessageResponse.class);
+        bh.consume(response.getContent().get(0).getText());
+        bh.consume(response.getUsage().getOutputTokens());
+    }
+
+    private <T> T decode(byte[] payload, Class<T> type) {
+        Flux<DataBuffer> body = Flux.range(0, (payload.length + CHUNK_BYTES - 1) / CHUNK_BYTES)
+                .map(chunk -> {
+                    int offset = chunk * CHUNK_BYTES;
+                    return bufferFactory.wrap(ByteBuffer.wrap(payload, offset,
+                            Math.min(CHUNK_BYTES, payload.length - offset)));
+                });
+        return type.cast(decoder.decodeToMono(body, ResolvableType.forClass(type), MediaType.APPLICATION_JSON, null)
+                .block());
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.springai.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answers OpenAI chat completion and Claude messages requests with a canned answer of a fixed
+ * size after latency + a uniform jitter. Anything else, e.g. connection warm-up, gets a 404.
+ */
+final class StubProviderDispatcher extends Dispatcher {
+
+    private final String openAiBody;
+    private final String claudeBody;
+    private final long latencyMs;
+    private final long jitterMs;
+
+    StubProviderDispatcher(ObjectMapper objectMapper, long latencyMs, long jitterMs, int responseChars) {
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        String text = answer(responseChars);
+        int completionTokens = Math.max(1, responseChars / 4);
+        try {
+            this.openAiBody = objectMapper.writeValueAsString(Map.of(
+                    "id", "chatcmpl-stub",
+                    "object", "chat.completion",
+                    "choices", List.of(Map.of(
+                            "index", 0,
+                            "message", Map.of("role", "assistant", "content", text),
+                            "finish_reason", "stop")),
+                    "usage", Map.of("prompt_tokens", 50, "completion_tokens", completionTokens,
+                            "total_tokens", 50 + completionTokens)));
+            this.claudeBody = objectMapper.writeValueAsString(Map.of(
+                    "id", "msg_stub",
+                    "type", "message",
+                    "role", "assistant",
+                    "content", List.of(Map.of("type", "text", "text", text)),
+                    "stop_reason", "end_turn",
+                    "usage", Map.of("input_tokens", 50, "output_tokens", completionTokens)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public MockResponse dispatch(RecordedRequest request) {
+        String path = request.getPath() != null ? request.getPath() : "";
+        String body;
+        if (path.endsWith("/chat/completions")) {
+            body = openAiBody;
+        } else if (path.endsWith("/messages")) {
+            body = claudeBody;
+        } else {
+            return new MockResponse().setResponseCode(404);
+        }
+        long delayMs = latencyMs + (jitterMs > 0 ? ThreadLocalRandom.current().nextLong(jitterMs + 1) : 0);
+        return new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody(body)
+                .setHeadersDelay(delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private static String answer(int chars) {
+        String sentence = "The stub provider returns this sentence to measure the comparison pipeline. ";
+        StringBuilder text = new StringBuilder(chars + sentence.length());
+        while (text.length() < chars) {
+            text.append(sentence);
+        }
+        text.setLength(chars);
+        return text.toString();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.springai.benchmark;
+
+import com.example.springai.analysis.WordFrequencyAnalyzer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Top-10 word counting over MB-sized responses: the former regex, split and full sort against the
+ * char-scanning WordFrequencyAnalyzer. Throughput is reported per operation; divide the text size
+ * by the score for MB/s. Add -prof gc to compare allocation.
+ *
+ * <pre>mvn -Pbenchmark test -Dbenchmark=WordFrequencyBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WordFrequencyBenchmark {
+
+    private static final String[] VOCABULARY = {
+            "model", "response", "latency", "provider", "token", "context", "answer", "prompt", "quality",
+            "example", "approach", "système", "réponse", "données", "straße", "größe", "модель", "ответ",
+            "don't", "well-known", "step-by-step", "2024", "first", "second", "because", "therefore"
+    };
+
+    @Param({"1048576", "8388608"})
+    public int textBytes;
+
+    @Param({"3"})
+    public int responseCount;
+
+    private List<String> texts;
+    private WordFrequencyAnalyzer analyzer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(7);
+        texts = new ArrayList<>(responseCount);
+        for (int r = 0; r < responseCount; r++) {
+            StringBuilder text = new StringBuilder(textBytes / responseCount + 32);
+            while (text.length() < textBytes / responseCount) {
+                // Zipf-like skew so a few words dominate, as in real answers
+                int index = (int) (VOCABULARY.length * Math.pow(random.nextDouble(), 2.5));
+                text.append(VOCABULARY[index]).append(random.nextInt(12) == 0 ? ".\n" : " ");
+            }
+            texts.add(text.toString());
+        }
+        analyzer = new WordFrequencyAnalyzer(10, 4, List.of("that", "this", "with"));
+    }
+
+    @Benchmark
+    public void regexSplitSort(Blackhole bh) {
+        Map<String, Integer> wordCount = new HashMap<>();
+        for (String text : texts) {
+            String[] words = text.toLowerCase()
+                    .replaceAll("[^a-zA-Z\\s]", "")
+                    .split("\\s+");
+            for (String word : words) {
+                if (word.length() > 3) {
+                    wordCount.merge(word, 1, Integer::sum);
+                }
+            }
+        }
+        bh.consume(wordCount.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .limit(10)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a,
+                        LinkedHashMap::new)));
+    }
+
+    @Benchmark
+    public void charScanning(Blackhole bh) {
+        bh.consume(analyzer.topWords(texts));
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.springai.config;
+
+import com.example.springai.model.LlmProvider;
+import com.example.springai.provider.ProviderAdapter;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProviderConnectionWarmupTest {
+
+    @Test
+    void unconfiguredProvidersAreNotContacted() {
+        AtomicInteger openAiRequests = new AtomicInteger();
+        AtomicInteger claudeRequests = new AtomicInteger();
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("llm.openai.base-url", "https://openai.test")
+                .withProperty("llm.claude.base-url", "https://claude.test");
+
+        new ProviderConnectionWarmup(countingClient(openAiRequests), countingClient(claudeRequests),
+                List.of(adapter(LlmProvider.OPENAI, true), adapter(LlmProvider.CLAUDE, false)), environment)
+                .warmUpConnections();
+
+        assertThat(openAiRequests).hasValue(2);
+        assertThat(claudeRequests).hasValue(0);
+    }
+
+    private static WebClient countingClient(AtomicInteger requests) {
+        return WebClient.builder()
+                .exchangeFunction(request -> {
+                    requests.incrementAndGet();
+                    return Mono.just(ClientResponse.create(HttpStatus.NOT_FOUND).build());
+                })
+                .build();
+    }
+
+    private static ProviderAdapter adapter(LlmProvider provider, boolean configured) {
+        ProviderAdapter adapter = mock(ProviderAdapter.class);
+        when(adapter.provider()).thenReturn(provider);
+        when(adapter.isConfigured()).thenReturn(configured);
+        return adapter;
+    }
+}
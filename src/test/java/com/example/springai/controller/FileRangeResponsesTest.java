@@ -0,0 +1,176 @@
+package com.example.springai.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileRangeResponsesTest {
+
+    private static final String CONTENT = "0123456789";
+    private static final String CHECKSUM = "abc123";
+
+    @TempDir
+    Path directory;
+
+    private Path file;
+    private HttpHeaders headers;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.writeString(directory.resolve("report.md"), CONTENT);
+        headers = new HttpHeaders();
+    }
+
+    @Test
+    void servesTheWholeFileWithoutARange() throws IOException {
+        ResponseEntity<StreamingResponseBody> response = serve();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"" + CHECKSUM + "\"");
+        assertThat(response.getHeaders().getContentLength()).isEqualTo(10);
+        assertThat(body(response)).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void servesAClosedRange() throws IOException {
+        headers.set(HttpHeaders.RANGE, "bytes=2-4");
+
+        ResponseEntity<StreamingResponseBody> response = serve();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 2-4/10");
+        assertThat(body(response)).isEqualTo("234");
+    }
+
+    @Test
+    void servesAnOpenEndedRange() throws IOException {
+        headers.set(HttpHeaders.RANGE, "bytes=7-");
+
+        ResponseEntity<StreamingResponseBody> response = serve();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 7-9/10");
+        assertThat(body(response)).isEqualTo("789");
+    }
+
+    @Test
+    void servesASuffixRange() throws IOException {
+        headers.set(HttpHeaders.RANGE, "bytes=-3");
+
+        ResponseEntity<StreamingResponseBody> response = serve();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 7-9/10");
+        assertThat(body(response)).isEqualTo("789");
+    }
+
+    @Test
+    void clampsARangePastTheEnd() throws IOException {
+        headers.set(HttpHeaders.RANGE, "bytes=8-100");
+
+        ResponseEntity<StreamingResponseBody> response = serve();
+
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 8-9/10");
+        assertThat(body(response)).isEqualTo("89");
+    }
+
+    @Test
+    void rejectsARangeStartingPastTheEnd() {
+        headers.set(HttpHeaders.RANGE, "bytes=10-");
+
+        ResponseEntity<StreamingResponseBody> response = serve();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */10");
+    }
+
+    @Test
+    void rejectsAMalformedRange() {
+        headers.set(HttpHeaders.RANGE, "bytes=5-2");
+
+        assertThat(serve().getStatusCode()).isEqualTo(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+    }
+
+    @Test
+    void answersMultipleRangesWithTheWholeFile() throws IOException {
+        headers.set(HttpHeaders.RANGE, "bytes=0-1,5-6");
+
+        ResponseEntity<StreamingResponseBody> response = serve();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(body(response)).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void ignoresTheRangeWhenIfRangeIsStale() throws IOException {
+        headers.set(HttpHeaders.RANGE, "bytes=2-4");
+        headers.set(HttpHeaders.IF_RANGE, "\"other\"");
+
+        ResponseEntity<StreamingResponseBody> response = serve();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(body(response)).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void answersAMatchingIfNoneMatchWithNotModified() {
+        headers.setIfNoneMatch("\"" + CHECKSUM + "\"");
+
+        ResponseEntity<StreamingResponseBody> response = serve();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getBody()).isNull();
+    }
+
+    @Test
+    void servesTheFileWhenIfNoneMatchDiffers() {
+        headers.setIfNoneMatch("\"other\"");
+
+        assertThat(serve().getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void handsTheRangeToSendfileWhenTheConnectorSupportsIt() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute("org.apache.tomcat.sendfile.support", true);
+        headers.set(HttpHeaders.RANGE, "bytes=2-4");
+
+        ResponseEntity<StreamingResponseBody> response = FileRangeResponses.serve(file, "text/markdown", CHECKSUM,
+                headers, request);
+
+        assertThat(response.getBody()).isNull();
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo(2L);
+        // Exclusive end
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo(5L);
+    }
+
+    @Test
+    void answersNotFoundWhenTheFileIsGone() throws IOException {
+        Files.delete(file);
+
+        assertThat(serve().getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    private ResponseEntity<StreamingResponseBody> serve() {
+        return FileRangeResponses.serve(file, "text/markdown", CHECKSUM, headers, new MockHttpServletRequest());
+    }
+
+    private static String body(ResponseEntity<StreamingResponseBody> response) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
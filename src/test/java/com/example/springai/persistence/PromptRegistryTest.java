@@ -0,0 +1,133 @@
+package com.example.springai.persistence;
+
+import com.example.springai.model.Prompt;
+import com.example.springai.repository.PromptRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class PromptRegistryTest {
+
+    private final PromptRepository repository = mock(PromptRepository.class);
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private final AtomicLong ids = new AtomicLong(100);
+    private PromptRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new PromptRegistry(repository);
+        ReflectionTestUtils.setField(registry, "entityManager", entityManager);
+        when(repository.findByContentHash(anyString())).thenReturn(Optional.empty());
+        doAnswer(invocation -> {
+            ((Prompt) invocation.getArgument(0)).setId(ids.incrementAndGet());
+            return null;
+        }).when(entityManager).persist(any(Prompt.class));
+        when(entityManager.getReference(eq(Prompt.class), any())).thenAnswer(invocation -> {
+            Prompt reference = new Prompt();
+            reference.setId(invocation.getArgument(1));
+            return reference;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void newPromptIsSharedOnlyAfterCommit() {
+        begin();
+        Prompt created = registry.resolve("hello");
+        // The same transaction reuses its own insert
+        assertThat(registry.resolve("hello").getId()).isEqualTo(created.getId());
+        verify(entityManager, times(1)).persist(any(Prompt.class));
+
+        // Suspended, a concurrent transaction does not see the insert yet
+        Object pending = TransactionSynchronizationManager.unbindResource(registry);
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        begin();
+        assertThat(registry.resolve("hello").getId()).isNotEqualTo(created.getId());
+        rollback();
+
+        TransactionSynchronizationManager.bindResource(registry, pending);
+        TransactionSynchronizationManager.initSynchronization();
+        synchronizations.forEach(TransactionSynchronizationManager::registerSynchronization);
+        commit();
+
+        begin();
+        assertThat(registry.resolve("hello").getId()).isEqualTo(created.getId());
+        commit();
+    }
+
+    @Test
+    void rolledBackPromptIsNotCached() {
+        begin();
+        Prompt created = registry.resolve("hello");
+        rollback();
+
+        begin();
+        Prompt again = registry.resolve("hello");
+        commit();
+
+        assertThat(again.getId()).isNotEqualTo(created.getId());
+        verify(entityManager, times(2)).persist(any(Prompt.class));
+    }
+
+    @Test
+    void existingPromptIsCachedRightAway() {
+        Prompt existing = new Prompt("hash", "hello");
+        existing.setId(7L);
+        when(repository.findByContentHash(anyString())).thenReturn(Optional.of(existing));
+
+        begin();
+        registry.resolve("hello");
+        rollback();
+        begin();
+        assertThat(registry.resolve("hello").getId()).isEqualTo(7L);
+        commit();
+
+        verify(repository, times(1)).findByContentHash(anyString());
+    }
+
+    private static void begin() {
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    private static void commit() {
+        complete(true);
+    }
+
+    private static void rollback() {
+        complete(false);
+    }
+
+    /**
+     * Runs the callbacks a transaction manager would at the end of the transaction.
+     */
+    private static void complete(boolean committed) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        if (committed) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(committed
+                ? TransactionSynchronization.STATUS_COMMITTED : TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+}
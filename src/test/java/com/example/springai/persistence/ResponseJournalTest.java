@@ -0,0 +1,150 @@
+package com.example.springai.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResponseJournalTest {
+
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 5;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void pendingRecordsSurviveARestart() throws IOException {
+        Path path = dir.resolve("journal.dat");
+        try (ResponseJournal journal = ResponseJournal.open(path, 4096, false)) {
+            journal.appendAll(payloads("first", "second"));
+        }
+
+        try (ResponseJournal journal = ResponseJournal.open(path, 4096, false)) {
+            List<ResponseJournal.Record> pending = journal.recover();
+
+            assertThat(pending).extracting(record -> text(record.payload())).containsExactly("first", "second");
+            assertThat(journal.getOutstanding()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void flushedRecordsAreNotRecovered() throws IOException {
+        Path path = dir.resolve("journal.dat");
+        try (ResponseJournal journal = ResponseJournal.open(path, 4096, false)) {
+            long[] offsets = journal.appendAll(payloads("first", "second"));
+            journal.markFlushed(new long[]{offsets[0]});
+        }
+
+        try (ResponseJournal journal = ResponseJournal.open(path, 4096, false)) {
+            assertThat(journal.recover()).extracting(record -> text(record.payload())).containsExactly("second");
+        }
+    }
+
+    @Test
+    void tornRecordEndsTheLog() throws IOException {
+        Path path = dir.resolve("journal.dat");
+        long[] offsets;
+        try (ResponseJournal journal = ResponseJournal.open(path, 4096, false)) {
+            offsets = journal.appendAll(payloads("complete", "torn"));
+        }
+        // The crash hit before the length of the second record was written
+        writeInt(path, offsets[1], 0);
+
+        try (ResponseJournal journal = ResponseJournal.open(path, 4096, false)) {
+            assertThat(journal.recover()).extracting(record -> text(record.payload())).containsExactly("complete");
+            // New records go where the torn one was
+            assertThat(journal.appendAll(payloads("next"))).containsExactly(offsets[1]);
+        }
+    }
+
+    @Test
+    void lengthPastTheEndOfTheFileIsTreatedAsTorn() throws IOException {
+        Path path = dir.resolve("journal.dat");
+        long[] offsets;
+        try (ResponseJournal journal = ResponseJournal.open(path, 4096, false)) {
+            offsets = journal.appendAll(payloads("complete", "garbage"));
+        }
+        writeInt(path, offsets[1], Integer.MAX_VALUE);
+
+        try (ResponseJournal journal = ResponseJournal.open(path, 4096, false)) {
+            assertThat(journal.recover()).extracting(record -> text(record.payload())).containsExactly("complete");
+        }
+    }
+
+    @Test
+    void logRewindsOnceEverythingIsFlushed() throws IOException {
+        try (ResponseJournal journal = ResponseJournal.open(dir.resolve("journal.dat"), 4096, false)) {
+            journal.recover();
+            long[] first = journal.appendAll(payloads("a", "b"));
+            assertThat(first[0]).isEqualTo(HEADER_SIZE);
+
+            journal.markFlushed(new long[]{first[0]});
+            long[] second = journal.appendAll(payloads("c"));
+            assertThat(second[0]).isGreaterThan(first[1]);
+
+            journal.markFlushed(new long[]{first[1], second[0]});
+            assertThat(journal.getOutstanding()).isZero();
+            assertThat(journal.appendAll(payloads("d"))).containsExactly(HEADER_SIZE);
+        }
+    }
+
+    @Test
+    void rewoundLogRecoversNothing() throws IOException {
+        Path path = dir.resolve("journal.dat");
+        try (ResponseJournal journal = ResponseJournal.open(path, 4096, false)) {
+            journal.markFlushed(journal.appendAll(payloads("a", "b")));
+        }
+
+        try (ResponseJournal journal = ResponseJournal.open(path, 4096, false)) {
+            assertThat(journal.recover()).isEmpty();
+        }
+    }
+
+    @Test
+    void groupThatDoesNotFitIsRejectedWhole() throws IOException {
+        int capacity = HEADER_SIZE + 2 * (RECORD_HEADER_SIZE + 10) + 4;
+        try (ResponseJournal journal = ResponseJournal.open(dir.resolve("journal.dat"), capacity, false)) {
+            journal.recover();
+            assertThat(journal.appendAll(payloads("0123456789"))).hasSize(1);
+
+            assertThat(journal.appendAll(payloads("0123456789", "0123456789"))).isNull();
+            assertThat(journal.getOutstanding()).isEqualTo(1);
+            assertThat(journal.appendAll(payloads("0123456789"))).hasSize(1);
+        }
+    }
+
+    @Test
+    void rejectsJournalsOfAnotherVersion() throws IOException {
+        Path path = dir.resolve("journal.dat");
+        ResponseJournal.open(path, 4096, false).close();
+        writeInt(path, 4, 99);
+
+        assertThatThrownBy(() -> ResponseJournal.open(path, 4096, false))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("version 99");
+    }
+
+    private static List<byte[]> payloads(String... texts) {
+        return Arrays.stream(texts).map(text -> text.getBytes(StandardCharsets.UTF_8)).toList();
+    }
+
+    private static String text(byte[] payload) {
+        return new String(payload, StandardCharsets.UTF_8);
+    }
+
+    private static void writeInt(Path path, long offset, int value) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(offset);
+            file.writeInt(value);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.springai.persistence;
+
+import com.example.springai.model.LlmProvider;
+import com.example.springai.model.LlmResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WriteBehindBufferTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final List<LlmResponse> written = new ArrayList<>();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysRowsLeftInTheJournal() throws IOException {
+        Path path = dir.resolve("journal.dat");
+        try (ResponseJournal journal = ResponseJournal.open(path, 65536, false)) {
+            journal.appendAll(List.of(serialize(response("s1")), serialize(response("s2"))));
+        }
+
+        ResponseJournal journal = ResponseJournal.open(path, 65536, false);
+        WriteBehindBuffer buffer = buffer(journal, 100);
+        buffer.start(response -> false);
+        buffer.close();
+
+        assertThat(written).extracting(LlmResponse::getSessionId).containsExactly("s1", "s2");
+        assertThat(written.get(0).getResponse()).isEqualTo("answer");
+        try (ResponseJournal reopened = ResponseJournal.open(path, 65536, false)) {
+            assertThat(reopened.recover()).isEmpty();
+        }
+    }
+
+    @Test
+    void journaledRowsKeepFullTimestampPrecision() throws IOException {
+        Path path = dir.resolve("journal.dat");
+        LocalDateTime createdAt = LocalDateTime.of(2026, 3, 1, 12, 0, 0, 123_456_000);
+        LlmResponse response = response("s1");
+        response.setCreatedAt(createdAt);
+        WriteBehindBuffer failing = new WriteBehindBuffer(rows -> {
+            throw new IllegalStateException("database down");
+        }, ResponseJournal.open(path, 65536, false), objectMapper, 100, 10, Duration.ofHours(1));
+        failing.start(row -> false);
+        failing.offer(List.of(response));
+        failing.close();
+
+        WriteBehindBuffer buffer = buffer(ResponseJournal.open(path, 65536, false), 100);
+        buffer.start(row -> false);
+        buffer.close();
+
+        assertThat(written).singleElement()
+                .satisfies(row -> assertThat(row.getCreatedAt()).isEqualTo(createdAt));
+    }
+
+    @Test
+    void replaySkipsRowsThatWereAlreadyWritten() throws IOException {
+        Path path = dir.resolve("journal.dat");
+        try (ResponseJournal journal = ResponseJournal.open(path, 65536, false)) {
+            journal.appendAll(List.of(serialize(response("s1")), serialize(response("s2"))));
+        }
+
+        ResponseJournal journal = ResponseJournal.open(path, 65536, false);
+        WriteBehindBuffer buffer = buffer(journal, 100);
+        buffer.start(response -> "s1".equals(response.getSessionId()));
+        buffer.close();
+
+        assertThat(written).extracting(LlmResponse::getSessionId).containsExactly("s2");
+        try (ResponseJournal reopened = ResponseJournal.open(path, 65536, false)) {
+            assertThat(reopened.recover()).isEmpty();
+        }
+    }
+
+    @Test
+    void unflushedRowsStayInTheJournalWhenTheDatabaseFails() throws IOException {
+        Path path = dir.resolve("journal.dat");
+        ResponseJournal journal = ResponseJournal.open(path, 65536, false);
+        WriteBehindBuffer failing = new WriteBehindBuffer(rows -> {
+            throw new IllegalStateException("database down");
+        }, journal, objectMapper, 100, 10, Duration.ofHours(1));
+        failing.start(response -> false);
+        failing.offer(List.of(response("s1")));
+        failing.close();
+
+        try (ResponseJournal reopened = ResponseJournal.open(path, 65536, false)) {
+            assertThat(reopened.recover()).hasSize(1);
+        }
+    }
+
+    @Test
+    void poisonRowIsDeadLetteredAndItsBatchMatesAreWritten() throws Exception {
+        Path path = dir.resolve("journal.dat");
+        ResponseJournal journal = ResponseJournal.open(path, 65536, false);
+        WriteBehindBuffer buffer = new WriteBehindBuffer(rows -> {
+            if (rows.stream().anyMatch(row -> "poison".equals(row.getSessionId()))) {
+                throw new IllegalStateException("value too long");
+            }
+            written.addAll(rows);
+        }, journal, objectMapper, 100, 10, Duration.ofMillis(10));
+        buffer.start(response -> false);
+
+        buffer.offer(List.of(response("s1"), response("poison"), response("s2")));
+        awaitQueued(buffer, 0);
+        buffer.close();
+
+        assertThat(written).extracting(LlmResponse::getSessionId).containsExactly("s1", "s2");
+        try (ResponseJournal reopened = ResponseJournal.open(path, 65536, false)) {
+            assertThat(reopened.recover()).isEmpty();
+        }
+    }
+
+    @Test
+    void rowsAreKeptWhileNothingGetsThrough() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        WriteBehindBuffer buffer = new WriteBehindBuffer(rows -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("database down");
+        }, null, objectMapper, 100, 10, Duration.ofMillis(10));
+        buffer.start(response -> false);
+
+        buffer.offer(List.of(response("s1"), response("s2")));
+        while (attempts.get() < WriteBehindBuffer.MAX_ATTEMPTS * 3) {
+            Thread.sleep(10);
+        }
+
+        assertThat(buffer.getQueued()).isEqualTo(2);
+        buffer.close();
+    }
+
+    @Test
+    void writesThroughOnTheCallerWhenFull() throws IOException {
+        WriteBehindBuffer buffer = buffer(null, 1);
+        buffer.start(response -> false);
+
+        buffer.offer(List.of(response("s1"), response("s2")));
+
+        assertThat(written).extracting(LlmResponse::getSessionId).containsExactly("s1", "s2");
+        assertThat(buffer.getQueued()).isZero();
+        buffer.close();
+    }
+
+    private static void awaitQueued(WriteBehindBuffer buffer, int queued) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (buffer.getQueued() != queued && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(buffer.getQueued()).isEqualTo(queued);
+    }
+
+    private WriteBehindBuffer buffer(ResponseJournal journal, int capacity) {
+        return new WriteBehindBuffer(written::addAll, journal, objectMapper, capacity, 10, Duration.ofHours(1));
+    }
+
+    private byte[] serialize(LlmResponse response) throws IOException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    private static LlmResponse response(String sessionId) {
+        return new LlmResponse("prompt", LlmProvider.LOCAL_MOCK, "mock", "answer", 10L, 3, sessionId);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.springai.resilience;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final RuntimeException OVERLOAD = new IllegalStateException("429");
+    private static final RuntimeException OTHER = new IllegalArgumentException("bad request");
+
+    private final AdaptiveConcurrencyLimit limit =
+            new AdaptiveConcurrencyLimit(4, 1, 8, 0.5, error -> error == OVERLOAD);
+
+    @Test
+    void growsByOnePermitPerWindowOfSuccesses() {
+        for (int i = 0; i < 4; i++) {
+            succeed();
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(4);
+        succeed();
+        assertThat(limit.getLimit()).isEqualTo(5);
+    }
+
+    @Test
+    void neverGrowsPastTheMaximum() {
+        for (int i = 0; i < 200; i++) {
+            succeed();
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(8);
+    }
+
+    @Test
+    void overloadMultipliesTheLimitByTheBackoffRatio() {
+        fail(OVERLOAD);
+
+        assertThat(limit.getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    void overloadNeverDropsBelowTheMinimum() {
+        for (int i = 0; i < 10; i++) {
+            fail(OVERLOAD);
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(1);
+    }
+
+    @Test
+    void otherErrorsLeaveTheLimitUnchanged() {
+        fail(OTHER);
+
+        assertThat(limit.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void initialLimitIsClampedToTheRange() {
+        assertThat(new AdaptiveConcurrencyLimit(50, 2, 10, 0.5, e -> true).getLimit()).isEqualTo(10);
+        assertThat(new AdaptiveConcurrencyLimit(0, 2, 10, 0.5, e -> true).getLimit()).isEqualTo(2);
+    }
+
+    private void succeed() {
+        limit.run(() -> Mono.just("ok")).block();
+    }
+
+    private void fail(RuntimeException error) {
+        limit.run(() -> Mono.error(error)).onErrorResume(e -> Mono.empty()).block();
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.springai.resilience;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    private static final RuntimeException FAILURE = new IllegalStateException("503");
+    private static final RuntimeException IGNORED = new IllegalArgumentException("400");
+
+    @Test
+    void staysClosedUntilTheMinimumNumberOfCalls() {
+        CircuitBreaker breaker = breaker(Duration.ofMinutes(1));
+
+        fail(breaker);
+        fail(breaker);
+        fail(breaker);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        fail(breaker);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void opensOnlyOnceTheFailureRateReachesTheThreshold() {
+        CircuitBreaker breaker = breaker(Duration.ofMinutes(1));
+
+        succeed(breaker);
+        succeed(breaker);
+        succeed(breaker);
+        fail(breaker);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        fail(breaker);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        fail(breaker);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void errorsThatAreNotFailuresCountAsSuccesses() {
+        CircuitBreaker breaker = breaker(Duration.ofMinutes(1));
+
+        for (int i = 0; i < 10; i++) {
+            call(breaker, Mono.error(IGNORED));
+        }
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void rejectsCallsWhileOpen() {
+        CircuitBreaker breaker = openBreaker(Duration.ofMinutes(1));
+
+        assertThat(breaker.allowsRequests()).isFalse();
+        assertThat(call(breaker, Mono.just("ok"))).isInstanceOf(CircuitBreakerOpenException.class);
+    }
+
+    @Test
+    void halfOpenLetsOnlyTheTrialCallsThrough() {
+        CircuitBreaker breaker = openBreaker(Duration.ZERO);
+        Sinks.One<String> first = Sinks.one();
+        Sinks.One<String> second = Sinks.one();
+
+        breaker.protect(first::asMono).subscribe();
+        breaker.protect(second::asMono).subscribe();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(call(breaker, Sinks.<String>one().asMono())).isInstanceOf(CircuitBreakerOpenException.class);
+
+        first.tryEmitValue("ok");
+        // A succeeded trial still uses up its slot until the breaker closes
+        assertThat(call(breaker, Sinks.<String>one().asMono())).isInstanceOf(CircuitBreakerOpenException.class);
+
+        second.tryEmitValue("ok");
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void failedTrialCallReopens() {
+        CircuitBreaker breaker = openBreaker(Duration.ZERO);
+
+        fail(breaker);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void cancelledTrialCallFreesItsSlot() {
+        CircuitBreaker breaker = openBreaker(Duration.ZERO);
+
+        Disposable first = breaker.protect(() -> Sinks.<String>one().asMono()).subscribe();
+        breaker.protect(() -> Sinks.<String>one().asMono()).subscribe();
+        first.dispose();
+
+        assertThat(call(breaker, Sinks.<String>one().asMono())).isNull();
+    }
+
+    @Test
+    void closingResetsTheWindow() {
+        CircuitBreaker breaker = openBreaker(Duration.ZERO);
+        succeed(breaker);
+        succeed(breaker);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        // Old failures are forgotten, so three new ones are below the minimum again
+        fail(breaker);
+        fail(breaker);
+        fail(breaker);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    private static CircuitBreaker breaker(Duration openDuration) {
+        return new CircuitBreaker("test", 10, 4, 0.5, openDuration, 2, error -> error == FAILURE);
+    }
+
+    private static CircuitBreaker openBreaker(Duration openDuration) {
+        CircuitBreaker breaker = breaker(openDuration);
+        for (int i = 0; i < 4; i++) {
+            fail(breaker);
+        }
+        return breaker;
+    }
+
+    private static void succeed(CircuitBreaker breaker) {
+        call(breaker, Mono.just("ok"));
+    }
+
+    private static void fail(CircuitBreaker breaker) {
+        call(breaker, Mono.error(FAILURE));
+    }
+
+    /**
+     * Subscribes and returns the error signalled synchronously, if any.
+     */
+    private static Throwable call(CircuitBreaker breaker, Mono<String> result) {
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        breaker.protect(() -> result).subscribe(value -> { }, error::set);
+        return error.get();
+    }
+}
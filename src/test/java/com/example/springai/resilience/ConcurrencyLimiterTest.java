@@ -0,0 +1,122 @@
+package com.example.springai.resilience;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimiterTest {
+
+    @Test
+    void callsOverTheLimitWaitUntilAPermitIsReleased() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1);
+        Sinks.One<String> first = Sinks.one();
+        AtomicInteger started = new AtomicInteger();
+        AtomicReference<String> secondResult = new AtomicReference<>();
+
+        limiter.run(() -> { started.incrementAndGet(); return first.asMono(); }).subscribe();
+        limiter.run(() -> { started.incrementAndGet(); return Mono.just("second"); }).subscribe(secondResult::set);
+
+        assertThat(started).hasValue(1);
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+        assertThat(limiter.getQueued()).isEqualTo(1);
+
+        first.tryEmitValue("first");
+
+        assertThat(started).hasValue(2);
+        assertThat(secondResult).hasValue("second");
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void waitersAreServedInArrivalOrder() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1);
+        Sinks.One<String> blocker = Sinks.one();
+        StringBuilder order = new StringBuilder();
+
+        limiter.run(blocker::asMono).subscribe();
+        limiter.run(() -> Mono.fromRunnable(() -> order.append('a'))).subscribe();
+        limiter.run(() -> Mono.fromRunnable(() -> order.append('b'))).subscribe();
+        limiter.run(() -> Mono.fromRunnable(() -> order.append('c'))).subscribe();
+        blocker.tryEmitValue("done");
+
+        assertThat(order).hasToString("abc");
+    }
+
+    @Test
+    void cancelledWaiterDoesNotConsumeAPermit() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1);
+        Sinks.One<String> blocker = Sinks.one();
+        AtomicInteger started = new AtomicInteger();
+
+        limiter.run(blocker::asMono).subscribe();
+        Disposable waiting = limiter.run(() -> { started.incrementAndGet(); return Mono.just("x"); }).subscribe();
+        waiting.dispose();
+        blocker.tryEmitValue("done");
+
+        assertThat(started).hasValue(0);
+        assertThat(limiter.getInFlight()).isZero();
+
+        limiter.run(() -> { started.incrementAndGet(); return Mono.just("y"); }).subscribe();
+        assertThat(started).hasValue(1);
+    }
+
+    @Test
+    void cancellingARunningCallReleasesItsPermit() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1);
+
+        Disposable running = limiter.run(() -> Sinks.<String>one().asMono()).subscribe();
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+        running.dispose();
+
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void errorsReleaseThePermit() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1);
+
+        limiter.run(() -> Mono.error(new IllegalStateException("boom"))).subscribe(v -> { }, e -> { });
+
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void raisingTheLimitGrantsQueuedCallers() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1);
+        AtomicInteger started = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            limiter.run(() -> { started.incrementAndGet(); return Sinks.<String>one().asMono(); }).subscribe();
+        }
+        assertThat(started).hasValue(1);
+
+        limiter.setLimit(3);
+
+        assertThat(started).hasValue(3);
+        assertThat(limiter.getQueued()).isZero();
+    }
+
+    @Test
+    void runManyHoldsThePermitUntilTheStreamTerminates() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1);
+        Sinks.Many<String> stream = Sinks.many().unicast().onBackpressureBuffer();
+
+        limiter.runMany(stream::asFlux).subscribe();
+        stream.tryEmitNext("delta");
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+
+        stream.tryEmitComplete();
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void limitIsAtLeastOne() {
+        assertThat(new ConcurrencyLimiter(0).getLimit()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.springai.resilience;
+
+import com.example.springai.exception.LlmProviderException;
+import com.example.springai.model.LlmProvider;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProviderCallPolicyTest {
+
+    private static final LlmProvider PROVIDER = LlmProvider.LOCAL_MOCK;
+
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    @Test
+    void retriesTransportFailuresAndServerErrors() {
+        ProviderCallPolicy policy = policy(Duration.ofSeconds(10));
+
+        String result = policy.execute(PROVIDER, () -> attempts.incrementAndGet() < 3
+                ? Mono.<String>error(status(attempts.get() == 1 ? 0 : 503))
+                : Mono.just("ok")).block();
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(attempts).hasValue(3);
+    }
+
+    @Test
+    void doesNotRetryInvalidResponsesOrClientErrors() {
+        ProviderCallPolicy policy = policy(Duration.ofSeconds(10));
+
+        assertThatThrownBy(() -> policy.execute(PROVIDER, () -> {
+            attempts.incrementAndGet();
+            return Mono.error(LlmProviderException.invalidResponse(PROVIDER, "no choices", null));
+        }).block()).hasMessage("no choices");
+        assertThat(attempts).hasValue(1);
+
+        assertThatThrownBy(() -> policy.execute(PROVIDER, () -> {
+            attempts.incrementAndGet();
+            return Mono.error(status(400));
+        }).block()).isInstanceOf(LlmProviderException.class);
+        assertThat(attempts).hasValue(2);
+    }
+
+    @Test
+    void invalidResponsesDoNotTripTheBreaker() {
+        ProviderCallPolicy policy = policy(Duration.ofSeconds(10));
+
+        for (int i = 0; i < 10; i++) {
+            policy.execute(PROVIDER, () -> Mono.error(LlmProviderException.invalidResponse(PROVIDER, "bad", null)))
+                    .onErrorResume(e -> Mono.empty())
+                    .block();
+        }
+
+        assertThat(policy.getCircuitState(PROVIDER)).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void deadlineCoversEveryAttempt() {
+        ProviderCallPolicy policy = policy(Duration.ofMillis(300));
+
+        long started = System.nanoTime();
+        assertThatThrownBy(() -> policy.execute(PROVIDER, () -> {
+            attempts.incrementAndGet();
+            return Mono.<String>error(status(503)).delaySubscription(Duration.ofMillis(200));
+        }).block())
+                .isInstanceOf(LlmProviderException.class)
+                .hasMessageContaining("did not answer");
+
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(2));
+        assertThat(attempts.get()).isLessThan(3);
+    }
+
+    private static ProviderCallPolicy policy(Duration deadline) {
+        return new ProviderCallPolicy(deadline, 2, Duration.ofMillis(10), Duration.ofMillis(50), 0.5,
+                false, 0.95, Duration.ofSeconds(2),
+                20, 10, 0.5, Duration.ofSeconds(30), 2,
+                0.2, 0.95);
+    }
+
+    private static LlmProviderException status(int status) {
+        return new LlmProviderException(PROVIDER, "HTTP " + status, status, null, null);
+    }
+}
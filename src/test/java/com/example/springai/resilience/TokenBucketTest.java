@@ -0,0 +1,63 @@
+package com.example.springai.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class TokenBucketTest {
+
+    @Test
+    void reservationsWithinTheBalanceDoNotWait() {
+        TokenBucket bucket = new TokenBucket(600);
+
+        assertThat(bucket.reserve(100)).isZero();
+        assertThat(bucket.reserve(500)).isZero();
+    }
+
+    @Test
+    void overdrawnReservationWaitsForTheRefill() {
+        // 60 tokens per minute refills one token per second
+        TokenBucket bucket = new TokenBucket(60);
+        bucket.reserve(60);
+
+        long waitNanos = bucket.reserve(2);
+
+        assertThat(waitNanos).isBetween(TimeUnit.MILLISECONDS.toNanos(1_900), TimeUnit.SECONDS.toNanos(2));
+    }
+
+    @Test
+    void laterReservationsQueueBehindEarlierOnes() {
+        TokenBucket bucket = new TokenBucket(60);
+        bucket.reserve(60);
+
+        long first = bucket.reserve(1);
+        long second = bucket.reserve(1);
+
+        assertThat(second).isGreaterThan(first);
+    }
+
+    @Test
+    void adjustReturnsTokensButNeverExceedsCapacity() {
+        TokenBucket bucket = new TokenBucket(60);
+        bucket.reserve(50);
+
+        bucket.adjust(20);
+        assertThat(bucket.getAvailable()).isCloseTo(30, within(0.5));
+
+        bucket.adjust(1_000);
+        assertThat(bucket.getAvailable()).isEqualTo(60);
+    }
+
+    @Test
+    void negativeAdjustChargesUnderReservedTokens() {
+        TokenBucket bucket = new TokenBucket(60);
+
+        bucket.adjust(-70);
+
+        assertThat(bucket.getAvailable()).isNegative();
+        assertThat(bucket.reserve(1)).isPositive();
+    }
+}
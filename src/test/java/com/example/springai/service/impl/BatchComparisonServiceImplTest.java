@@ -0,0 +1,108 @@
+package com.example.springai.service.impl;
+
+import com.example.springai.dto.BatchComparisonRequest;
+import com.example.springai.dto.BatchJobStatus;
+import com.example.springai.model.LlmProvider;
+import com.example.springai.model.LlmResponse;
+import com.example.springai.service.ComparisonService;
+import com.example.springai.service.ReportService;
+import com.example.springai.service.ResponsePersistenceService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class BatchComparisonServiceImplTest {
+
+    private final ComparisonService comparisonService = mock(ComparisonService.class);
+    private final ResponsePersistenceService persistenceService = mock(ResponsePersistenceService.class);
+
+    @Test
+    void aChunkThatFailsToSaveIsCountedAndTheJobCarriesOn() throws InterruptedException {
+        BatchComparisonServiceImpl service = service(1000);
+        when(comparisonService.queryProvider(anyString(), eq(LlmProvider.OPENAI), anyString(), anyBoolean()))
+                .thenAnswer(invocation -> Mono.just(response(invocation.getArgument(0))));
+        doThrow(new IllegalStateException("connection reset"))
+                .doNothing()
+                .when(persistenceService).persistNow(any());
+
+        BatchJobStatus submitted = service.submitBatch(request("one", "two", "three"));
+        BatchJobStatus finished = awaitFinished(service, submitted.getJobId());
+
+        assertThat(finished.getState()).isEqualTo(BatchJobStatus.State.COMPLETED);
+        assertThat(finished.getCompletedPrompts()).isEqualTo(3);
+        assertThat(finished.getPersistErrors()).isEqualTo(1);
+        verify(persistenceService, times(3)).persistNow(any());
+    }
+
+    @Test
+    void runningJobsAreNotEvictedByFinishedOnes() throws InterruptedException {
+        BatchComparisonServiceImpl service = service(1);
+        when(comparisonService.queryProvider(eq("slow"), eq(LlmProvider.OPENAI), anyString(), anyBoolean()))
+                .thenReturn(Mono.never());
+        when(comparisonService.queryProvider(eq("fast"), eq(LlmProvider.OPENAI), anyString(), anyBoolean()))
+                .thenAnswer(invocation -> Mono.just(response("fast")));
+
+        String running = service.submitBatch(request("slow")).getJobId();
+        awaitFinished(service, service.submitBatch(request("fast")).getJobId());
+        String latest = service.submitBatch(request("fast")).getJobId();
+        awaitFinished(service, latest);
+        jobs(service).cleanUp();
+
+        assertThat(service.getJobStatus(running)).hasValueSatisfying(status ->
+                assertThat(status.getState()).isEqualTo(BatchJobStatus.State.RUNNING));
+        assertThat(service.getJobStatus(latest)).isPresent();
+        assertThat(jobs(service).estimatedSize()).isEqualTo(2);
+    }
+
+    private BatchComparisonServiceImpl service(long statusMaxSize) {
+        when(comparisonService.determineProviders(any())).thenReturn(List.of(LlmProvider.OPENAI));
+        BatchComparisonServiceImpl service = new BatchComparisonServiceImpl(comparisonService, persistenceService,
+                mock(ReportService.class), new ObjectMapper(), Duration.ofHours(1), statusMaxSize);
+        ReflectionTestUtils.setField(service, "defaultConcurrency", 1);
+        ReflectionTestUtils.setField(service, "defaultPerProviderConcurrency", 1);
+        ReflectionTestUtils.setField(service, "maxPrompts", 100);
+        ReflectionTestUtils.setField(service, "persistBatchSize", 1);
+        return service;
+    }
+
+    private static BatchComparisonRequest request(String... prompts) {
+        BatchComparisonRequest request = new BatchComparisonRequest(List.of(prompts));
+        request.setSaveToFile(false);
+        return request;
+    }
+
+    private static LlmResponse response(String prompt) {
+        return new LlmResponse(prompt, LlmProvider.OPENAI, "gpt-4o-mini", "answer", 100L, 10, "s1");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Cache<String, ?> jobs(BatchComparisonServiceImpl service) {
+        return (Cache<String, ?>) ReflectionTestUtils.getField(service, "jobs");
+    }
+
+    private static BatchJobStatus awaitFinished(BatchComparisonServiceImpl service, String jobId)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            BatchJobStatus status = service.getJobStatus(jobId).orElseThrow();
+            if (status.getState() == BatchJobStatus.State.COMPLETED
+                    || status.getState() == BatchJobStatus.State.FAILED) {
+                return status;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Batch job " + jobId + " did not finish");
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.springai.service.impl;
+
+import com.example.springai.model.LlmProvider;
+import com.example.springai.model.LlmResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InFlightRequestCoalescerTest {
+
+    private InFlightRequestCoalescer coalescer;
+    private Sinks.One<LlmResponse> upstream;
+    private AtomicInteger calls;
+    private AtomicBoolean cancelled;
+
+    @BeforeEach
+    void setUp() {
+        coalescer = new InFlightRequestCoalescer();
+        ReflectionTestUtils.setField(coalescer, "enabled", true);
+        upstream = Sinks.one();
+        calls = new AtomicInteger();
+        cancelled = new AtomicBoolean();
+    }
+
+    @Test
+    void concurrentCallersShareOneCallAndGetTheirOwnSession() {
+        AtomicReference<LlmResponse> first = new AtomicReference<>();
+        AtomicReference<LlmResponse> second = new AtomicReference<>();
+
+        coalescer.execute("hash", "session-a", this::call).subscribe(first::set);
+        coalescer.execute("hash", "session-b", this::call).subscribe(second::set);
+        upstream.tryEmitValue(response("session-a"));
+
+        assertThat(calls).hasValue(1);
+        assertThat(coalescer.getCoalescedCount()).isEqualTo(1);
+        assertThat(first.get().getSessionId()).isEqualTo("session-a");
+        assertThat(second.get().getSessionId()).isEqualTo("session-b");
+        assertThat(second.get().getResponse()).isEqualTo("answer");
+        assertThat(second.get()).isNotSameAs(first.get());
+    }
+
+    @Test
+    void ownerCancellingDoesNotCancelTheCallForOtherWaiters() {
+        AtomicReference<LlmResponse> second = new AtomicReference<>();
+
+        Disposable owner = coalescer.execute("hash", "session-a", this::call).subscribe();
+        coalescer.execute("hash", "session-b", this::call).subscribe(second::set);
+        owner.dispose();
+
+        assertThat(cancelled).isFalse();
+        upstream.tryEmitValue(response("session-a"));
+        assertThat(second.get().getSessionId()).isEqualTo("session-b");
+    }
+
+    @Test
+    void callIsCancelledOnceEveryCallerHasCancelled() {
+        Disposable first = coalescer.execute("hash", "session-a", this::call).subscribe();
+        Disposable second = coalescer.execute("hash", "session-b", this::call).subscribe();
+        first.dispose();
+        second.dispose();
+
+        assertThat(cancelled).isTrue();
+
+        // The cancelled call is no longer in flight, so the next caller starts a fresh one
+        upstream = Sinks.one();
+        coalescer.execute("hash", "session-c", this::call).subscribe();
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void errorsReachEveryCallerAndClearTheEntry() {
+        AtomicReference<Throwable> first = new AtomicReference<>();
+        AtomicReference<Throwable> second = new AtomicReference<>();
+
+        coalescer.execute("hash", "session-a", this::call).subscribe(r -> { }, first::set);
+        coalescer.execute("hash", "session-b", this::call).subscribe(r -> { }, second::set);
+        upstream.tryEmitError(new IllegalStateException("provider down"));
+
+        assertThat(first.get()).hasMessage("provider down");
+        assertThat(second.get()).hasMessage("provider down");
+
+        upstream = Sinks.one();
+        AtomicReference<LlmResponse> retry = new AtomicReference<>();
+        coalescer.execute("hash", "session-c", this::call).subscribe(retry::set);
+        upstream.tryEmitValue(response("session-c"));
+        assertThat(calls).hasValue(2);
+        assertThat(retry.get().getSessionId()).isEqualTo("session-c");
+    }
+
+    @Test
+    void completedCallsAreNotReused() {
+        coalescer.execute("hash", "session-a", this::call).subscribe();
+        upstream.tryEmitValue(response("session-a"));
+
+        upstream = Sinks.one();
+        coalescer.execute("hash", "session-b", this::call).subscribe();
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void disabledCoalescingCallsUpstreamForEveryCaller() {
+        ReflectionTestUtils.setField(coalescer, "enabled", false);
+
+        coalescer.execute("hash", "session-a", this::call).subscribe();
+        coalescer.execute("hash", "session-b", this::call).subscribe();
+
+        assertThat(calls).hasValue(2);
+        assertThat(coalescer.getCoalescedCount()).isZero();
+    }
+
+    private Mono<LlmResponse> call() {
+        calls.incrementAndGet();
+        return upstream.asMono().doOnCancel(() -> cancelled.set(true));
+    }
+
+    private static LlmResponse response(String sessionId) {
+        return new LlmResponse("prompt", LlmProvider.OPENAI, "gpt-4o-mini", "answer", 10L, 3, sessionId);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.springai.service.impl;
+
+import com.example.springai.dto.ProviderStats;
+import com.example.springai.model.LlmProvider;
+import com.example.springai.model.LlmResponse;
+import com.example.springai.persistence.ResponsesPersistedEvent;
+import com.example.springai.provider.ProviderAdapter;
+import com.example.springai.repository.ProviderStatsBucketRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ProviderStatsServiceImplTest {
+
+    private final ProviderStatsBucketRepository repository = mock(ProviderStatsBucketRepository.class);
+    private ProviderStatsServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        ProviderAdapter adapter = mock(ProviderAdapter.class);
+        when(adapter.provider()).thenReturn(LlmProvider.OPENAI);
+        when(adapter.model()).thenReturn("gpt-4o-mini");
+        service = new ProviderStatsServiceImpl(repository, List.of(adapter));
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "memoryWindow", Duration.ofDays(7));
+    }
+
+    @Test
+    void errorsCountAgainstTheConfiguredModel() {
+        LocalDateTime now = LocalDateTime.now();
+        record(response("gpt-4o-mini", now), response("gpt-4o-mini", now), response("Error", now));
+
+        List<ProviderStats> stats = service.getStats(now.minusHours(1), now.plusHours(1), null, null, true);
+
+        assertThat(stats).singleElement().satisfies(row -> {
+            assertThat(row.getModel()).isEqualTo("gpt-4o-mini");
+            assertThat(row.getResponses()).isEqualTo(2);
+            assertThat(row.getErrors()).isEqualTo(1);
+            assertThat(row.getErrorRate()).isCloseTo(1.0 / 3, within(1e-9));
+        });
+    }
+
+    @Test
+    void bucketsPastTheMemoryWindowAreDroppedOnceSaved() {
+        LocalDateTime old = LocalDateTime.now().minusDays(10);
+        record(response("gpt-4o-mini", old));
+
+        service.persistBuckets();
+
+        verify(repository).save(any());
+        assertThat(inMemory(old)).isEmpty();
+    }
+
+    @Test
+    void bucketRecordedIntoDuringItsSaveIsKept() {
+        LocalDateTime old = LocalDateTime.now().minusDays(10);
+        record(response("gpt-4o-mini", old));
+        doAnswer(invocation -> {
+            record(response("gpt-4o-mini", old));
+            return invocation.getArgument(0);
+        }).when(repository).save(any());
+
+        service.persistBuckets();
+
+        assertThat(inMemory(old)).singleElement()
+                .satisfies(row -> assertThat(row.getResponses()).isEqualTo(2));
+    }
+
+    private void record(LlmResponse... responses) {
+        service.onResponsesPersisted(new ResponsesPersistedEvent(List.of(responses)));
+    }
+
+    /**
+     * Stats for the bucket of the given time as held in memory; the mocked repository has no rows.
+     */
+    private List<ProviderStats> inMemory(LocalDateTime at) {
+        return service.getStats(at.minusHours(1), at.plusHours(1), LlmProvider.OPENAI, null, true);
+    }
+
+    private static LlmResponse response(String model, LocalDateTime createdAt) {
+        LlmResponse response = new LlmResponse("prompt", LlmProvider.OPENAI, model, "answer", 100L, 10, "session");
+        response.setCreatedAt(createdAt);
+        return response;
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.springai.service.impl;
+
+import com.example.springai.model.ReportEntry;
+import com.example.springai.model.ReportFormat;
+import com.example.springai.repository.ReportEntryRepository;
+import com.example.springai.util.HashUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ReportCatalogServiceImplTest {
+
+    @TempDir
+    Path reportsDirectory;
+
+    private final ReportEntryRepository repository = mock(ReportEntryRepository.class);
+    private ReportCatalogServiceImpl catalog;
+
+    @BeforeEach
+    void setUp() {
+        when(repository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        catalog = new ReportCatalogServiceImpl(repository, reportsDirectory, 100);
+    }
+
+    @Test
+    void registeredReportsAreRecoveredFromTheirSidecar() throws IOException {
+        Path file = writeReport("3fa85f64-5717-4562-b3fc-2c963f66afa6", "# Report");
+        ReportEntry registered = catalog.register("3fa85f64-5717-4562-b3fc-2c963f66afa6", "session-1",
+                ReportFormat.MARKDOWN, file, "checksum-1");
+
+        // A fresh database knows none of the files
+        assertThat(catalog.rebuildCatalog()).isEqualTo(1);
+
+        ReportEntry recovered = savedEntries().get(0);
+        assertThat(recovered.getReportId()).isEqualTo("3fa85f64-5717-4562-b3fc-2c963f66afa6");
+        assertThat(recovered.getSessionId()).isEqualTo("session-1");
+        assertThat(recovered.getFormat()).isEqualTo(ReportFormat.MARKDOWN);
+        assertThat(recovered.getPath()).isEqualTo(registered.getPath());
+        assertThat(recovered.getChecksum()).isEqualTo("checksum-1");
+        assertThat(recovered.getCreatedAt()).isEqualTo(registered.getCreatedAt());
+        assertThat(catalog.resolve(recovered)).isEqualTo(file);
+    }
+
+    @Test
+    void filesWithoutASidecarAreRecoveredFromTheirName() throws IOException {
+        writeReport("7c9e6679-7425-40de-944b-e07fc1f90ae7", "# Old report");
+
+        assertThat(catalog.rebuildCatalog()).isEqualTo(1);
+
+        ReportEntry recovered = savedEntries().get(0);
+        assertThat(recovered.getSessionId()).isEqualTo("7c9e6679-7425-40de-944b-e07fc1f90ae7");
+        assertThat(recovered.getSizeBytes()).isEqualTo(12);
+        assertThat(recovered.getChecksum()).isEqualTo(HexFormat.of().formatHex(
+                HashUtils.newSha256().digest("# Old report".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    void legacyFilesWrittenAtTheSameTimeGetTheirOwnIds() throws IOException {
+        Files.createDirectories(reportsDirectory.resolve("old"));
+        Files.writeString(reportsDirectory.resolve("llm_comparison_2025-03-01_10-00-00.md"), "# March");
+        Files.writeString(reportsDirectory.resolve("llm_comparison_2025-03-01_10-00-00.json"), "{}");
+        Files.writeString(reportsDirectory.resolve("old/llm_comparison_2025-04-01_10-00-00.md"), "# April");
+
+        assertThat(catalog.rebuildCatalog()).isEqualTo(3);
+
+        assertThat(savedEntries())
+                .extracting(ReportEntry::getReportId)
+                .doesNotHaveDuplicates()
+                .allSatisfy(id -> assertThat(id).hasSize(36).doesNotContain("10-00-00"));
+    }
+
+    @Test
+    void legacyIdsAreStableAcrossRestarts() throws IOException {
+        Files.writeString(reportsDirectory.resolve("llm_comparison_2025-03-01_10-00-00.md"), "# March");
+        catalog.rebuildCatalog();
+        String reportId = savedEntries().get(0).getReportId();
+        when(repository.findAllReportIds()).thenReturn(List.of(reportId));
+        clearInvocations(repository);
+
+        assertThat(catalog.rebuildCatalog()).isZero();
+        verify(repository, never()).saveAll(any());
+    }
+
+    @Test
+    void aFailingRowDoesNotStopTheRest() throws IOException {
+        Files.writeString(reportsDirectory.resolve("llm_comparison_2025-03-01_10-00-00.md"), "# March");
+        Files.writeString(reportsDirectory.resolve("llm_comparison_2025-03-02_10-00-00.md"), "# Broken");
+        when(repository.saveAll(any())).thenThrow(new IllegalStateException("constraint violation"));
+        when(repository.save(any())).thenAnswer(invocation -> {
+            ReportEntry entry = invocation.getArgument(0);
+            if (entry.getPath().contains("03-02")) {
+                throw new IllegalStateException("constraint violation");
+            }
+            return entry;
+        });
+
+        assertThat(catalog.rebuildCatalog()).isEqualTo(1);
+    }
+
+    @Test
+    void cataloguedAndNonReportFilesAreSkipped() throws IOException {
+        writeReport("3fa85f64-5717-4562-b3fc-2c963f66afa6", "# Report");
+        Files.writeString(reportsDirectory.resolve("comparison_report_x.md.tmp"), "partial");
+        Files.writeString(reportsDirectory.resolve("notes.txt"), "unrelated");
+        when(repository.findAllReportIds()).thenReturn(List.of("3fa85f64-5717-4562-b3fc-2c963f66afa6"));
+
+        assertThat(catalog.rebuildCatalog()).isZero();
+    }
+
+    @Test
+    void retentionRemovesTheSidecarWithTheReport() throws IOException {
+        Path file = writeReport("3fa85f64-5717-4562-b3fc-2c963f66afa6", "# Report");
+        ReportEntry entry = catalog.register("3fa85f64-5717-4562-b3fc-2c963f66afa6", "session-1",
+                ReportFormat.MARKDOWN, file, "checksum-1");
+        when(repository.findTop500ByCreatedAtBeforeOrderByCreatedAtAsc(any()))
+                .thenReturn(List.of(entry))
+                .thenReturn(List.of());
+        ReflectionTestUtils.setField(catalog, "maxAge", Duration.ZERO);
+        ReflectionTestUtils.setField(catalog, "maxFiles", 100L);
+
+        assertThat(catalog.applyRetention()).isEqualTo(1);
+
+        try (Stream<Path> remaining = Files.list(reportsDirectory)) {
+            assertThat(remaining).isEmpty();
+        }
+    }
+
+    private Path writeReport(String reportId, String content) throws IOException {
+        Path file = catalog.newReportPath(reportId, "comparison_report", ReportFormat.MARKDOWN);
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, content);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ReportEntry> savedEntries() {
+        ArgumentCaptor<List<ReportEntry>> saved = ArgumentCaptor.forClass(List.class);
+        verify(repository, atLeastOnce()).saveAll(saved.capture());
+        return saved.getAllValues().stream().flatMap(List::stream).toList();
+    }
+}
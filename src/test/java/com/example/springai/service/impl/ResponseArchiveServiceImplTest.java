@@ -0,0 +1,134 @@
+package com.example.springai.service.impl;
+
+import com.example.springai.archive.ResponseArchiveWriter;
+import com.example.springai.model.ArchivePartition;
+import com.example.springai.model.LlmProvider;
+import com.example.springai.model.LlmResponse;
+import com.example.springai.repository.ArchivePartitionRepository;
+import com.example.springai.repository.LlmResponseRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ResponseArchiveServiceImplTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2026, 1, 15, 0, 0);
+
+    @TempDir
+    Path archiveDirectory;
+
+    private final LlmResponseRepository responseRepository = mock(LlmResponseRepository.class);
+    private final ArchivePartitionRepository partitionRepository = mock(ArchivePartitionRepository.class);
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private ResponseArchiveServiceImpl archive;
+
+    @BeforeEach
+    void setUp() {
+        when(entityManager.createNativeQuery(anyString())).thenReturn(mock(Query.class));
+        archive = new ResponseArchiveServiceImpl(responseRepository, partitionRepository,
+                mock(PlatformTransactionManager.class), archiveDirectory, 16);
+        ReflectionTestUtils.setField(archive, "entityManager", entityManager);
+    }
+
+    @Test
+    void unregisteredPartitionsAreRecoveredFromTheirFooter() throws IOException {
+        Path file = writePartition("2026/01/responses_2026-01-15_0.llma", 100, 5);
+
+        archive.recoverPartitions();
+
+        ArgumentCaptor<ArchivePartition> saved = ArgumentCaptor.forClass(ArchivePartition.class);
+        verify(partitionRepository).save(saved.capture());
+        ArchivePartition partition = saved.getValue();
+        assertThat(partition.getPath()).isEqualTo("2026/01/responses_2026-01-15_0.llma");
+        assertThat(partition.getPartitionDate()).isEqualTo(LocalDate.of(2026, 1, 15));
+        assertThat(partition.getRowCount()).isEqualTo(5);
+        assertThat(partition.getMinResponseId()).isEqualTo(100);
+        assertThat(partition.getMaxResponseId()).isEqualTo(104);
+        assertThat(partition.getMinCreatedAt()).isEqualTo(DAY);
+        assertThat(partition.getMaxCreatedAt()).isEqualTo(DAY.plusMinutes(4));
+        assertThat(partition.getSizeBytes()).isEqualTo(Files.size(file));
+    }
+
+    @Test
+    void registeredPartitionsAreLeftAlone() throws IOException {
+        writePartition("2026/01/responses_2026-01-15_0.llma", 100, 5);
+        when(partitionRepository.existsByPath("2026/01/responses_2026-01-15_0.llma")).thenReturn(true);
+
+        archive.recoverPartitions();
+
+        verify(partitionRepository, never()).save(any());
+    }
+
+    @Test
+    void partitionWhoseRowsAreStillInTheDatabaseIsRemoved() throws IOException {
+        Path file = writePartition("2026/01/responses_2026-01-15_0.llma", 100, 5);
+        when(responseRepository.existsById(100L)).thenReturn(true);
+
+        archive.recoverPartitions();
+
+        verify(partitionRepository, never()).save(any());
+        assertThat(file).doesNotExist();
+    }
+
+    @Test
+    void leftoverTemporaryFilesAreRemoved() throws IOException {
+        Path temp = archiveDirectory.resolve("responses_2026-01-15_0.llma.tmp");
+        Files.writeString(temp, "partial");
+
+        archive.recoverPartitions();
+
+        assertThat(temp).doesNotExist();
+        verify(partitionRepository, never()).save(any());
+    }
+
+    @Test
+    void responseIdsMovePastTheHighestArchivedId() throws IOException {
+        when(partitionRepository.findMaxResponseId()).thenReturn(104L);
+
+        archive.recoverPartitions();
+
+        verify(entityManager).createNativeQuery("alter sequence llm_responses_seq restart with 155");
+    }
+
+    @Test
+    void responseIdsAreLeftAloneWhenTheDatabaseIsAhead() throws IOException {
+        when(partitionRepository.findMaxResponseId()).thenReturn(104L);
+        when(responseRepository.findMaxId()).thenReturn(500L);
+
+        archive.recoverPartitions();
+
+        verify(entityManager, never()).createNativeQuery(anyString());
+    }
+
+    private Path writePartition(String path, long firstId, int rows) throws IOException {
+        Path file = archiveDirectory.resolve(path);
+        Files.createDirectories(file.getParent());
+        try (ResponseArchiveWriter writer = new ResponseArchiveWriter(file, 4, 3)) {
+            for (int i = 0; i < rows; i++) {
+                LlmResponse row = new LlmResponse("prompt", LlmProvider.OPENAI, "gpt-4o-mini", "answer " + i,
+                        100L, 10, "session");
+                row.setId(firstId + i);
+                row.setCreatedAt(DAY.plusMinutes(i));
+                writer.append(row);
+            }
+            writer.finish();
+        }
+        return file;
+    }
+}
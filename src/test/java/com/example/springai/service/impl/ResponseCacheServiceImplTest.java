@@ -0,0 +1,60 @@
+package com.example.springai.service.impl;
+
+import com.example.springai.model.LlmProvider;
+import com.example.springai.model.LlmResponse;
+import com.example.springai.repository.LlmResponseRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ResponseCacheServiceImplTest {
+
+    private static final Duration TTL = Duration.ofSeconds(2);
+
+    private final LlmResponseRepository repository = mock(LlmResponseRepository.class);
+    private final ResponseCacheServiceImpl service =
+            new ResponseCacheServiceImpl(repository, true, 100, TTL, true, new SimpleMeterRegistry());
+
+    @Test
+    void persistentHitKeepsOnlyTheRowsRemainingLifetime() throws InterruptedException {
+        LlmResponse stored = response("hash");
+        stored.setCreatedAt(LocalDateTime.now().minus(TTL).plus(Duration.ofMillis(300)));
+        when(repository.findFirstByRequestHashAndCacheHitFalseAndCreatedAtAfterOrderByCreatedAtDesc(
+                eq("hash"), any())).thenReturn(Optional.of(stored));
+
+        assertThat(service.lookup("hash", "s1").block()).isNotNull();
+        Thread.sleep(600);
+        assertThat(service.lookup("hash", "s2").block()).isNotNull();
+
+        // The refilled entry expired with the row, so the second lookup went back to the table
+        verify(repository, times(2))
+                .findFirstByRequestHashAndCacheHitFalseAndCreatedAtAfterOrderByCreatedAtDesc(eq("hash"), any());
+    }
+
+    @Test
+    void freshResponsesAreServedFromMemoryForTheFullTtl() {
+        service.store("hash", response("hash"));
+
+        LlmResponse hit = service.lookup("hash", "s2").block();
+
+        assertThat(hit).isNotNull();
+        assertThat(hit.isCacheHit()).isTrue();
+        assertThat(hit.getSessionId()).isEqualTo("s2");
+        verifyNoInteractions(repository);
+    }
+
+    private static LlmResponse response(String requestHash) {
+        LlmResponse response = new LlmResponse("prompt", LlmProvider.OPENAI, "gpt-4o-mini",
+                "answer", 120L, 10, "s1");
+        response.setRequestHash(requestHash);
+        return response;
+    }
+}
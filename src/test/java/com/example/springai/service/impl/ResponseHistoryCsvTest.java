@@ -0,0 +1,42 @@
+package com.example.springai.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseHistoryCsvTest {
+
+    @Test
+    void plainValuesAreNotQuoted() throws IOException {
+        assertThat(field("gpt-4o-mini")).isEqualTo("gpt-4o-mini");
+        assertThat(field("two words")).isEqualTo("two words");
+    }
+
+    @Test
+    void valuesWithSeparatorsOrLineBreaksAreQuoted() throws IOException {
+        assertThat(field("a,b")).isEqualTo("\"a,b\"");
+        assertThat(field("line one\nline two")).isEqualTo("\"line one\nline two\"");
+        assertThat(field("carriage\rreturn")).isEqualTo("\"carriage\rreturn\"");
+    }
+
+    @Test
+    void quotesAreDoubledInsideQuotedValues() throws IOException {
+        assertThat(field("say \"hi\"")).isEqualTo("\"say \"\"hi\"\"\"");
+        assertThat(field("\"")).isEqualTo("\"\"\"\"");
+    }
+
+    @Test
+    void nullAndEmptyValuesWriteNothing() throws IOException {
+        assertThat(field(null)).isEmpty();
+        assertThat(field("")).isEmpty();
+    }
+
+    private static String field(String value) throws IOException {
+        StringWriter writer = new StringWriter();
+        ResponseHistoryServiceImpl.writeCsvField(writer, value);
+        return writer.toString();
+    }
+}
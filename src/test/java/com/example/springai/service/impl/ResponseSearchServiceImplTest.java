@@ -0,0 +1,108 @@
+package com.example.springai.service.impl;
+
+import com.example.springai.archive.ArchiveFilter;
+import com.example.springai.dto.SearchResult;
+import com.example.springai.model.LlmProvider;
+import com.example.springai.model.LlmResponse;
+import com.example.springai.persistence.ResponsesPersistedEvent;
+import com.example.springai.repository.LlmResponseRepository;
+import com.example.springai.service.ResponseArchiveService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ResponseSearchServiceImplTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    private final LlmResponseRepository responseRepository = mock(LlmResponseRepository.class);
+    private final ResponseArchiveService archiveService = mock(ResponseArchiveService.class);
+    private ResponseSearchServiceImpl search;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        search = new ResponseSearchServiceImpl(responseRepository, archiveService);
+        ReflectionTestUtils.setField(search, "indexPath", "");
+        // Refreshed explicitly by the tests
+        ReflectionTestUtils.setField(search, "refreshInterval", Duration.ofHours(1));
+        search.openIndex();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        search.closeIndex();
+    }
+
+    @Test
+    void rebuildIndexesDatabaseAndArchivedRows() throws Exception {
+        LlmResponse newest = response(3, "live answer about kafka", NOON);
+        LlmResponse older = response(2, "live answer about redis", NOON.minusHours(1));
+        when(responseRepository.findRecentPage(any())).thenReturn(List.of(newest));
+        when(responseRepository.findRecentPageBefore(eq(newest.getCreatedAt()), eq(3L), any()))
+                .thenReturn(List.of(older));
+        when(responseRepository.findRecentPageBefore(eq(older.getCreatedAt()), eq(2L), any()))
+                .thenReturn(List.of());
+        LlmResponse archived = response(1, "archived answer about kafka", NOON.minusDays(100));
+        when(archiveService.scan(any(), any())).thenAnswer(invocation -> {
+            Predicate<LlmResponse> consumer = invocation.getArgument(1);
+            consumer.test(archived);
+            return 1L;
+        });
+        when(responseRepository.findAllById(any())).thenReturn(List.of(newest));
+        when(archiveService.findByIds(List.of(1L))).thenReturn(List.of(archived));
+
+        search.rebuildIfEmpty();
+        awaitIndexer();
+
+        SearchResult result = search.search("kafka", null, null, null, null, 0, 10);
+        assertThat(result.getTotalHits()).isEqualTo(2);
+        assertThat(result.getResults()).extracting(LlmResponse::getId).containsExactlyInAnyOrder(3L, 1L);
+        verify(archiveService).scan(eq(ArchiveFilter.all()), any());
+    }
+
+    @Test
+    void persistedRowsAreIndexedOffTheCallingThread() throws Exception {
+        search.onResponsesPersisted(new ResponsesPersistedEvent(List.of(response(1, "answer", NOON))));
+        awaitIndexer();
+
+        assertThat(search.search("answer", null, null, null, null, 0, 10).getTotalHits()).isEqualTo(1);
+    }
+
+    @Test
+    void upperBoundIsExclusive() throws Exception {
+        search.onResponsesPersisted(new ResponsesPersistedEvent(List.of(
+                response(1, "answer", NOON.minusNanos(1_000_000)),
+                response(2, "answer", NOON))));
+        awaitIndexer();
+
+        assertThat(search.search(null, null, null, NOON.minusHours(1), NOON, 0, 10).getTotalHits()).isEqualTo(1);
+        assertThat(search.search(null, null, null, NOON, null, 0, 10).getTotalHits()).isEqualTo(1);
+    }
+
+    /**
+     * Waits for the indexing thread to drain, then makes the changes visible.
+     */
+    private void awaitIndexer() throws Exception {
+        ExecutorService indexer = (ExecutorService) ReflectionTestUtils.getField(search, "refresher");
+        indexer.submit(() -> ReflectionTestUtils.invokeMethod(search, "refresh")).get();
+    }
+
+    private static LlmResponse response(long id, String text, LocalDateTime createdAt) {
+        LlmResponse response = new LlmResponse("prompt", LlmProvider.OPENAI, "gpt-4o-mini", text, 100L, 10, "session");
+        response.setId(id);
+        response.setCreatedAt(createdAt);
+        return response;
+    }
+}